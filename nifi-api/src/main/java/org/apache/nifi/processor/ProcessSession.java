@@ -18,6 +18,8 @@ package org.apache.nifi.processor;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.List;
@@ -863,6 +865,32 @@ public interface ProcessSession {
      */
     void exportTo(FlowFile flowFile, OutputStream destination);
 
+    /**
+     * Writes the content of the given FlowFile to the given channel. When the
+     * content is stored in files, the framework may transfer it directly from
+     * the file to the channel (for example, to a socket) without copying it
+     * into the JVM's heap. The channel must be in blocking mode and is not
+     * closed by this method.
+     *
+     * @param flowFile to export the content of
+     * @param destination the channel to write the content to
+     * @throws IllegalStateException if detected that this method is being
+     * called from within a callback of another method in this session and for
+     * the given FlowFile(s)
+     * @throws FlowFileHandlingException if the given FlowFile is already
+     * transferred or removed or doesn't belong to this session. Automatic
+     * rollback will occur.
+     * @throws MissingFlowFileException if the given FlowFile content cannot be
+     * found. The FlowFile should no longer be reference, will be internally
+     * destroyed, and the session is automatically rolled back and what is left
+     * of the FlowFile is destroyed.
+     * @throws FlowFileAccessException if some IO problem occurs accessing
+     * FlowFile content
+     */
+    default void exportTo(FlowFile flowFile, WritableByteChannel destination) {
+        exportTo(flowFile, Channels.newOutputStream(destination));
+    }
+
     /**
      * Returns a ProvenanceReporter that is tied to this ProcessSession.
      *
@@ -35,6 +35,12 @@ public interface BulletinRepository {
      */
     void addBulletin(Bulletin bulletin);
 
+    /**
+     * @return the time, in epoch milliseconds, at which the most recent Bulletin was added to the repository,
+     *         or 0 if no Bulletin has been added
+     */
+    long getLastBulletinTime();
+
     /**
      * @return the capacity for the number of bulletins for the controller
      */
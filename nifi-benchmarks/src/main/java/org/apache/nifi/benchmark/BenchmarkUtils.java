@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark;
+
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.StandardFlowFileRecord;
+import org.apache.nifi.util.NiFiProperties;
+import org.apache.nifi.util.file.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Utility methods shared by the benchmarks for standing up repositories and FlowFiles outside of a running instance.
+ */
+public final class BenchmarkUtils {
+
+    private BenchmarkUtils() {
+    }
+
+    /**
+     * Creates a new, empty directory under the system temp directory for a benchmark to store its repositories in.
+     *
+     * @param prefix the prefix of the directory name
+     * @return the newly created directory
+     * @throws IOException if unable to create the directory
+     */
+    public static File createTempDirectory(final String prefix) throws IOException {
+        return Files.createTempDirectory(prefix).toFile();
+    }
+
+    /**
+     * Deletes the given directory and all of its contents, ignoring any failure.
+     *
+     * @param directory the directory to delete
+     */
+    public static void deleteQuietly(final File directory) {
+        if (directory == null) {
+            return;
+        }
+
+        try {
+            FileUtils.deleteFile(directory, true);
+        } catch (final IOException ignored) {
+        }
+    }
+
+    /**
+     * Creates NiFiProperties whose FlowFile, content and provenance repositories all live under the given directory,
+     * with content archiving disabled so that the benchmarks measure the write path rather than archive cleanup.
+     *
+     * @param repositoryRoot the directory that the repositories should be created in
+     * @param additionalProperties any additional properties to set, or <code>null</code>
+     * @return the properties
+     */
+    public static NiFiProperties createNiFiProperties(final File repositoryRoot, final Map<String, String> additionalProperties) {
+        final Map<String, String> properties = new HashMap<>();
+        properties.put(NiFiProperties.FLOWFILE_REPOSITORY_DIRECTORY, new File(repositoryRoot, "flowfile_repository").getAbsolutePath());
+        properties.put(NiFiProperties.REPOSITORY_CONTENT_PREFIX + "default", new File(repositoryRoot, "content_repository").getAbsolutePath());
+        properties.put(NiFiProperties.CONTENT_ARCHIVE_ENABLED, "false");
+        properties.put(NiFiProperties.FLOWFILE_REPOSITORY_CHECKPOINT_INTERVAL, "2 mins");
+
+        if (additionalProperties != null) {
+            properties.putAll(additionalProperties);
+        }
+
+        return NiFiProperties.createBasicNiFiProperties(null, properties);
+    }
+
+    /**
+     * Creates a FlowFile with the given id, size and a configurable number of attributes, in addition to the core
+     * 'uuid', 'filename' and 'path' attributes.
+     *
+     * @param id the id of the FlowFile
+     * @param size the size of the FlowFile's content
+     * @param numAttributes the number of additional attributes to add
+     * @return the FlowFile
+     */
+    public static FlowFileRecord createFlowFile(final long id, final long size, final int numAttributes) {
+        final StandardFlowFileRecord.Builder builder = new StandardFlowFileRecord.Builder()
+            .id(id)
+            .size(size)
+            .entryDate(System.currentTimeMillis())
+            .lineageStart(System.currentTimeMillis(), 0L)
+            .addAttribute("uuid", UUID.randomUUID().toString())
+            .addAttribute("filename", "file-" + id)
+            .addAttribute("path", "./");
+
+        for (int i = 0; i < numAttributes; i++) {
+            builder.addAttribute("attribute." + i, "value-" + i);
+        }
+
+        return builder.build();
+    }
+}
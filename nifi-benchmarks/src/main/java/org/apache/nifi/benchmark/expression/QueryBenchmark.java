@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark.expression;
+
+import org.apache.nifi.attribute.expression.language.PreparedQuery;
+import org.apache.nifi.attribute.expression.language.Query;
+import org.apache.nifi.attribute.expression.language.StandardEvaluationContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of evaluating already-prepared Expression Language queries against a FlowFile's attributes, as is done by
+ * UpdateAttribute and RouteOnAttribute for every FlowFile, as well as the cost of preparing (parsing and compiling) a query.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QueryBenchmark {
+
+    @Param({
+        "${filename}",
+        "${filename:toUpper():substringBefore('.')}",
+        "${size:gt(1024):and(${mime.type:startsWith('text')})}",
+        "${attribute.7:replaceAll('value-([0-9]+)', 'v$1'):append('-'):append(${uuid})}",
+        "${allMatchingAttributes('attribute.*'):contains('value')}",
+        "${now():toNumber():minus(${entryDate}):gt(60000)}"
+    })
+    public String expression;
+
+    private PreparedQuery preparedQuery;
+    private Map<String, String> attributes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        preparedQuery = Query.prepare(expression);
+
+        attributes = new HashMap<>();
+        attributes.put("uuid", "5c6b07c3-4b2a-4a4c-9e46-34a2f9c8e3b1");
+        attributes.put("filename", "benchmark-file.txt");
+        attributes.put("path", "./");
+        attributes.put("size", "4096");
+        attributes.put("mime.type", "text/plain");
+        attributes.put("entryDate", String.valueOf(System.currentTimeMillis()));
+        for (int i = 0; i < 20; i++) {
+            attributes.put("attribute." + i, "value-" + i);
+        }
+    }
+
+    @Benchmark
+    public String evaluate() {
+        return preparedQuery.evaluateExpressions(new StandardEvaluationContext(attributes), null);
+    }
+
+    @Benchmark
+    public PreparedQuery prepare() {
+        return Query.prepare(expression);
+    }
+}
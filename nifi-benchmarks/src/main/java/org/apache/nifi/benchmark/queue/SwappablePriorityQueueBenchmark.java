@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark.queue;
+
+import org.apache.nifi.benchmark.BenchmarkUtils;
+import org.apache.nifi.controller.queue.DropFlowFileAction;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.queue.QueueSize;
+import org.apache.nifi.controller.queue.SwappablePriorityQueue;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.FlowFileSwapManager;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.flowfile.FlowFilePrioritizer;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of offering a FlowFile to and polling a FlowFile from a {@link SwappablePriorityQueue} that already
+ * holds a backlog of FlowFiles, both with and without a prioritizer configured and both uncontended and with several
+ * concurrent tasks. The swap threshold is set above the backlog so that the swap manager is never invoked.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SwappablePriorityQueueBenchmark {
+    private static final int SWAP_THRESHOLD = 1_000_000;
+
+    @Param({"FIFO", "PRIORITIZED"})
+    public String ordering;
+
+    @Param({"1000", "100000"})
+    public int backlog;
+
+    private SwappablePriorityQueue queue;
+    private final AtomicLong idGenerator = new AtomicLong(0L);
+
+    @State(Scope.Thread)
+    public static class TaskState {
+        private final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        private FlowFileRecord flowFile;
+
+        @Setup(Level.Trial)
+        public void setup(final SwappablePriorityQueueBenchmark benchmark) {
+            flowFile = BenchmarkUtils.createFlowFile(benchmark.idGenerator.getAndIncrement(), 1024L, 10);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final FlowFileQueue flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        Mockito.when(flowFileQueue.getIdentifier()).thenReturn("benchmark-queue");
+
+        final DropFlowFileAction dropAction = (flowFiles, requestor) -> new QueueSize(flowFiles.size(), flowFiles.stream().mapToLong(FlowFileRecord::getSize).sum());
+        queue = new SwappablePriorityQueue(Mockito.mock(FlowFileSwapManager.class), SWAP_THRESHOLD, EventReporter.NO_OP, flowFileQueue, dropAction, "benchmark");
+
+        if ("PRIORITIZED".equals(ordering)) {
+            final FlowFilePrioritizer prioritizer = (o1, o2) -> Long.compare(o1.getSize(), o2.getSize());
+            queue.setPriorities(Collections.singletonList(prioritizer));
+        }
+
+        for (int i = 0; i < backlog; i++) {
+            queue.put(BenchmarkUtils.createFlowFile(idGenerator.getAndIncrement(), 1024L, 10));
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public FlowFileRecord offerAndPoll(final TaskState state) {
+        return offerAndPoll(queue, state);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public FlowFileRecord offerAndPollContended(final TaskState state) {
+        return offerAndPoll(queue, state);
+    }
+
+    private static FlowFileRecord offerAndPoll(final SwappablePriorityQueue queue, final TaskState state) {
+        queue.put(state.flowFile);
+
+        final FlowFileRecord polled = queue.poll(state.expiredRecords, 0L);
+        queue.acknowledge(polled);
+
+        // Hold on to whichever FlowFile was polled so that the same FlowFile is never in the queue twice.
+        state.flowFile = polled;
+        return polled;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark.record;
+
+import org.apache.avro.Schema;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.nifi.avro.AvroReaderWithExplicitSchema;
+import org.apache.nifi.avro.AvroTypeUtil;
+import org.apache.nifi.avro.WriteAvroResultWithExternalSchema;
+import org.apache.nifi.csv.CSVRecordReader;
+import org.apache.nifi.csv.WriteCSVResult;
+import org.apache.nifi.json.JsonTreeRowRecordReader;
+import org.apache.nifi.json.OutputGrouping;
+import org.apache.nifi.json.WriteJsonResult;
+import org.apache.nifi.logging.ComponentLog;
+import org.apache.nifi.record.NullSuppression;
+import org.apache.nifi.schema.access.NopSchemaAccessWriter;
+import org.apache.nifi.serialization.MalformedRecordException;
+import org.apache.nifi.serialization.RecordReader;
+import org.apache.nifi.serialization.RecordSetWriter;
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.MapRecord;
+import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.serialization.record.RecordSchema;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput, per record, of reading and writing a FlowFile's worth of records with the Avro, CSV and JSON
+ * record readers and writers, as used by ConvertRecord, QueryRecord, PartitionRecord and friends.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RecordReaderWriterBenchmark {
+    static final int RECORDS_PER_FLOWFILE = 1000;
+
+    private static final String DATE_FORMAT = RecordFieldType.DATE.getDefaultFormat();
+    private static final String TIME_FORMAT = RecordFieldType.TIME.getDefaultFormat();
+    private static final String TIMESTAMP_FORMAT = RecordFieldType.TIMESTAMP.getDefaultFormat();
+
+    @Param({"AVRO", "CSV", "JSON"})
+    public String format;
+
+    private final ComponentLog logger = Mockito.mock(ComponentLog.class);
+    private RecordSchema schema;
+    private Schema avroSchema;
+    private List<Record> records;
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("id", RecordFieldType.LONG.getDataType()));
+        fields.add(new RecordField("name", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("balance", RecordFieldType.DOUBLE.getDataType()));
+        fields.add(new RecordField("active", RecordFieldType.BOOLEAN.getDataType()));
+        fields.add(new RecordField("address", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("city", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("state", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("zipCode", RecordFieldType.INT.getDataType()));
+        schema = new SimpleRecordSchema(fields);
+        avroSchema = AvroTypeUtil.extractAvroSchema(schema);
+
+        records = new ArrayList<>(RECORDS_PER_FLOWFILE);
+        for (int i = 0; i < RECORDS_PER_FLOWFILE; i++) {
+            final Map<String, Object> values = new HashMap<>();
+            values.put("id", (long) i);
+            values.put("name", "Person " + i);
+            values.put("balance", i * 10.5D);
+            values.put("active", i % 2 == 0);
+            values.put("address", i + " Main Street");
+            values.put("city", "Springfield");
+            values.put("state", "MA");
+            values.put("zipCode", 10000 + i);
+            records.add(new MapRecord(schema, values));
+        }
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        writeRecords(baos);
+        serialized = baos.toByteArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS_PER_FLOWFILE)
+    public void read(final Blackhole blackhole) throws IOException, MalformedRecordException {
+        try (final RecordReader reader = createReader(new ByteArrayInputStream(serialized))) {
+            Record record;
+            while ((record = reader.nextRecord()) != null) {
+                blackhole.consume(record);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS_PER_FLOWFILE)
+    public int write() throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream(serialized.length);
+        writeRecords(baos);
+        return baos.size();
+    }
+
+    private void writeRecords(final OutputStream out) throws IOException {
+        try (final RecordSetWriter writer = createWriter(out)) {
+            writer.beginRecordSet();
+            for (final Record record : records) {
+                writer.write(record);
+            }
+            writer.finishRecordSet();
+        }
+    }
+
+    private RecordReader createReader(final InputStream in) throws IOException, MalformedRecordException {
+        switch (format) {
+            case "AVRO":
+                return new AvroReaderWithExplicitSchema(in, schema, avroSchema);
+            case "CSV":
+                return new CSVRecordReader(in, logger, schema, CSVFormat.DEFAULT, true, false, DATE_FORMAT, TIME_FORMAT, TIMESTAMP_FORMAT, "UTF-8");
+            case "JSON":
+                return new JsonTreeRowRecordReader(in, logger, schema, DATE_FORMAT, TIME_FORMAT, TIMESTAMP_FORMAT);
+            default:
+                throw new IllegalArgumentException("Unknown format " + format);
+        }
+    }
+
+    private RecordSetWriter createWriter(final OutputStream out) throws IOException {
+        switch (format) {
+            case "AVRO":
+                return new WriteAvroResultWithExternalSchema(avroSchema, schema, new NopSchemaAccessWriter(), out, new LinkedBlockingQueue<>(1), logger);
+            case "CSV":
+                return new WriteCSVResult(CSVFormat.DEFAULT, schema, new NopSchemaAccessWriter(), out, DATE_FORMAT, TIME_FORMAT, TIMESTAMP_FORMAT, true, "UTF-8");
+            case "JSON":
+                return new WriteJsonResult(logger, schema, new NopSchemaAccessWriter(), out, false, NullSuppression.NEVER_SUPPRESS, OutputGrouping.OUTPUT_ARRAY,
+                    DATE_FORMAT, TIME_FORMAT, TIMESTAMP_FORMAT);
+            default:
+                throw new IllegalArgumentException("Unknown format " + format);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark.repository;
+
+import org.apache.nifi.benchmark.BenchmarkUtils;
+import org.apache.nifi.controller.repository.FileSystemRepository;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.stream.io.StreamUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of writing a new Content Claim to, and reading an existing Content Claim from, the
+ * {@link FileSystemRepository}. Written claims are released immediately so that the repository's background
+ * tasks keep disk usage bounded for the duration of the run.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileSystemRepositoryBenchmark {
+    private static final int READABLE_CLAIMS = 10_000;
+
+    @Param({"100", "4096", "1048576"})
+    public int contentSize;
+
+    private File repositoryRoot;
+    private FileSystemRepository repository;
+    private byte[] content;
+    private ContentClaim[] readableClaims;
+
+    @State(Scope.Thread)
+    public static class ReaderState {
+        private byte[] buffer;
+        private int index;
+
+        @Setup(Level.Trial)
+        public void setup(final FileSystemRepositoryBenchmark benchmark) {
+            buffer = new byte[benchmark.contentSize];
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        repositoryRoot = BenchmarkUtils.createTempDirectory("content-repo-benchmark");
+        repository = new FileSystemRepository(BenchmarkUtils.createNiFiProperties(repositoryRoot, null));
+        repository.initialize(new StandardResourceClaimManager());
+
+        content = new byte[contentSize];
+        new Random(1L).nextBytes(content);
+
+        final int claimCount = (int) Math.min(READABLE_CLAIMS, (256L * 1024 * 1024) / contentSize);
+        readableClaims = new ContentClaim[claimCount];
+        for (int i = 0; i < claimCount; i++) {
+            readableClaims[i] = writeClaim();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        repository.shutdown();
+        BenchmarkUtils.deleteQuietly(repositoryRoot);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public ContentClaim write() throws IOException {
+        return writeAndRelease();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public ContentClaim writeContended() throws IOException {
+        return writeAndRelease();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int read(final ReaderState state) throws IOException {
+        return readNext(state);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int readContended(final ReaderState state) throws IOException {
+        return readNext(state);
+    }
+
+    private ContentClaim writeAndRelease() throws IOException {
+        final ContentClaim claim = writeClaim();
+        repository.decrementClaimantCount(claim);
+        return claim;
+    }
+
+    private ContentClaim writeClaim() throws IOException {
+        final ContentClaim claim = repository.create(false);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write(content);
+        }
+
+        return claim;
+    }
+
+    private int readNext(final ReaderState state) throws IOException {
+        final ContentClaim claim = readableClaims[state.index++ % readableClaims.length];
+        try (final InputStream in = repository.read(claim)) {
+            return StreamUtils.fillBuffer(in, state.buffer, true);
+        }
+    }
+}
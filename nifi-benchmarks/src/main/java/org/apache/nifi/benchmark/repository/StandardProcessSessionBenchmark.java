@@ -0,0 +1,243 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark.repository;
+
+import org.apache.nifi.benchmark.BenchmarkUtils;
+import org.apache.nifi.connectable.Connectable;
+import org.apache.nifi.connectable.ConnectableType;
+import org.apache.nifi.connectable.Connection;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.FileSystemRepository;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.RepositoryContext;
+import org.apache.nifi.controller.repository.StandardCounterRepository;
+import org.apache.nifi.controller.repository.StandardProcessSession;
+import org.apache.nifi.controller.repository.WriteAheadFlowFileRepository;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.apache.nifi.controller.repository.metrics.RingBufferEventRepository;
+import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.processor.Relationship;
+import org.apache.nifi.provenance.VolatileProvenanceRepository;
+import org.apache.nifi.util.NiFiProperties;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the full cost of a {@link StandardProcessSession} from creation through commit, using the
+ * {@link WriteAheadFlowFileRepository}, {@link FileSystemRepository}, {@link RingBufferEventRepository} and
+ * {@link VolatileProvenanceRepository}. The component under test is wired with a single self-looping connection so that
+ * FlowFiles that are transferred are available to be pulled again, keeping the size of the repositories constant.
+ * The connection itself is a simple unbounded queue so that the session, rather than the connection, is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StandardProcessSessionBenchmark {
+    private static final Relationship REL_SUCCESS = new Relationship.Builder().name("success").build();
+    private static final Relationship REL_TERMINATED = new Relationship.Builder().name("terminated").build();
+
+    @Param({"10", "1024"})
+    public int contentSize;
+
+    @Param({"5", "50"})
+    public int numAttributes;
+
+    private File repositoryRoot;
+    private WriteAheadFlowFileRepository flowFileRepository;
+    private FileSystemRepository contentRepository;
+    private VolatileProvenanceRepository provenanceRepository;
+    private RepositoryContext repositoryContext;
+    private byte[] content;
+
+    private final Queue<FlowFileRecord> connectionContents = new ConcurrentLinkedQueue<>();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        repositoryRoot = BenchmarkUtils.createTempDirectory("session-benchmark");
+        final NiFiProperties nifiProperties = BenchmarkUtils.createNiFiProperties(repositoryRoot, null);
+        final ResourceClaimManager claimManager = new StandardResourceClaimManager();
+
+        contentRepository = new FileSystemRepository(nifiProperties);
+        contentRepository.initialize(claimManager);
+
+        final FlowFileQueue flowFileQueue = createFlowFileQueue();
+        flowFileRepository = new WriteAheadFlowFileRepository(nifiProperties);
+        flowFileRepository.initialize(claimManager);
+        flowFileRepository.loadFlowFiles(() -> Collections.singleton(flowFileQueue));
+
+        provenanceRepository = new VolatileProvenanceRepository(nifiProperties);
+
+        final Connectable connectable = Mockito.mock(Connectable.class);
+        final Connection connection = createConnection(connectable, flowFileQueue);
+        Mockito.when(connectable.getIdentifier()).thenReturn("benchmark-component");
+        Mockito.when(connectable.getName()).thenReturn("Benchmark Component");
+        Mockito.when(connectable.getComponentType()).thenReturn("Benchmark");
+        Mockito.when(connectable.getConnectableType()).thenReturn(ConnectableType.INPUT_PORT);
+        Mockito.when(connectable.hasIncomingConnection()).thenReturn(true);
+        Mockito.when(connectable.getIncomingConnections()).thenReturn(Collections.singletonList(connection));
+        Mockito.when(connectable.getConnections()).thenReturn(Collections.singleton(connection));
+        Mockito.when(connectable.getConnections(REL_SUCCESS)).thenReturn(Collections.singleton(connection));
+        Mockito.when(connectable.getConnections(REL_TERMINATED)).thenReturn(Collections.emptySet());
+        Mockito.when(connectable.isAutoTerminated(REL_TERMINATED)).thenReturn(true);
+        Mockito.when(connectable.getRelationships()).thenReturn(new HashSet<>(Arrays.asList(REL_SUCCESS, REL_TERMINATED)));
+
+        repositoryContext = new RepositoryContext(connectable, new AtomicLong(0L), contentRepository, flowFileRepository,
+            new RingBufferEventRepository(5), new StandardCounterRepository(), provenanceRepository);
+
+        content = new byte[contentSize];
+
+        // Seed the connection with enough FlowFiles that every benchmark thread is always able to pull one.
+        final StandardProcessSession seedSession = new StandardProcessSession(repositoryContext, () -> false);
+        for (int i = 0; i < 1000; i++) {
+            FlowFile flowFile = seedSession.create();
+            flowFile = seedSession.putAllAttributes(flowFile, createAttributes());
+            flowFile = seedSession.write(flowFile, out -> out.write(content));
+            seedSession.transfer(flowFile, REL_SUCCESS);
+        }
+        seedSession.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException {
+        flowFileRepository.close();
+        contentRepository.shutdown();
+        provenanceRepository.close();
+        BenchmarkUtils.deleteQuietly(repositoryRoot);
+    }
+
+    /**
+     * Pulls a FlowFile from the incoming connection, updates an attribute, rewrites its content and transfers it back to the connection.
+     */
+    @Benchmark
+    @Threads(1)
+    public FlowFile getModifyTransferCommit() {
+        return pullModifyAndTransfer();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public FlowFile getModifyTransferCommitContended() {
+        return pullModifyAndTransfer();
+    }
+
+    /**
+     * Creates a new FlowFile, writes its content and routes it to an auto-terminated relationship.
+     */
+    @Benchmark
+    @Threads(1)
+    public FlowFile createWriteTerminateCommit() {
+        return createAndTerminate();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public FlowFile createWriteTerminateCommitContended() {
+        return createAndTerminate();
+    }
+
+    private FlowFile pullModifyAndTransfer() {
+        final StandardProcessSession session = new StandardProcessSession(repositoryContext, () -> false);
+        FlowFile flowFile = session.get();
+        if (flowFile == null) {
+            return null;
+        }
+
+        flowFile = session.putAttribute(flowFile, "benchmark.iteration", "true");
+        flowFile = session.write(flowFile, out -> out.write(content));
+        session.transfer(flowFile, REL_SUCCESS);
+        session.commit();
+        return flowFile;
+    }
+
+    private FlowFile createAndTerminate() {
+        final StandardProcessSession session = new StandardProcessSession(repositoryContext, () -> false);
+        FlowFile flowFile = session.create();
+        flowFile = session.putAllAttributes(flowFile, createAttributes());
+        flowFile = session.write(flowFile, out -> out.write(content));
+        session.transfer(flowFile, REL_TERMINATED);
+        session.commit();
+        return flowFile;
+    }
+
+    private Map<String, String> createAttributes() {
+        final Map<String, String> attributes = new HashMap<>();
+        for (int i = 0; i < numAttributes; i++) {
+            attributes.put("attribute." + i, "value-" + i);
+        }
+        return attributes;
+    }
+
+    private FlowFileQueue createFlowFileQueue() {
+        final FlowFileQueue flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        Mockito.when(flowFileQueue.getIdentifier()).thenReturn("benchmark-queue");
+
+        Mockito.doAnswer(invocation -> {
+            connectionContents.add(invocation.getArgument(0));
+            return null;
+        }).when(flowFileQueue).put(Mockito.any(FlowFileRecord.class));
+
+        Mockito.doAnswer(invocation -> {
+            final Collection<FlowFileRecord> flowFiles = invocation.getArgument(0);
+            connectionContents.addAll(flowFiles);
+            return null;
+        }).when(flowFileQueue).putAll(Mockito.anyCollection());
+
+        return flowFileQueue;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Connection createConnection(final Connectable connectable, final FlowFileQueue flowFileQueue) {
+        final Connection connection = Mockito.mock(Connection.class);
+        Mockito.when(connection.getIdentifier()).thenReturn("benchmark-connection");
+        Mockito.when(connection.getFlowFileQueue()).thenReturn(flowFileQueue);
+        Mockito.when(connection.getSource()).thenReturn(connectable);
+        Mockito.when(connection.getDestination()).thenReturn(connectable);
+        Mockito.when(connection.poll(Mockito.any(Set.class))).thenAnswer(invocation -> connectionContents.poll());
+        return connection;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.benchmark.repository;
+
+import org.apache.nifi.benchmark.BenchmarkUtils;
+import org.apache.nifi.controller.queue.FlowFileQueue;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.RepositoryRecord;
+import org.apache.nifi.controller.repository.StandardRepositoryRecord;
+import org.apache.nifi.controller.repository.WriteAheadFlowFileRepository;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link WriteAheadFlowFileRepository#updateRepository(java.util.Collection)}. Each invocation mimics
+ * a session that removes the FlowFiles created by the previous invocation of the same thread and creates
+ * {@value #FLOWFILES_PER_UPDATE} new ones, so results are reported per FlowFile and the size of the repository stays constant.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WriteAheadFlowFileRepositoryBenchmark {
+    static final int FLOWFILES_PER_UPDATE = 10;
+
+    @Param({"org.apache.nifi.wali.SequentialAccessWriteAheadLog", "org.wali.MinimalLockingWriteAheadLog"})
+    public String walImplementation;
+
+    @Param({"5", "50"})
+    public int numAttributes;
+
+    private File repositoryRoot;
+    private WriteAheadFlowFileRepository repository;
+    private FlowFileQueue queue;
+
+    @State(Scope.Thread)
+    public static class SessionState {
+        private List<FlowFileRecord> previous = Collections.emptyList();
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        repositoryRoot = BenchmarkUtils.createTempDirectory("flowfile-repo-benchmark");
+        repository = new WriteAheadFlowFileRepository(BenchmarkUtils.createNiFiProperties(repositoryRoot,
+            Collections.singletonMap("nifi.flowfile.repository.wal.implementation", walImplementation)));
+        repository.initialize(new StandardResourceClaimManager());
+
+        queue = Mockito.mock(FlowFileQueue.class);
+        Mockito.when(queue.getIdentifier()).thenReturn("benchmark-queue");
+        repository.loadFlowFiles(() -> Collections.singleton(queue));
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException {
+        repository.close();
+        BenchmarkUtils.deleteQuietly(repositoryRoot);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @OperationsPerInvocation(FLOWFILES_PER_UPDATE)
+    public void updateRepository(final SessionState state) throws IOException {
+        update(state);
+    }
+
+    @Benchmark
+    @Threads(8)
+    @OperationsPerInvocation(FLOWFILES_PER_UPDATE)
+    public void updateRepositoryContended(final SessionState state) throws IOException {
+        update(state);
+    }
+
+    private void update(final SessionState state) throws IOException {
+        final List<RepositoryRecord> records = new ArrayList<>(FLOWFILES_PER_UPDATE * 2);
+        for (final FlowFileRecord flowFile : state.previous) {
+            final StandardRepositoryRecord record = new StandardRepositoryRecord(queue, flowFile);
+            record.markForDelete();
+            records.add(record);
+        }
+
+        final List<FlowFileRecord> created = new ArrayList<>(FLOWFILES_PER_UPDATE);
+        for (int i = 0; i < FLOWFILES_PER_UPDATE; i++) {
+            final FlowFileRecord flowFile = BenchmarkUtils.createFlowFile(repository.getNextFlowFileSequence(), 0L, numAttributes);
+            final StandardRepositoryRecord record = new StandardRepositoryRecord(queue);
+            record.setWorking(flowFile);
+            record.setDestination(queue);
+            records.add(record);
+            created.add(flowFile);
+        }
+
+        repository.updateRepository(records);
+        state.previous = created;
+    }
+}
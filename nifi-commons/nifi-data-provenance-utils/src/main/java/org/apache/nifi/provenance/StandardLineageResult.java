@@ -47,7 +47,7 @@ public class StandardLineageResult implements ComputeLineageResult, ProgressiveR
     public static final int TTL = (int) TimeUnit.MILLISECONDS.convert(30, TimeUnit.MINUTES);
     private static final Logger logger = LoggerFactory.getLogger(StandardLineageResult.class);
 
-    private final Collection<String> flowFileUuids;
+    private final Set<String> flowFileUuids;
     private final Set<ProvenanceEventRecord> relevantRecords = new HashSet<>();
     private final Set<LineageNode> nodes = new HashSet<>();
     private final Set<LineageEdge> edges = new HashSet<>();
@@ -62,6 +62,7 @@ public class StandardLineageResult implements ComputeLineageResult, ProgressiveR
     private Date expirationDate = null;
     private String error = null;
     private int numCompletedSteps = 0;
+    private boolean graphStale = false;
 
     private volatile boolean canceled = false;
     private final Object completionMonitor = new Object();
@@ -69,13 +70,20 @@ public class StandardLineageResult implements ComputeLineageResult, ProgressiveR
     public StandardLineageResult(final int numSteps, final Collection<String> flowFileUuids) {
         this.numSteps = numSteps;
         this.creationNanos = System.nanoTime();
-        this.flowFileUuids = flowFileUuids;
+        // lineage of a FlowFile that was split into many children can involve a very large number of UUIDs, so use a Set for the lookups in computeLineage()
+        this.flowFileUuids = new HashSet<>(flowFileUuids);
 
         updateExpiration();
     }
 
+    /**
+     * Returns the nodes of the lineage graph. If the computation has not yet finished, these are the nodes that can be derived from
+     * the events that have been gathered so far, so that the graph can be rendered progressively.
+     */
     @Override
     public List<LineageNode> getNodes() {
+        refreshPartialGraph();
+
         readLock.lock();
         try {
             return new ArrayList<>(nodes);
@@ -84,8 +92,14 @@ public class StandardLineageResult implements ComputeLineageResult, ProgressiveR
         }
     }
 
+    /**
+     * Returns the edges of the lineage graph. If the computation has not yet finished, these are the edges that can be derived from
+     * the events that have been gathered so far.
+     */
     @Override
     public List<LineageEdge> getEdges() {
+        refreshPartialGraph();
+
         readLock.lock();
         try {
             return new ArrayList<>(edges);
@@ -94,6 +108,32 @@ public class StandardLineageResult implements ComputeLineageResult, ProgressiveR
         }
     }
 
+    /**
+     * Rebuilds the graph from the events gathered so far if any have arrived since it was last built. The graph is built only when
+     * it is requested, rather than on every update, because a computation may be made up of many steps and most of the intermediate
+     * graphs would never be looked at.
+     */
+    private void refreshPartialGraph() {
+        readLock.lock();
+        try {
+            if (!graphStale) {
+                return;
+            }
+        } finally {
+            readLock.unlock();
+        }
+
+        writeLock.lock();
+        try {
+            if (graphStale && numCompletedSteps < numSteps) {
+                computeLineage();
+                graphStale = false;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
     public long getComputationTime(final TimeUnit timeUnit) {
         readLock.lock();
         try {
@@ -173,8 +213,16 @@ public class StandardLineageResult implements ComputeLineageResult, ProgressiveR
 
             if (numCompletedSteps >= numSteps && error == null) {
                 computationComplete = true;
-                computeLineage();
+                final String graphError = computeLineage();
+                if (graphError != null) {
+                    logger.error(graphError);
+                    this.error = graphError;
+                }
+
+                graphStale = false;
                 computationNanos = System.nanoTime() - creationNanos;
+            } else if (!records.isEmpty()) {
+                graphStale = true;
             }
         } finally {
             writeLock.unlock();
@@ -182,7 +230,11 @@ public class StandardLineageResult implements ComputeLineageResult, ProgressiveR
 
         if (computationComplete) {
             final long computationMillis = TimeUnit.NANOSECONDS.toMillis(computationNanos);
-            logger.info("Completed computation of lineage for FlowFile UUID(s) {} comprised of {} steps in {} millis", flowFileUuids, numSteps, computationMillis);
+            if (flowFileUuids.size() > 10) {
+                logger.info("Completed computation of lineage for {} FlowFile UUIDs comprised of {} steps in {} millis", flowFileUuids.size(), numSteps, computationMillis);
+            } else {
+                logger.info("Completed computation of lineage for FlowFile UUID(s) {} comprised of {} steps in {} millis", flowFileUuids, numSteps, computationMillis);
+            }
 
             synchronized (completionMonitor) {
                 completionMonitor.notifyAll();
@@ -192,10 +244,13 @@ public class StandardLineageResult implements ComputeLineageResult, ProgressiveR
 
     /**
      * Computes the lineage from the relevant Provenance Event Records. This
-     * method must be called with the write lock held and is only going to be
-     * useful after all of the records have been successfully obtained
+     * method must be called with the write lock held. If it is called before
+     * all of the records have been obtained, the result is the portion of the
+     * graph that is known so far.
+     *
+     * @return an explanation of why the graph could not be built, or <code>null</code> if it was built successfully
      */
-    private void computeLineage() {
+    private String computeLineage() {
         logger.debug("Computing lineage with the following events: {}", relevantRecords);
         final long startNanos = System.nanoTime();
 
@@ -265,9 +320,7 @@ public class StandardLineageResult implements ComputeLineageResult, ProgressiveR
                             if (!isNewFlowFile) {
                                 final String msg = "Unable to generate Lineage Graph because multiple "
                                     + "events were registered claiming to have generated the same FlowFile (UUID = " + childNode.getFlowFileUuid() + ")";
-                                logger.error(msg);
-                                setError(msg);
-                                return;
+                                return msg;
                             }
 
                             edges.add(new EdgeNode(childNode.getFlowFileUuid(), lineageNode, childNode));
@@ -293,9 +346,7 @@ public class StandardLineageResult implements ComputeLineageResult, ProgressiveR
                     if (!isNewFlowFile) {
                         final String msg = "Found cycle in graph. This indicates that multiple events "
                             + "were registered claiming to have generated the same FlowFile (UUID = " + flowFileNode.getFlowFileUuid() + ")";
-                        setError(msg);
-                        logger.error(msg);
-                        return;
+                        return msg;
                     }
                     edges.add(new EdgeNode(record.getFlowFileUuid(), lineageNode, flowFileNode));
                     lastEventMap.put(record.getFlowFileUuid(), flowFileNode);
@@ -308,6 +359,7 @@ public class StandardLineageResult implements ComputeLineageResult, ProgressiveR
 
         final long nanos = System.nanoTime() - startNanos;
         logger.debug("Finished building lineage with {} nodes and {} edges in {} millis", nodes.size(), edges.size(), TimeUnit.NANOSECONDS.toMillis(nanos));
+        return null;
     }
 
     void cancel() {
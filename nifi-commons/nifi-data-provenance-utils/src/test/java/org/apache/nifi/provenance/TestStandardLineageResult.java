@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import org.apache.nifi.provenance.lineage.LineageNode;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestStandardLineageResult {
+
+    @Test
+    public void testPartialGraphAvailableBeforeCompletion() {
+        final StandardLineageResult result = new StandardLineageResult(2, Collections.singleton("parent"));
+        assertTrue(result.getNodes().isEmpty());
+
+        result.update(Collections.singletonList(createEvent(1L, 1000L, "parent", ProvenanceEventType.CREATE)), 1L);
+        assertFalse(result.isFinished());
+
+        // the CREATE event and the FlowFile that it created
+        assertEquals(2, result.getNodes().size());
+        assertEquals(1, result.getEdges().size());
+
+        result.update(Collections.singletonList(createEvent(2L, 1001L, "parent", ProvenanceEventType.CONTENT_MODIFIED)), 1L);
+        assertTrue(result.isFinished());
+        assertNull(result.getError());
+        assertEquals(3, result.getNodes().size());
+        assertEquals(2, result.getEdges().size());
+    }
+
+    @Test
+    public void testLargeFork() {
+        final int childCount = 50_000;
+        final List<String> childUuids = new ArrayList<>(childCount);
+        for (int i = 0; i < childCount; i++) {
+            childUuids.add("child-" + i);
+        }
+
+        final StandardLineageResult result = new StandardLineageResult(1, childUuids);
+        final ProvenanceEventRecord fork = createEvent(1L, 1000L, "parent", ProvenanceEventType.FORK, childUuids);
+        result.update(Collections.singletonList(fork), 1L);
+
+        assertTrue(result.isFinished());
+        assertNull(result.getError());
+
+        final List<LineageNode> nodes = result.getNodes();
+        assertEquals(childCount + 1, nodes.size());
+        assertEquals(childCount, result.getEdges().size());
+    }
+
+    private ProvenanceEventRecord createEvent(final long eventId, final long timestamp, final String uuid, final ProvenanceEventType eventType) {
+        return createEvent(eventId, timestamp, uuid, eventType, Collections.emptyList());
+    }
+
+    private ProvenanceEventRecord createEvent(final long eventId, final long timestamp, final String uuid, final ProvenanceEventType eventType, final List<String> childUuids) {
+        final Map<String, String> previousAttributes = new HashMap<>();
+        previousAttributes.put("uuid", uuid);
+
+        final StandardProvenanceEventRecord.Builder builder = new StandardProvenanceEventRecord.Builder()
+            .setEventType(eventType)
+            .setAttributes(previousAttributes, Collections.emptyMap())
+            .setComponentId("component-1")
+            .setComponentType("unit test")
+            .setEventId(eventId)
+            .setEventTime(timestamp)
+            .setFlowFileEntryDate(timestamp)
+            .setFlowFileUUID(uuid)
+            .setLineageStartDate(timestamp)
+            .setCurrentContentClaim("container", "section", "unit-test-id", 0L, 1024L);
+
+        for (final String childUuid : childUuids) {
+            builder.addChildUuid(childUuid);
+        }
+
+        return builder.build();
+    }
+}
@@ -22,18 +22,30 @@ import org.apache.nifi.attribute.expression.language.evaluation.Evaluator;
 import org.apache.nifi.expression.AttributeValueDecorator;
 
 import java.util.Set;
+import java.util.function.Function;
 
 public class CompiledExpression implements Expression {
     private final Evaluator<?> rootEvaluator;
     private final Tree tree;
     private final String expression;
     private final Set<Evaluator<?>> allEvaluators;
+    private final Function<EvaluationContext, String> compiledFunction;
 
     public CompiledExpression(final String expression, final Evaluator<?> rootEvaluator, final Tree tree, final Set<Evaluator<?>> allEvaluators) {
+        this(expression, rootEvaluator, tree, allEvaluators, null);
+    }
+
+    /**
+     * @param compiledFunction a Function that yields the same value as the root Evaluator, as a String, or <code>null</code> if the
+     *            expression is to be evaluated by interpreting the Evaluator tree
+     */
+    public CompiledExpression(final String expression, final Evaluator<?> rootEvaluator, final Tree tree, final Set<Evaluator<?>> allEvaluators,
+                              final Function<EvaluationContext, String> compiledFunction) {
         this.rootEvaluator = rootEvaluator;
         this.tree = tree;
         this.expression = expression;
         this.allEvaluators = allEvaluators;
+        this.compiledFunction = compiledFunction;
     }
 
     public Evaluator<?> getRootEvaluator() {
@@ -54,6 +66,15 @@ public class CompiledExpression implements Expression {
 
     @Override
     public String evaluate(final EvaluationContext evaluationContext, final AttributeValueDecorator decorator) {
+        if (compiledFunction != null) {
+            final String value = compiledFunction.apply(evaluationContext);
+            if (value == null) {
+                return null;
+            }
+
+            return decorator == null ? value : decorator.decorate(value);
+        }
+
         return Query.evaluateExpression(tree, rootEvaluator, expression, evaluationContext, decorator);
     }
 }
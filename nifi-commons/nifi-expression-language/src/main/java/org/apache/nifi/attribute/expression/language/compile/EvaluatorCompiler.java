@@ -0,0 +1,438 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.attribute.expression.language.compile;
+
+import org.apache.nifi.attribute.expression.language.EvaluationContext;
+import org.apache.nifi.attribute.expression.language.StandardEvaluationContext;
+import org.apache.nifi.attribute.expression.language.evaluation.Evaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.cast.NumberCastEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.cast.WholeNumberCastEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.AndEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.AppendEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ContainsEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.EndsWithEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.EqualsEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.EqualsIgnoreCaseEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.GreaterThanEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.GreaterThanOrEqualEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.IsEmptyEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.IsNullEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.LessThanEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.LessThanOrEqualEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.NotEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.NotNullEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.OrEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.PrependEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.StartsWithEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ToLowerEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ToUpperEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.TrimEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.BooleanLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.StringLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.WholeNumberLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.reduce.ReduceEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.selection.AttributeEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.selection.IteratingEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.selection.MappingEvaluator;
+import org.apache.nifi.expression.AttributeExpression.ResultType;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * <p>
+ * Compiles a tree of Evaluators into a tree of closures that can be evaluated without creating a QueryResult for every node. Boolean
+ * nodes are compiled into Predicates that yield primitive booleans, String nodes into Functions that yield Strings, and whole-number
+ * comparisons against a literal compare primitive longs when the attribute being compared is a plain decimal integer.
+ * </p>
+ *
+ * <p>
+ * Only the functions that are most commonly used in routing and attribute-update rules are compiled. Any other Evaluator, along with
+ * everything beneath it, is evaluated by the interpreter, so a compiled expression always yields the same result as the interpreted one.
+ * </p>
+ */
+public class EvaluatorCompiler {
+    private static final EvaluationContext EMPTY_CONTEXT = new StandardEvaluationContext(Collections.emptyMap());
+
+    // Any decimal integer of up to 18 digits fits in a long, so it can be parsed without the checks performed by NumberParsing
+    private static final int MAX_FAST_PARSE_DIGITS = 18;
+
+    /**
+     * Compiles the given Evaluator tree.
+     *
+     * @param rootEvaluator the root of the Evaluator tree
+     * @param allEvaluators all Evaluators that were created when compiling the expression
+     * @return a Function that yields the same value as the root Evaluator, as a String, or <code>null</code> if compiling the
+     *         expression would provide no benefit over interpreting it
+     */
+    public static Function<EvaluationContext, String> compile(final Evaluator<?> rootEvaluator, final Set<Evaluator<?>> allEvaluators) {
+        // Iterating and reducing Evaluators evaluate their subjects many times, relying on EvaluatorState to do so. Leave these to the interpreter.
+        for (final Evaluator<?> evaluator : allEvaluators) {
+            if (evaluator instanceof IteratingEvaluator || evaluator instanceof ReduceEvaluator || evaluator instanceof MappingEvaluator) {
+                return null;
+            }
+        }
+
+        final ResultType resultType = rootEvaluator.getResultType();
+        if (resultType == ResultType.BOOLEAN) {
+            final Predicate<EvaluationContext> predicate = compileBoolean(rootEvaluator);
+            if (predicate == null || predicate instanceof InterpretedPredicate) {
+                return null;
+            }
+
+            return context -> String.valueOf(predicate.test(context));
+        }
+
+        if (resultType == ResultType.STRING) {
+            final Function<EvaluationContext, String> function = compileString(rootEvaluator);
+            if (function instanceof InterpretedString) {
+                return null;
+            }
+
+            return function;
+        }
+
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<EvaluationContext, String> compileString(final Evaluator<?> evaluator) {
+        if (evaluator.getResultType() != ResultType.STRING) {
+            return new InterpretedString(evaluator);
+        }
+
+        if (evaluator instanceof StringLiteralEvaluator) {
+            final String value = ((Evaluator<String>) evaluator).evaluate(EMPTY_CONTEXT).getValue();
+            return context -> value;
+        }
+
+        if (evaluator instanceof AttributeEvaluator) {
+            final Evaluator<String> nameEvaluator = ((AttributeEvaluator) evaluator).getNameEvaluator();
+            if (nameEvaluator instanceof StringLiteralEvaluator) {
+                final String name = nameEvaluator.evaluate(EMPTY_CONTEXT).getValue();
+                return context -> context.getExpressionValue(name);
+            }
+
+            final Function<EvaluationContext, String> name = compileString(nameEvaluator);
+            return context -> context.getExpressionValue(name.apply(context));
+        }
+
+        if (evaluator instanceof ToUpperEvaluator) {
+            final Function<EvaluationContext, String> subject = compileString(evaluator.getSubjectEvaluator());
+            return context -> {
+                final String value = subject.apply(context);
+                return value == null ? null : value.toUpperCase();
+            };
+        }
+
+        if (evaluator instanceof ToLowerEvaluator) {
+            final Function<EvaluationContext, String> subject = compileString(evaluator.getSubjectEvaluator());
+            return context -> {
+                final String value = subject.apply(context);
+                return value == null ? null : value.toLowerCase();
+            };
+        }
+
+        if (evaluator instanceof TrimEvaluator) {
+            final Function<EvaluationContext, String> subject = compileString(evaluator.getSubjectEvaluator());
+            return context -> {
+                final String value = subject.apply(context);
+                return value == null ? null : value.trim();
+            };
+        }
+
+        if (evaluator instanceof AppendEvaluator) {
+            final Function<EvaluationContext, String> subject = compileString(evaluator.getSubjectEvaluator());
+            final Function<EvaluationContext, String> append = compileString(((AppendEvaluator) evaluator).getAppendEvaluator());
+            return context -> {
+                final String subjectValue = subject.apply(context);
+                final String appendValue = append.apply(context);
+                return (subjectValue == null ? "" : subjectValue) + (appendValue == null ? "" : appendValue);
+            };
+        }
+
+        if (evaluator instanceof PrependEvaluator) {
+            final Function<EvaluationContext, String> subject = compileString(evaluator.getSubjectEvaluator());
+            final Function<EvaluationContext, String> prepend = compileString(((PrependEvaluator) evaluator).getPrependEvaluator());
+            return context -> {
+                final String subjectValue = subject.apply(context);
+                final String prependValue = prepend.apply(context);
+                return (prependValue == null ? "" : prependValue) + (subjectValue == null ? "" : subjectValue);
+            };
+        }
+
+        return new InterpretedString(evaluator);
+    }
+
+    /**
+     * Compiles a Boolean Evaluator into a Predicate, or returns <code>null</code> if the Evaluator may yield a <code>null</code> value and
+     * therefore cannot be represented by a Predicate.
+     */
+    private static Predicate<EvaluationContext> compileBoolean(final Evaluator<?> evaluator) {
+        if (evaluator instanceof BooleanLiteralEvaluator) {
+            final boolean value = ((BooleanLiteralEvaluator) evaluator).evaluate(EMPTY_CONTEXT).getValue();
+            return context -> value;
+        }
+
+        if (evaluator instanceof EqualsEvaluator) {
+            final Evaluator<?> compareTo = ((EqualsEvaluator) evaluator).getCompareToEvaluator();
+            if (isString(evaluator.getSubjectEvaluator()) && isString(compareTo)) {
+                final Function<EvaluationContext, String> subject = compileString(evaluator.getSubjectEvaluator());
+                final Function<EvaluationContext, String> other = compileString(compareTo);
+                return context -> {
+                    final String subjectValue = subject.apply(context);
+                    if (subjectValue == null) {
+                        return false;
+                    }
+
+                    return subjectValue.equals(other.apply(context));
+                };
+            }
+        }
+
+        if (evaluator instanceof EqualsIgnoreCaseEvaluator) {
+            final Evaluator<?> compareTo = ((EqualsIgnoreCaseEvaluator) evaluator).getCompareToEvaluator();
+            if (isString(evaluator.getSubjectEvaluator()) && isString(compareTo)) {
+                final Function<EvaluationContext, String> subject = compileString(evaluator.getSubjectEvaluator());
+                final Function<EvaluationContext, String> other = compileString(compareTo);
+                return context -> {
+                    final String subjectValue = subject.apply(context);
+                    if (subjectValue == null) {
+                        return false;
+                    }
+
+                    return subjectValue.equalsIgnoreCase(other.apply(context));
+                };
+            }
+        }
+
+        if (evaluator instanceof StartsWithEvaluator) {
+            final Function<EvaluationContext, String> subject = compileString(evaluator.getSubjectEvaluator());
+            final Function<EvaluationContext, String> search = compileString(((StartsWithEvaluator) evaluator).getSearchEvaluator());
+            return context -> {
+                final String subjectValue = subject.apply(context);
+                if (subjectValue == null) {
+                    return false;
+                }
+
+                final String searchValue = search.apply(context);
+                return searchValue != null && subjectValue.startsWith(searchValue);
+            };
+        }
+
+        if (evaluator instanceof EndsWithEvaluator) {
+            final Function<EvaluationContext, String> subject = compileString(evaluator.getSubjectEvaluator());
+            final Function<EvaluationContext, String> search = compileString(((EndsWithEvaluator) evaluator).getSearchEvaluator());
+            return context -> {
+                final String subjectValue = subject.apply(context);
+                if (subjectValue == null) {
+                    return false;
+                }
+
+                final String searchValue = search.apply(context);
+                return searchValue != null && subjectValue.endsWith(searchValue);
+            };
+        }
+
+        if (evaluator instanceof ContainsEvaluator) {
+            final Function<EvaluationContext, String> subject = compileString(evaluator.getSubjectEvaluator());
+            final Function<EvaluationContext, String> search = compileString(((ContainsEvaluator) evaluator).getSearchEvaluator());
+            return context -> {
+                final String subjectValue = subject.apply(context);
+                if (subjectValue == null) {
+                    return false;
+                }
+
+                final String searchValue = search.apply(context);
+                return searchValue != null && subjectValue.contains(searchValue);
+            };
+        }
+
+        if (evaluator instanceof IsEmptyEvaluator && isString(evaluator.getSubjectEvaluator())) {
+            final Function<EvaluationContext, String> subject = compileString(evaluator.getSubjectEvaluator());
+            return context -> {
+                final String value = subject.apply(context);
+                return value == null || value.trim().isEmpty();
+            };
+        }
+
+        if (evaluator instanceof IsNullEvaluator || evaluator instanceof NotNullEvaluator) {
+            final boolean expectNull = evaluator instanceof IsNullEvaluator;
+            final Evaluator<?> subjectEvaluator = evaluator.getSubjectEvaluator();
+            if (isString(subjectEvaluator)) {
+                final Function<EvaluationContext, String> subject = compileString(subjectEvaluator);
+                return context -> (subject.apply(context) == null) == expectNull;
+            }
+
+            return context -> (subjectEvaluator.evaluate(context).getValue() == null) == expectNull;
+        }
+
+        if (evaluator instanceof NotEvaluator) {
+            final Predicate<EvaluationContext> subject = compileBoolean(evaluator.getSubjectEvaluator());
+            if (subject != null) {
+                return subject.negate();
+            }
+        }
+
+        if (evaluator instanceof AndEvaluator) {
+            final Predicate<EvaluationContext> subject = compileBoolean(evaluator.getSubjectEvaluator());
+            final Predicate<EvaluationContext> rhs = compileBoolean(((AndEvaluator) evaluator).getRhsEvaluator());
+            if (subject != null && rhs != null) {
+                return subject.and(rhs);
+            }
+        }
+
+        if (evaluator instanceof OrEvaluator) {
+            final Predicate<EvaluationContext> subject = compileBoolean(evaluator.getSubjectEvaluator());
+            final Predicate<EvaluationContext> rhs = compileBoolean(((OrEvaluator) evaluator).getRhsEvaluator());
+            if (subject != null && rhs != null) {
+                return subject.or(rhs);
+            }
+        }
+
+        if (evaluator instanceof GreaterThanEvaluator) {
+            return compileComparison(evaluator, ((GreaterThanEvaluator) evaluator).getComparisonEvaluator(), ComparisonOperator.GREATER_THAN);
+        }
+        if (evaluator instanceof GreaterThanOrEqualEvaluator) {
+            return compileComparison(evaluator, ((GreaterThanOrEqualEvaluator) evaluator).getComparisonEvaluator(), ComparisonOperator.GREATER_THAN_OR_EQUAL);
+        }
+        if (evaluator instanceof LessThanEvaluator) {
+            return compileComparison(evaluator, ((LessThanEvaluator) evaluator).getComparisonEvaluator(), ComparisonOperator.LESS_THAN);
+        }
+        if (evaluator instanceof LessThanOrEqualEvaluator) {
+            return compileComparison(evaluator, ((LessThanOrEqualEvaluator) evaluator).getComparisonEvaluator(), ComparisonOperator.LESS_THAN_OR_EQUAL);
+        }
+
+        // These Evaluators never yield a null value, so they can be interpreted in place of a Predicate.
+        if (evaluator instanceof EqualsEvaluator || evaluator instanceof EqualsIgnoreCaseEvaluator || evaluator instanceof IsEmptyEvaluator) {
+            return new InterpretedPredicate(evaluator);
+        }
+
+        return null;
+    }
+
+    /**
+     * Compiles a numeric comparison of a String, such as an attribute, against a whole number literal. If the String is a plain decimal
+     * integer, the comparison is performed on primitive longs; otherwise, the comparison is left to the interpreter so that decimal and
+     * hexadecimal values are handled in the same way as they are when not compiled.
+     */
+    private static Predicate<EvaluationContext> compileComparison(final Evaluator<?> evaluator, final Evaluator<?> comparisonEvaluator, final ComparisonOperator operator) {
+        final Evaluator<?> subjectEvaluator = unwrapNumberCast(evaluator.getSubjectEvaluator());
+        final Evaluator<?> literalEvaluator = unwrapNumberCast(comparisonEvaluator);
+        if (!isString(subjectEvaluator) || !(literalEvaluator instanceof WholeNumberLiteralEvaluator)) {
+            return new InterpretedPredicate(evaluator);
+        }
+
+        final long literal = ((WholeNumberLiteralEvaluator) literalEvaluator).evaluate(EMPTY_CONTEXT).getValue();
+        final Function<EvaluationContext, String> subject = compileString(subjectEvaluator);
+        final InterpretedPredicate interpreted = new InterpretedPredicate(evaluator);
+
+        return context -> {
+            final String value = subject.apply(context);
+            if (value == null) {
+                return false;
+            }
+
+            if (!isPlainInteger(value)) {
+                return interpreted.test(context);
+            }
+
+            return operator.compare(Long.parseLong(value), literal);
+        };
+    }
+
+    private static Evaluator<?> unwrapNumberCast(final Evaluator<?> evaluator) {
+        if (evaluator instanceof NumberCastEvaluator || evaluator instanceof WholeNumberCastEvaluator) {
+            return evaluator.getSubjectEvaluator();
+        }
+
+        return evaluator;
+    }
+
+    private static boolean isPlainInteger(final String value) {
+        final int length = value.length();
+        final int start = length > 0 && value.charAt(0) == '-' ? 1 : 0;
+        final int digits = length - start;
+        if (digits < 1 || digits > MAX_FAST_PARSE_DIGITS) {
+            return false;
+        }
+
+        for (int i = start; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isString(final Evaluator<?> evaluator) {
+        return evaluator != null && evaluator.getResultType() == ResultType.STRING;
+    }
+
+
+    private enum ComparisonOperator {
+        GREATER_THAN,
+        GREATER_THAN_OR_EQUAL,
+        LESS_THAN,
+        LESS_THAN_OR_EQUAL;
+
+        boolean compare(final long value, final long literal) {
+            switch (this) {
+                case GREATER_THAN:
+                    return value > literal;
+                case GREATER_THAN_OR_EQUAL:
+                    return value >= literal;
+                case LESS_THAN:
+                    return value < literal;
+                case LESS_THAN_OR_EQUAL:
+                default:
+                    return value <= literal;
+            }
+        }
+    }
+
+    private static class InterpretedString implements Function<EvaluationContext, String> {
+        private final Evaluator<?> evaluator;
+
+        InterpretedString(final Evaluator<?> evaluator) {
+            this.evaluator = evaluator;
+        }
+
+        @Override
+        public String apply(final EvaluationContext context) {
+            final Object value = evaluator.evaluate(context).getValue();
+            return value == null ? null : value.toString();
+        }
+    }
+
+    private static class InterpretedPredicate implements Predicate<EvaluationContext> {
+        private final Evaluator<?> evaluator;
+
+        InterpretedPredicate(final Evaluator<?> evaluator) {
+            this.evaluator = evaluator;
+        }
+
+        @Override
+        public boolean test(final EvaluationContext context) {
+            return Boolean.TRUE.equals(evaluator.evaluate(context).getValue());
+        }
+    }
+}
@@ -22,6 +22,7 @@ import org.antlr.runtime.CharStream;
 import org.antlr.runtime.CommonTokenStream;
 import org.antlr.runtime.tree.Tree;
 import org.apache.nifi.attribute.expression.language.CompiledExpression;
+import org.apache.nifi.attribute.expression.language.EvaluationContext;
 import org.apache.nifi.attribute.expression.language.Query;
 import org.apache.nifi.attribute.expression.language.Query.Range;
 import org.apache.nifi.attribute.expression.language.StandardEvaluationContext;
@@ -139,6 +140,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Function;
 
 import static org.apache.nifi.attribute.expression.language.antlr.AttributeExpressionParser.ALL_ATTRIBUTES;
 import static org.apache.nifi.attribute.expression.language.antlr.AttributeExpressionParser.ALL_DELINEATED_VALUES;
@@ -241,6 +243,13 @@ import static org.apache.nifi.attribute.expression.language.antlr.AttributeExpre
 import static org.apache.nifi.attribute.expression.language.antlr.AttributeExpressionParser.WHOLE_NUMBER;
 
 public class ExpressionCompiler {
+    /**
+     * System property that, when set to <code>true</code>, causes expressions to be compiled into closures where possible rather than
+     * having their Evaluator trees interpreted for every evaluation. See {@link EvaluatorCompiler}.
+     */
+    public static final String COMPILED_EVALUATION_PROPERTY = "nifi.expression.language.compiled";
+    private static final boolean COMPILED_EVALUATION_ENABLED = Boolean.getBoolean(COMPILED_EVALUATION_PROPERTY);
+
     private final Set<Evaluator<?>> evaluators = new HashSet<>();
 
     public CompiledExpression compile(final String expression) {
@@ -259,7 +268,8 @@ public class ExpressionCompiler {
             final Set<Evaluator<?>> allEvaluators = new HashSet<>(evaluators);
             this.evaluators.clear();
 
-            return new CompiledExpression(expression, evaluator, tree, allEvaluators);
+            final Function<EvaluationContext, String> compiledFunction = COMPILED_EVALUATION_ENABLED ? EvaluatorCompiler.compile(evaluator, allEvaluators) : null;
+            return new CompiledExpression(expression, evaluator, tree, allEvaluators, compiledFunction);
         } catch (final AttributeExpressionLanguageParsingException e) {
             throw e;
         } catch (final Exception e) {
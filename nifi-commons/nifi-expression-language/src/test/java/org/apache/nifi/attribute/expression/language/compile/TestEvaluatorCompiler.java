@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.attribute.expression.language.compile;
+
+import org.apache.nifi.attribute.expression.language.EvaluationContext;
+import org.apache.nifi.attribute.expression.language.StandardEvaluationContext;
+import org.apache.nifi.attribute.expression.language.evaluation.Evaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.cast.NumberCastEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.AndEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.AppendEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.EqualsEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.GreaterThanEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.IsEmptyEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.LengthEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.LessThanOrEqualEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.NotEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.OrEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.StartsWithEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.ToUpperEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.functions.TrimEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.StringLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.literals.WholeNumberLiteralEvaluator;
+import org.apache.nifi.attribute.expression.language.evaluation.selection.AttributeEvaluator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class TestEvaluatorCompiler {
+
+    @Test
+    public void testStringFunctions() {
+        // ${filename:trim():toUpper():append('.txt')}
+        final Evaluator<?> root = new AppendEvaluator(new ToUpperEvaluator(new TrimEvaluator(attribute("filename"))), new StringLiteralEvaluator(".txt"));
+        assertCompiledMatchesInterpreted(root);
+    }
+
+    @Test
+    public void testBooleanFunctions() {
+        // ${filename:startsWith('abc'):and(${type:equals('csv'):or(${type:isEmpty()})}):not()}
+        final Evaluator<Boolean> startsWith = new StartsWithEvaluator(attribute("filename"), new StringLiteralEvaluator("abc"));
+        final Evaluator<Boolean> equals = new EqualsEvaluator(attribute("type"), new StringLiteralEvaluator("csv"));
+        final Evaluator<Boolean> isEmpty = new IsEmptyEvaluator(attribute("type"));
+        final Evaluator<?> root = new NotEvaluator(new AndEvaluator(startsWith, new OrEvaluator(equals, isEmpty)));
+        assertCompiledMatchesInterpreted(root);
+    }
+
+    @Test
+    public void testNumericComparisons() {
+        // ${size:gt(100)} and ${size:le(-5)}
+        final Evaluator<?> greaterThan = new GreaterThanEvaluator(new NumberCastEvaluator(attribute("size")), new NumberCastEvaluator(new WholeNumberLiteralEvaluator("100")));
+        assertCompiledMatchesInterpreted(greaterThan);
+
+        final Evaluator<?> lessThanOrEqual = new LessThanOrEqualEvaluator(new NumberCastEvaluator(attribute("size")), new NumberCastEvaluator(new WholeNumberLiteralEvaluator("-5")));
+        assertCompiledMatchesInterpreted(lessThanOrEqual);
+    }
+
+    @Test
+    public void testUnsupportedExpressionNotCompiled() {
+        // ${filename:length()} yields a number, which is left to the interpreter
+        assertNull(EvaluatorCompiler.compile(new LengthEvaluator(attribute("filename")), Collections.emptySet()));
+
+        // ${size:gt(${other})} cannot use the primitive comparison, so there is no benefit to compiling it
+        final Evaluator<?> greaterThan = new GreaterThanEvaluator(new NumberCastEvaluator(attribute("size")), new NumberCastEvaluator(attribute("other")));
+        assertNull(EvaluatorCompiler.compile(greaterThan, Collections.emptySet()));
+    }
+
+    private static AttributeEvaluator attribute(final String name) {
+        return new AttributeEvaluator(new StringLiteralEvaluator(name));
+    }
+
+    private void assertCompiledMatchesInterpreted(final Evaluator<?> root) {
+        final Function<EvaluationContext, String> compiled = EvaluatorCompiler.compile(root, Collections.emptySet());
+        assertNotNull(compiled);
+
+        for (final Map<String, String> attributes : createAttributeMaps()) {
+            final Object interpreted = root.evaluate(new StandardEvaluationContext(attributes)).getValue();
+            final String expected = interpreted == null ? null : interpreted.toString();
+            assertEquals("Incorrect result for attributes " + attributes, expected, compiled.apply(new StandardEvaluationContext(attributes)));
+        }
+    }
+
+    private List<Map<String, String>> createAttributeMaps() {
+        final String[] filenames = {null, "", "  abc.txt ", "abcdef", "xyz"};
+        final String[] types = {null, "", "   ", "csv", "CSV", "json"};
+        final String[] sizes = {null, "", "abc", "0", "-5", "-6", "100", "101", " 101 ", "100.5", "0x10", "1234567890123456789", "007"};
+
+        final List<Map<String, String>> maps = new ArrayList<>();
+        for (final String filename : filenames) {
+            for (final String type : types) {
+                for (final String size : sizes) {
+                    final Map<String, String> attributes = new HashMap<>();
+                    attributes.put("filename", filename);
+                    attributes.put("type", type);
+                    attributes.put("size", size);
+                    maps.add(attributes);
+                }
+            }
+        }
+
+        return maps;
+    }
+}
@@ -93,6 +93,8 @@ public abstract class NiFiProperties {
     public static final String CONTENT_ARCHIVE_BACK_PRESSURE_PERCENTAGE = "nifi.content.repository.archive.backpressure.percentage";
     public static final String CONTENT_ARCHIVE_ENABLED = "nifi.content.repository.archive.enabled";
     public static final String CONTENT_ARCHIVE_CLEANUP_FREQUENCY = "nifi.content.repository.archive.cleanup.frequency";
+    public static final String CONTENT_REPOSITORY_MAPPED_READS_ENABLED = "nifi.content.repository.mapped.reads.enabled";
+    public static final String CONTENT_REPOSITORY_MAPPED_READS_MAX_SIZE = "nifi.content.repository.mapped.reads.max.size";
     public static final String CONTENT_VIEWER_URL = "nifi.content.viewer.url";
 
     // flowfile repository properties
@@ -101,6 +103,7 @@ public abstract class NiFiProperties {
     public static final String FLOWFILE_REPOSITORY_DIRECTORY = "nifi.flowfile.repository.directory";
     public static final String FLOWFILE_REPOSITORY_PARTITIONS = "nifi.flowfile.repository.partitions";
     public static final String FLOWFILE_REPOSITORY_CHECKPOINT_INTERVAL = "nifi.flowfile.repository.checkpoint.interval";
+    public static final String FLOWFILE_REPOSITORY_COMMIT_WINDOW = "nifi.flowfile.repository.commit.window";
     public static final String FLOWFILE_SWAP_MANAGER_IMPLEMENTATION = "nifi.swap.manager.implementation";
     public static final String QUEUE_SWAP_THRESHOLD = "nifi.queue.swap.threshold";
     public static final String SWAP_IN_THREADS = "nifi.swap.in.threads";
@@ -118,6 +121,10 @@ public abstract class NiFiProperties {
     public static final String PROVENANCE_QUERY_THREAD_POOL_SIZE = "nifi.provenance.repository.query.threads";
     public static final String PROVENANCE_INDEX_THREAD_POOL_SIZE = "nifi.provenance.repository.index.threads";
     public static final String PROVENANCE_COMPRESS_ON_ROLLOVER = "nifi.provenance.repository.compress.on.rollover";
+    public static final String PROVENANCE_COMPRESSION_CODEC = "nifi.provenance.repository.compression.codec";
+    public static final String PROVENANCE_INDEX_IMPLEMENTATION = "nifi.provenance.repository.index.implementation";
+    public static final String PROVENANCE_LINEAGE_MAX_NODES = "nifi.provenance.repository.lineage.max.nodes";
+    public static final String PROVENANCE_LINEAGE_LOOKUP_MAX_MAPPINGS = "nifi.provenance.repository.lineage.lookup.max.mappings";
     public static final String PROVENANCE_INDEXED_FIELDS = "nifi.provenance.repository.indexed.fields";
     public static final String PROVENANCE_INDEXED_ATTRIBUTES = "nifi.provenance.repository.indexed.attributes";
     public static final String PROVENANCE_INDEX_SHARD_SIZE = "nifi.provenance.repository.index.shard.size";
@@ -130,6 +137,7 @@ public abstract class NiFiProperties {
 
     // component status repository properties
     public static final String COMPONENT_STATUS_REPOSITORY_IMPLEMENTATION = "nifi.components.status.repository.implementation";
+    public static final String FLOWFILE_EVENT_REPOSITORY_IMPLEMENTATION = "nifi.flowfile.event.repository.implementation";
     public static final String COMPONENT_STATUS_SNAPSHOT_FREQUENCY = "nifi.components.status.snapshot.frequency";
 
     // security properties
@@ -182,6 +190,7 @@ public abstract class NiFiProperties {
     public static final String WEB_MAX_HEADER_SIZE = "nifi.web.max.header.size";
     public static final String WEB_PROXY_CONTEXT_PATH = "nifi.web.proxy.context.path";
     public static final String WEB_PROXY_HOST = "nifi.web.proxy.host";
+    public static final String WEB_FLOW_CACHE_ENABLED = "nifi.web.flow.cache.enabled";
 
     // ui properties
     public static final String UI_BANNER_TEXT = "nifi.ui.banner.text";
@@ -200,6 +209,7 @@ public abstract class NiFiProperties {
     public static final String CLUSTER_NODE_CONNECTION_TIMEOUT = "nifi.cluster.node.connection.timeout";
     public static final String CLUSTER_NODE_READ_TIMEOUT = "nifi.cluster.node.read.timeout";
     public static final String CLUSTER_NODE_MAX_CONCURRENT_REQUESTS = "nifi.cluster.node.max.concurrent.requests";
+    public static final String CLUSTER_NODE_MAX_RESPONSE_SIZE = "nifi.cluster.node.max.response.size";
     public static final String CLUSTER_FIREWALL_FILE = "nifi.cluster.firewall.file";
     public static final String FLOW_ELECTION_MAX_WAIT_TIME = "nifi.cluster.flow.election.max.wait.time";
     public static final String FLOW_ELECTION_MAX_CANDIDATES = "nifi.cluster.flow.election.max.candidates";
@@ -255,14 +265,17 @@ public abstract class NiFiProperties {
     public static final int DEFAULT_WEB_THREADS = 200;
     public static final String DEFAULT_WEB_MAX_HEADER_SIZE = "16 KB";
     public static final String DEFAULT_WEB_WORKING_DIR = "./work/jetty";
+    public static final Boolean DEFAULT_WEB_FLOW_CACHE_ENABLED = false;
     public static final String DEFAULT_NAR_WORKING_DIR = "./work/nar";
     public static final String DEFAULT_COMPONENT_DOCS_DIRECTORY = "./work/docs/components";
     public static final String DEFAULT_NAR_LIBRARY_DIR = "./lib";
     public static final String DEFAULT_NAR_LIBRARY_AUTOLOAD_DIR = "./extensions";
     public static final String DEFAULT_FLOWFILE_REPO_PARTITIONS = "256";
     public static final String DEFAULT_FLOWFILE_CHECKPOINT_INTERVAL = "2 min";
+    public static final String DEFAULT_FLOWFILE_COMMIT_WINDOW = "0 millis";
     public static final int DEFAULT_MAX_FLOWFILES_PER_CLAIM = 100;
     public static final String DEFAULT_MAX_APPENDABLE_CLAIM_SIZE = "1 MB";
+    public static final String DEFAULT_CONTENT_REPOSITORY_MAPPED_READS_MAX_SIZE = "256 MB";
     public static final int DEFAULT_QUEUE_SWAP_THRESHOLD = 20000;
     public static final String DEFAULT_SWAP_STORAGE_LOCATION = "./flowfile_repository/swap";
     public static final String DEFAULT_SWAP_IN_PERIOD = "1 sec";
@@ -274,6 +287,7 @@ public abstract class NiFiProperties {
     public static final String DEFAULT_ADMINISTRATIVE_YIELD_DURATION = "30 sec";
     public static final String DEFAULT_PERSISTENT_STATE_DIRECTORY = "./conf/state";
     public static final String DEFAULT_COMPONENT_STATUS_SNAPSHOT_FREQUENCY = "5 mins";
+    public static final String DEFAULT_FLOWFILE_EVENT_REPOSITORY_IMPLEMENTATION = "org.apache.nifi.controller.repository.metrics.RingBufferEventRepository";
     public static final String DEFAULT_BORED_YIELD_DURATION = "10 millis";
     public static final String DEFAULT_ZOOKEEPER_CONNECT_TIMEOUT = "3 secs";
     public static final String DEFAULT_ZOOKEEPER_SESSION_TIMEOUT = "3 secs";
@@ -296,6 +310,7 @@ public abstract class NiFiProperties {
     public static final String DEFAULT_CLUSTER_NODE_READ_TIMEOUT = "5 sec";
     public static final String DEFAULT_CLUSTER_NODE_CONNECTION_TIMEOUT = "5 sec";
     public static final int DEFAULT_CLUSTER_NODE_MAX_CONCURRENT_REQUESTS = 100;
+    public static final String DEFAULT_CLUSTER_NODE_MAX_RESPONSE_SIZE = "256 MB";
 
     // cluster node defaults
     public static final int DEFAULT_CLUSTER_NODE_PROTOCOL_THREADS = 10;
@@ -555,6 +570,18 @@ public abstract class NiFiProperties {
                 DEFAULT_FLOWFILE_CHECKPOINT_INTERVAL);
     }
 
+    /**
+     * Returns the amount of time that a session commit may wait for other
+     * concurrent commits so that their FlowFile Repository and Provenance
+     * Repository updates can be written together
+     *
+     * @return the commit window; a value of zero disables grouping of commits
+     */
+    public String getFlowFileRepositoryCommitWindow() {
+        return getProperty(FLOWFILE_REPOSITORY_COMMIT_WINDOW,
+                DEFAULT_FLOWFILE_COMMIT_WINDOW);
+    }
+
     /**
      * @return the restore directory or null if not configured
      */
@@ -637,10 +664,18 @@ public abstract class NiFiProperties {
         return getIntegerProperty(WEB_THREADS, DEFAULT_WEB_THREADS);
     }
 
+    public boolean isWebFlowCacheEnabled() {
+        return Boolean.parseBoolean(getProperty(WEB_FLOW_CACHE_ENABLED, DEFAULT_WEB_FLOW_CACHE_ENABLED.toString()));
+    }
+
     public int getClusterNodeMaxConcurrentRequests() {
         return getIntegerProperty(CLUSTER_NODE_MAX_CONCURRENT_REQUESTS, DEFAULT_CLUSTER_NODE_MAX_CONCURRENT_REQUESTS);
     }
 
+    public String getClusterNodeMaxResponseSize() {
+        return getProperty(CLUSTER_NODE_MAX_RESPONSE_SIZE, DEFAULT_CLUSTER_NODE_MAX_RESPONSE_SIZE);
+    }
+
     public File getWebWorkingDirectory() {
         return new File(getProperty(WEB_WORKING_DIR, DEFAULT_WEB_WORKING_DIR));
     }
@@ -24,6 +24,7 @@ import java.util.Map;
 
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordSet;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 
 public abstract class AbstractRecordSetWriter implements RecordSetWriter {
     private final OutputStream out;
@@ -60,6 +61,13 @@ public abstract class AbstractRecordSetWriter implements RecordSetWriter {
         return WriteResult.of(++recordCount, attributes);
     }
 
+    @Override
+    public final WriteResult writeBatch(final RecordBatch batch) throws IOException {
+        final Map<String, String> attributes = writeRecordBatch(batch);
+        recordCount += batch.getRecordCount();
+        return WriteResult.of(recordCount, attributes);
+    }
+
     protected OutputStream getOutputStream() {
         return out;
     }
@@ -118,4 +126,20 @@ public abstract class AbstractRecordSetWriter implements RecordSetWriter {
     }
 
     protected abstract Map<String, String> writeRecord(Record record) throws IOException;
+
+    /**
+     * Writes all of the records in the given batch. By default, a Record is created for each record in the batch and written via
+     * {@link #writeRecord(Record)}. Subclasses that are able to write the batch's columns directly should override this method.
+     *
+     * @param batch the batch of records to write
+     * @return a Map of key/value pairs that should be added to the FlowFile as attributes
+     */
+    protected Map<String, String> writeRecordBatch(final RecordBatch batch) throws IOException {
+        Map<String, String> attributes = Collections.emptyMap();
+        for (int i = 0; i < batch.getRecordCount(); i++) {
+            attributes = writeRecord(batch.getRecord(i));
+        }
+
+        return attributes;
+    }
 }
@@ -20,6 +20,8 @@ package org.apache.nifi.serialization;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordSchema;
 import org.apache.nifi.serialization.record.RecordSet;
+import org.apache.nifi.serialization.record.batch.ColumnarRecordBatch;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 
 import java.io.Closeable;
 import java.io.IOException;
@@ -70,6 +72,30 @@ public interface RecordReader extends Closeable {
      */
     Record nextRecord(boolean coerceTypes, boolean dropUnknownFields) throws IOException, MalformedRecordException;
 
+    /**
+     * Reads up to the given number of records from the underlying stream into a columnar {@link RecordBatch}. The batch has one column
+     * for each field in the schema returned by {@link #getSchema()}; types are coerced to that schema and any unknown fields are dropped.
+     * Implementations are encouraged to override this method in order to populate the batch's columns directly, rather than creating a
+     * Record for each record in the stream.
+     *
+     * @param maxRecords the maximum number of records to include in the batch
+     * @return a batch of up to <code>maxRecords</code> records, or <code>null</code> if no more records are available
+     *
+     * @throws IOException if unable to read from the underlying data
+     * @throws MalformedRecordException if an unrecoverable failure occurs when trying to parse a record
+     * @throws SchemaValidationException if a Record contains a field that violates the schema and cannot be coerced into the appropriate field type.
+     */
+    default RecordBatch nextBatch(final int maxRecords) throws IOException, MalformedRecordException {
+        final ColumnarRecordBatch batch = new ColumnarRecordBatch(getSchema(), Math.min(maxRecords, ColumnarRecordBatch.DEFAULT_INITIAL_CAPACITY));
+
+        Record record;
+        while (batch.getRecordCount() < maxRecords && (record = nextRecord()) != null) {
+            batch.addRecord(record);
+        }
+
+        return batch.getRecordCount() == 0 ? null : batch;
+    }
+
     /**
      * @return a RecordSchema that is appropriate for the records in the stream
      * @throws MalformedRecordException if an unrecoverable failure occurs when trying to parse the underlying data
@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 
 import org.apache.nifi.serialization.record.RecordSet;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 
 /**
  * <p>
@@ -43,6 +44,24 @@ public interface RecordSetWriter extends RecordWriter {
      */
     WriteResult write(RecordSet recordSet) throws IOException;
 
+    /**
+     * Writes all of the records in the given batch. Implementations are encouraged to override this method in order to write the
+     * batch's columns directly, rather than creating a Record for each record in the batch.
+     *
+     * @param batch the batch of records to write
+     *
+     * @return the results of writing the data
+     * @throws IOException if unable to write to the given OutputStream
+     */
+    default WriteResult writeBatch(final RecordBatch batch) throws IOException {
+        WriteResult result = WriteResult.EMPTY;
+        for (int i = 0; i < batch.getRecordCount(); i++) {
+            result = write(batch.getRecord(i));
+        }
+
+        return result;
+    }
+
     /**
      * Begins a new RecordSet
      *
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record.batch;
+
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
+
+import java.util.Arrays;
+
+/**
+ * A column of BOOLEAN values, held as primitive booleans
+ */
+public class BooleanColumnVector extends ColumnVector {
+    private boolean[] values;
+
+    public BooleanColumnVector(final RecordField field, final int initialCapacity) {
+        super(field, initialCapacity);
+        this.values = new boolean[getCapacity()];
+    }
+
+    public void appendBoolean(final boolean value) {
+        final int index = allocate(false);
+        values[index] = value;
+    }
+
+    /**
+     * @param index the index of the record
+     * @return the value at the given index, or <code>false</code> if the value is <code>null</code>
+     */
+    public boolean getBoolean(final int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    /**
+     * Provides direct access to the column's values, for callers that wish to operate on the entire column at once. Only the first
+     * {@link #size()} elements are meaningful, and an element whose value is <code>null</code> holds <code>false</code>.
+     *
+     * @return the array that backs this column
+     */
+    public boolean[] getValues() {
+        return values;
+    }
+
+    @Override
+    protected void appendValue(final Object value) {
+        if (value instanceof Boolean) {
+            appendBoolean((Boolean) value);
+        } else {
+            appendBoolean(DataTypeUtils.toBoolean(value, getField().getFieldName()));
+        }
+    }
+
+    @Override
+    public Object getObject(final int index) {
+        return isNull(index) ? null : values[index];
+    }
+
+    @Override
+    public String getAsString(final int index, final String format) {
+        return isNull(index) ? null : String.valueOf(values[index]);
+    }
+
+    @Override
+    protected void grow(final int capacity) {
+        values = Arrays.copyOf(values, capacity);
+    }
+}
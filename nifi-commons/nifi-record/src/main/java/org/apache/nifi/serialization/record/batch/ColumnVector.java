@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record.batch;
+
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * The values of a single field across all of the records in a {@link RecordBatch}. Subclasses hold the values of numeric and boolean
+ * fields in primitive arrays; see {@link LongColumnVector}, {@link DoubleColumnVector}, and {@link BooleanColumnVector}. Values of all
+ * other types are held by an {@link ObjectColumnVector}.
+ * </p>
+ *
+ * <p>
+ * Values are appended in record order. A ColumnVector is not thread-safe.
+ * </p>
+ */
+public abstract class ColumnVector {
+    private static final int MIN_CAPACITY = 16;
+
+    private final RecordField field;
+    private boolean[] nulls;
+    private int size = 0;
+
+    protected ColumnVector(final RecordField field, final int initialCapacity) {
+        this.field = field;
+        this.nulls = new boolean[Math.max(initialCapacity, MIN_CAPACITY)];
+    }
+
+    /**
+     * Creates a ColumnVector that is appropriate for the given field's type
+     *
+     * @param field the field whose values will be held by the column
+     * @param initialCapacity the number of values for which space should initially be allocated
+     * @return a ColumnVector for the given field
+     */
+    public static ColumnVector create(final RecordField field, final int initialCapacity) {
+        switch (field.getDataType().getFieldType()) {
+            case BYTE:
+            case SHORT:
+            case INT:
+            case LONG:
+                return new LongColumnVector(field, initialCapacity);
+            case FLOAT:
+            case DOUBLE:
+                return new DoubleColumnVector(field, initialCapacity);
+            case BOOLEAN:
+                return new BooleanColumnVector(field, initialCapacity);
+            default:
+                return new ObjectColumnVector(field, initialCapacity);
+        }
+    }
+
+    /**
+     * @return the field whose values are held by this column
+     */
+    public RecordField getField() {
+        return field;
+    }
+
+    /**
+     * @return the number of values in this column
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index the index of the record
+     * @return <code>true</code> if the value at the given index is <code>null</code>
+     */
+    public boolean isNull(final int index) {
+        checkIndex(index);
+        return nulls[index];
+    }
+
+    /**
+     * Appends a value to the column, converting it to the column's type if necessary. As with a Record, a <code>null</code> value is
+     * replaced with the field's default value, if it has one.
+     *
+     * @param value the value to append, may be <code>null</code>
+     * @throws org.apache.nifi.serialization.record.util.IllegalTypeConversionException if the value cannot be converted to the column's type
+     */
+    public void append(final Object value) {
+        final Object resolved = value == null ? field.getDefaultValue() : value;
+        if (resolved == null) {
+            appendNull();
+        } else {
+            appendValue(resolved);
+        }
+    }
+
+    public void appendNull() {
+        allocate(true);
+    }
+
+    /**
+     * @param index the index of the record
+     * @return the value at the given index, as the type that a Record would hold for the column's field, or <code>null</code> if the
+     *         value is <code>null</code>
+     */
+    public abstract Object getObject(int index);
+
+    /**
+     * @param index the index of the record
+     * @param format the format to use for date, time, and timestamp values, may be <code>null</code>
+     * @return the value at the given index as a String, or <code>null</code> if the value is <code>null</code>
+     */
+    public String getAsString(final int index, final String format) {
+        final Object value = getObject(index);
+        return value == null ? null : DataTypeUtils.toString(value, format);
+    }
+
+    /**
+     * Appends the given non-null value to the column
+     *
+     * @param value the value to append
+     */
+    protected abstract void appendValue(Object value);
+
+    /**
+     * Grows the subclass's storage so that it is able to hold the given number of values
+     *
+     * @param capacity the number of values that must be able to be held
+     */
+    protected abstract void grow(int capacity);
+
+    /**
+     * Allocates the next index in the column, growing the column's storage if necessary. Because growing the storage replaces the
+     * subclass's arrays, this must be called before the subclass references its array in order to store the value.
+     *
+     * @param isNull whether or not the value at the new index is <code>null</code>
+     * @return the index at which the subclass is to store the value
+     */
+    protected final int allocate(final boolean isNull) {
+        if (size == nulls.length) {
+            final int capacity = nulls.length * 2;
+            nulls = Arrays.copyOf(nulls, capacity);
+            grow(capacity);
+        }
+
+        nulls[size] = isNull;
+        return size++;
+    }
+
+    protected final void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for column " + field.getFieldName() + " with " + size + " values");
+        }
+    }
+
+    protected final int getCapacity() {
+        return nulls.length;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record.batch;
+
+import org.apache.nifi.serialization.record.MapRecord;
+import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordSchema;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * <p>
+ * A {@link RecordBatch} that is populated one record at a time. Records may be added either by calling {@link #addRecord(Record)} or,
+ * to avoid creating a Record at all, by appending a value to each column and then calling {@link #completeRecord()}.
+ * </p>
+ *
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ */
+public class ColumnarRecordBatch implements RecordBatch {
+    /**
+     * The number of records for which space is allocated up front when the number of records that a batch will hold is not known
+     */
+    public static final int DEFAULT_INITIAL_CAPACITY = 1024;
+
+    private final RecordSchema schema;
+    private final List<RecordField> fields;
+    private final ColumnVector[] columns;
+    private final Map<String, ColumnVector> columnsByName = new HashMap<>();
+    private int recordCount = 0;
+
+    public ColumnarRecordBatch(final RecordSchema schema, final int initialCapacity) {
+        this.schema = schema;
+        this.fields = schema.getFields();
+        this.columns = new ColumnVector[fields.size()];
+
+        for (int i = 0; i < columns.length; i++) {
+            final RecordField field = fields.get(i);
+            final ColumnVector column = ColumnVector.create(field, initialCapacity);
+            columns[i] = column;
+
+            for (final String alias : field.getAliases()) {
+                columnsByName.put(alias, column);
+            }
+        }
+
+        // Add field names after aliases so that a field name always takes precedence over another field's alias.
+        for (int i = 0; i < columns.length; i++) {
+            columnsByName.put(fields.get(i).getFieldName(), columns[i]);
+        }
+    }
+
+    @Override
+    public RecordSchema getSchema() {
+        return schema;
+    }
+
+    @Override
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public ColumnVector getColumn(final int columnIndex) {
+        return columns[columnIndex];
+    }
+
+    @Override
+    public Optional<ColumnVector> getColumn(final String fieldName) {
+        return Optional.ofNullable(columnsByName.get(fieldName));
+    }
+
+    /**
+     * Appends the values of the given Record to the batch. Any field of the Record that is not in the batch's schema is ignored.
+     *
+     * @param record the record to add
+     */
+    public void addRecord(final Record record) {
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].append(record.getValue(fields.get(i)));
+        }
+
+        recordCount++;
+    }
+
+    /**
+     * Completes a record whose values have been appended directly to the batch's columns. Any column to which no value was appended for
+     * the record is given its field's default value, or <code>null</code> if the field has no default value.
+     *
+     * @throws IllegalStateException if more than one value was appended to any column since the last record was completed
+     */
+    public void completeRecord() {
+        for (final ColumnVector column : columns) {
+            final int size = column.size();
+            if (size == recordCount) {
+                column.append(null);
+            } else if (size != recordCount + 1) {
+                throw new IllegalStateException("Column " + column.getField().getFieldName() + " has " + size + " values but the batch is completing record " + (recordCount + 1));
+            }
+        }
+
+        recordCount++;
+    }
+
+    @Override
+    public Record getRecord(final int index) {
+        if (index < 0 || index >= recordCount) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for batch with " + recordCount + " records");
+        }
+
+        final Map<String, Object> values = new LinkedHashMap<>(columns.length * 2);
+        for (int i = 0; i < columns.length; i++) {
+            values.put(fields.get(i).getFieldName(), columns[i].getObject(index));
+        }
+
+        return new MapRecord(schema, values);
+    }
+}
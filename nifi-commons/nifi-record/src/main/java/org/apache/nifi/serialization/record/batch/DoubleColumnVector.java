@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record.batch;
+
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
+
+import java.util.Arrays;
+
+/**
+ * A column of FLOAT or DOUBLE values, held as primitive doubles
+ */
+public class DoubleColumnVector extends ColumnVector {
+    private final boolean floatField;
+    private double[] values;
+
+    public DoubleColumnVector(final RecordField field, final int initialCapacity) {
+        super(field, initialCapacity);
+        this.floatField = field.getDataType().getFieldType() == RecordFieldType.FLOAT;
+        this.values = new double[getCapacity()];
+    }
+
+    public void appendDouble(final double value) {
+        final int index = allocate(false);
+        values[index] = value;
+    }
+
+    /**
+     * @param index the index of the record
+     * @return the value at the given index, or 0 if the value is <code>null</code>
+     */
+    public double getDouble(final int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    /**
+     * Provides direct access to the column's values, for callers that wish to operate on the entire column at once. Only the first
+     * {@link #size()} elements are meaningful, and an element whose value is <code>null</code> holds 0.
+     *
+     * @return the array that backs this column
+     */
+    public double[] getValues() {
+        return values;
+    }
+
+    @Override
+    protected void appendValue(final Object value) {
+        if (floatField) {
+            // Convert to a float first so that the value is rounded in the same way as it would be when held by a Record
+            appendDouble(value instanceof Number ? ((Number) value).floatValue() : DataTypeUtils.toFloat(value, getField().getFieldName()));
+        } else {
+            appendDouble(value instanceof Number ? ((Number) value).doubleValue() : DataTypeUtils.toDouble(value, getField().getFieldName()));
+        }
+    }
+
+    @Override
+    public Object getObject(final int index) {
+        if (isNull(index)) {
+            return null;
+        }
+
+        return floatField ? (Object) (float) values[index] : (Object) values[index];
+    }
+
+    @Override
+    public String getAsString(final int index, final String format) {
+        if (isNull(index)) {
+            return null;
+        }
+
+        return floatField ? String.valueOf((float) values[index]) : String.valueOf(values[index]);
+    }
+
+    @Override
+    protected void grow(final int capacity) {
+        values = Arrays.copyOf(values, capacity);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record.batch;
+
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
+
+import java.util.Arrays;
+
+/**
+ * A column of BYTE, SHORT, INT, or LONG values, held as primitive longs
+ */
+public class LongColumnVector extends ColumnVector {
+    private final RecordFieldType fieldType;
+    private long[] values;
+
+    public LongColumnVector(final RecordField field, final int initialCapacity) {
+        super(field, initialCapacity);
+        this.fieldType = field.getDataType().getFieldType();
+        this.values = new long[getCapacity()];
+    }
+
+    public void appendLong(final long value) {
+        final int index = allocate(false);
+        values[index] = value;
+    }
+
+    /**
+     * @param index the index of the record
+     * @return the value at the given index, or 0 if the value is <code>null</code>
+     */
+    public long getLong(final int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    /**
+     * Provides direct access to the column's values, for callers that wish to operate on the entire column at once. Only the first
+     * {@link #size()} elements are meaningful, and an element whose value is <code>null</code> holds 0.
+     *
+     * @return the array that backs this column
+     */
+    public long[] getValues() {
+        return values;
+    }
+
+    @Override
+    protected void appendValue(final Object value) {
+        if (value instanceof Number) {
+            appendLong(((Number) value).longValue());
+        } else {
+            appendLong(DataTypeUtils.toLong(value, getField().getFieldName()));
+        }
+    }
+
+    @Override
+    public Object getObject(final int index) {
+        if (isNull(index)) {
+            return null;
+        }
+
+        final long value = values[index];
+        switch (fieldType) {
+            case BYTE:
+                return (byte) value;
+            case SHORT:
+                return (short) value;
+            case INT:
+                return (int) value;
+            default:
+                return value;
+        }
+    }
+
+    @Override
+    public String getAsString(final int index, final String format) {
+        return isNull(index) ? null : String.valueOf(values[index]);
+    }
+
+    @Override
+    protected void grow(final int capacity) {
+        values = Arrays.copyOf(values, capacity);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record.batch;
+
+import org.apache.nifi.serialization.record.RecordField;
+
+import java.util.Arrays;
+
+/**
+ * A column of values that have no primitive representation, such as Strings, dates, arrays, maps, and child Records
+ */
+public class ObjectColumnVector extends ColumnVector {
+    private Object[] values;
+
+    public ObjectColumnVector(final RecordField field, final int initialCapacity) {
+        super(field, initialCapacity);
+        this.values = new Object[getCapacity()];
+    }
+
+    @Override
+    protected void appendValue(final Object value) {
+        final int index = allocate(false);
+        values[index] = value;
+    }
+
+    @Override
+    public Object getObject(final int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    @Override
+    protected void grow(final int capacity) {
+        values = Arrays.copyOf(values, capacity);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record.batch;
+
+import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordSchema;
+
+import java.util.Optional;
+
+/**
+ * <p>
+ * A batch of Records whose values are held column by column rather than record by record. Each field of the batch's schema has a
+ * corresponding {@link ColumnVector}, and numeric and boolean fields are held in primitive arrays, so a batch of many thousands of
+ * records can be produced and consumed without creating an Object for each record or for each field value.
+ * </p>
+ *
+ * <p>
+ * PLEASE NOTE: This interface is still considered 'unstable' and may change in a non-backward-compatible
+ * manner between minor or incremental releases of NiFi.
+ * </p>
+ */
+public interface RecordBatch {
+
+    /**
+     * @return the schema of the records in the batch. The batch has one column for each field in the schema, in the same order.
+     */
+    RecordSchema getSchema();
+
+    /**
+     * @return the number of records in the batch
+     */
+    int getRecordCount();
+
+    /**
+     * @param columnIndex the index of the field in the batch's schema
+     * @return the column holding the values of the field at the given index
+     */
+    ColumnVector getColumn(int columnIndex);
+
+    /**
+     * @param fieldName the name, or an alias, of a field in the batch's schema
+     * @return the column holding the values of the given field, or an empty Optional if the schema has no such field
+     */
+    Optional<ColumnVector> getColumn(String fieldName);
+
+    /**
+     * Creates a Record that holds the values of the record at the given index. This allows a batch to be handed to code that operates
+     * on one Record at a time, but doing so gives up the benefit of the columnar representation.
+     *
+     * @param index the index of the record in the batch
+     * @return a Record containing the values of the record at the given index
+     */
+    Record getRecord(int index);
+}
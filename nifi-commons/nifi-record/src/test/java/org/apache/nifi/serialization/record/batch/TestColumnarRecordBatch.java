@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.serialization.record.batch;
+
+import org.apache.nifi.serialization.SimpleRecordSchema;
+import org.apache.nifi.serialization.record.MapRecord;
+import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.RecordField;
+import org.apache.nifi.serialization.record.RecordFieldType;
+import org.apache.nifi.serialization.record.RecordSchema;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestColumnarRecordBatch {
+
+    private RecordSchema createSchema() {
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("id", RecordFieldType.INT.getDataType(), Collections.singleton("identifier")));
+        fields.add(new RecordField("name", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("score", RecordFieldType.FLOAT.getDataType()));
+        fields.add(new RecordField("active", RecordFieldType.BOOLEAN.getDataType()));
+        return new SimpleRecordSchema(fields);
+    }
+
+    @Test
+    public void testAddRecords() {
+        final RecordSchema schema = createSchema();
+        final ColumnarRecordBatch batch = new ColumnarRecordBatch(schema, 1);
+
+        for (int i = 0; i < 100; i++) {
+            final Map<String, Object> values = new HashMap<>();
+            values.put("id", i);
+            values.put("name", "name-" + i);
+            values.put("score", i % 2 == 0 ? null : i + 0.1F);
+            values.put("active", i % 3 == 0);
+            batch.addRecord(new MapRecord(schema, values));
+        }
+
+        assertEquals(100, batch.getRecordCount());
+
+        final LongColumnVector ids = (LongColumnVector) batch.getColumn(0);
+        final DoubleColumnVector scores = (DoubleColumnVector) batch.getColumn("score").get();
+        final BooleanColumnVector active = (BooleanColumnVector) batch.getColumn("active").get();
+        assertEquals(100, ids.size());
+
+        long sum = 0;
+        final long[] idValues = ids.getValues();
+        for (int i = 0; i < ids.size(); i++) {
+            sum += idValues[i];
+        }
+        assertEquals(4950L, sum);
+
+        assertTrue(scores.isNull(10));
+        assertFalse(scores.isNull(11));
+        assertEquals(11.1F, (Float) scores.getObject(11), 0F);
+        assertEquals("11.1", scores.getAsString(11, null));
+        assertTrue(active.getBoolean(99));
+        assertFalse(active.getBoolean(98));
+
+        final Record record = batch.getRecord(7);
+        assertEquals(7, record.getValue("id"));
+        assertEquals("name-7", record.getValue("name"));
+        assertEquals(7.1F, record.getValue("score"));
+        assertEquals(Boolean.FALSE, record.getValue("active"));
+    }
+
+    @Test
+    public void testAppendColumnsDirectly() {
+        final ColumnarRecordBatch batch = new ColumnarRecordBatch(createSchema(), 16);
+
+        ((LongColumnVector) batch.getColumn("identifier").get()).appendLong(1L);
+        batch.getColumn("name").get().append("first");
+        batch.completeRecord();
+
+        batch.getColumn(0).append("2");
+        batch.getColumn(3).append(true);
+        batch.completeRecord();
+
+        assertEquals(2, batch.getRecordCount());
+        assertEquals(Arrays.asList(1, 2), Arrays.asList(batch.getColumn(0).getObject(0), batch.getColumn(0).getObject(1)));
+        assertEquals("first", batch.getColumn(1).getObject(0));
+        assertNull(batch.getColumn(1).getObject(1));
+        assertNull(batch.getRecord(0).getValue("active"));
+        assertEquals(Boolean.TRUE, batch.getRecord(1).getValue("active"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCompleteRecordWithTooManyValues() {
+        final ColumnarRecordBatch batch = new ColumnarRecordBatch(createSchema(), 16);
+        batch.getColumn(1).append("a");
+        batch.getColumn(1).append("b");
+        batch.completeRecord();
+    }
+}
@@ -411,6 +411,20 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
 
     @Override
     public JournalRecovery recoverRecords(final Map<Object, T> recordMap, final Set<String> swapLocations) throws IOException {
+        return recoverRecords(new BufferedInputStream(new FileInputStream(journalFile)), recordMap, swapLocations);
+    }
+
+    /**
+     * Recovers records from the given stream, which must provide the contents of this journal's file. This allows the caller
+     * to control how the file is read, such as reading it ahead on another thread. The stream is closed by this method.
+     *
+     * @param journalIn the contents of the journal file
+     * @param recordMap the map of Record ID to Record to update
+     * @param swapLocations the set of swap locations to update
+     * @return a summary of what was recovered
+     * @throws IOException if unable to recover the records
+     */
+    JournalRecovery recoverRecords(final InputStream journalIn, final Map<Object, T> recordMap, final Set<String> swapLocations) throws IOException {
         long maxTransactionId = -1L;
         int updateCount = 0;
 
@@ -418,8 +432,7 @@ public class LengthDelimitedJournal<T> implements WriteAheadJournal<T> {
         logger.info("Recovering records from journal {}", journalFile);
         final double journalLength = journalFile.length();
 
-        try (final InputStream fis = new FileInputStream(journalFile);
-            final InputStream bufferedIn = new BufferedInputStream(fis);
+        try (final InputStream bufferedIn = journalIn;
             final ByteCountingInputStream byteCountingIn = new ByteCountingInputStream(bufferedIn);
             final DataInputStream in = new DataInputStream(byteCountingIn)) {
 
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.wali;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * An InputStream over the contents of a file, where the file is read in large blocks by a separate thread. This allows the
+ * disk reads to be performed while the consuming thread is busy deserializing what has already been read. At most
+ * <code>maxQueuedBlocks</code> blocks are held in memory at any one time; once that many are waiting to be consumed,
+ * the reading thread blocks until the consumer catches up.
+ * </p>
+ *
+ * <p>
+ * The reading thread is expected to call {@link #fill()}. The consumer may call {@link #close()} at any time, which causes any
+ * in-progress or future call to {@link #fill()} to return promptly.
+ * </p>
+ */
+class ReadAheadInputStream extends InputStream {
+    private static final Block END_OF_FILE = new Block(new byte[0], 0, null);
+
+    private final File file;
+    private final int blockSize;
+    private final BlockingQueue<Block> blocks;
+
+    private volatile boolean closed = false;
+    private Block currentBlock;
+    private int currentOffset;
+    private long waitNanos = 0L;
+
+    ReadAheadInputStream(final File file, final int blockSize, final int maxQueuedBlocks) {
+        this.file = file;
+        this.blockSize = blockSize;
+        this.blocks = new LinkedBlockingQueue<>(maxQueuedBlocks);
+    }
+
+    /**
+     * Reads the entire file, making its contents available to the consumer. If unable to read the file, the failure is
+     * thrown to the consumer on its next read rather than from this method.
+     */
+    void fill() {
+        try (final InputStream in = new FileInputStream(file)) {
+            while (!closed) {
+                final byte[] buffer = new byte[blockSize];
+
+                int length = 0;
+                int read;
+                while (length < blockSize && (read = in.read(buffer, length, blockSize - length)) != -1) {
+                    length += read;
+                }
+
+                if (length > 0 && !enqueue(new Block(buffer, length, null))) {
+                    return;
+                }
+
+                if (length < blockSize) {
+                    enqueue(END_OF_FILE);
+                    return;
+                }
+            }
+        } catch (final IOException ioe) {
+            enqueue(new Block(null, 0, ioe));
+        }
+    }
+
+    private boolean enqueue(final Block block) {
+        try {
+            while (!closed) {
+                if (blocks.offer(block, 100, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+
+        return false;
+    }
+
+    /**
+     * @return the number of nanoseconds that the consumer has spent waiting for data to be read from disk
+     */
+    long getWaitNanos() {
+        return waitNanos;
+    }
+
+    private boolean nextBlock() throws IOException {
+        if (currentBlock == END_OF_FILE) {
+            return false;
+        }
+
+        if (currentBlock != null && currentOffset < currentBlock.length) {
+            return true;
+        }
+
+        final long start = System.nanoTime();
+        try {
+            currentBlock = blocks.take();
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for contents of " + file + " to be read");
+        } finally {
+            waitNanos += System.nanoTime() - start;
+        }
+
+        currentOffset = 0;
+        if (currentBlock.failure != null) {
+            final IOException failure = currentBlock.failure;
+            currentBlock = END_OF_FILE;
+            throw new IOException("Failed to read " + file, failure);
+        }
+
+        return currentBlock != END_OF_FILE;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextBlock()) {
+            return -1;
+        }
+
+        return currentBlock.data[currentOffset++] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        if (!nextBlock()) {
+            return -1;
+        }
+
+        final int toCopy = Math.min(len, currentBlock.length - currentOffset);
+        System.arraycopy(currentBlock.data, currentOffset, b, off, toCopy);
+        currentOffset += toCopy;
+        return toCopy;
+    }
+
+    @Override
+    public int available() {
+        return currentBlock == null ? 0 : currentBlock.length - currentOffset;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        blocks.clear();
+        currentBlock = END_OF_FILE;
+    }
+
+
+    private static class Block {
+        private final byte[] data;
+        private final int length;
+        private final IOException failure;
+
+        public Block(final byte[] data, final int length, final IOException failure) {
+            this.data = data;
+            this.length = length;
+            this.failure = failure;
+        }
+    }
+}
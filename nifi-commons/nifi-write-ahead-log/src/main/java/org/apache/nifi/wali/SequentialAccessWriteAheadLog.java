@@ -30,6 +30,7 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -61,6 +62,8 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
     private static final Pattern JOURNAL_FILENAME_PATTERN = Pattern.compile("\\d+\\.journal");
     private static final int MAX_BUFFERS = 64;
     private static final int BUFFER_SIZE = 256 * 1024;
+    private static final int RECOVERY_BLOCK_SIZE = 1024 * 1024;
+    private static final int MAX_RECOVERY_BLOCKS = 32;
 
     private final File storageDirectory;
     private final File journalsDirectory;
@@ -145,27 +148,12 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
 
         final long recoverStart = System.nanoTime();
         recovered = true;
-        snapshotRecovery = snapshot.recover();
-        this.recoveredSwapLocations.addAll(snapshotRecovery.getRecoveredSwapLocations());
-
-        final long snapshotRecoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - recoverStart);
-
-        final Map<Object, T> recoveredRecords = snapshotRecovery.getRecords();
-        final Set<String> swapLocations = snapshotRecovery.getRecoveredSwapLocations();
 
         final File[] journalFiles = journalsDirectory.listFiles(this::isJournalFile);
         if (journalFiles == null) {
             throw new IOException("Cannot access the list of files in directory " + journalsDirectory + "; please ensure that appropriate file permissions are set.");
         }
 
-        if (snapshotRecovery.getRecoveryFile() == null) {
-            logger.info("No Snapshot File to recover from at {}. Now recovering records from {} journal files", storageDirectory, journalFiles.length);
-        } else {
-            logger.info("Successfully recovered {} records and {} swap files from Snapshot at {} with Max Transaction ID of {} in {} milliseconds. Now recovering records from {} journal files",
-                recoveredRecords.size(), swapLocations.size(), snapshotRecovery.getRecoveryFile(), snapshotRecovery.getMaxTransactionId(),
-                snapshotRecoveryMillis, journalFiles.length);
-        }
-
         final List<File> orderedJournalFiles = Arrays.asList(journalFiles);
         Collections.sort(orderedJournalFiles, new Comparator<File>() {
             @Override
@@ -177,48 +165,98 @@ public class SequentialAccessWriteAheadLog<T> implements WriteAheadRepository<T>
             }
         });
 
-        final long snapshotTransactionId = snapshotRecovery.getMaxTransactionId();
+        // Begin reading the journals from disk on a background thread so that the I/O overlaps with deserializing the Snapshot and
+        // with deserializing the journals themselves. The journals must still be applied sequentially, because the SerDe may need
+        // the current state of a record in order to deserialize an update to it.
+        final Map<File, ReadAheadInputStream> journalStreams = new LinkedHashMap<>();
+        for (final File journalFile : orderedJournalFiles) {
+            journalStreams.put(journalFile, new ReadAheadInputStream(journalFile, RECOVERY_BLOCK_SIZE, MAX_RECOVERY_BLOCKS));
+        }
 
-        int totalUpdates = 0;
-        int journalFilesRecovered = 0;
-        int journalFilesSkipped = 0;
-        long maxTransactionId = snapshotTransactionId;
+        final Thread journalReaderThread = new Thread(() -> journalStreams.values().forEach(ReadAheadInputStream::fill));
+        journalReaderThread.setName("Write-Ahead Log Journal Reader");
+        journalReaderThread.setDaemon(true);
+        journalReaderThread.start();
 
-        for (final File journalFile : orderedJournalFiles) {
-            final long journalMinTransactionId = getMinTransactionId(journalFile);
-            if (journalMinTransactionId < snapshotTransactionId) {
-                logger.debug("Will not recover records from journal file {} because the minimum Transaction ID for that journal is {} and the Transaction ID recovered from Snapshot was {}",
-                    journalFile, journalMinTransactionId, snapshotTransactionId);
+        long journalReadWaitNanos = 0L;
+        final long journalRecoveryStart;
+        try {
+            snapshotRecovery = snapshot.recover();
+            this.recoveredSwapLocations.addAll(snapshotRecovery.getRecoveredSwapLocations());
+
+            final long snapshotRecoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - recoverStart);
 
-                journalFilesSkipped++;
-                continue;
+            final Map<Object, T> recoveredRecords = snapshotRecovery.getRecords();
+            final Set<String> swapLocations = snapshotRecovery.getRecoveredSwapLocations();
+
+            if (snapshotRecovery.getRecoveryFile() == null) {
+                logger.info("No Snapshot File to recover from at {}. Now recovering records from {} journal files", storageDirectory, journalFiles.length);
+            } else {
+                logger.info("Successfully recovered {} records and {} swap files from Snapshot at {} with Max Transaction ID of {} in {} milliseconds. Now recovering records from {} journal files",
+                    recoveredRecords.size(), swapLocations.size(), snapshotRecovery.getRecoveryFile(), snapshotRecovery.getMaxTransactionId(),
+                    snapshotRecoveryMillis, journalFiles.length);
             }
 
-            logger.debug("Min Transaction ID for journal {} is {}, so will recover records from journal", journalFile, journalMinTransactionId);
-            journalFilesRecovered++;
+            final long snapshotTransactionId = snapshotRecovery.getMaxTransactionId();
+
+            int totalUpdates = 0;
+            int journalFilesRecovered = 0;
+            int journalFilesSkipped = 0;
+            long maxTransactionId = snapshotTransactionId;
+            journalRecoveryStart = System.nanoTime();
 
-            try (final WriteAheadJournal<T> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
-                final JournalRecovery journalRecovery = journal.recoverRecords(recoveredRecords, swapLocations);
-                final int updates = journalRecovery.getUpdateCount();
+            for (final File journalFile : orderedJournalFiles) {
+                final ReadAheadInputStream journalIn = journalStreams.get(journalFile);
 
-                logger.debug("Recovered {} updates from journal {}", updates, journalFile);
-                totalUpdates += updates;
-                maxTransactionId = Math.max(maxTransactionId, journalRecovery.getMaxTransactionId());
+                final long journalMinTransactionId = getMinTransactionId(journalFile);
+                if (journalMinTransactionId < snapshotTransactionId) {
+                    logger.debug("Will not recover records from journal file {} because the minimum Transaction ID for that journal is {} and the Transaction ID recovered from Snapshot was {}",
+                        journalFile, journalMinTransactionId, snapshotTransactionId);
+
+                    journalIn.close();
+                    journalFilesSkipped++;
+                    continue;
+                }
+
+                logger.debug("Min Transaction ID for journal {} is {}, so will recover records from journal", journalFile, journalMinTransactionId);
+                journalFilesRecovered++;
+
+                try (final LengthDelimitedJournal<T> journal = new LengthDelimitedJournal<>(journalFile, serdeFactory, streamPool, 0L)) {
+                    final JournalRecovery journalRecovery = journal.recoverRecords(journalIn, recoveredRecords, swapLocations);
+                    final int updates = journalRecovery.getUpdateCount();
+
+                    logger.debug("Recovered {} updates from journal {}", updates, journalFile);
+                    totalUpdates += updates;
+                    maxTransactionId = Math.max(maxTransactionId, journalRecovery.getMaxTransactionId());
+                } finally {
+                    journalReadWaitNanos += journalIn.getWaitNanos();
+                }
             }
-        }
 
-        logger.debug("Recovered {} updates from {} journal files and skipped {} journal files because their data was already encapsulated in the snapshot",
-            totalUpdates, journalFilesRecovered, journalFilesSkipped);
-        this.nextTransactionId = maxTransactionId + 1;
+            logger.debug("Recovered {} updates from {} journal files and skipped {} journal files because their data was already encapsulated in the snapshot",
+                totalUpdates, journalFilesRecovered, journalFilesSkipped);
+            this.nextTransactionId = maxTransactionId + 1;
+            this.recoveredSwapLocations.addAll(swapLocations);
+        } finally {
+            // Ensure that the reader thread does not remain blocked on a journal that was not fully consumed.
+            journalStreams.values().forEach(ReadAheadInputStream::close);
+        }
 
-        final long recoverNanos = System.nanoTime() - recoverStart;
+        final Map<Object, T> recoveredRecords = snapshotRecovery.getRecords();
+        final long checkpointStart = System.nanoTime();
+        final long recoverNanos = checkpointStart - recoverStart;
         final long recoveryMillis = TimeUnit.MILLISECONDS.convert(recoverNanos, TimeUnit.NANOSECONDS);
         logger.info("Successfully recovered {} records in {} milliseconds. Now checkpointing to ensure that Write-Ahead Log is in a consistent state", recoveredRecords.size(), recoveryMillis);
 
-        this.recoveredSwapLocations.addAll(swapLocations);
-
         checkpoint(this.recoveredSwapLocations);
 
+        final long checkpointEnd = System.nanoTime();
+        logger.info("Write-Ahead Log recovery completed in {} milliseconds: Snapshot recovery took {} milliseconds, Journal recovery took {} milliseconds "
+                + "(of which {} milliseconds were spent waiting for journal data to be read from disk), and Checkpoint took {} milliseconds",
+            TimeUnit.NANOSECONDS.toMillis(checkpointEnd - recoverStart), TimeUnit.NANOSECONDS.toMillis(journalRecoveryStart - recoverStart),
+            TimeUnit.NANOSECONDS.toMillis(checkpointStart - journalRecoveryStart), TimeUnit.NANOSECONDS.toMillis(journalReadWaitNanos),
+            TimeUnit.NANOSECONDS.toMillis(checkpointEnd - checkpointStart));
+
         return recoveredRecords.values();
     }
 
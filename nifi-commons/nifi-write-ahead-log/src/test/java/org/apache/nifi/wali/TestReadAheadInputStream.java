@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.wali;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class TestReadAheadInputStream {
+
+    @Test(timeout = 10000)
+    public void testReadsEntireFile() throws IOException, InterruptedException {
+        final byte[] data = new byte[10_000];
+        new Random().nextBytes(data);
+        final File file = createFile(data);
+
+        // Use a block size that does not evenly divide the file and fewer queued blocks than the file requires
+        final ReadAheadInputStream in = new ReadAheadInputStream(file, 777, 2);
+        final Thread reader = new Thread(in::fill);
+        reader.start();
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[100];
+        int len;
+        while ((len = in.read(buffer)) != -1) {
+            baos.write(buffer, 0, len);
+        }
+
+        assertArrayEquals(data, baos.toByteArray());
+        assertEquals(-1, in.read());
+
+        reader.join();
+        in.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testEmptyFile() throws IOException {
+        final ReadAheadInputStream in = new ReadAheadInputStream(createFile(new byte[0]), 16, 2);
+        in.fill();
+        assertEquals(-1, in.read());
+    }
+
+    @Test(timeout = 10000)
+    public void testCloseReleasesReader() throws IOException, InterruptedException {
+        final ReadAheadInputStream in = new ReadAheadInputStream(createFile(new byte[10_000]), 16, 1);
+        final Thread reader = new Thread(in::fill);
+        reader.start();
+
+        assertEquals(0, in.read());
+        in.close();
+
+        reader.join();
+        assertFalse(reader.isAlive());
+    }
+
+    @Test(timeout = 10000, expected = IOException.class)
+    public void testMissingFileThrownToConsumer() throws IOException {
+        final ReadAheadInputStream in = new ReadAheadInputStream(new File("target/does-not-exist-" + System.nanoTime()), 16, 1);
+        in.fill();
+        in.read();
+    }
+
+    private File createFile(final byte[] data) throws IOException {
+        final File file = File.createTempFile("read-ahead", ".journal");
+        file.deleteOnExit();
+        Files.write(file.toPath(), data);
+        return file;
+    }
+}
@@ -29,11 +29,24 @@ public enum LoadBalanceStrategy {
      */
     PARTITION_BY_ATTRIBUTE,
 
+    /**
+     * Determine which node to send a given FlowFile to based on the value of a user-specified FlowFile Attribute, using a consistent hash of the
+     * node identifiers. All FlowFiles that have the same value for said Attribute will be sent to the same node in the cluster, and when a node joins
+     * or leaves the cluster, only the values that belong to that node are reassigned.
+     */
+    CONSISTENT_HASH_BY_ATTRIBUTE,
+
     /**
      * FlowFiles will be distributed to nodes in the cluster in a Round-Robin fashion.
      */
     ROUND_ROBIN,
 
+    /**
+     * FlowFiles will be distributed to nodes in the cluster in proportion to how quickly each node is working off the data already queued for it,
+     * so that a node that falls behind, or that reports that its queue is full, receives less of the data.
+     */
+    LOAD_AWARE,
+
     /**
      * All FlowFiles will be sent to the same node. Which node they are sent to is not defined.
      */
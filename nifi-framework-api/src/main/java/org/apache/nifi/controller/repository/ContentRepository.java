@@ -23,6 +23,8 @@ import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Set;
@@ -236,6 +238,24 @@ public interface ContentRepository {
      */
     long exportTo(ContentClaim claim, OutputStream destination, long offset, long length) throws IOException;
 
+    /**
+     * Exports a subset of the content of the given claim, starting at offset
+     * and copying length bytes, to the given channel. Implementations that are
+     * backed by files may transfer the content directly from the file to the
+     * channel without copying it into the JVM's heap. The channel must be in
+     * blocking mode and is not closed by this method.
+     *
+     * @return the number of bytes copied
+     * @param claim to export from
+     * @param destination the channel to write the data to
+     * @param offset the offset into the claim at which the copy should begin
+     * @param length the number of bytes to copy
+     * @throws IOException if an IO error occurs.
+     */
+    default long exportTo(ContentClaim claim, WritableByteChannel destination, long offset, long length) throws IOException {
+        return exportTo(claim, Channels.newOutputStream(destination), offset, length);
+    }
+
     /**
      * @param claim to get size of
      * @return size in bytes of content for given claim
@@ -30,6 +30,12 @@ public class MockBulletinRepository implements BulletinRepository {
 
     }
 
+    @Override
+    public long getLastBulletinTime() {
+        // TODO: Implement
+        return 0;
+    }
+
     @Override
     public int getControllerBulletinCapacity() {
         // TODO: Implement
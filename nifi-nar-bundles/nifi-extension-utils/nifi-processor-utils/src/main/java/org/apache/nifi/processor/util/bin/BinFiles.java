@@ -108,14 +108,22 @@ public abstract class BinFiles extends AbstractSessionFactoryProcessor {
 
     @OnStopped
     public final void resetState() {
+        Bin bin;
+        while ((bin = binManager.removeOldestBin()) != null) {
+            rollback(bin);
+        }
         binManager.purge();
 
-        Bin bin;
         while ((bin = readyBins.poll()) != null) {
-            bin.getSession().rollback();
+            rollback(bin);
         }
     }
 
+    private void rollback(final Bin bin) {
+        bin.getSession().rollback();
+        onBinRolledBack(bin);
+    }
+
     /**
      * Allows general pre-processing of a flow file before it is offered to a bin. This is called before getGroupId().
      *
@@ -159,6 +167,15 @@ public abstract class BinFiles extends AbstractSessionFactoryProcessor {
      */
     protected abstract BinProcessingResult processBin(Bin unmodifiableBin, ProcessContext context) throws ProcessException;
 
+    /**
+     * Called after the session of a bin has been rolled back, rather than the bin being processed, so that any state
+     * that the implementing class keeps for the bin can be discarded.
+     *
+     * @param bin the bin whose session was rolled back
+     */
+    protected void onBinRolledBack(final Bin bin) {
+    }
+
     /**
      * Allows additional custom validation to be done. This will be called from the parent's customValidation method.
      *
@@ -236,7 +253,7 @@ public abstract class BinFiles extends AbstractSessionFactoryProcessor {
             } catch (final Exception e) {
                 logger.error("Failed to process bundle of {} files due to {}; rolling back sessions", new Object[] {bin.getContents().size(), e});
 
-                bin.getSession().rollback();
+                rollback(bin);
                 continue;
             }
 
@@ -0,0 +1,35 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.processor.util.bin;
+
+import org.apache.nifi.flowfile.FlowFile;
+
+/**
+ * Notified by a {@link BinManager} each time a FlowFile is added to one of its bins.
+ */
+public interface BinListener {
+
+    /**
+     * Called after the given FlowFile has been added to the given bin and migrated to the bin's session. This is called
+     * while the bin's group is locked, so the bin's session may be used but no other bin of the same group will be changed
+     * until this returns. Implementations should not throw exceptions, as the FlowFile has already been added to the bin.
+     *
+     * @param bin the bin that the FlowFile was added to
+     * @param flowFile the FlowFile that was added
+     */
+    void onFlowFileAdded(Bin bin, FlowFile flowFile);
+}
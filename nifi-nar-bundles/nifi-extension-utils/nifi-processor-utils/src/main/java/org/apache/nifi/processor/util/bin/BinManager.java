@@ -18,17 +18,17 @@ package org.apache.nifi.processor.util.bin;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.nifi.flowfile.FlowFile;
 import org.apache.nifi.processor.ProcessSession;
@@ -37,9 +37,15 @@ import org.apache.nifi.processor.ProcessSessionFactory;
 /**
  * This class is thread safe
  *
+ * The bins of each group are guarded by a lock for that group alone, so FlowFiles for different groups can be binned concurrently. Bins are
+ * also tracked in the order in which they were created and, once they have reached their minimum size, in a set of candidates, so that
+ * finding the bins that are ready does not require examining every bin of every group.
  */
 public class BinManager {
 
+    // ConcurrentHashMap does not allow null keys, so the null group identifier is mapped to this key instead
+    private static final Object NULL_GROUP_KEY = new Object();
+
     private final AtomicLong minSizeBytes = new AtomicLong(0L);
     private final AtomicLong maxSizeBytes = new AtomicLong(Long.MAX_VALUE);
     private final AtomicInteger minEntries = new AtomicInteger(0);
@@ -47,29 +53,31 @@ public class BinManager {
     private final AtomicReference<String> fileCountAttribute = new AtomicReference<>(null);
 
     private final AtomicInteger maxBinAgeSeconds = new AtomicInteger(Integer.MAX_VALUE);
-    private final Map<String, List<Bin>> groupBinMap = new HashMap<>();
-    private final ReentrantReadWriteLock rwLock = new ReentrantReadWriteLock();
-    private final Lock rLock = rwLock.readLock();
-    private final Lock wLock = rwLock.writeLock();
+    private final ConcurrentMap<Object, BinGroup> groupBinMap = new ConcurrentHashMap<>();
+
+    // all bins from oldest to newest, and the bins that have been found to meet at least their minimum requirements
+    private final ConcurrentSkipListSet<BinEntry> binsByAge = new ConcurrentSkipListSet<>();
+    private final Set<BinEntry> fullEnoughBins = ConcurrentHashMap.newKeySet();
+    private final AtomicLong binSequence = new AtomicLong(0L);
 
-    private int binCount = 0;   // guarded by read/write lock
+    private final AtomicInteger binCount = new AtomicInteger(0);
+    private volatile BinListener binListener;
 
     public BinManager() {
     }
 
     public void purge() {
-        wLock.lock();
-        try {
-            for (final List<Bin> binList : groupBinMap.values()) {
-                for (final Bin bin : binList) {
-                    bin.getSession().rollback();
+        for (final BinGroup group : groupBinMap.values()) {
+            synchronized (group) {
+                for (final BinEntry entry : group.entries) {
+                    entry.bin.getSession().rollback();
+                    removeTracking(entry);
                 }
+                group.entries.clear();
+                group.removed = true;
             }
-            groupBinMap.clear();
-            binCount = 0;
-        } finally {
-            wLock.unlock();
         }
+        groupBinMap.clear();
     }
 
     public void setFileCountAttribute(final String fileCountAttribute) {
@@ -89,12 +97,7 @@ public class BinManager {
     }
 
     public int getBinCount() {
-        rLock.lock();
-        try {
-            return binCount;
-        } finally {
-            rLock.unlock();
-        }
+        return binCount.get();
     }
 
     public void setMinimumSize(final long numBytes) {
@@ -109,6 +112,13 @@ public class BinManager {
         maxBinAgeSeconds.set(seconds);
     }
 
+    /**
+     * @param binListener the listener to notify whenever a FlowFile is added to a bin, or null if no listener should be notified
+     */
+    public void setBinListener(final BinListener binListener) {
+        this.binListener = binListener;
+    }
+
     /**
      * Adds the given flowFile to the first available bin in which it fits for the given group or creates a new bin in the specified group if necessary.
      * <p/>
@@ -125,34 +135,17 @@ public class BinManager {
         if (flowFile.getSize() > currentMaxSizeBytes) { //won't fit into any new bins (and probably none existing)
             return false;
         }
-        wLock.lock();
-        try {
-            final List<Bin> currentBins = groupBinMap.get(groupIdentifier);
-            if (currentBins == null) { // this is a new group we need to register
-                final List<Bin> bins = new ArrayList<>();
-                final Bin bin = new Bin(sessionFactory.createSession(), minSizeBytes.get(), currentMaxSizeBytes, minEntries.get(),
-                    maxEntries.get(), fileCountAttribute.get());
-                bins.add(bin);
-                groupBinMap.put(groupIdentifier, bins);
-                binCount++;
-                return bin.offer(flowFile, session);
-            } else {
-                for (final Bin bin : currentBins) {
-                    final boolean accepted = bin.offer(flowFile, session);
-                    if (accepted) {
-                        return true;
-                    }
+
+        while (true) {
+            final BinGroup group = getGroup(groupIdentifier);
+            synchronized (group) {
+                // the group was removed after it was retrieved because its last bin was removed, so retrieve it again
+                if (group.removed) {
+                    continue;
                 }
 
-                //if we've reached this point then we couldn't fit it into any existing bins - gotta make a new one
-                final Bin bin = new Bin(sessionFactory.createSession(), minSizeBytes.get(), currentMaxSizeBytes, minEntries.get(),
-                    maxEntries.get(), fileCountAttribute.get());
-                currentBins.add(bin);
-                binCount++;
-                return bin.offer(flowFile, session);
+                return offer(group, flowFile, session, sessionFactory, currentMaxSizeBytes);
             }
-        } finally {
-            wLock.unlock();
         }
     }
 
@@ -171,39 +164,101 @@ public class BinManager {
         final long currentMaxSizeBytes = maxSizeBytes.get();
         final Set<FlowFile> unbinned = new HashSet<>();
 
-        wLock.lock();
-        try {
-            flowFileLoop: for (final FlowFile flowFile : flowFiles) {
-                if (flowFile.getSize() > currentMaxSizeBytes) { //won't fit into any new bins (and probably none existing)
-                    unbinned.add(flowFile);
+        while (true) {
+            final BinGroup group = getGroup(groupIdentifier);
+            synchronized (group) {
+                // the group was removed after it was retrieved because its last bin was removed, so retrieve it again
+                if (group.removed) {
                     continue;
                 }
 
-                final List<Bin> currentBins = groupBinMap.computeIfAbsent(groupIdentifier, k -> new ArrayList<>());
-                for (final Bin bin : currentBins) {
-                    final boolean accepted = bin.offer(flowFile, session);
-                    if (accepted) {
-                        continue flowFileLoop;
+                for (final FlowFile flowFile : flowFiles) {
+                    if (flowFile.getSize() > currentMaxSizeBytes) { //won't fit into any new bins (and probably none existing)
+                        unbinned.add(flowFile);
+                        continue;
                     }
-                }
 
-                // if we've reached this point then the groupIdentifier was a brand new one,
-                // or we couldn't fit it into any existing bins - gotta make a new one
-                final Bin bin = new Bin(sessionFactory.createSession(), minSizeBytes.get(), currentMaxSizeBytes, minEntries.get(),
-                    maxEntries.get(), fileCountAttribute.get());
-                currentBins.add(bin);
-                binCount++;
-                final boolean added = bin.offer(flowFile, session);
-                if (!added) {
-                    unbinned.add(flowFile);
+                    final boolean added = offer(group, flowFile, session, sessionFactory, currentMaxSizeBytes);
+                    if (!added) {
+                        unbinned.add(flowFile);
+                    }
                 }
 
+                return unbinned;
+            }
+        }
+    }
+
+    private BinGroup getGroup(final String groupIdentifier) {
+        final Object key = groupIdentifier == null ? NULL_GROUP_KEY : groupIdentifier;
+        return groupBinMap.computeIfAbsent(key, BinGroup::new);
+    }
+
+    // must be called while holding the lock for the group
+    private boolean offer(final BinGroup group, final FlowFile flowFile, final ProcessSession session, final ProcessSessionFactory sessionFactory,
+                          final long currentMaxSizeBytes) {
+        for (final BinEntry entry : group.entries) {
+            final boolean accepted = entry.bin.offer(flowFile, session);
+            trackFullness(entry);
+            if (accepted) {
+                notifyAdded(entry.bin, flowFile);
+                return true;
             }
-        } finally {
-            wLock.unlock();
         }
 
-        return unbinned;
+        // if we've reached this point then the group is a brand new one,
+        // or we couldn't fit it into any existing bins - gotta make a new one
+        final Bin bin = new Bin(sessionFactory.createSession(), minSizeBytes.get(), currentMaxSizeBytes, minEntries.get(),
+            maxEntries.get(), fileCountAttribute.get());
+        final BinEntry entry = new BinEntry(bin, group, binSequence.getAndIncrement());
+        group.entries.add(entry);
+        binsByAge.add(entry);
+        binCount.incrementAndGet();
+
+        final boolean added = bin.offer(flowFile, session);
+        trackFullness(entry);
+        if (added) {
+            notifyAdded(bin, flowFile);
+        }
+        return added;
+    }
+
+    private void notifyAdded(final Bin bin, final FlowFile flowFile) {
+        final BinListener listener = binListener;
+        if (listener != null) {
+            listener.onFlowFileAdded(bin, flowFile);
+        }
+    }
+
+    private void trackFullness(final BinEntry entry) {
+        if (entry.bin.isFullEnough()) {
+            fullEnoughBins.add(entry);
+        }
+    }
+
+    /**
+     * Removes the given bin from its group, and the group from the manager if it has no bins remaining.
+     *
+     * @return true if the bin was removed, false if it had already been removed
+     */
+    // must be called while holding the lock for the bin's group
+    private boolean remove(final BinEntry entry) {
+        if (!entry.group.entries.remove(entry)) {
+            return false;
+        }
+
+        removeTracking(entry);
+        if (entry.group.entries.isEmpty()) {
+            entry.group.removed = true;
+            groupBinMap.remove(entry.group.key, entry.group);
+        }
+        return true;
+    }
+
+    private void removeTracking(final BinEntry entry) {
+        binsByAge.remove(entry);
+        fullEnoughBins.remove(entry);
+        binCount.decrementAndGet();
     }
 
     /**
@@ -214,82 +269,97 @@ public class BinManager {
      * @return bins that are considered full
      */
     public Collection<Bin> removeReadyBins(boolean relaxFullnessConstraint) {
-        final Map<String, List<Bin>> newGroupMap = new HashMap<>();
         final List<Bin> readyBins = new ArrayList<>();
 
-        wLock.lock();
-        try {
-            for (final Map.Entry<String, List<Bin>> group : groupBinMap.entrySet()) {
-                final List<Bin> remainingBins = new ArrayList<>();
-                for (final Bin bin : group.getValue()) {
-                    if (relaxFullnessConstraint && (bin.isFullEnough() || bin.isOlderThan(maxBinAgeSeconds.get(), TimeUnit.SECONDS))) { //relaxed check
-                        readyBins.add(bin);
-                    } else if (!relaxFullnessConstraint && bin.isFull()) { //strict check
-                        readyBins.add(bin);
-                    } else { //it isn't time yet...
-                        remainingBins.add(bin);
-                    }
-                }
-                if (!remainingBins.isEmpty()) {
-                    newGroupMap.put(group.getKey(), remainingBins);
+        // a bin can only be full if it has met its minimum requirements, so only those bins need to be checked
+        for (final BinEntry entry : fullEnoughBins) {
+            synchronized (entry.group) {
+                final boolean ready = relaxFullnessConstraint ? entry.bin.isFullEnough() : entry.bin.isFull();
+                if (ready && remove(entry)) {
+                    readyBins.add(entry.bin);
                 }
             }
-            groupBinMap.clear();
-            groupBinMap.putAll(newGroupMap);
-            binCount -= readyBins.size();
-        } finally {
-            wLock.unlock();
         }
-        return readyBins;
-    }
 
-    public Bin removeOldestBin() {
-        wLock.lock();
-        try {
-            Bin oldestBin = null;
-            String oldestBinGroup = null;
-
-            for (final Map.Entry<String, List<Bin>> group : groupBinMap.entrySet()) {
-                for (final Bin bin : group.getValue()) {
-                    if (oldestBin == null || bin.isOlderThan(oldestBin)) {
-                        oldestBin = bin;
-                        oldestBinGroup = group.getKey();
+        // in the relaxed case, any bin that is old enough is also ready; the bins are ordered by age, so stop at the first one that is not old
+        if (relaxFullnessConstraint) {
+            final int maxBinAge = maxBinAgeSeconds.get();
+            final Iterator<BinEntry> itr = binsByAge.iterator();
+            while (itr.hasNext()) {
+                final BinEntry entry = itr.next();
+                if (!entry.bin.isOlderThan(maxBinAge, TimeUnit.SECONDS)) {
+                    break;
+                }
+
+                synchronized (entry.group) {
+                    if (remove(entry)) {
+                        readyBins.add(entry.bin);
                     }
                 }
             }
+        }
 
-            if (oldestBin == null) {
-                return null;
-            }
+        return readyBins;
+    }
 
-            binCount--;
-            final List<Bin> bins = groupBinMap.get(oldestBinGroup);
-            bins.remove(oldestBin);
-            if (bins.isEmpty()) {
-                groupBinMap.remove(oldestBinGroup);
+    public Bin removeOldestBin() {
+        for (final BinEntry entry : binsByAge) {
+            synchronized (entry.group) {
+                // another thread may have removed the bin after it was retrieved, in which case try the next oldest
+                if (remove(entry)) {
+                    return entry.bin;
+                }
             }
-            return oldestBin;
-        } finally {
-            wLock.unlock();
         }
+
+        return null;
     }
 
     /**
      * @return true if any current bins are older than the allowable max
      */
     public boolean containsOldBins() {
-        rLock.lock();
-        try {
-            for (final List<Bin> bins : groupBinMap.values()) {
-                for (final Bin bin : bins) {
-                    if (bin.isOlderThan(maxBinAgeSeconds.get(), TimeUnit.SECONDS)) {
-                        return true;
-                    }
-                }
+        // only the oldest bin needs to be checked
+        final Iterator<BinEntry> itr = binsByAge.iterator();
+        return itr.hasNext() && itr.next().bin.isOlderThan(maxBinAgeSeconds.get(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * The bins of a single group. The bins are guarded by synchronizing on the group.
+     */
+    private static class BinGroup {
+        private final Object key;
+        private final List<BinEntry> entries = new ArrayList<>();
+        private boolean removed = false;
+
+        private BinGroup(final Object key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * A bin along with the group that it belongs to, ordered by the age of the bin.
+     */
+    private static class BinEntry implements Comparable<BinEntry> {
+        private final Bin bin;
+        private final BinGroup group;
+        private final long sequence;
+
+        private BinEntry(final Bin bin, final BinGroup group, final long sequence) {
+            this.bin = bin;
+            this.group = group;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(final BinEntry other) {
+            if (bin.isOlderThan(other.bin)) {
+                return -1;
+            }
+            if (other.bin.isOlderThan(bin)) {
+                return 1;
             }
-        } finally {
-            rLock.unlock();
+            return Long.compare(sequence, other.sequence);
         }
-        return false;
     }
 }
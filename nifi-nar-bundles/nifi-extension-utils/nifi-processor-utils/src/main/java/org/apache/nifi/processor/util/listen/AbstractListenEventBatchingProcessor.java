@@ -82,6 +82,7 @@ public abstract class AbstractListenEventBatchingProcessor<E extends Event> exte
         descriptors.add(CHARSET);
         descriptors.add(MAX_BATCH_SIZE);
         descriptors.add(MESSAGE_DELIMITER);
+        descriptors.add(BULK_EVENT_HANDLING);
         descriptors.addAll(getAdditionalProperties());
         this.descriptors = Collections.unmodifiableList(descriptors);
 
@@ -183,6 +184,10 @@ public abstract class AbstractListenEventBatchingProcessor<E extends Event> exte
     protected Map<String,FlowFileEventBatch> getBatches(final ProcessSession session, final int totalBatchSize,
                                                         final byte[] messageDemarcatorBytes) {
 
+        if (bulkEventHandling) {
+            return getBulkBatches(session, totalBatchSize, messageDemarcatorBytes);
+        }
+
         final Map<String,FlowFileEventBatch> batches = new HashMap<>();
         for (int i=0; i < totalBatchSize; i++) {
             final E event = getMessage(true, true, session);
@@ -231,6 +236,61 @@ public abstract class AbstractListenEventBatchingProcessor<E extends Event> exte
         return batches;
     }
 
+    /**
+     * Batches together the events as getBatches does when Bulk Event Handling is enabled. All of the available events,
+     * up to batchSize, are taken from the queue at once, and the events of each batch are written to its FlowFile in a
+     * single call. Any events that cannot be written to a FlowFile are placed on the error queue to be processed again.
+     *
+     * @param session the current session
+     * @param totalBatchSize the total number of events to process
+     * @param messageDemarcatorBytes the demarcator to put between messages when writing to a FlowFile
+     *
+     * @return a Map from the batch key to the FlowFile and events for that batch
+     */
+    private Map<String,FlowFileEventBatch> getBulkBatches(final ProcessSession session, final int totalBatchSize,
+                                                          final byte[] messageDemarcatorBytes) {
+
+        // take all of the available events at once, then group them by the batch key
+        final Map<String,List<E>> eventsByKey = new HashMap<>();
+        for (final E event : drainMessages(totalBatchSize, session)) {
+            eventsByKey.computeIfAbsent(getBatchKey(event), key -> new ArrayList<>()).add(event);
+        }
+
+        final Map<String,FlowFileEventBatch> batches = new HashMap<>();
+        for (final Map.Entry<String,List<E>> entry : eventsByKey.entrySet()) {
+            final List<E> events = entry.getValue();
+
+            // write all of the events for the batch in a single call, placing the demarcator between each event
+            FlowFile flowFile = session.create();
+            try {
+                flowFile = session.write(flowFile, new OutputStreamCallback() {
+                    @Override
+                    public void process(final OutputStream out) throws IOException {
+                        boolean writeDemarcator = false;
+                        for (final E event : events) {
+                            if (writeDemarcator) {
+                                out.write(messageDemarcatorBytes);
+                            }
+                            writeDemarcator = true;
+
+                            out.write(event.getData());
+                        }
+                    }
+                });
+            } catch (final Exception e) {
+                getLogger().error("Failed to write contents of the messages to FlowFile due to {}; will re-queue messages and try again",
+                        new Object[] {e.getMessage()}, e);
+                session.remove(flowFile);
+                errorEvents.addAll(events);
+                continue;
+            }
+
+            batches.put(entry.getKey(), new FlowFileEventBatch(flowFile, events));
+        }
+
+        return batches;
+    }
+
     /**
      * @param event an event that was pulled off the queue
      *
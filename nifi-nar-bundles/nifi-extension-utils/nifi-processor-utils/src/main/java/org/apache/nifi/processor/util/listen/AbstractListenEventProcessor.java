@@ -32,6 +32,7 @@ import org.apache.nifi.processor.Relationship;
 import org.apache.nifi.processor.util.StandardValidators;
 import org.apache.nifi.processor.util.listen.dispatcher.ChannelDispatcher;
 import org.apache.nifi.processor.util.listen.event.Event;
+import org.apache.nifi.processor.util.listen.queue.RingBufferQueue;
 
 import java.io.IOException;
 import java.net.InetAddress;
@@ -110,6 +111,28 @@ public abstract class AbstractListenEventProcessor<E extends Event> extends Abst
             .defaultValue("2")
             .required(true)
             .build();
+    public static final PropertyDescriptor SELECTOR_THREADS = new PropertyDescriptor.Builder()
+            .name("selector-threads")
+            .displayName("Selector Threads")
+            .description("The number of threads that wait for data to arrive on accepted TCP connections. Each thread watches its own share of the " +
+                    "connections, which are assigned to the threads in turn as they are accepted. Increasing this value can improve throughput when " +
+                    "receiving from many concurrent senders. No more threads are used than the maximum number of TCP connections.")
+            .addValidator(StandardValidators.createLongValidator(1, 64, true))
+            .defaultValue("1")
+            .required(true)
+            .build();
+    public static final PropertyDescriptor BULK_EVENT_HANDLING = new PropertyDescriptor.Builder()
+            .name("bulk-event-handling")
+            .displayName("Bulk Event Handling")
+            .description("If true, messages are buffered in a queue that takes all of the available messages at once, and each batch of messages " +
+                    "is written to its FlowFile in a single call, with the delimiter placed only between messages of the same batch. If writing " +
+                    "a batch fails, all of the messages in that batch are queued to be processed again. The queue allocates a slot for every message " +
+                    "allowed by the <Max Size of Message Queue> property when the processor is started, rather than as messages arrive, so this " +
+                    "should not be enabled with a very large message queue.")
+            .allowableValues("true", "false")
+            .defaultValue("false")
+            .required(true)
+            .build();
 
 
     public static final Relationship REL_SUCCESS = new Relationship.Builder()
@@ -127,6 +150,7 @@ public abstract class AbstractListenEventProcessor<E extends Event> extends Abst
     protected volatile ChannelDispatcher dispatcher;
     protected volatile BlockingQueue<E> events;
     protected volatile BlockingQueue<E> errorEvents = new LinkedBlockingQueue<>();
+    protected volatile boolean bulkEventHandling;
 
     @Override
     protected void init(final ProcessorInitializationContext context) {
@@ -178,7 +202,14 @@ public abstract class AbstractListenEventProcessor<E extends Event> extends Abst
     public void onScheduled(final ProcessContext context) throws IOException {
         charset = Charset.forName(context.getProperty(CHARSET).getValue());
         port = context.getProperty(PORT).evaluateAttributeExpressions().asInteger();
-        events = new LinkedBlockingQueue<>(context.getProperty(MAX_MESSAGE_QUEUE_SIZE).asInteger());
+        bulkEventHandling = descriptors.contains(BULK_EVENT_HANDLING) && context.getProperty(BULK_EVENT_HANDLING).asBoolean();
+
+        final int maxMessageQueueSize = context.getProperty(MAX_MESSAGE_QUEUE_SIZE).asInteger();
+        if (bulkEventHandling) {
+            events = new RingBufferQueue<>(maxMessageQueueSize);
+        } else {
+            events = new LinkedBlockingQueue<>(maxMessageQueueSize);
+        }
 
         final String nicIPAddressStr = context.getProperty(NETWORK_INTF_NAME).evaluateAttributeExpressions().getValue();
         final int maxChannelBufferSize = context.getProperty(MAX_SOCKET_BUFFER_SIZE).asDataSize(DataUnit.B).intValue();
@@ -285,6 +316,37 @@ public abstract class AbstractListenEventProcessor<E extends Event> extends Abst
         return event;
     }
 
+    /**
+     * Takes up to maxEvents events, returning immediately with the events from the error queue if there are any. Otherwise the regular
+     * queue is polled with a short timeout for the first event, and then all of the events that are available, up to maxEvents, are
+     * taken from the queue at once.
+     *
+     * @param maxEvents the maximum number of events to take
+     * @param session the current session
+     *
+     * @return the events, which is empty if none are available
+     */
+    protected List<E> drainMessages(final int maxEvents, final ProcessSession session) {
+        final List<E> drained = new ArrayList<>();
+        errorEvents.drainTo(drained, maxEvents);
+        if (!drained.isEmpty()) {
+            return drained;
+        }
+
+        final E firstEvent = getMessage(true, false, session);
+        if (firstEvent == null) {
+            return drained;
+        }
+
+        drained.add(firstEvent);
+        final int additionalEvents = events.drainTo(drained, maxEvents - 1);
+        if (additionalEvents > 0) {
+            session.adjustCounter("Messages Received", additionalEvents, false);
+        }
+
+        return drained;
+    }
+
     protected long getLongPollTimeout() {
         return POLL_TIMEOUT_MS;
     }
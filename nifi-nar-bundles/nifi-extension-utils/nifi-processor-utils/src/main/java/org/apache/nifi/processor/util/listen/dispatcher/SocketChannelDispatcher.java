@@ -37,8 +37,12 @@ import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
@@ -48,15 +52,22 @@ import java.util.concurrent.atomic.AtomicInteger;
 /**
  * Accepts Socket connections on the given port and creates a handler for each connection to
  * be executed by a thread pool.
+ *
+ * Accepted connections are assigned in turn to one of a configurable number of selector threads, each of which has its own Selector
+ * and waits for data on its own set of connections. The thread running the dispatcher accepts new connections in addition to serving
+ * its share of them, so a dispatcher with a single selector thread uses one thread for both, as it always has.
  */
 public class SocketChannelDispatcher<E extends Event<SocketChannel>> implements AsyncChannelDispatcher {
 
+    private static final long SELECTOR_THREAD_JOIN_MILLIS = 1000L;
+
     private final EventFactory<E> eventFactory;
     private final ChannelHandlerFactory<E, AsyncChannelDispatcher> handlerFactory;
     private final BlockingQueue<ByteBuffer> bufferPool;
     private final BlockingQueue<E> events;
     private final ComponentLog logger;
     private final int maxConnections;
+    private final int selectorThreads;
     private final SSLContext sslContext;
     private final SslContextFactory.ClientAuth clientAuth;
     private final Charset charset;
@@ -64,7 +75,9 @@ public class SocketChannelDispatcher<E extends Event<SocketChannel>> implements
     private ExecutorService executor;
     private volatile boolean stopped = false;
     private Selector selector;
-    private final BlockingQueue<SelectionKey> keyQueue;
+    private volatile List<Reactor> reactors;
+    private volatile List<Thread> reactorThreads;
+    private final AtomicInteger nextReactor = new AtomicInteger(0);
     private final AtomicInteger currentConnections = new AtomicInteger(0);
 
     public SocketChannelDispatcher(final EventFactory<E> eventFactory,
@@ -87,13 +100,26 @@ public class SocketChannelDispatcher<E extends Event<SocketChannel>> implements
                                    final SSLContext sslContext,
                                    final SslContextFactory.ClientAuth clientAuth,
                                    final Charset charset) {
+        this(eventFactory, handlerFactory, bufferPool, events, logger, maxConnections, 1, sslContext, clientAuth, charset);
+    }
+
+    public SocketChannelDispatcher(final EventFactory<E> eventFactory,
+                                   final ChannelHandlerFactory<E, AsyncChannelDispatcher> handlerFactory,
+                                   final BlockingQueue<ByteBuffer> bufferPool,
+                                   final BlockingQueue<E> events,
+                                   final ComponentLog logger,
+                                   final int maxConnections,
+                                   final int selectorThreads,
+                                   final SSLContext sslContext,
+                                   final SslContextFactory.ClientAuth clientAuth,
+                                   final Charset charset) {
         this.eventFactory = eventFactory;
         this.handlerFactory = handlerFactory;
         this.bufferPool = bufferPool;
         this.events = events;
         this.logger = logger;
         this.maxConnections = maxConnections;
-        this.keyQueue = new LinkedBlockingQueue<>(maxConnections);
+        this.selectorThreads = selectorThreads;
         this.sslContext = sslContext;
         this.clientAuth = clientAuth;
         this.charset = charset;
@@ -102,6 +128,9 @@ public class SocketChannelDispatcher<E extends Event<SocketChannel>> implements
             throw new IllegalArgumentException(
                     "A pool of available ByteBuffers equal to the maximum number of connections is required");
         }
+        if (selectorThreads < 1) {
+            throw new IllegalArgumentException("At least one selector thread is required");
+        }
     }
 
     @Override
@@ -123,99 +152,99 @@ public class SocketChannelDispatcher<E extends Event<SocketChannel>> implements
 
         serverSocketChannel.socket().bind(new InetSocketAddress(nicAddress, port));
 
-        selector = Selector.open();
+        reactors = new ArrayList<>(selectorThreads);
+        for (int i = 0; i < selectorThreads; i++) {
+            reactors.add(new Reactor(Selector.open()));
+        }
+
+        selector = reactors.get(0).selector;
         serverSocketChannel.register(selector, SelectionKey.OP_ACCEPT);
     }
 
     @Override
     public void run() {
-        while (!stopped) {
-            try {
-                int selected = selector.select();
-                // if stopped the selector could already be closed which would result in a ClosedSelectorException
-                if (selected > 0 && !stopped){
-                    Iterator<SelectionKey> selectorKeys = selector.selectedKeys().iterator();
-                    // if stopped we don't want to modify the keys because close() may still be in progress
-                    while (selectorKeys.hasNext() && !stopped) {
-                        SelectionKey key = selectorKeys.next();
-                        selectorKeys.remove();
-                        if (!key.isValid()){
-                            continue;
-                        }
-                        if (key.isAcceptable()) {
-                            // Handle new connections coming in
-                            final ServerSocketChannel channel = (ServerSocketChannel) key.channel();
-                            final SocketChannel socketChannel = channel.accept();
-                            socketChannel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
-                            // Check for available connections
-                            if (currentConnections.incrementAndGet() > maxConnections){
-                                currentConnections.decrementAndGet();
-                                logger.warn("Rejecting connection from {} because max connections has been met",
-                                        new Object[]{ socketChannel.getRemoteAddress().toString() });
-                                IOUtils.closeQuietly(socketChannel);
-                                continue;
-                            }
-                            logger.debug("Accepted incoming connection from {}",
-                                    new Object[]{socketChannel.getRemoteAddress().toString()});
-                            // Set socket to non-blocking, and register with selector
-                            socketChannel.configureBlocking(false);
-                            SelectionKey readKey = socketChannel.register(selector, SelectionKey.OP_READ);
-
-                            // Prepare the byte buffer for the reads, clear it out
-                            ByteBuffer buffer = bufferPool.poll();
-                            buffer.clear();
-                            buffer.mark();
-
-                            // If we have an SSLContext then create an SSLEngine for the channel
-                            SSLSocketChannel sslSocketChannel = null;
-                            if (sslContext != null) {
-                                final SSLEngine sslEngine = sslContext.createSSLEngine();
-                                sslEngine.setUseClientMode(false);
-
-                                switch (clientAuth) {
-                                    case REQUIRED:
-                                        sslEngine.setNeedClientAuth(true);
-                                        break;
-                                    case WANT:
-                                        sslEngine.setWantClientAuth(true);
-                                        break;
-                                    case NONE:
-                                        sslEngine.setNeedClientAuth(false);
-                                        sslEngine.setWantClientAuth(false);
-                                        break;
-                                }
-
-                                sslSocketChannel = new SSLSocketChannel(sslEngine, socketChannel);
-                            }
+        // the current thread serves the first selector, so start a thread for each of the others
+        final List<Thread> threads = new ArrayList<>(reactors.size() - 1);
+        for (int i = 1; i < reactors.size(); i++) {
+            final Thread reactorThread = new Thread(reactors.get(i));
+            reactorThread.setName(Thread.currentThread().getName() + " Selector-" + i);
+            reactorThread.setDaemon(true);
+            reactorThread.start();
+            threads.add(reactorThread);
+        }
+        reactorThreads = threads;
 
-                            // Attach the buffer and SSLSocketChannel to the key
-                            SocketChannelAttachment attachment = new SocketChannelAttachment(buffer, sslSocketChannel);
-                            readKey.attach(attachment);
-                        } else if (key.isReadable()) {
-                            // Clear out the operations the select is interested in until done reading
-                            key.interestOps(0);
-                            // Create a handler based on the protocol and whether an SSLEngine was provided or not
-                            final Runnable handler;
-                            if (sslContext != null) {
-                                handler = handlerFactory.createSSLHandler(key, this, charset, eventFactory, events, logger);
-                            } else {
-                                handler = handlerFactory.createHandler(key, this, charset, eventFactory, events, logger);
-                            }
+        reactors.get(0).run();
+    }
 
-                            // run the handler
-                            executor.execute(handler);
-                        }
-                    }
-                }
-                // Add back all idle sockets to the select
-                SelectionKey key;
-                while((key = keyQueue.poll()) != null){
-                    key.interestOps(SelectionKey.OP_READ);
-                }
-            } catch (IOException e) {
-                logger.error("Error accepting connection from SocketChannel", e);
+    private void accept(final SelectionKey key) throws IOException {
+        // Handle new connections coming in
+        final ServerSocketChannel channel = (ServerSocketChannel) key.channel();
+        final SocketChannel socketChannel = channel.accept();
+        if (socketChannel == null) {
+            return;
+        }
+
+        socketChannel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+        // Check for available connections
+        if (currentConnections.incrementAndGet() > maxConnections){
+            currentConnections.decrementAndGet();
+            logger.warn("Rejecting connection from {} because max connections has been met",
+                    new Object[]{ socketChannel.getRemoteAddress().toString() });
+            IOUtils.closeQuietly(socketChannel);
+            return;
+        }
+        logger.debug("Accepted incoming connection from {}",
+                new Object[]{socketChannel.getRemoteAddress().toString()});
+        // Set socket to non-blocking, so it can be registered with a selector
+        socketChannel.configureBlocking(false);
+
+        // Prepare the byte buffer for the reads, clear it out
+        ByteBuffer buffer = bufferPool.poll();
+        buffer.clear();
+        buffer.mark();
+
+        // If we have an SSLContext then create an SSLEngine for the channel
+        SSLSocketChannel sslSocketChannel = null;
+        if (sslContext != null) {
+            final SSLEngine sslEngine = sslContext.createSSLEngine();
+            sslEngine.setUseClientMode(false);
+
+            switch (clientAuth) {
+                case REQUIRED:
+                    sslEngine.setNeedClientAuth(true);
+                    break;
+                case WANT:
+                    sslEngine.setWantClientAuth(true);
+                    break;
+                case NONE:
+                    sslEngine.setNeedClientAuth(false);
+                    sslEngine.setWantClientAuth(false);
+                    break;
             }
+
+            sslSocketChannel = new SSLSocketChannel(sslEngine, socketChannel);
+        }
+
+        // Hand the connection, with the buffer and SSLSocketChannel attached, to the next selector thread
+        final SocketChannelAttachment attachment = new SocketChannelAttachment(buffer, sslSocketChannel);
+        final Reactor reactor = reactors.get(Math.floorMod(nextReactor.getAndIncrement(), reactors.size()));
+        reactor.addConnection(socketChannel, attachment);
+    }
+
+    private void read(final SelectionKey key) {
+        // Clear out the operations the select is interested in until done reading
+        key.interestOps(0);
+        // Create a handler based on the protocol and whether an SSLEngine was provided or not
+        final Runnable handler;
+        if (sslContext != null) {
+            handler = handlerFactory.createSSLHandler(key, this, charset, eventFactory, events, logger);
+        } else {
+            handler = handlerFactory.createHandler(key, this, charset, eventFactory, events, logger);
         }
+
+        // run the handler
+        executor.execute(handler);
     }
 
     @Override
@@ -235,8 +264,21 @@ public class SocketChannelDispatcher<E extends Event<SocketChannel>> implements
     @Override
     public void close() {
         stopped = true;
-        if (selector != null) {
-            selector.wakeup();
+        if (reactors != null) {
+            for (final Reactor reactor : reactors) {
+                reactor.selector.wakeup();
+            }
+        }
+
+        // give the other selector threads a chance to finish selecting before their selectors are closed
+        if (reactorThreads != null) {
+            try {
+                for (final Thread reactorThread : reactorThreads) {
+                    reactorThread.join(SELECTOR_THREAD_JOIN_MILLIS);
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
         }
 
         if (executor != null) {
@@ -254,14 +296,11 @@ public class SocketChannelDispatcher<E extends Event<SocketChannel>> implements
             }
         }
 
-        if (selector != null) {
-            synchronized (selector.keys()) {
-                for (SelectionKey key : selector.keys()) {
-                    IOUtils.closeQuietly(key.channel());
-                }
+        if (reactors != null) {
+            for (final Reactor reactor : reactors) {
+                reactor.close();
             }
         }
-        IOUtils.closeQuietly(selector);
     }
 
     @Override
@@ -278,8 +317,122 @@ public class SocketChannelDispatcher<E extends Event<SocketChannel>> implements
 
     @Override
     public void addBackForSelection(SelectionKey key) {
-        keyQueue.offer(key);
-        selector.wakeup();
+        for (final Reactor reactor : reactors) {
+            if (reactor.selector == key.selector()) {
+                reactor.keyQueue.offer(key);
+                reactor.selector.wakeup();
+                return;
+            }
+        }
+    }
+
+    /**
+     * A selector thread, which waits for data on the connections that have been assigned to it and runs a handler to read from each
+     * connection that has data available. The first selector thread also accepts new connections.
+     */
+    private class Reactor implements Runnable {
+
+        private final Selector selector;
+        private final BlockingQueue<SelectionKey> keyQueue;
+        private final Queue<PendingConnection> pendingConnections = new ConcurrentLinkedQueue<>();
+
+        private Reactor(final Selector selector) {
+            this.selector = selector;
+            this.keyQueue = new LinkedBlockingQueue<>(maxConnections);
+        }
+
+        /**
+         * Queues the given connection to be registered by this selector's thread, as registering from another thread would block
+         * while the selector is selecting.
+         */
+        private void addConnection(final SocketChannel socketChannel, final SocketChannelAttachment attachment) {
+            pendingConnections.offer(new PendingConnection(socketChannel, attachment));
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (!stopped) {
+                try {
+                    int selected = selector.select();
+                    // if stopped the selector could already be closed which would result in a ClosedSelectorException
+                    if (selected > 0 && !stopped){
+                        Iterator<SelectionKey> selectorKeys = selector.selectedKeys().iterator();
+                        // if stopped we don't want to modify the keys because close() may still be in progress
+                        while (selectorKeys.hasNext() && !stopped) {
+                            SelectionKey key = selectorKeys.next();
+                            selectorKeys.remove();
+                            if (!key.isValid()){
+                                continue;
+                            }
+                            if (key.isAcceptable()) {
+                                accept(key);
+                            } else if (key.isReadable()) {
+                                read(key);
+                            }
+                        }
+                    }
+
+                    if (stopped) {
+                        break;
+                    }
+
+                    // Register the connections that have been assigned to this selector
+                    PendingConnection pendingConnection;
+                    while ((pendingConnection = pendingConnections.poll()) != null) {
+                        register(pendingConnection);
+                    }
+
+                    // Add back all idle sockets to the select
+                    SelectionKey key;
+                    while((key = keyQueue.poll()) != null){
+                        key.interestOps(SelectionKey.OP_READ);
+                    }
+                } catch (IOException e) {
+                    logger.error("Error accepting connection from SocketChannel", e);
+                }
+            }
+        }
+
+        private void register(final PendingConnection pendingConnection) {
+            try {
+                pendingConnection.socketChannel.register(selector, SelectionKey.OP_READ, pendingConnection.attachment);
+            } catch (final IOException e) {
+                logger.warn("Failed to register connection for reading", e);
+                IOUtils.closeQuietly(pendingConnection.socketChannel);
+                try {
+                    bufferPool.put(pendingConnection.attachment.getByteBuffer());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+                currentConnections.decrementAndGet();
+            }
+        }
+
+        private void close() {
+            synchronized (selector.keys()) {
+                for (SelectionKey key : selector.keys()) {
+                    IOUtils.closeQuietly(key.channel());
+                }
+            }
+
+            PendingConnection pendingConnection;
+            while ((pendingConnection = pendingConnections.poll()) != null) {
+                IOUtils.closeQuietly(pendingConnection.socketChannel);
+            }
+
+            IOUtils.closeQuietly(selector);
+        }
+    }
+
+    private static class PendingConnection {
+        private final SocketChannel socketChannel;
+        private final SocketChannelAttachment attachment;
+
+        private PendingConnection(final SocketChannel socketChannel, final SocketChannelAttachment attachment) {
+            this.socketChannel = socketChannel;
+            this.attachment = attachment;
+        }
     }
 
 }
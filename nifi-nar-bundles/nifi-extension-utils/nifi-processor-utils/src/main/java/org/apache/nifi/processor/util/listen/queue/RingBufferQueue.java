@@ -0,0 +1,353 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.processor.util.listen.queue;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded, lock-free BlockingQueue backed by a pre-allocated ring of slots, supporting any number of producers and consumers.
+ *
+ * Each slot carries a sequence number that indicates whether the slot is ready to be written or read for a given position in the ring,
+ * being twice the position when the slot is free and twice the position plus one once it has been written, so producers and consumers only contend on a single compare-and-set of the tail or head position respectively, and no node is allocated
+ * per element as it is with a LinkedBlockingQueue. Draining claims all of the available elements, up to the requested maximum, with a single
+ * compare-and-set.
+ *
+ * Operations that wait for space or for an element block on a condition, so an idle consumer does not wake up until an element is added.
+ * The lock guarding the conditions is only taken by threads that have to wait, and by the threads that wake them while they are waiting,
+ * so the non-blocking paths remain free of locks.
+ *
+ * The iterator is weakly consistent and does not support removal, so the Collection methods that rely on removing through the iterator
+ * are not supported.
+ *
+ * @param <E> the type of elements held in this queue
+ */
+public class RingBufferQueue<E> extends AbstractQueue<E> implements BlockingQueue<E> {
+
+    private final int capacity;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+
+    // the position of the next element to take, and the position of the next element to add
+    private final AtomicLong head = new AtomicLong(0L);
+    private final AtomicLong tail = new AtomicLong(0L);
+
+    // the number of threads waiting on each condition, so that the threads adding and taking elements only take the lock when needed
+    private final ReentrantLock waitLock = new ReentrantLock();
+    private final Condition notEmpty = waitLock.newCondition();
+    private final Condition notFull = waitLock.newCondition();
+    private final AtomicInteger waitingConsumers = new AtomicInteger(0);
+    private final AtomicInteger waitingProducers = new AtomicInteger(0);
+
+    public RingBufferQueue(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+
+        this.capacity = capacity;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, writableSequence(i));
+        }
+    }
+
+    private int index(final long position) {
+        return (int) (position % capacity);
+    }
+
+    private static long writableSequence(final long position) {
+        return position << 1;
+    }
+
+    private static long readableSequence(final long position) {
+        return (position << 1) + 1;
+    }
+
+    @Override
+    public boolean offer(final E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+
+        long position = tail.get();
+        while (true) {
+            final int index = index(position);
+            final long available = sequences.get(index) - writableSequence(position);
+
+            if (available == 0L) {
+                // the slot is free for this position, so claim it
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, element);
+                    sequences.set(index, readableSequence(position));
+                    signal(waitingConsumers, notEmpty, false);
+                    return true;
+                }
+                position = tail.get();
+            } else if (available < 0L) {
+                // the slot still holds the element from the previous lap, so the queue is full
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    @Override
+    public E poll() {
+        long position = head.get();
+        while (true) {
+            final int index = index(position);
+            final long available = sequences.get(index) - readableSequence(position);
+
+            if (available == 0L) {
+                // the slot has been written for this position, so claim it
+                if (head.compareAndSet(position, position + 1)) {
+                    final E element = release(index, position);
+                    signal(waitingProducers, notFull, false);
+                    return element;
+                }
+                position = head.get();
+            } else if (available < 0L) {
+                return null;
+            } else {
+                position = head.get();
+            }
+        }
+    }
+
+    private E release(final int index, final long position) {
+        final E element = slots.get(index);
+        slots.set(index, null);
+
+        // make the slot available to the producer on the next lap
+        sequences.set(index, writableSequence(position + capacity));
+        return element;
+    }
+
+    @Override
+    public E peek() {
+        while (true) {
+            final long position = head.get();
+            final int index = index(position);
+            if (sequences.get(index) != readableSequence(position)) {
+                return null;
+            }
+
+            final E element = slots.get(index);
+            if (element != null && head.get() == position) {
+                return element;
+            }
+        }
+    }
+
+    @Override
+    public void put(final E element) throws InterruptedException {
+        if (offer(element)) {
+            return;
+        }
+
+        waitLock.lockInterruptibly();
+        waitingProducers.incrementAndGet();
+        try {
+            while (!offer(element)) {
+                notFull.await();
+            }
+        } finally {
+            waitingProducers.decrementAndGet();
+            waitLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(final E element, final long timeout, final TimeUnit unit) throws InterruptedException {
+        if (offer(element)) {
+            return true;
+        }
+
+        long nanos = unit.toNanos(timeout);
+        waitLock.lockInterruptibly();
+        waitingProducers.incrementAndGet();
+        try {
+            while (!offer(element)) {
+                if (nanos <= 0L) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            return true;
+        } finally {
+            waitingProducers.decrementAndGet();
+            waitLock.unlock();
+        }
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        E element = poll();
+        if (element != null) {
+            return element;
+        }
+
+        waitLock.lockInterruptibly();
+        waitingConsumers.incrementAndGet();
+        try {
+            while ((element = poll()) == null) {
+                notEmpty.await();
+            }
+            return element;
+        } finally {
+            waitingConsumers.decrementAndGet();
+            waitLock.unlock();
+        }
+    }
+
+    @Override
+    public E poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+        E element = poll();
+        if (element != null) {
+            return element;
+        }
+
+        long nanos = unit.toNanos(timeout);
+        waitLock.lockInterruptibly();
+        waitingConsumers.incrementAndGet();
+        try {
+            while ((element = poll()) == null) {
+                if (nanos <= 0L) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return element;
+        } finally {
+            waitingConsumers.decrementAndGet();
+            waitLock.unlock();
+        }
+    }
+
+    // A waiting thread registers itself before checking the queue for the last time, and the caller has already published its change
+    // to the queue, so either the waiting thread sees that change or this sees the waiting thread, and the wake-up cannot be lost.
+    private void signal(final AtomicInteger waiting, final Condition condition, final boolean all) {
+        if (waiting.get() == 0) {
+            return;
+        }
+
+        waitLock.lock();
+        try {
+            if (all) {
+                condition.signalAll();
+            } else {
+                condition.signal();
+            }
+        } finally {
+            waitLock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(final Collection<? super E> collection) {
+        return drainTo(collection, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(final Collection<? super E> collection, final int maxElements) {
+        if (collection == null) {
+            throw new NullPointerException();
+        }
+        if (collection == this) {
+            throw new IllegalArgumentException();
+        }
+
+        int drained = 0;
+        while (drained < maxElements) {
+            final long position = head.get();
+
+            // count the consecutive elements that have been written, starting at the head
+            final int limit = Math.min(maxElements - drained, capacity);
+            int count = 0;
+            while (count < limit && sequences.get(index(position + count)) == readableSequence(position + count)) {
+                count++;
+            }
+
+            if (count == 0) {
+                break;
+            }
+
+            // claim all of them at once, or start over if another consumer took any of them first
+            if (head.compareAndSet(position, position + count)) {
+                for (int i = 0; i < count; i++) {
+                    collection.add(release(index(position + i), position + i));
+                }
+                drained += count;
+                signal(waitingProducers, notFull, true);
+            }
+        }
+
+        return drained;
+    }
+
+    @Override
+    public int size() {
+        while (true) {
+            final long currentHead = head.get();
+            final long currentTail = tail.get();
+            if (head.get() == currentHead) {
+                return (int) Math.max(0L, Math.min(capacity, currentTail - currentHead));
+            }
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity - size();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        final long currentHead = head.get();
+        final long currentTail = tail.get();
+
+        final List<E> elements = new ArrayList<>();
+        for (long position = currentHead; position < currentTail; position++) {
+            final E element = slots.get(index(position));
+            if (element != null) {
+                elements.add(element);
+            }
+        }
+
+        return Collections.unmodifiableList(elements).iterator();
+    }
+
+}
@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.processor.util.bin;
+
+import org.apache.nifi.flowfile.FlowFile;
+import org.apache.nifi.processor.ProcessSession;
+import org.apache.nifi.processor.ProcessSessionFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TestBinManager {
+
+    private final List<ProcessSession> binSessions = new CopyOnWriteArrayList<>();
+    private final ProcessSessionFactory sessionFactory = () -> {
+        final ProcessSession session = mock(ProcessSession.class);
+        binSessions.add(session);
+        return session;
+    };
+
+    private BinManager binManager;
+    private ProcessSession session;
+
+    @Before
+    public void setup() {
+        binManager = new BinManager();
+        session = mock(ProcessSession.class);
+    }
+
+    @Test
+    public void testFullBinsReadyUnderStrictCheck() {
+        binManager.setMinimumEntries(2);
+        binManager.setMaximumEntries(3);
+
+        final List<FlowFile> groupA = offer("a", 3);
+        offer("b", 2);
+        assertEquals(2, binManager.getBinCount());
+
+        // only the bin that has reached its maximum number of entries is full
+        final Collection<Bin> ready = binManager.removeReadyBins(false);
+        assertEquals(1, ready.size());
+        assertEquals(groupA, ready.iterator().next().getContents());
+        assertEquals(1, binManager.getBinCount());
+
+        assertTrue(binManager.removeReadyBins(false).isEmpty());
+    }
+
+    @Test
+    public void testFullEnoughBinsReadyUnderRelaxedCheck() {
+        binManager.setMinimumEntries(2);
+        binManager.setMaximumEntries(3);
+
+        offer("a", 1);
+        final List<FlowFile> groupB = offer("b", 2);
+
+        // the bin for group b meets its minimum requirements, but the bin for group a does not and is not old
+        final Collection<Bin> ready = binManager.removeReadyBins(true);
+        assertEquals(1, ready.size());
+        assertEquals(groupB, ready.iterator().next().getContents());
+        assertEquals(1, binManager.getBinCount());
+    }
+
+    @Test
+    public void testOldBinsReadyOnlyUnderRelaxedCheck() throws InterruptedException {
+        binManager.setMinimumEntries(5);
+        binManager.setMaxBinAge(0);
+
+        offer("a", 1);
+        offer("b", 1);
+        Thread.sleep(5L);
+
+        assertTrue(binManager.containsOldBins());
+        assertTrue(binManager.removeReadyBins(false).isEmpty());
+        assertEquals(2, binManager.removeReadyBins(true).size());
+        assertEquals(0, binManager.getBinCount());
+        assertTrue(!binManager.containsOldBins());
+    }
+
+    @Test
+    public void testFlowFileLargerThanMaxSizeNotBinned() {
+        binManager.setMaximumSize(10L);
+
+        assertTrue(!binManager.offer("a", createFlowFile(11L), session, sessionFactory));
+        assertEquals(0, binManager.getBinCount());
+    }
+
+    @Test
+    public void testRemoveOldestBinOrdering() {
+        binManager.setMaximumEntries(1);
+
+        final List<FlowFile> flowFiles = new ArrayList<>();
+        flowFiles.addAll(offer("b", 1));
+        flowFiles.addAll(offer("a", 2));
+        flowFiles.addAll(offer("b", 1));
+        assertEquals(4, binManager.getBinCount());
+
+        // bins are removed in the order in which they were created, regardless of their group
+        for (final FlowFile flowFile : flowFiles) {
+            final Bin oldest = binManager.removeOldestBin();
+            assertEquals(Collections.singletonList(flowFile), oldest.getContents());
+        }
+
+        assertNull(binManager.removeOldestBin());
+        assertEquals(0, binManager.getBinCount());
+
+        // once all of a group's bins have been removed, a new bin is created for the group
+        final List<FlowFile> reoffered = offer("a", 1);
+        assertEquals(1, binManager.getBinCount());
+        assertEquals(reoffered, binManager.removeOldestBin().getContents());
+    }
+
+    @Test
+    public void testPurge() {
+        binManager.setMaximumEntries(2);
+
+        offer("a", 3);
+        offer(null, 1);
+        assertEquals(3, binManager.getBinCount());
+        assertEquals(3, binSessions.size());
+
+        binManager.purge();
+        assertEquals(0, binManager.getBinCount());
+        for (final ProcessSession binSession : binSessions) {
+            verify(binSession).rollback();
+        }
+
+        assertNull(binManager.removeOldestBin());
+        assertTrue(binManager.removeReadyBins(true).isEmpty());
+
+        offer("a", 1);
+        assertEquals(1, binManager.getBinCount());
+    }
+
+    @Test(timeout = 30000)
+    public void testConcurrentOffersToSameGroup() throws Exception {
+        binManager.setMinimumEntries(10);
+        binManager.setMaximumEntries(10);
+
+        final ConcurrentLinkedQueue<Bin> bins = new ConcurrentLinkedQueue<>();
+        final Map<FlowFile, String> offered = offerConcurrently(8, 1000, thread -> {
+            // remove bins while other threads are still offering, as the processor would, so the group does not accumulate full bins
+            bins.addAll(binManager.removeReadyBins(false));
+            return "group";
+        });
+
+        bins.addAll(binManager.removeReadyBins(false));
+        assertEquals(0, binManager.getBinCount());
+        assertBinned(offered, new ArrayList<>(bins), 10);
+    }
+
+    @Test(timeout = 30000)
+    public void testConcurrentOffersToDifferentGroups() throws Exception {
+        binManager.setMinimumEntries(10);
+        binManager.setMaximumEntries(10);
+
+        final ConcurrentLinkedQueue<Bin> bins = new ConcurrentLinkedQueue<>();
+        final Map<FlowFile, String> offered = offerConcurrently(8, 1000, thread -> {
+            // remove bins while other threads are still offering to their groups
+            bins.addAll(binManager.removeReadyBins(false));
+            return "group-" + thread;
+        });
+
+        bins.addAll(binManager.removeReadyBins(false));
+        assertEquals(0, binManager.getBinCount());
+        assertBinned(offered, new ArrayList<>(bins), 10);
+    }
+
+    private interface GroupSelector {
+        String getGroup(int thread);
+    }
+
+    private Map<FlowFile, String> offerConcurrently(final int threads, final int flowFilesPerThread, final GroupSelector groupSelector) throws Exception {
+        final Map<FlowFile, String> offered = Collections.synchronizedMap(new IdentityHashMap<>());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < flowFilesPerThread; i++) {
+                        final String group = groupSelector.getGroup(thread);
+                        final FlowFile flowFile = createFlowFile(10L);
+                        offered.put(flowFile, group);
+                        assertTrue(binManager.offer(group, flowFile, session, sessionFactory));
+                    }
+                    return null;
+                }));
+            }
+
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        return offered;
+    }
+
+    private void assertBinned(final Map<FlowFile, String> offered, final List<Bin> bins, final int entriesPerBin) {
+        final Map<FlowFile, Bin> binned = new IdentityHashMap<>();
+        for (final Bin bin : bins) {
+            assertEquals(entriesPerBin, bin.getContents().size());
+
+            final String group = offered.get(bin.getContents().get(0));
+            for (final FlowFile flowFile : bin.getContents()) {
+                // each FlowFile is binned exactly once, and only with FlowFiles of the same group
+                assertNull(binned.put(flowFile, bin));
+                assertEquals(group, offered.get(flowFile));
+            }
+        }
+
+        assertEquals(offered.size(), binned.size());
+    }
+
+    private List<FlowFile> offer(final String group, final int count) {
+        final List<FlowFile> flowFiles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final FlowFile flowFile = createFlowFile(10L);
+            assertTrue(binManager.offer(group, flowFile, session, sessionFactory));
+            flowFiles.add(flowFile);
+        }
+
+        return flowFiles;
+    }
+
+    private FlowFile createFlowFile(final long size) {
+        final FlowFile flowFile = mock(FlowFile.class);
+        when(flowFile.getSize()).thenReturn(size);
+        return flowFile;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.processor.util.listen.queue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestRingBufferQueue {
+
+    @Test
+    public void testOfferUpToCapacity() {
+        final RingBufferQueue<Integer> queue = new RingBufferQueue<>(3);
+        assertTrue(queue.offer(1));
+        assertTrue(queue.offer(2));
+        assertTrue(queue.offer(3));
+        assertFalse(queue.offer(4));
+
+        assertEquals(3, queue.size());
+        assertEquals(0, queue.remainingCapacity());
+        assertEquals(Integer.valueOf(1), queue.peek());
+    }
+
+    @Test
+    public void testPollInOrderAcrossLaps() {
+        final RingBufferQueue<Integer> queue = new RingBufferQueue<>(3);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(queue.offer(i));
+            assertTrue(queue.offer(i + 100));
+            assertEquals(Integer.valueOf(i), queue.poll());
+            assertEquals(Integer.valueOf(i + 100), queue.poll());
+        }
+
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testDrainToWithMaxElements() {
+        final RingBufferQueue<Integer> queue = new RingBufferQueue<>(5);
+        queue.addAll(Arrays.asList(1, 2, 3, 4));
+
+        final List<Integer> drained = new ArrayList<>();
+        assertEquals(3, queue.drainTo(drained, 3));
+        assertEquals(Arrays.asList(1, 2, 3), drained);
+
+        assertEquals(1, queue.drainTo(drained));
+        assertEquals(Arrays.asList(1, 2, 3, 4), drained);
+        assertEquals(0, queue.drainTo(drained));
+    }
+
+    @Test(timeout = 5000)
+    public void testTimedPollAndOfferExpire() throws InterruptedException {
+        final RingBufferQueue<Integer> queue = new RingBufferQueue<>(1);
+        assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+
+        assertTrue(queue.offer(1, 10, TimeUnit.MILLISECONDS));
+        assertFalse(queue.offer(2, 10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test(timeout = 10000)
+    public void testWaitingConsumerAndProducerAreWoken() throws Exception {
+        final RingBufferQueue<Integer> queue = new RingBufferQueue<>(1);
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final AtomicReference<Thread> consumerThread = new AtomicReference<>();
+            final Future<Integer> taken = executor.submit(() -> {
+                consumerThread.set(Thread.currentThread());
+                return queue.take();
+            });
+
+            // the consumer should block until an element is added, rather than waking up periodically to check
+            waitForState(consumerThread, Thread.State.WAITING);
+            assertTrue(queue.offer(1));
+            assertEquals(Integer.valueOf(1), taken.get(5, TimeUnit.SECONDS));
+
+            assertTrue(queue.offer(2));
+            final AtomicReference<Thread> producerThread = new AtomicReference<>();
+            final Future<?> put = executor.submit(() -> {
+                producerThread.set(Thread.currentThread());
+                queue.put(3);
+                return null;
+            });
+
+            waitForState(producerThread, Thread.State.WAITING);
+            assertEquals(Integer.valueOf(2), queue.poll());
+            put.get(5, TimeUnit.SECONDS);
+            assertEquals(Integer.valueOf(3), queue.poll());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void waitForState(final AtomicReference<Thread> threadReference, final Thread.State state) throws InterruptedException {
+        while (threadReference.get() == null || threadReference.get().getState() != state) {
+            Thread.sleep(5L);
+        }
+    }
+
+    @Test(timeout = 30000)
+    public void testConcurrentProducersAndConsumers() throws Exception {
+        final int producers = 4;
+        final int elementsPerProducer = 100_000;
+        final int totalElements = producers * elementsPerProducer;
+
+        final RingBufferQueue<Integer> queue = new RingBufferQueue<>(128);
+        final AtomicInteger consumed = new AtomicInteger(0);
+        final AtomicLong sum = new AtomicLong(0L);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(producers + 2);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                final int base = p * elementsPerProducer;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < elementsPerProducer; i++) {
+                        queue.put(base + i);
+                    }
+                    return null;
+                }));
+            }
+
+            // one consumer polls each element, the other drains in batches
+            futures.add(executor.submit(() -> {
+                while (consumed.get() < totalElements) {
+                    final Integer element = queue.poll(1, TimeUnit.MILLISECONDS);
+                    if (element != null) {
+                        sum.addAndGet(element);
+                        consumed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+            futures.add(executor.submit(() -> {
+                final List<Integer> batch = new ArrayList<>();
+                while (consumed.get() < totalElements) {
+                    batch.clear();
+                    queue.drainTo(batch, 50);
+                    for (final Integer element : batch) {
+                        sum.addAndGet(element);
+                        consumed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(totalElements, consumed.get());
+        assertEquals((long) totalElements * (totalElements - 1) / 2, sum.get());
+        assertTrue(queue.isEmpty());
+    }
+}
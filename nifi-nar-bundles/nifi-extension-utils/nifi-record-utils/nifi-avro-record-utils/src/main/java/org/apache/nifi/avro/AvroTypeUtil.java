@@ -42,6 +42,8 @@ import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
 import org.apache.nifi.serialization.record.SchemaIdentifier;
 import org.apache.nifi.serialization.record.StandardSchemaIdentifier;
+import org.apache.nifi.serialization.record.batch.ColumnarRecordBatch;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 import org.apache.nifi.serialization.record.type.ArrayDataType;
 import org.apache.nifi.serialization.record.type.ChoiceDataType;
 import org.apache.nifi.serialization.record.type.MapDataType;
@@ -595,6 +597,59 @@ public class AvroTypeUtil {
         return rec;
     }
 
+    /**
+     * Creates an Avro Record for each record in the given batch. The Avro field that corresponds to each column of the batch is
+     * determined once for the entire batch, rather than once for each record.
+     *
+     * @param batch the batch of records
+     * @param avroSchema the schema of the Avro Records to create
+     * @param charset the character set to use when converting Strings to bytes
+     * @return an Avro Record for each record in the batch, in the same order
+     */
+    public static List<GenericRecord> createAvroRecords(final RecordBatch batch, final Schema avroSchema, final Charset charset) {
+        final List<RecordField> recordFields = batch.getSchema().getFields();
+        final String[] fieldNames = new String[recordFields.size()];
+        final Field[] fields = new Field[recordFields.size()];
+        for (int i = 0; i < fields.length; i++) {
+            final Pair<String, Field> fieldPair = lookupField(avroSchema, recordFields.get(i));
+            fieldNames[i] = fieldPair.getLeft();
+            fields[i] = fieldPair.getRight();
+        }
+
+        // Fields of the Avro schema that have no corresponding column are given their default values, as in createAvroRecord
+        final List<Field> defaultedFields = new ArrayList<>();
+        for (final Field field : avroSchema.getFields()) {
+            if (!batch.getSchema().getField(field.name()).isPresent() && field.defaultVal() != null) {
+                defaultedFields.add(field);
+            }
+        }
+
+        final int recordCount = batch.getRecordCount();
+        final List<GenericRecord> avroRecords = new ArrayList<>(recordCount);
+        for (int row = 0; row < recordCount; row++) {
+            final GenericRecord rec = new GenericData.Record(avroSchema);
+            for (int i = 0; i < fields.length; i++) {
+                final Field field = fields[i];
+                if (field == null) {
+                    continue;
+                }
+
+                final Object rawValue = batch.getColumn(i).getObject(row);
+                rec.put(field.name(), convertToAvroObject(rawValue, field.schema(), fieldNames[i], charset));
+            }
+
+            for (final Field field : defaultedFields) {
+                if (rec.get(field.name()) == null) {
+                    rec.put(field.name(), field.defaultVal());
+                }
+            }
+
+            avroRecords.add(rec);
+        }
+
+        return avroRecords;
+    }
+
     /**
      * Convert a raw value to an Avro object to serialize in Avro type system, using the provided character set when necessary.
      * The counter-part method which reads an Avro object back to a raw value is {@link #normalizeValue(Object, Schema, String)}.
@@ -834,39 +889,56 @@ public class AvroTypeUtil {
         final Map<String, Object> values = new HashMap<>(recordSchema.getFieldCount());
 
         for (final RecordField recordField : recordSchema.getFields()) {
+            values.put(recordField.getFieldName(), getFieldValue(avroRecord, recordField, charset));
+        }
 
-            Object value = avroRecord.get(recordField.getFieldName());
-            if (value == null) {
-                for (final String alias : recordField.getAliases()) {
-                    value = avroRecord.get(alias);
-                    if (value != null) {
-                        break;
-                    }
+        return values;
+    }
+
+    /**
+     * Appends the values of the given Avro Record to the columns of the given batch, converting each value to the type of the
+     * corresponding field in the batch's schema, and completes the record. This avoids creating a Map and a Record for each Avro Record.
+     *
+     * @param avroRecord the Avro Record whose values are to be appended
+     * @param batch the batch to append the values to
+     * @param charset the character set to use when converting bytes to Strings
+     */
+    public static void appendAvroRecordToBatch(final GenericRecord avroRecord, final ColumnarRecordBatch batch, final Charset charset) {
+        final List<RecordField> recordFields = batch.getSchema().getFields();
+        for (int i = 0; i < recordFields.size(); i++) {
+            batch.getColumn(i).append(getFieldValue(avroRecord, recordFields.get(i), charset));
+        }
+
+        batch.completeRecord();
+    }
+
+    private static Object getFieldValue(final GenericRecord avroRecord, final RecordField recordField, final Charset charset) {
+        Object value = avroRecord.get(recordField.getFieldName());
+        if (value == null) {
+            for (final String alias : recordField.getAliases()) {
+                value = avroRecord.get(alias);
+                if (value != null) {
+                    break;
                 }
             }
+        }
 
-            final String fieldName = recordField.getFieldName();
-            try {
+        final String fieldName = recordField.getFieldName();
+        try {
             final Field avroField = avroRecord.getSchema().getField(fieldName);
             if (avroField == null) {
-                values.put(fieldName, null);
-                continue;
+                return null;
             }
 
             final Schema fieldSchema = avroField.schema();
             final Object rawValue = normalizeValue(value, fieldSchema, fieldName);
 
             final DataType desiredType = recordField.getDataType();
-            final Object coercedValue = DataTypeUtils.convertType(rawValue, desiredType, fieldName, charset);
-
-            values.put(fieldName, coercedValue);
-            } catch (Exception ex) {
-                logger.debug("fail to convert field " + fieldName, ex );
-                throw ex;
-            }
+            return DataTypeUtils.convertType(rawValue, desiredType, fieldName, charset);
+        } catch (Exception ex) {
+            logger.debug("fail to convert field " + fieldName, ex );
+            throw ex;
         }
-
-        return values;
     }
 
     /**
@@ -207,7 +207,7 @@ public class SchemaRepositoryRecordSerde extends RepositoryRecordSerde implement
 
         ffBuilder.addAttributes((Map<String, String>) record.getFieldValue(FlowFileSchema.ATTRIBUTES));
 
-        final FlowFileRecord flowFileRecord = ffBuilder.build();
+        final FlowFileRecord flowFileRecord = ffBuilder.compactAttributes().build();
 
         final String queueId = (String) record.getFieldValue(RepositoryRecordSchema.QUEUE_IDENTIFIER);
         final FlowFileQueue queue = getFlowFileQueue(queueId);
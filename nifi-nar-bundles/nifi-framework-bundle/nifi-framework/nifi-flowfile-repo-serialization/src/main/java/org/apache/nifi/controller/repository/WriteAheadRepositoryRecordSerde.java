@@ -243,7 +243,7 @@ public class WriteAheadRepositoryRecordSerde extends RepositoryRecordSerde imple
                 + attributesChanged + " after successfully restoring " + recordsRestored + " records. The FlowFile Repository appears to be corrupt!");
         }
 
-        final FlowFileRecord flowFile = ffBuilder.build();
+        final FlowFileRecord flowFile = ffBuilder.compactAttributes().build();
         String swapLocation = null;
         if (action == ACTION_SWAPPED_IN) {
             swapLocation = in.readUTF();
@@ -352,7 +352,7 @@ public class WriteAheadRepositoryRecordSerde extends RepositoryRecordSerde imple
                 + attributesChanged + " after successfully restoring " + recordsRestored + " records");
         }
 
-        final FlowFileRecord flowFile = ffBuilder.build();
+        final FlowFileRecord flowFile = ffBuilder.compactAttributes().build();
         String swapLocation = null;
         if (action == ACTION_SWAPPED_IN) {
             swapLocation = in.readUTF();
@@ -94,6 +94,6 @@ public class FlowFileRecordFieldMap implements Record {
             }
         }
 
-        return builder.build();
+        return builder.compactAttributes().build();
     }
 }
@@ -53,6 +53,7 @@ public class HeartbeatPayload {
     private long totalFlowFileBytes;
     private long systemStartTime;
     private List<NodeConnectionStatus> clusterStatus;
+    private boolean clusterStatusUnchanged;
 
     public int getActiveThreadCount() {
         return activeThreadCount;
@@ -94,6 +95,18 @@ public class HeartbeatPayload {
         this.clusterStatus = clusterStatus;
     }
 
+    /**
+     * @return <code>true</code> if the Cluster Status has been omitted from this payload because the node's view of the cluster has not changed
+     *         since the last heartbeat that was acknowledged by the Cluster Coordinator, <code>false</code> otherwise
+     */
+    public boolean isClusterStatusUnchanged() {
+        return clusterStatusUnchanged;
+    }
+
+    public void setClusterStatusUnchanged(final boolean clusterStatusUnchanged) {
+        this.clusterStatusUnchanged = clusterStatusUnchanged;
+    }
+
     public byte[] marshal() throws ProtocolException {
         final ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream();
         marshal(this, payloadBytes);
@@ -58,6 +58,8 @@ public class ClusterProtocolHeartbeatMonitor extends AbstractHeartbeatMonitor im
 
     private final String heartbeatAddress;
     private final ConcurrentMap<NodeIdentifier, NodeHeartbeat> heartbeatMessages = new ConcurrentHashMap<>();
+    // Each node's most recently reported view of the cluster, keyed by the Node Identifier of the status, used when a heartbeat indicates that the view has not changed
+    private final ConcurrentMap<NodeIdentifier, Map<NodeIdentifier, NodeConnectionStatus>> reportedClusterStatuses = new ConcurrentHashMap<>();
 
     private volatile long purgeTimestamp = System.currentTimeMillis();
 
@@ -100,6 +102,7 @@ public class ClusterProtocolHeartbeatMonitor extends AbstractHeartbeatMonitor im
         // that if we go the required amount of time without receiving a heartbeat, we do know to mark the node
         // as disconnected.
         heartbeatMessages.clear();
+        reportedClusterStatuses.clear();
         for (final NodeIdentifier nodeId : clusterCoordinator.getNodeIdentifiers()) {
             final NodeHeartbeat heartbeat = new StandardNodeHeartbeat(nodeId, System.currentTimeMillis(),
                     clusterCoordinator.getConnectionStatus(nodeId), 0, 0L, 0, System.currentTimeMillis());
@@ -120,12 +123,14 @@ public class ClusterProtocolHeartbeatMonitor extends AbstractHeartbeatMonitor im
     public synchronized void removeHeartbeat(final NodeIdentifier nodeId) {
         logger.debug("Deleting heartbeat for node {}", nodeId);
         heartbeatMessages.remove(nodeId);
+        reportedClusterStatuses.remove(nodeId);
     }
 
     @Override
     public synchronized void purgeHeartbeats() {
         logger.debug("Purging old heartbeats");
         heartbeatMessages.clear();
+        reportedClusterStatuses.clear();
         purgeTimestamp = System.currentTimeMillis();
     }
 
@@ -166,11 +171,23 @@ public class ClusterProtocolHeartbeatMonitor extends AbstractHeartbeatMonitor im
 
         // Formulate a List of differences between our view of the cluster topology and the node's view
         // and send that back to the node so that it is in-sync with us
-        List<NodeConnectionStatus> nodeStatusList = payload.getClusterStatus();
-        if (nodeStatusList == null) {
-            nodeStatusList = Collections.emptyList();
+        Map<NodeIdentifier, NodeConnectionStatus> nodeStatusMap;
+        if (payload.isClusterStatusUnchanged()) {
+            // If we have no record of the node's view, such as after a restart, fall back to sending all statuses until the node sends its full view.
+            nodeStatusMap = reportedClusterStatuses.get(nodeId);
+        } else {
+            final List<NodeConnectionStatus> nodeStatusList = payload.getClusterStatus();
+            if (nodeStatusList == null) {
+                nodeStatusMap = null;
+            } else {
+                nodeStatusMap = nodeStatusList.stream().collect(Collectors.toMap(status -> status.getNodeIdentifier(), Function.identity()));
+                reportedClusterStatuses.put(nodeId, nodeStatusMap);
+            }
+        }
+        if (nodeStatusMap == null) {
+            nodeStatusMap = Collections.emptyMap();
         }
-        final List<NodeConnectionStatus> updatedStatuses = getUpdatedStatuses(nodeStatusList);
+        final List<NodeConnectionStatus> updatedStatuses = getUpdatedStatuses(nodeStatusMap);
 
         final HeartbeatResponseMessage responseMessage = new HeartbeatResponseMessage();
         responseMessage.setUpdatedNodeStatuses(updatedStatuses);
@@ -202,11 +219,7 @@ public class ClusterProtocolHeartbeatMonitor extends AbstractHeartbeatMonitor im
         return response;
     }
 
-    private List<NodeConnectionStatus> getUpdatedStatuses(final List<NodeConnectionStatus> nodeStatusList) {
-        // Map node's statuses by NodeIdentifier for quick & easy lookup
-        final Map<NodeIdentifier, NodeConnectionStatus> nodeStatusMap = nodeStatusList.stream()
-                .collect(Collectors.toMap(status -> status.getNodeIdentifier(), Function.identity()));
-
+    private List<NodeConnectionStatus> getUpdatedStatuses(final Map<NodeIdentifier, NodeConnectionStatus> nodeStatusMap) {
         // Check if our connection status is the same for each Node Identifier and if not, add our version of the status
         // to a List of updated statuses.
         final List<NodeConnectionStatus> currentStatuses = clusterCoordinator.getConnectionStatuses();
@@ -220,14 +233,14 @@ public class ClusterProtocolHeartbeatMonitor extends AbstractHeartbeatMonitor im
 
         // If the node has any statuses that we do not have, add a REMOVED status to the update list
         final Set<NodeIdentifier> nodeIds = currentStatuses.stream().map(status -> status.getNodeIdentifier()).collect(Collectors.toSet());
-        for (final NodeConnectionStatus nodeStatus : nodeStatusList) {
+        for (final NodeConnectionStatus nodeStatus : nodeStatusMap.values()) {
             if (!nodeIds.contains(nodeStatus.getNodeIdentifier())) {
                 updatedStatuses.add(new NodeConnectionStatus(nodeStatus.getNodeIdentifier(), NodeConnectionState.REMOVED, null));
             }
         }
 
         logger.debug("\n\nCalculated diff between current cluster status and node cluster status as follows:\nNode: {}\nSelf: {}\nDifference: {}\n\n",
-                nodeStatusList, currentStatuses, updatedStatuses);
+                nodeStatusMap.values(), currentStatuses, updatedStatuses);
 
         return updatedStatuses;
     }
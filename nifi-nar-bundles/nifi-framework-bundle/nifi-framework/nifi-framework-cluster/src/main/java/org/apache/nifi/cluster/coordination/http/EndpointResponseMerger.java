@@ -59,4 +59,17 @@ public interface EndpointResponseMerger {
      */
     NodeResponse merge(URI uri, String method, Set<NodeResponse> successfulResponses, Set<NodeResponse> problematicResponses, NodeResponse clientResponse);
 
+    /**
+     * Indicates the type of entity that each successful node response is read as when merging responses for the given URI and HTTP Method.
+     * When known, each node's response may be parsed as soon as it is received, rather than one after another once all nodes have responded.
+     *
+     * @param uri the URI of the REST Endpoint
+     * @param method the HTTP Method used to interact with the REST Endpoint
+     *
+     * @return the type of entity that the node responses are read as, or <code>null</code> if the responses are not read as a single type of entity
+     */
+    default Class<?> getResponseEntityType(URI uri, String method) {
+        return null;
+    }
+
 }
@@ -62,4 +62,13 @@ public interface HttpResponseMapper {
      * @return <code>true</code> if the response must be interpreted, <code>false</code> otherwise
      */
     boolean isResponseInterpreted(URI uri, String httpMethod);
+
+    /**
+     * Indicates the type of entity that successful node responses for the given URI & HTTP method are read as in order to merge them
+     *
+     * @param uri the URI of the request
+     * @param httpMethod the HTTP Method of the request
+     * @return the type of entity that the node responses are read as, or <code>null</code> if the responses are not read as a single type of entity
+     */
+    Class<?> getResponseEntityType(URI uri, String httpMethod);
 }
@@ -232,6 +232,12 @@ public class StandardHttpResponseMapper implements HttpResponseMapper {
         return getEndpointResponseMerger(uri, httpMethod) != null;
     }
 
+    @Override
+    public Class<?> getResponseEntityType(final URI uri, final String httpMethod) {
+        final EndpointResponseMerger merger = getEndpointResponseMerger(uri, httpMethod);
+        return merger == null ? null : merger.getResponseEntityType(uri, httpMethod);
+    }
+
     private EndpointResponseMerger getEndpointResponseMerger(final URI uri, final String httpMethod) {
         return endpointMergers.stream().filter(p -> p.canHandle(uri, httpMethod)).findFirst().orElse(null);
     }
@@ -54,6 +54,11 @@ public class ProvenanceQueryEndpointMerger implements EndpointResponseMerger {
     }
 
 
+    @Override
+    public Class<?> getResponseEntityType(final URI uri, final String method) {
+        return ProvenanceEntity.class;
+    }
+
     @Override
     public NodeResponse merge(URI uri, String method, Set<NodeResponse> successfulResponses, Set<NodeResponse> problematicResponses, NodeResponse clientResponse) {
         if (!canHandle(uri, method)) {
@@ -184,6 +184,10 @@ public class StandardAsyncClusterResponse implements AsyncClusterResponse {
         return uri.getPath();
     }
 
+    public boolean isMerge() {
+        return merge;
+    }
+
     @Override
     public NodeResponse getMergedResponse() {
         return getMergedResponse(true);
@@ -216,7 +220,15 @@ public class StandardAsyncClusterResponse implements AsyncClusterResponse {
             .collect(Collectors.toSet());
 
         final long start = System.nanoTime();
-        mergedResponse = responseMapper.mapResponses(uri, method, nodeResponses, merge);
+        try {
+            mergedResponse = responseMapper.mapResponses(uri, method, nodeResponses, merge);
+        } catch (final RuntimeException e) {
+            // release any responses that were left unread, such as when a node's response was too large to be merged
+            nodeResponses.stream()
+                .filter(response -> response.getClientResponse() != null)
+                .forEach(response -> response.getClientResponse().close());
+            throw e;
+        }
         final long nanos = System.nanoTime() - start;
         addTiming("Map/Merge Responses", "All Nodes", nanos);
 
@@ -24,6 +24,7 @@ import org.apache.nifi.authorization.user.NiFiUserUtils;
 import org.apache.nifi.cluster.coordination.ClusterCoordinator;
 import org.apache.nifi.cluster.coordination.http.HttpResponseMapper;
 import org.apache.nifi.cluster.coordination.http.StandardHttpResponseMapper;
+import org.apache.nifi.cluster.coordination.http.replication.okhttp.JacksonResponse;
 import org.apache.nifi.cluster.coordination.node.NodeConnectionState;
 import org.apache.nifi.cluster.coordination.node.NodeConnectionStatus;
 import org.apache.nifi.cluster.manager.NodeResponse;
@@ -657,11 +658,44 @@ public class ThreadPoolRequestReplicator implements RequestReplicator {
                     nodeResponse.bufferResponse();
                 }
             }
+
+            parseResponse(nodeResponse, clusterResponse);
         }
 
         return nodeResponse;
     }
 
+    /**
+     * Parses the given response as soon as it has been received, on the thread that replicated the request, when the response will be merged
+     * with those of the other nodes. This way the responses are parsed in parallel as they arrive, rather than one after another once all nodes
+     * have responded. A response that cannot be parsed is not treated as a failure of the node to handle the request; the failure is reported
+     * when the responses are merged.
+     *
+     * @param nodeResponse the successful response from the node
+     * @param clusterResponse the cluster response that the node response belongs to
+     */
+    private void parseResponse(final NodeResponse nodeResponse, final StandardAsyncClusterResponse clusterResponse) {
+        // only the JacksonResponse retains the parsed entity for the merger, other responses may only be read once
+        if (!clusterResponse.isMerge() || !(nodeResponse.getClientResponse() instanceof JacksonResponse)) {
+            return;
+        }
+
+        final Class<?> entityType = responseMapper.getResponseEntityType(nodeResponse.getRequestUri(), nodeResponse.getHttpMethod());
+        if (entityType == null) {
+            return;
+        }
+
+        final long startNanos = System.nanoTime();
+        try {
+            nodeResponse.getClientResponse().readEntity(entityType);
+        } catch (final RuntimeException e) {
+            logger.debug("Failed to parse response from {} for {} {}; the failure will be reported when the responses are merged",
+                nodeResponse.getNodeId(), nodeResponse.getHttpMethod(), nodeResponse.getRequestUri().getPath(), e);
+        }
+
+        clusterResponse.addTiming("Parse Response", nodeResponse.getNodeId().toString(), System.nanoTime() - startNanos);
+    }
+
     private boolean isMutableRequest(final String method, final String uriPath) {
         switch (method.toUpperCase()) {
             case HttpMethod.GET:
@@ -18,6 +18,8 @@
 package org.apache.nifi.cluster.coordination.http.replication.okhttp;
 
 import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.net.URI;
@@ -29,6 +31,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
+import javax.ws.rs.ProcessingException;
 import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.Link;
@@ -39,13 +42,23 @@ import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.NewCookie;
 import javax.ws.rs.core.Response;
 
+import org.apache.commons.io.IOUtils;
+
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+/**
+ * A Response whose entity is read from the node's response stream only when it is requested. Entities are parsed with a streaming
+ * JSON parser directly from that stream, so a node's response is never held in memory as both raw bytes and entity unless it has
+ * been explicitly buffered. The number of bytes that may be read in order to parse or buffer the entity is limited; the entity
+ * stream itself, when passed through unchanged, is not.
+ */
 public class JacksonResponse extends Response {
     private final ObjectMapper codec;
-    private final byte[] responseBody;
+    private final InputStream responseStream;
+    private final long contentLength;
+    private final long maxEntityBytes;
     private final MultivaluedMap<String, String> responseHeaders;
     private final URI location;
     private final int statusCode;
@@ -53,10 +66,20 @@ public class JacksonResponse extends Response {
 
     private final JsonFactory jsonFactory = new JsonFactory();
 
-    public JacksonResponse(final ObjectMapper codec, final byte[] responseBody, final MultivaluedMap<String, String> responseHeaders, final URI location, final int statusCode,
-            final Runnable closeCallback) {
+    // all guarded by synchronizing on this
+    private byte[] bufferedBody;
+    private boolean streamConsumed = false;
+    private String sizeExceededMessage;
+    private Class<?> parsedEntityType;
+    private Object parsedEntity;
+    private RuntimeException parseFailure;
+
+    public JacksonResponse(final ObjectMapper codec, final InputStream responseStream, final long contentLength, final long maxEntityBytes,
+            final MultivaluedMap<String, String> responseHeaders, final URI location, final int statusCode, final Runnable closeCallback) {
         this.codec = codec;
-        this.responseBody = responseBody;
+        this.responseStream = responseStream;
+        this.contentLength = contentLength;
+        this.maxEntityBytes = maxEntityBytes;
         this.responseHeaders = responseHeaders;
         this.location = location;
         this.statusCode = statusCode;
@@ -75,32 +98,111 @@ public class JacksonResponse extends Response {
 
     @Override
     public Object getEntity() {
-        try {
-            final JsonParser parser = jsonFactory.createParser(responseBody);
-            parser.setCodec(codec);
-            return parser.readValueAs(Object.class);
-        } catch (final Exception e) {
-            throw new RuntimeException("Failed to parse response", e);
-        }
+        return readEntity(Object.class);
     }
 
     @Override
     @SuppressWarnings("unchecked")
-    public <T> T readEntity(Class<T> entityType) {
+    public synchronized <T> T readEntity(Class<T> entityType) {
         if (InputStream.class.equals(entityType)) {
-            return (T) new ByteArrayInputStream(responseBody);
+            return (T) getEntityStream();
         }
 
         if (String.class.equals(entityType)) {
-            return (T) new String(responseBody, StandardCharsets.UTF_8);
+            return (T) new String(readBody(), StandardCharsets.UTF_8);
         }
 
+        // The entity may already have been parsed, as the response was received, in order to spread the parsing across threads
+        if (entityType.equals(parsedEntityType)) {
+            if (parseFailure != null) {
+                throw parseFailure;
+            }
+
+            return (T) parsedEntity;
+        }
+
+        parsedEntityType = entityType;
+        try {
+            parsedEntity = parseEntity(entityType);
+            return (T) parsedEntity;
+        } catch (final RuntimeException e) {
+            parseFailure = e;
+            throw e;
+        }
+    }
+
+    private <T> T parseEntity(final Class<T> entityType) {
+        final SizeLimitedInputStream in = openSizeLimitedStream();
         try {
-            final JsonParser parser = jsonFactory.createParser(responseBody);
+            final JsonParser parser = jsonFactory.createParser(in);
             parser.setCodec(codec);
             return parser.readValueAs(entityType);
         } catch (final Exception e) {
+            if (in.isLimitExceeded()) {
+                throw new ProcessingException(sizeExceededMessage, e);
+            }
+
             throw new RuntimeException("Failed to parse response as entity of type " + entityType, e);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    private byte[] readBody() {
+        if (bufferedBody != null) {
+            return bufferedBody;
+        }
+
+        final SizeLimitedInputStream in = openSizeLimitedStream();
+        try {
+            return IOUtils.toByteArray(in);
+        } catch (final IOException e) {
+            if (in.isLimitExceeded()) {
+                throw new ProcessingException(sizeExceededMessage, e);
+            }
+
+            throw new ProcessingException("Failed to read response from " + location, e);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    private InputStream getEntityStream() {
+        if (bufferedBody != null) {
+            return new ByteArrayInputStream(bufferedBody);
+        }
+
+        verifyStreamNotConsumed();
+        streamConsumed = true;
+        return responseStream;
+    }
+
+    private SizeLimitedInputStream openSizeLimitedStream() {
+        if (bufferedBody != null) {
+            return new SizeLimitedInputStream(new ByteArrayInputStream(bufferedBody));
+        }
+
+        verifyStreamNotConsumed();
+        streamConsumed = true;
+
+        // Fail fast if the node tells us up front that the response is too large, rather than reading it only to discard it
+        if (contentLength > maxEntityBytes) {
+            sizeExceededMessage = "Response from " + location + " has a length of " + contentLength + " bytes, which exceeds the maximum allowed response size of "
+                + maxEntityBytes + " bytes; the response will not be read";
+            IOUtils.closeQuietly(responseStream);
+            throw new ProcessingException(sizeExceededMessage);
+        }
+
+        return new SizeLimitedInputStream(responseStream);
+    }
+
+    private void verifyStreamNotConsumed() {
+        if (sizeExceededMessage != null) {
+            throw new ProcessingException(sizeExceededMessage);
+        }
+
+        if (streamConsumed) {
+            throw new IllegalStateException("The entity of the response from " + location + " has already been consumed");
         }
     }
 
@@ -120,17 +222,33 @@ public class JacksonResponse extends Response {
     }
 
     @Override
-    public boolean hasEntity() {
-        return responseBody != null && responseBody.length > 0;
+    public synchronized boolean hasEntity() {
+        return bufferedBody == null ? contentLength != 0 : bufferedBody.length > 0;
     }
 
     @Override
-    public boolean bufferEntity() {
-        return true;
+    public synchronized boolean bufferEntity() {
+        if (bufferedBody != null) {
+            return true;
+        }
+
+        try {
+            bufferedBody = readBody();
+            return true;
+        } catch (final ProcessingException e) {
+            // A response that is too large is not a failure of the node to handle the request, so it is reported when the entity is read instead
+            if (sizeExceededMessage != null) {
+                return false;
+            }
+
+            throw e;
+        }
     }
 
     @Override
     public void close() {
+        IOUtils.closeQuietly(responseStream);
+
         if (closeCallback != null) {
             closeCallback.run();
         }
@@ -147,8 +265,8 @@ public class JacksonResponse extends Response {
     }
 
     @Override
-    public int getLength() {
-        return responseBody == null ? 0 : responseBody.length;
+    public synchronized int getLength() {
+        return bufferedBody == null ? (int) Math.min(contentLength, Integer.MAX_VALUE) : bufferedBody.length;
     }
 
     @Override
@@ -234,4 +352,54 @@ public class JacksonResponse extends Response {
     public String getHeaderString(String name) {
         return responseHeaders.getFirst(name);
     }
+
+    /**
+     * Fails the read once more than the maximum number of bytes have been read, rather than silently truncating the content
+     */
+    private class SizeLimitedInputStream extends FilterInputStream {
+        private long bytesRead = 0L;
+        private boolean limitExceeded = false;
+
+        private SizeLimitedInputStream(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int value = super.read();
+            if (value > -1) {
+                count(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int bytesCount = super.read(b, off, len);
+            if (bytesCount > 0) {
+                count(bytesCount);
+            }
+            return bytesCount;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            final long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        private void count(final long bytesCount) throws IOException {
+            bytesRead += bytesCount;
+            if (bytesRead > maxEntityBytes) {
+                limitExceeded = true;
+                sizeExceededMessage = "Response from " + location + " exceeds the maximum allowed response size of " + maxEntityBytes + " bytes; the response will not be read";
+                throw new IOException(sizeExceededMessage);
+            }
+        }
+
+        private boolean isLimitExceeded() {
+            return limitExceeded;
+        }
+    }
 }
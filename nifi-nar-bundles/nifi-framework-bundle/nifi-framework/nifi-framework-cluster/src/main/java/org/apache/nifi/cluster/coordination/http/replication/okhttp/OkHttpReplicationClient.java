@@ -58,10 +58,12 @@ import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.nifi.cluster.coordination.http.replication.HttpReplicationClient;
 import org.apache.nifi.cluster.coordination.http.replication.PreparedRequest;
 import org.apache.nifi.framework.security.util.SslContextFactory;
+import org.apache.nifi.processor.DataUnit;
 import org.apache.nifi.remote.protocol.http.HttpHeaders;
 import org.apache.nifi.stream.io.GZIPOutputStream;
 import org.apache.nifi.util.FormatUtils;
@@ -69,7 +71,6 @@ import org.apache.nifi.util.NiFiProperties;
 import org.apache.nifi.util.Tuple;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.util.StreamUtils;
 
 public class OkHttpReplicationClient implements HttpReplicationClient {
     private static final Logger logger = LoggerFactory.getLogger(OkHttpReplicationClient.class);
@@ -80,6 +81,7 @@ public class OkHttpReplicationClient implements HttpReplicationClient {
 
     private final ObjectMapper jsonCodec = new ObjectMapper();
     private final OkHttpClient okHttpClient;
+    private final long maxResponseBytes;
 
     public OkHttpReplicationClient(final NiFiProperties properties) {
         jsonCodec.setDefaultPropertyInclusion(Value.construct(Include.NON_NULL, Include.ALWAYS));
@@ -89,6 +91,7 @@ public class OkHttpReplicationClient implements HttpReplicationClient {
         xmlSerializer = new XmlEntitySerializer();
 
         okHttpClient = createOkHttpClient(properties);
+        maxResponseBytes = DataUnit.parseDataSize(properties.getClusterNodeMaxResponseSize(), DataUnit.B).longValue();
     }
 
     @Override
@@ -137,11 +140,20 @@ public class OkHttpReplicationClient implements HttpReplicationClient {
         final Call call = createCall(request, uri);
         final okhttp3.Response callResponse = call.execute();
 
-        final byte[] responseBytes = getResponseBytes(callResponse);
+        final InputStream responseStream;
+        try {
+            responseStream = getResponseStream(callResponse);
+        } catch (final IOException e) {
+            callResponse.close();
+            throw e;
+        }
+
         final MultivaluedMap<String, String> responseHeaders = getHeaders(callResponse);
         logger.debug("Received response code {} with headers {} for request {} to {}", callResponse.code(), responseHeaders, request, uri);
 
-        final Response response = new JacksonResponse(jsonCodec, responseBytes, responseHeaders, URI.create(uri), callResponse.code(), callResponse::close);
+        final ResponseBody body = callResponse.body();
+        final long contentLength = body == null ? 0L : body.contentLength();
+        final Response response = new JacksonResponse(jsonCodec, responseStream, contentLength, maxResponseBytes, responseHeaders, URI.create(uri), callResponse.code(), callResponse::close);
         return response;
     }
 
@@ -156,20 +168,16 @@ public class OkHttpReplicationClient implements HttpReplicationClient {
         return headerMap;
     }
 
-    private byte[] getResponseBytes(final okhttp3.Response callResponse) throws IOException {
-        final byte[] rawBytes = callResponse.body().bytes();
+    private InputStream getResponseStream(final okhttp3.Response callResponse) throws IOException {
+        final ResponseBody body = callResponse.body();
+        if (body == null || body.contentLength() == 0) {
+            return new ByteArrayInputStream(new byte[0]);
+        }
 
+        // The response is left on the socket until it is read, and is decompressed as it is read, so that it can be parsed without first being buffered
         final String contentEncoding = callResponse.header("Content-Encoding");
-        if (gzipEncodings.contains(contentEncoding)) {
-            try (final InputStream gzipIn = new GZIPInputStream(new ByteArrayInputStream(rawBytes));
-                 final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-
-                StreamUtils.copy(gzipIn, baos);
-                return baos.toByteArray();
-            }
-        } else {
-            return rawBytes;
-        }
+        final InputStream bodyIn = body.byteStream();
+        return gzipEncodings.contains(contentEncoding) ? new GZIPInputStream(bodyIn) : bodyIn;
     }
 
     private Call createCall(final OkHttpPreparedRequest request, final String uri) {
@@ -253,7 +253,7 @@ public class StatusMerger {
 
             merge(merged, statusToMerge);
         }
-        target.setOutputPortStatusSnapshots(mergedOutputPortMap.values());
+        target.setProcessGroupStatusSnapshots(mergedGroupMap.values());
 
         // remote groups
         final Map<String, RemoteProcessGroupStatusSnapshotEntity> mergedRemoteGroupMap = new HashMap<>();
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.coordination.heartbeat;
+
+import org.apache.nifi.cluster.coordination.ClusterCoordinator;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionState;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionStatus;
+import org.apache.nifi.cluster.protocol.Heartbeat;
+import org.apache.nifi.cluster.protocol.HeartbeatPayload;
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.cluster.protocol.ProtocolListener;
+import org.apache.nifi.cluster.protocol.message.HeartbeatMessage;
+import org.apache.nifi.cluster.protocol.message.HeartbeatResponseMessage;
+import org.apache.nifi.util.NiFiProperties;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestClusterProtocolHeartbeatMonitor {
+    private NodeIdentifier nodeId1;
+    private NodeIdentifier nodeId2;
+    private ClusterCoordinator coordinator;
+    private ClusterProtocolHeartbeatMonitor monitor;
+
+    @Before
+    public void setup() {
+        nodeId1 = new NodeIdentifier(UUID.randomUUID().toString(), "localhost", 9999, "localhost", 8888, "localhost", 777, "localhost", null, null, false);
+        nodeId2 = new NodeIdentifier(UUID.randomUUID().toString(), "localhost", 7777, "localhost", 6666, "localhost", 555, "localhost", null, null, false);
+
+        coordinator = mock(ClusterCoordinator.class);
+        when(coordinator.isFlowElectionComplete()).thenReturn(true);
+        when(coordinator.getConnectionStatuses()).thenReturn(Arrays.asList(
+            new NodeConnectionStatus(nodeId1, NodeConnectionState.CONNECTED),
+            new NodeConnectionStatus(nodeId2, NodeConnectionState.CONNECTED)));
+
+        final Map<String, String> addProps = new HashMap<>();
+        addProps.put(NiFiProperties.CLUSTER_NODE_PROTOCOL_PORT, "8888");
+        monitor = new ClusterProtocolHeartbeatMonitor(coordinator, mock(ProtocolListener.class), NiFiProperties.createBasicNiFiProperties(null, addProps));
+    }
+
+    @Test
+    public void testUnchangedClusterStatusUsesLastReportedView() throws Exception {
+        // Node 1 believes that Node 2 is still connecting, so the coordinator should correct it.
+        final List<NodeConnectionStatus> staleView = Arrays.asList(
+            new NodeConnectionStatus(nodeId1, NodeConnectionState.CONNECTED),
+            new NodeConnectionStatus(nodeId2, NodeConnectionState.CONNECTING));
+
+        List<NodeConnectionStatus> updates = sendHeartbeat(staleView, false);
+        assertEquals(1, updates.size());
+        assertEquals(nodeId2, updates.get(0).getNodeIdentifier());
+        assertEquals(NodeConnectionState.CONNECTED, updates.get(0).getState());
+
+        // The node omits its view because it has not changed, so the coordinator must still correct it, using the view it last reported.
+        updates = sendHeartbeat(null, true);
+        assertEquals(1, updates.size());
+        assertEquals(NodeConnectionState.CONNECTED, updates.get(0).getState());
+
+        final List<NodeConnectionStatus> currentView = coordinator.getConnectionStatuses();
+        assertTrue(sendHeartbeat(currentView, false).isEmpty());
+        assertTrue(sendHeartbeat(null, true).isEmpty());
+    }
+
+    @Test
+    public void testUnchangedClusterStatusFromUnknownNode() throws Exception {
+        // Without a record of the node's view, every status is sent so that the node is corrected if necessary.
+        final List<NodeConnectionStatus> updates = sendHeartbeat(null, true);
+        assertEquals(2, updates.size());
+    }
+
+    @Test
+    public void testPurgeForgetsReportedClusterStatus() throws Exception {
+        assertTrue(sendHeartbeat(coordinator.getConnectionStatuses(), false).isEmpty());
+        monitor.purgeHeartbeats();
+        assertEquals(2, sendHeartbeat(null, true).size());
+    }
+
+    private List<NodeConnectionStatus> sendHeartbeat(final List<NodeConnectionStatus> clusterStatus, final boolean unchanged) throws Exception {
+        final HeartbeatPayload payload = new HeartbeatPayload();
+        payload.setClusterStatus(clusterStatus);
+        payload.setClusterStatusUnchanged(unchanged);
+
+        final HeartbeatMessage message = new HeartbeatMessage();
+        message.setHeartbeat(new Heartbeat(nodeId1, new NodeConnectionStatus(nodeId1, NodeConnectionState.CONNECTED), payload.marshal()));
+
+        final HeartbeatResponseMessage response = (HeartbeatResponseMessage) monitor.handle(message, Collections.emptySet());
+        return response.getUpdatedNodeStatuses();
+    }
+}
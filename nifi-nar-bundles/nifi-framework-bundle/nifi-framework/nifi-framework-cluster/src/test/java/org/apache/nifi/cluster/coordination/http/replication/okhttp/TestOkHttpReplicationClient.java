@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.cluster.coordination.http.replication.okhttp;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.nifi.cluster.coordination.http.replication.PreparedRequest;
+import org.apache.nifi.util.NiFiProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class TestOkHttpReplicationClient {
+    private static final int MAX_RESPONSE_SIZE = 1024;
+
+    private HttpServer server;
+    private OkHttpReplicationClient client;
+
+    @Before
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.start();
+
+        final Map<String, String> properties = new HashMap<>();
+        properties.put(NiFiProperties.CLUSTER_NODE_MAX_RESPONSE_SIZE, MAX_RESPONSE_SIZE + " B");
+        client = new OkHttpReplicationClient(NiFiProperties.createBasicNiFiProperties(null, properties));
+    }
+
+    @After
+    public void cleanup() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testResponseWithinMaxSize() throws IOException {
+        final byte[] body = createBody(MAX_RESPONSE_SIZE);
+        serve(body, false);
+
+        final Response response = replicate();
+        assertEquals(200, response.getStatus());
+        assertEquals(new String(body, StandardCharsets.UTF_8), response.readEntity(String.class));
+    }
+
+    @Test
+    public void testResponseExceedingMaxSize() throws IOException {
+        serve(createBody(MAX_RESPONSE_SIZE + 1), false);
+
+        // the node handled the request successfully, so its response must not be treated as a failure of the node
+        final Response response = replicate("POST");
+        assertEquals(200, response.getStatus());
+        assertFalse(response.bufferEntity());
+        assertEntityExceedsMaxSize(response);
+    }
+
+    @Test
+    public void testResponseExceedingMaxSizePassedThrough() throws IOException {
+        final byte[] body = createBody(MAX_RESPONSE_SIZE * 10);
+        serve(body, false);
+
+        final Response response = replicate();
+        try (final InputStream in = response.readEntity(InputStream.class)) {
+            assertArrayEquals(body, IOUtils.toByteArray(in));
+        }
+    }
+
+    @Test
+    public void testEntityParsedFromResponseStream() throws IOException {
+        serve("{\"name\":\"root\",\"count\":2}".getBytes(StandardCharsets.UTF_8), true);
+
+        final Response response = replicate();
+        final Map<?, ?> entity = response.readEntity(Map.class);
+        assertEquals("root", entity.get("name"));
+        assertEquals(2, entity.get("count"));
+
+        // the entity may be parsed as soon as the response is received, and then read again when the responses are merged
+        assertSame(entity, response.readEntity(Map.class));
+    }
+
+    @Test
+    public void testCompressedResponseWithinMaxSize() throws IOException {
+        final byte[] body = createBody(MAX_RESPONSE_SIZE);
+        serve(body, true);
+
+        final Response response = replicate();
+        assertEquals(new String(body, StandardCharsets.UTF_8), response.readEntity(String.class));
+    }
+
+    @Test
+    public void testCompressedResponseExceedingMaxSizeOnceDecompressed() throws IOException {
+        // The compressed body is well under the limit, but the limit applies to the decompressed content that is buffered
+        serve(createBody(MAX_RESPONSE_SIZE * 10), true);
+
+        final Response response = replicate();
+        assertEquals(200, response.getStatus());
+        assertEntityExceedsMaxSize(response);
+    }
+
+    private void assertEntityExceedsMaxSize(final Response response) {
+        for (final Class<?> entityType : Arrays.asList(String.class, Map.class)) {
+            try {
+                response.readEntity(entityType);
+                fail("Expected response exceeding the maximum size to be rejected");
+            } catch (final ProcessingException expected) {
+                assertTrue(expected.getMessage().contains("exceeds the maximum allowed response size"));
+            }
+        }
+    }
+
+    private Response replicate() throws IOException {
+        return replicate("GET");
+    }
+
+    private Response replicate(final String method) throws IOException {
+        final Object entity = "GET".equals(method) ? new MultivaluedHashMap<String, String>() : Collections.emptyMap();
+        final PreparedRequest request = client.prepareRequest(method, new HashMap<>(), entity);
+        return client.replicate(request, "http://localhost:" + server.getAddress().getPort() + "/nifi-api/flow/process-groups/root");
+    }
+
+    private void serve(final byte[] body, final boolean gzip) throws IOException {
+        final byte[] content;
+        if (gzip) {
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            try (final OutputStream out = new GZIPOutputStream(baos)) {
+                out.write(body);
+            }
+            content = baos.toByteArray();
+        } else {
+            content = body;
+        }
+
+        server.createContext("/", exchange -> {
+            exchange.getResponseHeaders().put("Content-Type", Collections.singletonList("application/json"));
+            if (gzip) {
+                exchange.getResponseHeaders().put("Content-Encoding", Collections.singletonList("gzip"));
+            }
+
+            exchange.sendResponseHeaders(200, content.length);
+            try (final OutputStream out = exchange.getResponseBody()) {
+                out.write(content);
+            }
+        });
+    }
+
+    private byte[] createBody(final int length) {
+        final byte[] body = new byte[length];
+        for (int i = 0; i < length; i++) {
+            body[i] = (byte) ('a' + i % 26);
+        }
+        return body;
+    }
+}
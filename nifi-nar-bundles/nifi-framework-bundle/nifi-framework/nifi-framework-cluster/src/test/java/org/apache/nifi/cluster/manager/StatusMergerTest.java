@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.cluster.manager;
+
+import org.apache.nifi.web.api.dto.status.PortStatusSnapshotDTO;
+import org.apache.nifi.web.api.dto.status.ProcessGroupStatusSnapshotDTO;
+import org.apache.nifi.web.api.entity.PortStatusSnapshotEntity;
+import org.apache.nifi.web.api.entity.ProcessGroupStatusSnapshotEntity;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class StatusMergerTest {
+
+    @Test
+    public void testChildProcessGroupSnapshotsMerged() {
+        final ProcessGroupStatusSnapshotDTO target = createGroupSnapshot("root");
+        target.setProcessGroupStatusSnapshots(new ArrayList<>(Collections.singletonList(createChildGroup("child-1", 1))));
+        target.setOutputPortStatusSnapshots(new ArrayList<>(Collections.singletonList(createPort("port-1"))));
+
+        final ProcessGroupStatusSnapshotDTO toMerge = createGroupSnapshot("root");
+        toMerge.setProcessGroupStatusSnapshots(new ArrayList<>(Collections.singletonList(createChildGroup("child-1", 2))));
+        toMerge.getProcessGroupStatusSnapshots().add(createChildGroup("child-2", 4));
+        toMerge.setOutputPortStatusSnapshots(new ArrayList<>(Collections.singletonList(createPort("port-1"))));
+
+        StatusMerger.merge(target, true, toMerge, true);
+
+        final Map<String, Integer> flowFilesInByChild = new HashMap<>();
+        for (final ProcessGroupStatusSnapshotEntity child : target.getProcessGroupStatusSnapshots()) {
+            flowFilesInByChild.put(child.getProcessGroupStatusSnapshot().getId(), child.getProcessGroupStatusSnapshot().getFlowFilesIn());
+        }
+
+        assertEquals(2, flowFilesInByChild.size());
+        assertEquals(Integer.valueOf(3), flowFilesInByChild.get("child-1"));
+        assertEquals(Integer.valueOf(4), flowFilesInByChild.get("child-2"));
+
+        final Collection<PortStatusSnapshotEntity> outputPorts = target.getOutputPortStatusSnapshots();
+        assertEquals(1, outputPorts.size());
+        assertEquals("port-1", outputPorts.iterator().next().getId());
+    }
+
+    private ProcessGroupStatusSnapshotDTO createGroupSnapshot(final String id) {
+        final ProcessGroupStatusSnapshotDTO snapshot = new ProcessGroupStatusSnapshotDTO();
+        snapshot.setId(id);
+        snapshot.setName(id);
+        return snapshot;
+    }
+
+    private ProcessGroupStatusSnapshotEntity createChildGroup(final String id, final int flowFilesIn) {
+        final ProcessGroupStatusSnapshotDTO snapshot = createGroupSnapshot(id);
+        snapshot.setFlowFilesIn(flowFilesIn);
+
+        final ProcessGroupStatusSnapshotEntity entity = new ProcessGroupStatusSnapshotEntity();
+        entity.setId(id);
+        entity.setCanRead(true);
+        entity.setProcessGroupStatusSnapshot(snapshot);
+        return entity;
+    }
+
+    private PortStatusSnapshotEntity createPort(final String id) {
+        final PortStatusSnapshotDTO snapshot = new PortStatusSnapshotDTO();
+        snapshot.setId(id);
+        snapshot.setName(id);
+
+        final PortStatusSnapshotEntity entity = new PortStatusSnapshotEntity();
+        entity.setId(id);
+        entity.setCanRead(true);
+        entity.setPortStatusSnapshot(snapshot);
+        return entity;
+    }
+}
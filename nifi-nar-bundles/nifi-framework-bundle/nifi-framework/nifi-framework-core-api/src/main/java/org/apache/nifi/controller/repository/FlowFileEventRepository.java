@@ -36,6 +36,12 @@ public interface FlowFileEventRepository extends Closeable {
      */
     RepositoryStatusReport reportTransferEvents(long now);
 
+    /**
+     * @return the time, in epoch milliseconds, at which the most recent event was added to the repository, to a precision
+     *         of one second, or 0 if no event has been added
+     */
+    long getLastEventTime();
+
     /**
      * Causes any flow file events of the given entry age in epoch milliseconds
      * or older to be purged from the repository
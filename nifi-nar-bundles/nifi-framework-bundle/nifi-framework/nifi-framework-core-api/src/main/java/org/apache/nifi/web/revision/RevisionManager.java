@@ -110,4 +110,10 @@ public interface RevisionManager {
      * @return a List of all Revisions managed by this Revision Manager
      */
     List<Revision> getAllRevisions();
+
+    /**
+     * @return the number of times that Revisions managed by this Revision Manager have been updated, deleted, or reset. The
+     *         count is incremented after the components have been modified.
+     */
+    long getRevisionUpdateCount();
 }
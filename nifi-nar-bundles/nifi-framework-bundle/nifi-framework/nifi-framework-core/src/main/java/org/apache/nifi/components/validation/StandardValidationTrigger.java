@@ -17,9 +17,13 @@
 
 package org.apache.nifi.components.validation;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BooleanSupplier;
 
+import org.apache.nifi.components.ValidationResult;
 import org.apache.nifi.controller.ComponentNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +33,7 @@ public class StandardValidationTrigger implements ValidationTrigger {
 
     private final ExecutorService threadPool;
     private final BooleanSupplier flowInitialized;
+    private final AtomicLong validationStatusChangeCount = new AtomicLong(0L);
 
     public StandardValidationTrigger(final ExecutorService threadPool, final BooleanSupplier flowInitialized) {
         this.threadPool = threadPool;
@@ -49,11 +54,33 @@ public class StandardValidationTrigger implements ValidationTrigger {
     public void trigger(final ComponentNode component) {
         try {
             if (component.isValidationNecessary()) {
-                component.performValidation();
+                final ValidationStatus previousStatus = component.getValidationStatus();
+                final Collection<ValidationResult> previousErrors = component.getValidationErrors();
+
+                final ValidationStatus status = component.performValidation();
+                if (status != previousStatus || !isSameValidationErrors(previousErrors, component.getValidationErrors())) {
+                    validationStatusChangeCount.incrementAndGet();
+                }
             }
         } catch (final Throwable t) {
             component.getLogger().error("Failed to perform validation due to " + t, t);
         }
     }
 
+    private boolean isSameValidationErrors(final Collection<ValidationResult> previousErrors, final Collection<ValidationResult> errors) {
+        if (previousErrors == null || errors == null) {
+            return previousErrors == errors;
+        }
+
+        // the errors may be provided by different types of collection, so compare their elements rather than the collections
+        return new HashSet<>(previousErrors).equals(new HashSet<>(errors));
+    }
+
+    /**
+     * @return the number of times that validation triggered by this instance has changed the validation status or the validation errors of a component
+     */
+    public long getValidationStatusChangeCount() {
+        return validationStatusChangeCount.get();
+    }
+
 }
@@ -25,6 +25,8 @@ import org.apache.nifi.controller.repository.FlowFileSwapManager;
 import org.apache.nifi.controller.repository.SwapContents;
 import org.apache.nifi.controller.repository.SwapManagerInitializationContext;
 import org.apache.nifi.controller.repository.SwapSummary;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
 import org.apache.nifi.controller.swap.SchemaSwapDeserializer;
 import org.apache.nifi.controller.swap.SchemaSwapSerializer;
@@ -32,6 +34,7 @@ import org.apache.nifi.controller.swap.SimpleSwapDeserializer;
 import org.apache.nifi.controller.swap.StandardSwapContents;
 import org.apache.nifi.controller.swap.StandardSwapSummary;
 import org.apache.nifi.controller.swap.SwapDeserializer;
+import org.apache.nifi.controller.swap.SwapIndex;
 import org.apache.nifi.controller.swap.SwapSerializer;
 import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.reporting.Severity;
@@ -59,10 +62,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -77,6 +84,7 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
 
     private static final Pattern SWAP_FILE_PATTERN = Pattern.compile("\\d+-.+?(\\..*?)?\\.swap");
     private static final Pattern TEMP_SWAP_FILE_PATTERN = Pattern.compile("\\d+-.+?(\\..*?)?\\.swap\\.part");
+    private static final String SWAP_INDEX_SUFFIX = ".swapindex";
 
     public static final int SWAP_ENCODING_VERSION = 10;
     public static final String EVENT_CATEGORY = "Swap FlowFiles";
@@ -89,6 +97,11 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
     private EventReporter eventReporter;
     private ResourceClaimManager claimManager;
 
+    // Swap Index for each queue, keyed by queue identifier, and the summaries recovered from those indices that have not yet been requested
+    private final ConcurrentMap<String, SwapIndex> swapIndices = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, SwapSummary> indexedSummaries = new ConcurrentHashMap<>();
+    private final Set<String> recoveredSwapIndices = ConcurrentHashMap.newKeySet();
+
     private static final byte[] MAGIC_HEADER = {'S', 'W', 'A', 'P'};
 
     /**
@@ -149,6 +162,7 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
 
         if (swapTempFile.renameTo(swapFile)) {
             flowFileRepository.swapFlowFilesOut(toSwap, flowFileQueue, swapLocation);
+            updateSwapIndex(flowFileQueue.getIdentifier(), swapFile.getName(), createSwapSummary(toSwap));
         } else {
             error("Failed to swap out FlowFiles from " + flowFileQueue + " due to: Unable to rename swap file from " + swapTempFile + " to " + swapFile);
         }
@@ -176,6 +190,8 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
             warn("Swapped in FlowFiles from file " + swapFile.getAbsolutePath() + " but failed to delete the file; this file should be cleaned up manually");
         }
 
+        removeFromSwapIndex(swapFile);
+
         return swapContents;
     }
 
@@ -209,6 +225,19 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
                 warn("Failed to delete Swap File " + file + " when purging FlowFile Swap Manager");
             }
         }
+
+        final File[] indexFiles = storageDirectory.listFiles((dir, name) -> name.endsWith(SWAP_INDEX_SUFFIX));
+        if (indexFiles != null) {
+            for (final File file : indexFiles) {
+                if (!file.delete()) {
+                    warn("Failed to delete Swap Index " + file + " when purging FlowFile Swap Manager");
+                }
+            }
+        }
+
+        swapIndices.clear();
+        indexedSummaries.clear();
+        recoveredSwapIndices.clear();
     }
 
     @Override
@@ -277,13 +306,22 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
             return Collections.emptyList();
         }
 
+        recoverSwapIndex(flowFileQueue.getIdentifier(), swapFiles);
+
         final List<String> swapLocations = new ArrayList<>();
-        // remove in .part files, as they are partial swap files that did not get written fully.
+        // remove in .part files, as they are partial swap files that did not get written fully. Queues may be recovered concurrently,
+        // so only remove those that belong to this queue (or whose owner cannot be determined), and do not complain if another thread
+        // has already removed the file.
         for (final File swapFile : swapFiles) {
             if (TEMP_SWAP_FILE_PATTERN.matcher(swapFile.getName()).matches()) {
+                final String ownerQueueId = getOwnerQueueIdentifier(swapFile);
+                if (ownerQueueId != null && !ownerQueueId.equals(flowFileQueue.getIdentifier())) {
+                    continue;
+                }
+
                 if (swapFile.delete()) {
                     logger.info("Removed incomplete/temporary Swap File " + swapFile);
-                } else {
+                } else if (swapFile.exists()) {
                     warn("Failed to remove incomplete/temporary Swap File " + swapFile + "; this file should be cleaned up manually");
                 }
 
@@ -348,14 +386,104 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
     public SwapSummary getSwapSummary(final String swapLocation) throws IOException {
         final File swapFile = new File(swapLocation);
 
+        // If the summary was recovered from the Swap Index, there is no need to read the swap file. Each indexed summary is needed
+        // only once, during recovery, so we do not continue to hold it in memory.
+        final SwapSummary indexedSummary = indexedSummaries.remove(swapFile.getAbsolutePath());
+        if (indexedSummary != null) {
+            return indexedSummary;
+        }
+
         // read record from disk via the swap file
+        final SwapSummary swapSummary;
         try (final InputStream fis = new FileInputStream(swapFile);
                 final InputStream bufferedIn = new BufferedInputStream(fis);
                 final DataInputStream in = new DataInputStream(bufferedIn)) {
 
             final SwapDeserializer deserializer = createSwapDeserializer(in);
-            return deserializer.getSwapSummary(in, swapLocation, claimManager);
+            swapSummary = deserializer.getSwapSummary(in, swapLocation, claimManager);
+        }
+
+        // Add the summary to the index, if it is not already there, so that the swap file need not be read on the next restart.
+        final String queueIdentifier = getOwnerQueueIdentifier(swapFile);
+        if (queueIdentifier != null && !getSwapIndex(queueIdentifier).contains(swapFile.getName())) {
+            updateSwapIndex(queueIdentifier, swapFile.getName(), swapSummary);
+        }
+
+        return swapSummary;
+    }
+
+    private SwapIndex getSwapIndex(final String queueIdentifier) {
+        return swapIndices.computeIfAbsent(queueIdentifier, id -> new SwapIndex(new File(storageDirectory, id + SWAP_INDEX_SUFFIX), claimManager));
+    }
+
+    private void recoverSwapIndex(final String queueIdentifier, final File[] swapFiles) {
+        if (!recoveredSwapIndices.add(queueIdentifier)) {
+            return;
+        }
+
+        final Set<String> swapFilenames = new HashSet<>();
+        for (final File swapFile : swapFiles) {
+            if (queueIdentifier.equals(getOwnerQueueIdentifier(swapFile)) && SWAP_FILE_PATTERN.matcher(swapFile.getName()).matches()) {
+                swapFilenames.add(swapFile.getName());
+            }
+        }
+
+        try {
+            final Map<String, SwapSummary> summaries = getSwapIndex(queueIdentifier).recover(swapFilenames);
+            for (final Map.Entry<String, SwapSummary> entry : summaries.entrySet()) {
+                indexedSummaries.put(new File(storageDirectory, entry.getKey()).getAbsolutePath(), entry.getValue());
+            }
+
+            logger.debug("Recovered {} of {} Swap Summaries for queue {} from Swap Index", summaries.size(), swapFilenames.size(), queueIdentifier);
+        } catch (final IOException ioe) {
+            logger.warn("Failed to recover Swap Index for queue {}; Swap Summaries will be read from the swap files instead", queueIdentifier, ioe);
+        }
+    }
+
+    private void updateSwapIndex(final String queueIdentifier, final String swapFilename, final SwapSummary swapSummary) {
+        if (storageDirectory == null) {
+            return;
+        }
+
+        try {
+            getSwapIndex(queueIdentifier).add(swapFilename, swapSummary);
+        } catch (final IOException ioe) {
+            // The index is only an optimization for restarts, so this is not a reason to fail.
+            logger.warn("Failed to add Swap File {} to Swap Index; its summary will be read from the swap file upon restart", swapFilename, ioe);
+        }
+    }
+
+    private void removeFromSwapIndex(final File swapFile) {
+        final String queueIdentifier = getOwnerQueueIdentifier(swapFile);
+        if (queueIdentifier == null || storageDirectory == null) {
+            return;
         }
+
+        indexedSummaries.remove(swapFile.getAbsolutePath());
+        try {
+            getSwapIndex(queueIdentifier).remove(swapFile.getName());
+        } catch (final IOException ioe) {
+            logger.warn("Failed to remove Swap File {} from Swap Index", swapFile, ioe);
+        }
+    }
+
+    private SwapSummary createSwapSummary(final List<FlowFileRecord> flowFiles) {
+        long contentSize = 0L;
+        long maxFlowFileId = -1L;
+        final List<ResourceClaim> resourceClaims = new ArrayList<>();
+        for (final FlowFileRecord flowFile : flowFiles) {
+            contentSize += flowFile.getSize();
+            if (flowFile.getId() > maxFlowFileId) {
+                maxFlowFileId = flowFile.getId();
+            }
+
+            final ContentClaim contentClaim = flowFile.getContentClaim();
+            if (contentClaim != null) {
+                resourceClaims.add(contentClaim.getResourceClaim());
+            }
+        }
+
+        return new StandardSwapSummary(new QueueSize(flowFiles.size(), contentSize), maxFlowFileId, resourceClaims);
     }
 
 
@@ -469,6 +597,7 @@ public class FileSystemSwapManager implements FlowFileSwapManager {
         final File newFile = new File(existingFile.getParentFile(), newFilename);
         // Use Files.move and convert to Path's instead of File.rename so that we get an IOException on failure that describes why we failed.
         Files.move(existingFile.toPath(), newFile.toPath());
+        removeFromSwapIndex(existingFile);
 
         logger.debug("Changed Partition for Swap File by renaming from {} to {}", swapLocation, newPartitionName);
         return newFile.getAbsolutePath();
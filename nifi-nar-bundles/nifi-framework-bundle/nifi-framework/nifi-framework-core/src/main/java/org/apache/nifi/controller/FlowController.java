@@ -34,15 +34,19 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
@@ -68,12 +72,10 @@ import org.apache.nifi.cluster.coordination.node.DisconnectionCode;
 import org.apache.nifi.cluster.coordination.node.NodeConnectionState;
 import org.apache.nifi.cluster.coordination.node.NodeConnectionStatus;
 import org.apache.nifi.cluster.protocol.DataFlow;
-import org.apache.nifi.cluster.protocol.Heartbeat;
 import org.apache.nifi.cluster.protocol.HeartbeatPayload;
 import org.apache.nifi.cluster.protocol.NodeIdentifier;
 import org.apache.nifi.cluster.protocol.NodeProtocolSender;
 import org.apache.nifi.cluster.protocol.UnknownServiceAddressException;
-import org.apache.nifi.cluster.protocol.message.HeartbeatMessage;
 import org.apache.nifi.components.state.StateManagerProvider;
 import org.apache.nifi.components.validation.StandardValidationTrigger;
 import org.apache.nifi.components.validation.TriggerValidationTask;
@@ -119,6 +121,7 @@ import org.apache.nifi.controller.repository.FlowFileEventRepository;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRepository;
 import org.apache.nifi.controller.repository.FlowFileSwapManager;
+import org.apache.nifi.controller.repository.GroupCommitter;
 import org.apache.nifi.controller.repository.QueueProvider;
 import org.apache.nifi.controller.repository.StandardCounterRepository;
 import org.apache.nifi.controller.repository.StandardFlowFileRecord;
@@ -190,7 +193,10 @@ import org.apache.nifi.provenance.StandardProvenanceAuthorizableFactory;
 import org.apache.nifi.provenance.StandardProvenanceEventRecord;
 import org.apache.nifi.registry.VariableRegistry;
 import org.apache.nifi.registry.flow.FlowRegistryClient;
+import org.apache.nifi.registry.flow.VersionControlInformation;
 import org.apache.nifi.registry.flow.VersionedConnection;
+import org.apache.nifi.registry.flow.VersionedFlowState;
+import org.apache.nifi.registry.flow.VersionedFlowStatus;
 import org.apache.nifi.registry.flow.VersionedProcessGroup;
 import org.apache.nifi.registry.variable.MutableVariableRegistry;
 import org.apache.nifi.remote.HttpRemoteSiteListener;
@@ -235,6 +241,8 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
     public static final long DEFAULT_GRACEFUL_SHUTDOWN_SECONDS = 10;
     public static final int METRICS_RESERVOIR_SIZE = 288; // 1 day worth of 5-minute captures
 
+    // the status of the components reports the processing activity and the bulletins of the last five minutes
+    private static final long COMPONENT_STATUS_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(5);
 
     // default properties for scaling the positions of components from pre-1.0 flow encoding versions.
     public static final double DEFAULT_POSITION_SCALE_FACTOR_X = 1.5;
@@ -245,6 +253,7 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
     private final AtomicReference<FlowEngine> timerDrivenEngineRef;
     private final AtomicReference<FlowEngine> eventDrivenEngineRef;
     private final EventDrivenSchedulingAgent eventDrivenSchedulingAgent;
+    private final AtomicLong versionedFlowStatusChangeCount = new AtomicLong(0L);
 
     private final ContentRepository contentRepository;
     private final FlowFileRepository flowFileRepository;
@@ -300,7 +309,7 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
     private final ClusterCoordinator clusterCoordinator;
     private final FlowRegistryClient flowRegistryClient;
     private final FlowEngine validationThreadPool;
-    private final ValidationTrigger validationTrigger;
+    private final StandardValidationTrigger validationTrigger;
     private final ReloadComponent reloadComponent;
     private final ProvenanceAuthorizableFactory provenanceAuthorizableFactory;
     private final UserAwareEventAccess eventAccess;
@@ -500,7 +509,10 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
         eventDrivenWorkerQueue = new EventDrivenWorkerQueue(false, false, processScheduler);
 
         parameterContextManager = new StandardParameterContextManager();
-        repositoryContextFactory = new RepositoryContextFactory(contentRepository, flowFileRepository, flowFileEventRepository, counterRepositoryRef.get(), provenanceRepository);
+        final long commitWindowNanos = FormatUtils.getTimeDuration(nifiProperties.getFlowFileRepositoryCommitWindow(), TimeUnit.NANOSECONDS);
+        final GroupCommitter groupCommitter = commitWindowNanos > 0L ? new GroupCommitter(flowFileRepository, provenanceRepository, commitWindowNanos, TimeUnit.NANOSECONDS) : null;
+        repositoryContextFactory = new RepositoryContextFactory(contentRepository, flowFileRepository, flowFileEventRepository, counterRepositoryRef.get(), provenanceRepository,
+            groupCommitter);
         flowManager = new StandardFlowManager(nifiProperties, sslContext, this, flowFileEventRepository, parameterContextManager);
 
         controllerServiceProvider = new StandardControllerServiceProvider(this, processScheduler, bulletinRepository);
@@ -806,6 +818,50 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
         };
     }
 
+    /**
+     * Recovers the swapped FlowFiles of each of the given connections. Each queue's swap files are recovered independently of the others,
+     * so the queues are recovered concurrently in order to minimize the time spent reading swap files that are not in a queue's Swap Index.
+     *
+     * @param connections the connections whose queues should be recovered
+     * @return the Swap Summary of each queue, which may contain <code>null</code> entries for queues whose swap files could not be recovered
+     */
+    private List<SwapSummary> recoverSwappedFlowFiles(final List<Connection> connections) throws IOException {
+        if (connections.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final int threadCount = Math.min(connections.size(), Runtime.getRuntime().availableProcessors());
+        final FlowEngine recoveryEngine = new FlowEngine(threadCount, "Recover Swap Files", true);
+        try {
+            final List<Future<SwapSummary>> futures = new ArrayList<>(connections.size());
+            for (final Connection connection : connections) {
+                final FlowFileQueue queue = connection.getFlowFileQueue();
+                futures.add(recoveryEngine.submit(queue::recoverSwappedFlowFiles));
+            }
+
+            final List<SwapSummary> swapSummaries = new ArrayList<>(connections.size());
+            for (final Future<SwapSummary> future : futures) {
+                try {
+                    swapSummaries.add(future.get());
+                } catch (final InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while recovering swapped FlowFiles", ie);
+                } catch (final ExecutionException ee) {
+                    final Throwable cause = ee.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+
+                    throw new IOException("Failed to recover swapped FlowFiles", cause);
+                }
+            }
+
+            return swapSummaries;
+        } finally {
+            recoveryEngine.shutdown();
+        }
+    }
+
     public void initializeFlow() throws IOException {
         initializeFlow(new StandardQueueProvider(getFlowManager()));
     }
@@ -825,9 +881,7 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
                     queue.purgeSwapFiles();
                 }
             } else {
-                for (final Connection connection : connections) {
-                    final FlowFileQueue queue = connection.getFlowFileQueue();
-                    final SwapSummary swapSummary = queue.recoverSwappedFlowFiles();
+                for (final SwapSummary swapSummary : recoverSwappedFlowFiles(connections)) {
                     if (swapSummary != null) {
                         final Long maxFlowFileId = swapSummary.getMaxFlowFileId();
                         if (maxFlowFileId != null && maxFlowFileId > maxIdFromSwapFiles) {
@@ -885,7 +939,12 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
 
                     for (final ProcessGroup group : allGroups) {
                         try {
+                            final Tuple<VersionedFlowState, String> previousStatus = getVersionedFlowStatus(group);
                             group.synchronizeWithFlowRegistry(flowRegistryClient);
+
+                            if (!Objects.equals(previousStatus, getVersionedFlowStatus(group))) {
+                                versionedFlowStatusChangeCount.incrementAndGet();
+                            }
                         } catch (final Exception e) {
                             LOG.error("Failed to synchronize {} with Flow Registry", group, e);
                         }
@@ -899,6 +958,16 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
         }
     }
 
+    private Tuple<VersionedFlowState, String> getVersionedFlowStatus(final ProcessGroup group) {
+        final VersionControlInformation versionControlInformation = group.getVersionControlInformation();
+        if (versionControlInformation == null) {
+            return null;
+        }
+
+        final VersionedFlowStatus status = versionControlInformation.getStatus();
+        return new Tuple<>(status.getState(), status.getStateExplanation());
+    }
+
     private void notifyComponentsConfigurationRestored() {
         for (final ProcessorNode procNode : flowManager.getRootGroup().findAllProcessors()) {
             final Processor processor = procNode.getProcessor();
@@ -2047,6 +2116,33 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
         return timerDrivenCount + eventDrivenCount;
     }
 
+    /**
+     * Returns a value that changes whenever the status of the components in the flow may have changed without their configuration being
+     * modified. The status includes the active threads along with the processing activity and the bulletins of the last five minutes, so the
+     * value changes continually while any thread is active or while any such activity or bulletin is still reported. Otherwise, the value changes
+     * when validation changes the validation status of a component or when synchronizing with a Flow Registry changes the version control
+     * status of a Process Group.
+     *
+     * @return a value that may only be compared with other values returned by this method
+     */
+    public long getComponentStatusStamp() {
+        final long now = System.currentTimeMillis();
+        if (getActiveThreadCount() > 0) {
+            return now;
+        }
+
+        // the time of the last event is only precise to a second, so allow for that when determining whether it is still reported
+        final long lastActivityTime = Math.max(flowFileEventRepository.getLastEventTime(), bulletinRepository.getLastBulletinTime());
+        if (now - lastActivityTime <= COMPONENT_STATUS_WINDOW_MILLIS + 1000L) {
+            return now;
+        }
+
+        long stamp = lastActivityTime;
+        stamp = 31 * stamp + validationTrigger.getValidationStatusChangeCount();
+        stamp = 31 * stamp + versionedFlowStatusChangeCount.get();
+        return stamp;
+    }
+
 
     //
     // Clustering methods
@@ -2768,13 +2864,19 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
                     return;
                 }
 
-                final HeartbeatMessage message = createHeartbeatMessage();
-                if (message == null) {
+                final NodeIdentifier nodeId = getNodeId();
+                if (nodeId == null) {
+                    LOG.warn("Cannot create Heartbeat Message because node's identifier is not known at this time");
+                    return;
+                }
+
+                final HeartbeatPayload payload = createHeartbeatPayload();
+                if (payload == null) {
                     LOG.debug("No heartbeat to send");
                     return;
                 }
 
-                heartbeater.send(message);
+                heartbeater.send(nodeId, connectionStatus, payload);
             } catch (final UnknownServiceAddressException usae) {
                 if (LOG.isDebugEnabled()) {
                     LOG.debug(usae.getMessage());
@@ -2788,7 +2890,7 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
         }
     }
 
-    HeartbeatMessage createHeartbeatMessage() {
+    HeartbeatPayload createHeartbeatPayload() {
         try {
             HeartbeatBean bean = heartbeatBeanRef.get();
             if (bean == null) {
@@ -2796,7 +2898,7 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
                 try {
                     bean = new HeartbeatBean(flowManager.getRootGroup(), isPrimary());
                 } finally {
-                    readLock.unlock("createHeartbeatMessage");
+                    readLock.unlock("createHeartbeatPayload");
                 }
             }
 
@@ -2810,20 +2912,9 @@ public class FlowController implements ReportingTaskProvider, Authorizable, Node
             hbPayload.setTotalFlowFileBytes(queueSize.getByteCount());
             hbPayload.setClusterStatus(clusterCoordinator.getConnectionStatuses());
 
-            // create heartbeat message
-            final NodeIdentifier nodeId = getNodeId();
-            if (nodeId == null) {
-                LOG.warn("Cannot create Heartbeat Message because node's identifier is not known at this time");
-                return null;
-            }
-
-            final Heartbeat heartbeat = new Heartbeat(nodeId, connectionStatus, hbPayload.marshal());
-            final HeartbeatMessage message = new HeartbeatMessage();
-            message.setHeartbeat(heartbeat);
-
             LOG.debug("Generated heartbeat");
 
-            return message;
+            return hbPayload;
         } catch (final Throwable ex) {
             LOG.warn("Failed to create heartbeat due to: " + ex, ex);
             return null;
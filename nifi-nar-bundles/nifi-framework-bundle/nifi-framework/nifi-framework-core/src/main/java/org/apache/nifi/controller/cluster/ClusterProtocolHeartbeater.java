@@ -19,15 +19,19 @@ package org.apache.nifi.controller.cluster;
 import java.io.IOException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.apache.nifi.cluster.coordination.ClusterCoordinator;
 import org.apache.nifi.cluster.coordination.node.ClusterRoles;
 import org.apache.nifi.cluster.coordination.node.NodeConnectionStatus;
+import org.apache.nifi.cluster.protocol.Heartbeat;
 import org.apache.nifi.cluster.protocol.HeartbeatPayload;
 import org.apache.nifi.cluster.protocol.NodeIdentifier;
 import org.apache.nifi.cluster.protocol.NodeProtocolSender;
@@ -48,10 +52,19 @@ public class ClusterProtocolHeartbeater implements Heartbeater {
 
     private static final Logger logger = LoggerFactory.getLogger(ClusterProtocolHeartbeater.class);
 
+    // The node's view of the cluster is omitted from heartbeats while it matches the view last acknowledged by the Cluster Coordinator.
+    // It is still sent in full at least this often so that a Coordinator that has lost track of it, such as after a restart, catches up.
+    static final int FULL_CLUSTER_STATUS_INTERVAL = 10;
+
     private final NodeProtocolSender protocolSender;
     private final LeaderElectionManager electionManager;
     private final ClusterCoordinator clusterCoordinator;
 
+    private Set<NodeConnectionStatus> acknowledgedClusterStatus = null;
+    private Map<NodeIdentifier, Long> acknowledgedUpdateIds = null;
+    private String acknowledgedHeartbeatAddress = null;
+    private int heartbeatsSinceFullClusterStatus = 0;
+
     public ClusterProtocolHeartbeater(final NodeProtocolSender protocolSender, final ClusterCoordinator clusterCoordinator, final LeaderElectionManager electionManager) {
         this.protocolSender = protocolSender;
         this.clusterCoordinator = clusterCoordinator;
@@ -69,23 +82,47 @@ public class ClusterProtocolHeartbeater implements Heartbeater {
     }
 
     @Override
-    public synchronized void send(final HeartbeatMessage heartbeatMessage) throws IOException {
+    public synchronized void send(final NodeIdentifier nodeId, final NodeConnectionStatus connectionStatus, final HeartbeatPayload payload) throws IOException {
         final long sendStart = System.nanoTime();
 
         final String heartbeatAddress = getHeartbeatAddress();
-        final HeartbeatResponseMessage responseMessage = protocolSender.heartbeat(heartbeatMessage, heartbeatAddress);
 
-        final byte[] payloadBytes = heartbeatMessage.getHeartbeat().getPayload();
-        final HeartbeatPayload payload = HeartbeatPayload.unmarshal(payloadBytes);
-        final List<NodeConnectionStatus> nodeStatusList = payload.getClusterStatus();
+        final List<NodeConnectionStatus> nodeStatusList = payload.getClusterStatus() == null ? Collections.emptyList() : payload.getClusterStatus();
+        final Set<NodeConnectionStatus> clusterStatus = new HashSet<>(nodeStatusList);
         final Map<NodeIdentifier, Long> updateIdMap = nodeStatusList.stream().collect(
                 Collectors.toMap(status -> status.getNodeIdentifier(), status -> status.getUpdateIdentifier()));
 
+        // NodeConnectionStatus equality does not consider the Update Identifier, but the Cluster Coordinator relies on it
+        // to decide whether or not our view of a node is out-of-date, so a change in Update Identifier alone must be sent.
+        final boolean omitClusterStatus = heartbeatAddress.equals(acknowledgedHeartbeatAddress)
+            && clusterStatus.equals(acknowledgedClusterStatus)
+            && updateIdMap.equals(acknowledgedUpdateIds)
+            && heartbeatsSinceFullClusterStatus < FULL_CLUSTER_STATUS_INTERVAL;
+
+        if (omitClusterStatus) {
+            payload.setClusterStatus(null);
+            payload.setClusterStatusUnchanged(true);
+        }
+
+        final Heartbeat heartbeat = new Heartbeat(nodeId, connectionStatus, payload.marshal());
+        final HeartbeatMessage heartbeatMessage = new HeartbeatMessage();
+        heartbeatMessage.setHeartbeat(heartbeat);
+
+        final HeartbeatResponseMessage responseMessage = protocolSender.heartbeat(heartbeatMessage, heartbeatAddress);
+
+        if (omitClusterStatus) {
+            heartbeatsSinceFullClusterStatus++;
+        } else {
+            acknowledgedClusterStatus = clusterStatus;
+            acknowledgedUpdateIds = updateIdMap;
+            acknowledgedHeartbeatAddress = heartbeatAddress;
+            heartbeatsSinceFullClusterStatus = 0;
+        }
+
         final List<NodeConnectionStatus> updatedStatuses = responseMessage.getUpdatedNodeStatuses();
         if (updatedStatuses != null) {
             for (final NodeConnectionStatus updatedStatus : updatedStatuses) {
-                final NodeIdentifier nodeId = updatedStatus.getNodeIdentifier();
-                final Long updateId = updateIdMap.get(nodeId);
+                final Long updateId = updateIdMap.get(updatedStatus.getNodeIdentifier());
 
                 final boolean updated = clusterCoordinator.resetNodeStatus(updatedStatus, updateId == null ? -1L : updateId);
                 if (updated) {
@@ -105,7 +142,7 @@ public class ClusterProtocolHeartbeater implements Heartbeater {
         final String formattedElectionMessage = flowElectionMessage == null ? "" : "; " + flowElectionMessage;
 
         logger.info("Heartbeat created at {} and sent to {} at {}; send took {} millis{}",
-            dateFormatter.format(new Date(heartbeatMessage.getHeartbeat().getCreatedTimestamp())),
+            dateFormatter.format(new Date(heartbeat.getCreatedTimestamp())),
             heartbeatAddress,
             dateFormatter.format(new Date()),
             sendMillis,
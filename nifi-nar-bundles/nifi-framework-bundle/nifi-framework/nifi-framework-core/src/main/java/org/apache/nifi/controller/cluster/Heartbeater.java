@@ -20,7 +20,9 @@ package org.apache.nifi.controller.cluster;
 import java.io.Closeable;
 import java.io.IOException;
 
-import org.apache.nifi.cluster.protocol.message.HeartbeatMessage;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionStatus;
+import org.apache.nifi.cluster.protocol.HeartbeatPayload;
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
 
 /**
  * <p>
@@ -31,12 +33,14 @@ import org.apache.nifi.cluster.protocol.message.HeartbeatMessage;
 public interface Heartbeater extends Closeable {
 
     /**
-     * Sends the given heartbeat to the remote resource
+     * Sends a heartbeat with the given payload to the remote resource
      *
-     * @param heartbeat the Heartbeat to send
+     * @param nodeId the identifier of the node that the heartbeat is for
+     * @param connectionStatus the connection status of the node
+     * @param payload the payload of the heartbeat, which may be modified before it is sent
      * @throws IOException if unable to communicate with the remote resource
      */
-    void send(HeartbeatMessage heartbeat) throws IOException;
+    void send(NodeIdentifier nodeId, NodeConnectionStatus connectionStatus, HeartbeatPayload payload) throws IOException;
 
     /**
      * @return the address that heartbeats are being sent to
@@ -424,7 +424,7 @@ public abstract class AbstractFlowFileQueue implements FlowFileQueue {
 
     @Override
     public synchronized void setLoadBalanceStrategy(final LoadBalanceStrategy strategy, final String partitioningAttribute) {
-        if (strategy == LoadBalanceStrategy.PARTITION_BY_ATTRIBUTE && !FlowFile.KeyValidator.isValid(partitioningAttribute)) {
+        if ((strategy == LoadBalanceStrategy.PARTITION_BY_ATTRIBUTE || strategy == LoadBalanceStrategy.CONSISTENT_HASH_BY_ATTRIBUTE) && !FlowFile.KeyValidator.isValid(partitioningAttribute)) {
             throw new IllegalArgumentException("Cannot set Load Balance Strategy to " + strategy + " without providing a valid Partitioning Attribute");
         }
 
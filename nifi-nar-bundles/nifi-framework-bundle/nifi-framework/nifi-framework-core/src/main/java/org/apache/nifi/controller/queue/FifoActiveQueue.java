@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue;
+
+import org.apache.nifi.controller.repository.FlowFileRecord;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * The 'active queue' that is used by {@link SwappablePriorityQueue} when no prioritizers are configured for a connection. FlowFiles are
+ * handed out in the order in which they were added, except that FlowFiles that are penalized when they are added are held aside, ordered
+ * by penalty expiration, and become available again once their penalty has expired.
+ * </p>
+ *
+ * <p>
+ * Unlike {@link java.util.PriorityQueue}, {@link #offer(FlowFileRecord)}, {@link #poll()}, {@link #peek()} and {@link #size()} are safe to call
+ * from many threads at once and do not block. This allows the SwappablePriorityQueue to add and remove FlowFiles while holding only its
+ * read lock, so that concurrent tasks do not contend on the write lock. Bulk operations such as {@link #clear()} and {@link #requeue(List)}
+ * are expected to be called only with the write lock held.
+ * </p>
+ */
+final class FifoActiveQueue extends AbstractQueue<FlowFileRecord> {
+    private final ConcurrentLinkedDeque<FlowFileRecord> ready = new ConcurrentLinkedDeque<>();
+
+    // Ordered strictly by penalty expiration rather than by QueuePrioritizer, because whether or not a FlowFile is penalized changes over time,
+    // which would otherwise change the ordering of FlowFiles that are already in the heap.
+    private final PriorityBlockingQueue<FlowFileRecord> penalized = new PriorityBlockingQueue<>(20, Comparator.comparingLong(FlowFileRecord::getPenaltyExpirationMillis));
+
+    // ConcurrentLinkedDeque.size() is O(n), so we keep track of the count ourselves.
+    private final AtomicInteger count = new AtomicInteger(0);
+
+    @Override
+    public boolean offer(final FlowFileRecord flowFile) {
+        if (flowFile.isPenalized()) {
+            penalized.offer(flowFile);
+        } else {
+            ready.offerLast(flowFile);
+        }
+
+        count.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Adds all of the given FlowFiles to the queue, but only if doing so would not cause the queue to hold more than the given number of FlowFiles.
+     * Room for the FlowFiles is reserved atomically before they are added, so that concurrent callers cannot together push the queue past the limit.
+     *
+     * @param flowFiles the FlowFiles to add
+     * @param maxSize the maximum number of FlowFiles that the queue may hold once the FlowFiles have been added
+     * @return <code>true</code> if the FlowFiles were added, <code>false</code> if there was not enough room, in which case none were added
+     */
+    boolean offerAllIfRoom(final Collection<FlowFileRecord> flowFiles, final int maxSize) {
+        final int numFlowFiles = flowFiles.size();
+
+        while (true) {
+            final int currentCount = count.get();
+            if (currentCount > maxSize - numFlowFiles) {
+                return false;
+            }
+
+            if (count.compareAndSet(currentCount, currentCount + numFlowFiles)) {
+                break;
+            }
+        }
+
+        for (final FlowFileRecord flowFile : flowFiles) {
+            if (flowFile.isPenalized()) {
+                penalized.offer(flowFile);
+            } else {
+                ready.offerLast(flowFile);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Adds the given FlowFiles back to the head of the queue, in the order given, so that they are the next FlowFiles to be polled.
+     * This is used to return FlowFiles that were pulled from the queue but not selected.
+     *
+     * @param flowFiles the FlowFiles to add back to the queue
+     */
+    void requeue(final List<FlowFileRecord> flowFiles) {
+        for (int i = flowFiles.size() - 1; i >= 0; i--) {
+            final FlowFileRecord flowFile = flowFiles.get(i);
+            if (flowFile.isPenalized()) {
+                penalized.offer(flowFile);
+            } else {
+                ready.offerFirst(flowFile);
+            }
+
+            count.incrementAndGet();
+        }
+    }
+
+    @Override
+    public FlowFileRecord poll() {
+        FlowFileRecord flowFile = pollPenaltyExpired();
+        if (flowFile == null) {
+            flowFile = ready.pollFirst();
+        }
+
+        if (flowFile != null) {
+            count.decrementAndGet();
+        }
+
+        return flowFile;
+    }
+
+    private FlowFileRecord pollPenaltyExpired() {
+        final FlowFileRecord head = penalized.peek();
+        if (head == null || head.isPenalized()) {
+            return null;
+        }
+
+        // Another thread may have pulled the head off of the queue between our peek and poll, in which case we could now
+        // be holding a FlowFile whose penalty has not yet expired. If so, put it back.
+        final FlowFileRecord polled = penalized.poll();
+        if (polled != null && polled.isPenalized()) {
+            penalized.offer(polled);
+            return null;
+        }
+
+        return polled;
+    }
+
+    @Override
+    public FlowFileRecord peek() {
+        final FlowFileRecord penalizedHead = penalized.peek();
+        if (penalizedHead != null && !penalizedHead.isPenalized()) {
+            return penalizedHead;
+        }
+
+        final FlowFileRecord readyHead = ready.peekFirst();
+        return readyHead == null ? penalizedHead : readyHead;
+    }
+
+    @Override
+    public int size() {
+        return count.get();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count.get() == 0;
+    }
+
+    @Override
+    public void clear() {
+        ready.clear();
+        penalized.clear();
+        count.set(0);
+    }
+
+    @Override
+    public Iterator<FlowFileRecord> iterator() {
+        final Iterator<FlowFileRecord> readyItr = ready.iterator();
+        final Iterator<FlowFileRecord> penalizedItr = penalized.iterator();
+
+        return new Iterator<FlowFileRecord>() {
+            @Override
+            public boolean hasNext() {
+                return readyItr.hasNext() || penalizedItr.hasNext();
+            }
+
+            @Override
+            public FlowFileRecord next() {
+                if (readyItr.hasNext()) {
+                    return readyItr.next();
+                }
+                if (penalizedItr.hasNext()) {
+                    return penalizedItr.next();
+                }
+
+                throw new NoSuchElementException();
+            }
+        };
+    }
+}
@@ -78,8 +78,12 @@ public class SwappablePriorityQueue {
     // active queue, then we would end up processing the newer FlowFile before the swapped FlowFile. By
     // keeping these separate, we are able to guarantee that FlowFiles are swapped in in the same order
     // that they are swapped out.
+    //
+    // When no prioritizers are configured, the active queue is a FifoActiveQueue, which is safe for concurrent access. In that case,
+    // as long as nothing is swapped out and the swap queue is empty, FlowFiles are added to and polled from the active queue while
+    // holding only the read lock, so that concurrent tasks do not serialize on the write lock. Everything else requires the write lock.
     // Guarded by lock.
-    private PriorityQueue<FlowFileRecord> activeQueue;
+    private Queue<FlowFileRecord> activeQueue;
     private ArrayList<FlowFileRecord> swapQueue;
     private boolean swapMode = false;
 
@@ -88,7 +92,7 @@ public class SwappablePriorityQueue {
         this.swapManager = swapManager;
         this.swapThreshold = swapThreshold;
 
-        this.activeQueue = new PriorityQueue<>(20, new QueuePrioritizer(Collections.emptyList()));
+        this.activeQueue = createActiveQueue(Collections.emptyList(), 20);
         this.swapQueue = new ArrayList<>();
         this.eventReporter = eventReporter;
         this.flowFileQueue = flowFileQueue;
@@ -100,6 +104,31 @@ public class SwappablePriorityQueue {
         writeLock = new TimedLock(lock.writeLock(), flowFileQueue.getIdentifier() + " Write Lock", 100);
     }
 
+    private static Queue<FlowFileRecord> createActiveQueue(final List<FlowFilePrioritizer> priorities, final int initialCapacity) {
+        if (priorities.isEmpty()) {
+            return new FifoActiveQueue();
+        }
+
+        return new PriorityQueue<>(initialCapacity, new QueuePrioritizer(priorities));
+    }
+
+    /**
+     * This method MUST be called with the read lock or write lock held
+     */
+    private boolean isFifo() {
+        return activeQueue instanceof FifoActiveQueue;
+    }
+
+    /**
+     * Indicates whether or not FlowFiles may be added to and polled from the active queue while holding only the read lock. This is the case
+     * when the active queue is FIFO and nothing is swapped out or waiting to be swapped out, so that there is nothing to migrate to the active queue.
+     *
+     * This method MUST be called with the read lock or write lock held
+     */
+    private boolean isConcurrentAccessAllowed() {
+        return isFifo() && !swapMode && swapQueue.isEmpty() && swapLocations.isEmpty();
+    }
+
     private String getQueueIdentifier() {
         return flowFileQueue.getIdentifier();
     }
@@ -116,11 +145,18 @@ public class SwappablePriorityQueue {
     public void setPriorities(final List<FlowFilePrioritizer> newPriorities) {
         writeLock.lock();
         try {
+            // Iterating over a PriorityQueue does not return the elements in order, so sort them before adding them to the
+            // new queue, in case the new queue is FIFO.
+            final List<FlowFileRecord> activeFlowFiles = new ArrayList<>(activeQueue);
+            if (!isFifo()) {
+                activeFlowFiles.sort(new QueuePrioritizer(priorities));
+            }
+
             priorities.clear();
             priorities.addAll(newPriorities);
 
-            final PriorityQueue<FlowFileRecord> newQueue = new PriorityQueue<>(Math.max(20, activeQueue.size()), new QueuePrioritizer(newPriorities));
-            newQueue.addAll(activeQueue);
+            final Queue<FlowFileRecord> newQueue = createActiveQueue(newPriorities, Math.max(20, activeQueue.size()));
+            newQueue.addAll(activeFlowFiles);
             activeQueue = newQueue;
         } finally {
             writeLock.unlock("setPriorities");
@@ -131,7 +167,8 @@ public class SwappablePriorityQueue {
     public LocalQueuePartitionDiagnostics getQueueDiagnostics() {
         readLock.lock();
         try {
-            final boolean anyPenalized = !activeQueue.isEmpty() && activeQueue.peek().isPenalized();
+            final FlowFileRecord head = activeQueue.peek();
+            final boolean anyPenalized = head != null && head.isPenalized();
             final boolean allPenalized = anyPenalized && activeQueue.stream().anyMatch(FlowFileRecord::isPenalized);
 
             return new StandardLocalQueuePartitionDiagnostics(getFlowFileQueueSize(), anyPenalized, allPenalized);
@@ -171,71 +208,101 @@ public class SwappablePriorityQueue {
             originalSwapQueueBytes += flowFile.getSize();
         }
 
-        // Create a new Priority queue with the prioritizers that are set, but reverse the
-        // prioritizers because we want to pull the lowest-priority FlowFiles to swap out
-        final PriorityQueue<FlowFileRecord> tempQueue = new PriorityQueue<>(activeQueue.size() + swapQueue.size(), Collections.reverseOrder(new QueuePrioritizer(getPriorities())));
-        tempQueue.addAll(activeQueue);
-        tempQueue.addAll(swapQueue);
-
+        final List<String> swapLocations = new ArrayList<>(numSwapFiles);
+        final List<FlowFileRecord> toActivate;
+        final List<FlowFileRecord> toSwapQueue;
         long bytesSwappedOut = 0L;
         int flowFilesSwappedOut = 0;
-        final List<String> swapLocations = new ArrayList<>(numSwapFiles);
-        for (int i = 0; i < numSwapFiles; i++) {
-            long bytesSwappedThisIteration = 0L;
 
-            // Create a new swap file for the next SWAP_RECORD_POLL_SIZE records
-            final List<FlowFileRecord> toSwap = new ArrayList<>(SWAP_RECORD_POLL_SIZE);
-            for (int j = 0; j < SWAP_RECORD_POLL_SIZE; j++) {
-                final FlowFileRecord flowFile = tempQueue.poll();
-                toSwap.add(flowFile);
-                bytesSwappedThisIteration += flowFile.getSize();
-            }
+        if (isFifo()) {
+            // FlowFiles are swapped back in the order in which the swap files were written, so in order to retain FIFO order we keep the
+            // oldest FlowFiles on the active queue and swap out the FlowFiles that follow them, in insertion order. Any FlowFiles newer
+            // than those that are swapped out remain on the swap queue.
+            final List<FlowFileRecord> ordered = new ArrayList<>(activeQueue.size() + swapQueue.size());
+            ordered.addAll(activeQueue);
+            ordered.addAll(swapQueue);
+
+            final int activeCount = Math.min(swapThreshold, ordered.size() - numSwapFiles * SWAP_RECORD_POLL_SIZE);
+            int swapIndex = activeCount;
+            for (int i = 0; i < numSwapFiles; i++) {
+                final List<FlowFileRecord> toSwap = new ArrayList<>(ordered.subList(swapIndex, swapIndex + SWAP_RECORD_POLL_SIZE));
+                final long bytesSwappedThisIteration = toSwap.stream().mapToLong(FlowFileRecord::getSize).sum();
+
+                final String swapLocation = swapOut(toSwap, bytesSwappedThisIteration);
+                if (swapLocation == null) {
+                    break;
+                }
 
-            try {
-                Collections.reverse(toSwap); // currently ordered in reverse priority order based on the ordering of the temp queue.
-                final String swapLocation = swapManager.swapOut(toSwap, flowFileQueue, swapPartitionName);
                 swapLocations.add(swapLocation);
+                bytesSwappedOut += bytesSwappedThisIteration;
+                flowFilesSwappedOut += toSwap.size();
+                swapIndex += SWAP_RECORD_POLL_SIZE;
+            }
 
-                logger.debug("Successfully wrote out Swap File {} containing {} FlowFiles ({} bytes)", swapLocation, toSwap.size(), bytesSwappedThisIteration);
+            toActivate = new ArrayList<>(ordered.subList(0, activeCount));
+            toSwapQueue = new ArrayList<>(ordered.subList(swapIndex, ordered.size()));
+        } else {
+            // Create a new Priority queue with the prioritizers that are set, but reverse the
+            // prioritizers because we want to pull the lowest-priority FlowFiles to swap out
+            final PriorityQueue<FlowFileRecord> tempQueue = new PriorityQueue<>(activeQueue.size() + swapQueue.size(), Collections.reverseOrder(new QueuePrioritizer(getPriorities())));
+            tempQueue.addAll(activeQueue);
+            tempQueue.addAll(swapQueue);
+
+            for (int i = 0; i < numSwapFiles; i++) {
+                long bytesSwappedThisIteration = 0L;
+
+                // Create a new swap file for the next SWAP_RECORD_POLL_SIZE records
+                final List<FlowFileRecord> toSwap = new ArrayList<>(SWAP_RECORD_POLL_SIZE);
+                for (int j = 0; j < SWAP_RECORD_POLL_SIZE; j++) {
+                    final FlowFileRecord flowFile = tempQueue.poll();
+                    toSwap.add(flowFile);
+                    bytesSwappedThisIteration += flowFile.getSize();
+                }
 
+                Collections.reverse(toSwap); // currently ordered in reverse priority order based on the ordering of the temp queue.
+                final String swapLocation = swapOut(toSwap, bytesSwappedThisIteration);
+                if (swapLocation == null) {
+                    tempQueue.addAll(toSwap); // if we failed, we must add the FlowFiles back to the queue.
+                    break;
+                }
+
+                swapLocations.add(swapLocation);
                 bytesSwappedOut += bytesSwappedThisIteration;
                 flowFilesSwappedOut += toSwap.size();
-            } catch (final IOException ioe) {
-                tempQueue.addAll(toSwap); // if we failed, we must add the FlowFiles back to the queue.
+            }
 
-                final int objectCount = getFlowFileCount();
-                logger.error("FlowFile Queue with identifier {} has {} FlowFiles queued up. Attempted to spill FlowFile information over to disk in order to avoid exhausting "
-                    + "the Java heap space but failed to write information to disk due to {}", getQueueIdentifier(), objectCount, ioe.toString());
-                logger.error("", ioe);
-                if (eventReporter != null) {
-                    eventReporter.reportEvent(Severity.ERROR, "Failed to Overflow to Disk", "Flowfile Queue with identifier " + getQueueIdentifier() + " has " + objectCount +
-                        " queued up. Attempted to spill FlowFile information over to disk in order to avoid exhausting the Java heap space but failed to write information to disk. "
-                        + "See logs for more information.");
-                }
+            // Pull any records off of the temp queue that won't fit back on the active queue, and add those to the
+            // swap queue. Then add the records back to the active queue.
+            toSwapQueue = new ArrayList<>();
+            while (tempQueue.size() > swapThreshold) {
+                toSwapQueue.add(tempQueue.poll());
+            }
 
-                break;
+            Collections.reverse(toSwapQueue); // currently ordered in reverse priority order based on the ordering of the temp queue
+
+            // The temp queue is in reverse priority order, so reverse the remaining records before adding them back to the active queue.
+            toActivate = new ArrayList<>(tempQueue.size());
+            FlowFileRecord requeued;
+            while ((requeued = tempQueue.poll()) != null) {
+                toActivate.add(requeued);
             }
+
+            Collections.reverse(toActivate);
         }
 
-        // Pull any records off of the temp queue that won't fit back on the active queue, and add those to the
-        // swap queue. Then add the records back to the active queue.
         swapQueue.clear();
+        swapQueue.addAll(toSwapQueue);
         long updatedSwapQueueBytes = 0L;
-        while (tempQueue.size() > swapThreshold) {
-            final FlowFileRecord record = tempQueue.poll();
-            swapQueue.add(record);
-            updatedSwapQueueBytes += record.getSize();
+        for (final FlowFileRecord flowFile : swapQueue) {
+            updatedSwapQueueBytes += flowFile.getSize();
         }
 
-        Collections.reverse(swapQueue); // currently ordered in reverse priority order based on the ordering of the temp queue
-
         // replace the contents of the active queue, since we've merged it with the swap queue.
         activeQueue.clear();
-        FlowFileRecord toRequeue;
+        activeQueue.addAll(toActivate);
         long activeQueueBytes = 0L;
-        while ((toRequeue = tempQueue.poll()) != null) {
-            activeQueue.offer(toRequeue);
-            activeQueueBytes += toRequeue.getSize();
+        for (final FlowFileRecord flowFile : toActivate) {
+            activeQueueBytes += flowFile.getSize();
         }
 
         boolean updated = false;
@@ -261,6 +328,32 @@ public class SwappablePriorityQueue {
         logger.debug("After writing swap files, setting new set of Swap Locations to {}", this.swapLocations);
     }
 
+    /**
+     * Writes the given FlowFiles to a swap file, returning the location of the swap file, or <code>null</code> if the swap file could not be written,
+     * in which case the failure has already been logged and reported.
+     *
+     * This method MUST be called with the write lock held
+     */
+    private String swapOut(final List<FlowFileRecord> toSwap, final long bytesToSwap) {
+        try {
+            final String swapLocation = swapManager.swapOut(toSwap, flowFileQueue, swapPartitionName);
+            logger.debug("Successfully wrote out Swap File {} containing {} FlowFiles ({} bytes)", swapLocation, toSwap.size(), bytesToSwap);
+            return swapLocation;
+        } catch (final IOException ioe) {
+            final int objectCount = getFlowFileCount();
+            logger.error("FlowFile Queue with identifier {} has {} FlowFiles queued up. Attempted to spill FlowFile information over to disk in order to avoid exhausting "
+                + "the Java heap space but failed to write information to disk due to {}", getQueueIdentifier(), objectCount, ioe.toString());
+            logger.error("", ioe);
+            if (eventReporter != null) {
+                eventReporter.reportEvent(Severity.ERROR, "Failed to Overflow to Disk", "Flowfile Queue with identifier " + getQueueIdentifier() + " has " + objectCount +
+                    " queued up. Attempted to spill FlowFile information over to disk in order to avoid exhausting the Java heap space but failed to write information to disk. "
+                    + "See logs for more information.");
+            }
+
+            return null;
+        }
+    }
+
     private int getFlowFileCount() {
         final FlowFileQueueSize size = getFlowFileQueueSize();
         return size.getActiveCount() + size.getSwappedCount() + size.getUnacknowledgedCount();
@@ -428,6 +521,23 @@ public class SwappablePriorityQueue {
 
 
     public void put(final FlowFileRecord flowFile) {
+        readLock.lock();
+        try {
+            if (isConcurrentAccessAllowed()) {
+                // Room on the active queue must be reserved atomically, as other threads may be adding to it concurrently. The size is
+                // incremented first so that it cannot go negative if another thread polls the FlowFile before we update it.
+                incrementActiveQueueSize(1, flowFile.getSize());
+                if (((FifoActiveQueue) activeQueue).offerAllIfRoom(Collections.singletonList(flowFile), swapThreshold)) {
+                    logger.trace("{} put to {}", flowFile, this);
+                    return;
+                }
+
+                incrementActiveQueueSize(-1, -flowFile.getSize());
+            }
+        } finally {
+            readLock.unlock("put(FlowFileRecord)");
+        }
+
         writeLock.lock();
         try {
             if (swapMode || activeQueue.size() >= swapThreshold) {
@@ -453,6 +563,23 @@ public class SwappablePriorityQueue {
             bytes += flowFile.getSize();
         }
 
+        readLock.lock();
+        try {
+            if (isConcurrentAccessAllowed()) {
+                // Room on the active queue must be reserved atomically, as other threads may be adding to it concurrently. The limit
+                // matches the check that is made below while holding the write lock.
+                incrementActiveQueueSize(numFiles, bytes);
+                if (((FifoActiveQueue) activeQueue).offerAllIfRoom(flowFiles, swapThreshold - 1)) {
+                    logger.trace("{} put to {}", flowFiles, this);
+                    return;
+                }
+
+                incrementActiveQueueSize(-numFiles, -bytes);
+            }
+        } finally {
+            readLock.unlock("putAll");
+        }
+
         writeLock.lock();
         try {
             if (swapMode || activeQueue.size() >= swapThreshold - numFiles) {
@@ -474,6 +601,22 @@ public class SwappablePriorityQueue {
     public FlowFileRecord poll(final Set<FlowFileRecord> expiredRecords, final long expirationMillis) {
         FlowFileRecord flowFile;
 
+        readLock.lock();
+        try {
+            if (isConcurrentAccessAllowed()) {
+                flowFile = pollActiveQueue(expiredRecords, expirationMillis);
+
+                if (flowFile != null) {
+                    logger.trace("{} poll() returning {}", this, flowFile);
+                    incrementUnacknowledgedQueueSize(1, flowFile.getSize());
+                }
+
+                return flowFile;
+            }
+        } finally {
+            readLock.unlock("poll(Set)");
+        }
+
         // First check if we have any records Pre-Fetched.
         writeLock.lock();
         try {
@@ -492,11 +635,14 @@ public class SwappablePriorityQueue {
 
 
     private FlowFileRecord doPoll(final Set<FlowFileRecord> expiredRecords, final long expirationMillis) {
+        migrateSwapToActive();
+        return pollActiveQueue(expiredRecords, expirationMillis);
+    }
+
+    private FlowFileRecord pollActiveQueue(final Set<FlowFileRecord> expiredRecords, final long expirationMillis) {
         FlowFileRecord flowFile;
         boolean isExpired;
 
-        migrateSwapToActive();
-
         long expiredBytes = 0L;
         do {
             flowFile = this.activeQueue.poll();
@@ -531,6 +677,21 @@ public class SwappablePriorityQueue {
     public List<FlowFileRecord> poll(int maxResults, final Set<FlowFileRecord> expiredRecords, final long expirationMillis) {
         final List<FlowFileRecord> records = new ArrayList<>(Math.min(1, maxResults));
 
+        readLock.lock();
+        try {
+            if (isConcurrentAccessAllowed()) {
+                drainActiveQueue(records, maxResults, expiredRecords, expirationMillis);
+
+                if (!records.isEmpty()) {
+                    logger.trace("{} poll() returning {}", this, records);
+                }
+
+                return records;
+            }
+        } finally {
+            readLock.unlock("poll(int, Set)");
+        }
+
         // First check if we have any records Pre-Fetched.
         writeLock.lock();
         try {
@@ -595,7 +756,12 @@ public class SwappablePriorityQueue {
                 }
             }
 
-            this.activeQueue.addAll(unselected);
+            if (isFifo()) {
+                // return the unselected FlowFiles to the head of the queue so that they retain their place in line
+                ((FifoActiveQueue) this.activeQueue).requeue(unselected);
+            } else {
+                this.activeQueue.addAll(unselected);
+            }
             incrementActiveQueueSize(-flowFilesPulled, -bytesPulled);
 
             if (!selectedFlowFiles.isEmpty()) {
@@ -610,7 +776,10 @@ public class SwappablePriorityQueue {
 
     private void doPoll(final List<FlowFileRecord> records, int maxResults, final Set<FlowFileRecord> expiredRecords, final long expirationMillis) {
         migrateSwapToActive();
+        drainActiveQueue(records, maxResults, expiredRecords, expirationMillis);
+    }
 
+    private void drainActiveQueue(final List<FlowFileRecord> records, int maxResults, final Set<FlowFileRecord> expiredRecords, final long expirationMillis) {
         final long bytesDrained = drainQueue(activeQueue, records, maxResults, expiredRecords, expirationMillis);
 
         long expiredBytes = 0L;
@@ -19,7 +19,9 @@ package org.apache.nifi.controller.queue.clustered;
 
 import org.apache.nifi.controller.repository.ContentNotFoundException;
 import org.apache.nifi.controller.repository.ContentRepository;
+import org.apache.nifi.controller.repository.FileSystemRepository;
 import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.apache.nifi.controller.repository.claim.ContentClaim;
 import org.apache.nifi.controller.repository.io.LimitedInputStream;
 import org.apache.nifi.stream.io.StreamUtils;
 
@@ -27,6 +29,7 @@ import java.io.EOFException;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 
 public class ContentRepositoryFlowFileAccess implements FlowFileContentAccess {
     private final ContentRepository contentRepository;
@@ -88,4 +91,33 @@ public class ContentRepositoryFlowFileAccess implements FlowFileContentAccess {
         };
     }
 
+    @Override
+    public FileChannel openContentChannel(final FlowFileRecord flowFile) throws IOException {
+        final ContentClaim contentClaim = flowFile.getContentClaim();
+        if (contentClaim == null || !(contentRepository instanceof FileSystemRepository)) {
+            return null;
+        }
+
+        final FileChannel channel;
+        try {
+            channel = ((FileSystemRepository) contentRepository).openChannel(contentClaim);
+        } catch (final ContentNotFoundException cnfe) {
+            throw new ContentNotFoundException(flowFile, contentClaim, cnfe.getMessage());
+        }
+
+        try {
+            final long startPosition = channel.position() + flowFile.getContentClaimOffset();
+            if (channel.size() < startPosition + flowFile.getSize()) {
+                throw new ContentNotFoundException(flowFile, contentClaim, "Expected " + flowFile + " to contain " + flowFile.getSize()
+                    + " bytes starting at Content Claim Offset " + flowFile.getContentClaimOffset() + " but the Content Claim does not have that many bytes");
+            }
+
+            channel.position(startPosition);
+            return channel;
+        } catch (final IOException ioe) {
+            channel.close();
+            throw ioe;
+        }
+    }
+
 }
@@ -19,6 +19,7 @@ package org.apache.nifi.controller.queue.clustered;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
 
 import org.apache.nifi.controller.repository.FlowFileRecord;
 
@@ -26,4 +27,18 @@ public interface FlowFileContentAccess {
 
     InputStream read(FlowFileRecord flowFile) throws IOException;
 
+    /**
+     * Opens a FileChannel that is positioned at the first byte of the given FlowFile's content and that is known to contain at least
+     * as many remaining bytes as the FlowFile's size. This allows the content to be transferred to a socket without being copied into
+     * the JVM's heap. Implementations that are not backed by files may return <code>null</code>, in which case {@link #read(FlowFileRecord)}
+     * is to be used instead.
+     *
+     * @param flowFile the FlowFile whose content should be accessed
+     * @return a FileChannel for the FlowFile's content, or <code>null</code> if the content is not available as a file
+     * @throws IOException if unable to open the channel
+     */
+    default FileChannel openContentChannel(FlowFileRecord flowFile) throws IOException {
+        return null;
+    }
+
 }
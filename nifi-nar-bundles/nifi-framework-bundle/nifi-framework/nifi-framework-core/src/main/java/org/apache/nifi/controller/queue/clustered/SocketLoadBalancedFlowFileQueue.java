@@ -37,9 +37,11 @@ import org.apache.nifi.controller.queue.RemoteQueuePartitionDiagnostics;
 import org.apache.nifi.controller.queue.StandardQueueDiagnostics;
 import org.apache.nifi.controller.queue.SwappablePriorityQueue;
 import org.apache.nifi.controller.queue.clustered.client.async.AsyncLoadBalanceClientRegistry;
+import org.apache.nifi.controller.queue.clustered.partition.ConsistentHashAttributePartitioner;
 import org.apache.nifi.controller.queue.clustered.partition.CorrelationAttributePartitioner;
 import org.apache.nifi.controller.queue.clustered.partition.FirstNodePartitioner;
 import org.apache.nifi.controller.queue.clustered.partition.FlowFilePartitioner;
+import org.apache.nifi.controller.queue.clustered.partition.LoadAwarePartitioner;
 import org.apache.nifi.controller.queue.clustered.partition.LocalPartitionPartitioner;
 import org.apache.nifi.controller.queue.clustered.partition.LocalQueuePartition;
 import org.apache.nifi.controller.queue.clustered.partition.NonLocalPartitionPartitioner;
@@ -204,9 +206,15 @@ public class SocketLoadBalancedFlowFileQueue extends AbstractFlowFileQueue imple
             case PARTITION_BY_ATTRIBUTE:
                 partitioner = new CorrelationAttributePartitioner(partitioningAttribute);
                 break;
+            case CONSISTENT_HASH_BY_ATTRIBUTE:
+                partitioner = new ConsistentHashAttributePartitioner(partitioningAttribute, () -> clusterCoordinator == null ? null : clusterCoordinator.getLocalNodeIdentifier());
+                break;
             case ROUND_ROBIN:
                 partitioner = new RoundRobinPartitioner();
                 break;
+            case LOAD_AWARE:
+                partitioner = new LoadAwarePartitioner();
+                break;
             case SINGLE_NODE:
                 partitioner = new FirstNodePartitioner();
                 break;
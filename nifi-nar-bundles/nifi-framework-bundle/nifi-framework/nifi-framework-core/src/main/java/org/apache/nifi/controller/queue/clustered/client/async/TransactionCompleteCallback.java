@@ -24,4 +24,12 @@ import java.util.List;
 
 public interface TransactionCompleteCallback {
     void onTransactionComplete(List<FlowFileRecord> flowFilesSent, NodeIdentifier nodeIdentifier);
+
+    /**
+     * Called when the transaction completed without sending any FlowFiles because the Peer indicated that its queue is full
+     *
+     * @param nodeIdentifier the node whose queue is full
+     */
+    default void onPeerQueueFull(NodeIdentifier nodeIdentifier) {
+    }
 }
@@ -30,6 +30,9 @@ import org.apache.nifi.remote.VersionNegotiator;
 import org.apache.nifi.stream.io.ByteCountingOutputStream;
 import org.apache.nifi.stream.io.GZIPOutputStream;
 import org.apache.nifi.stream.io.StreamUtils;
+import net.jpountz.lz4.LZ4BlockOutputStream;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -40,12 +43,14 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.SocketTimeoutException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.OptionalInt;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.zip.CRC32;
@@ -65,6 +70,10 @@ import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalancePro
 public class LoadBalanceSession {
     private static final Logger logger = LoggerFactory.getLogger(LoadBalanceSession.class);
     static final int MAX_DATA_FRAME_SIZE = 65535;
+    static final int CONTENT_BUFFER_SIZE = 64 * 1024;
+    static final int PROTOCOL_VERSION = 2;
+    private static final int COMPRESSED_FRAME_HEADER_LENGTH = 9;
+    private static final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
     private static final long PENALTY_MILLIS = TimeUnit.SECONDS.toMillis(2L);
 
     private final RegisteredPartition partition;
@@ -76,9 +85,10 @@ public class LoadBalanceSession {
     private final String peerDescription;
     private final String connectionId;
     private final TransactionThreshold transactionThreshold;
+    private final BlockingQueue<ByteBuffer> contentBufferPool;
 
-    final VersionNegotiator negotiator = new StandardVersionNegotiator(1);
-    private int protocolVersion = 1;
+    final VersionNegotiator negotiator = new StandardVersionNegotiator(PROTOCOL_VERSION, 1);
+    private int protocolVersion = PROTOCOL_VERSION;
 
     private final Checksum checksum = new CRC32();
 
@@ -88,13 +98,18 @@ public class LoadBalanceSession {
     private List<FlowFileRecord> flowFilesSent = new ArrayList<>();
     private TransactionPhase phase = TransactionPhase.RECOMMEND_PROTOCOL_VERSION;
     private InputStream flowFileInputStream;
+    private FileChannel flowFileChannel;
+    private long contentBytesRemaining;
+    private ByteBuffer contentBuffer;
     private byte[] byteBuffer = new byte[MAX_DATA_FRAME_SIZE];
+    private byte[] compressedFrameBuffer;
     private boolean complete = false;
+    private boolean peerQueueFull = false;
     private long readTimeout;
     private long penaltyExpiration = -1L;
 
     public LoadBalanceSession(final RegisteredPartition partition, final FlowFileContentAccess contentAccess, final LoadBalanceFlowFileCodec flowFileCodec, final PeerChannel peerChannel,
-                              final int timeoutMillis, final TransactionThreshold transactionThreshold) {
+                              final int timeoutMillis, final TransactionThreshold transactionThreshold, final BlockingQueue<ByteBuffer> contentBufferPool) {
         this.partition = partition;
         this.flowFileSupplier = partition.getFlowFileRecordSupplier();
         this.connectionId = partition.getConnectionId();
@@ -108,6 +123,7 @@ public class LoadBalanceSession {
         }
         this.timeoutMillis = timeoutMillis;
         this.transactionThreshold = transactionThreshold;
+        this.contentBufferPool = contentBufferPool;
     }
 
     public RegisteredPartition getPartition() {
@@ -126,6 +142,10 @@ public class LoadBalanceSession {
         return complete;
     }
 
+    public synchronized boolean isPeerQueueFull() {
+        return peerQueueFull;
+    }
+
     public synchronized boolean communicate() throws IOException {
         if (isComplete()) {
             return false;
@@ -158,6 +178,11 @@ public class LoadBalanceSession {
                     return receiveRecommendedProtocolVersion();
             }
 
+            // If the content is coming from a file and does not need to be encrypted, let the OS move it straight to the socket
+            if (phase == TransactionPhase.SEND_FLOWFILE_CONTENTS && flowFileChannel != null && !channel.isEncrypted()) {
+                return transferContent();
+            }
+
             // Otherwise, we need to send something so get the data frame that should be sent and write it to the channel
             final ByteBuffer byteBuffer = getDataFrame();
             preparedFrame = channel.prepareForWrite(byteBuffer); // Prepare data frame for writing. E.g., encrypt the data, etc.
@@ -166,6 +191,7 @@ public class LoadBalanceSession {
             return bytesWritten > 0;
         } catch (final Exception e) {
             complete = true;
+            closeContent();
             throw e;
         }
     }
@@ -287,63 +313,225 @@ public class LoadBalanceSession {
     }
 
     private ByteBuffer getFlowFileContent() throws IOException {
-        // This method is fairly inefficient, copying lots of byte[]. Can do better. But keeping it simple for
-        // now to get this working. Revisit with optimizations later.
         try {
-            if (flowFileInputStream == null) {
-                flowFileInputStream = flowFileContentAccess.read(currentFlowFile);
+            if (protocolVersion < 2) {
+                return getGzipDataFrame();
+            }
+            if (partition.getCompression() == LoadBalanceCompression.COMPRESS_ATTRIBUTES_AND_CONTENT) {
+                return getCompressedDataFrame();
+            }
+
+            return getRawContent();
+        } catch (final ContentNotFoundException cnfe) {
+            throw new ContentNotFoundException(currentFlowFile, cnfe.getMissingClaim(), cnfe.getMessage());
+        }
+    }
+
+    private ByteBuffer getGzipDataFrame() throws IOException {
+        // This method is fairly inefficient, copying lots of byte[]. It is used only for Peers that do not support version 2 of the protocol.
+        if (flowFileInputStream == null) {
+            flowFileInputStream = flowFileContentAccess.read(currentFlowFile);
+        }
+
+        final int bytesRead = StreamUtils.fillBuffer(flowFileInputStream, byteBuffer, false);
+        if (bytesRead < 1) {
+            return noDataFrame();
+        }
+
+        logger.trace("Sending Data Frame that is {} bytes long to Peer {}", bytesRead, peerDescription);
+        final ByteBuffer buffer;
+
+        if (partition.getCompression() == LoadBalanceCompression.COMPRESS_ATTRIBUTES_AND_CONTENT) {
+            final byte[] compressed = compressDataFrame(byteBuffer, bytesRead);
+            final int compressedMaxLen = compressed.length;
+
+            buffer = ByteBuffer.allocate(3 + compressedMaxLen);
+            buffer.put((byte) LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
+            buffer.putShort((short) compressedMaxLen);
+
+            buffer.put(compressed, 0, compressedMaxLen);
+
+        } else {
+            buffer = ByteBuffer.allocate(3 + bytesRead);
+            buffer.put((byte) LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
+            buffer.putShort((short) bytesRead);
+
+            buffer.put(byteBuffer, 0, bytesRead);
+        }
+
+        final byte[] frameArray = buffer.array();
+        checksum.update(frameArray, 0, frameArray.length);
+
+        phase = TransactionPhase.SEND_FLOWFILE_CONTENTS;
+        buffer.rewind();
+        return buffer;
+    }
+
+    private ByteBuffer getCompressedDataFrame() throws IOException {
+        if (flowFileInputStream == null) {
+            flowFileInputStream = flowFileContentAccess.read(currentFlowFile);
+        }
+
+        final int bytesRead = StreamUtils.fillBuffer(flowFileInputStream, byteBuffer, false);
+        if (bytesRead < 1) {
+            return noDataFrame();
+        }
+
+        if (compressedFrameBuffer == null) {
+            compressedFrameBuffer = new byte[COMPRESSED_FRAME_HEADER_LENGTH + compressor.maxCompressedLength(MAX_DATA_FRAME_SIZE)];
+        }
+
+        final int maxCompressedLength = compressedFrameBuffer.length - COMPRESSED_FRAME_HEADER_LENGTH;
+        final int compressedLength = compressor.compress(byteBuffer, 0, bytesRead, compressedFrameBuffer, COMPRESSED_FRAME_HEADER_LENGTH, maxCompressedLength);
+        final int frameLength = COMPRESSED_FRAME_HEADER_LENGTH + compressedLength;
+        logger.trace("Sending Data Frame that is {} bytes long ({} bytes uncompressed) to Peer {}", compressedLength, bytesRead, peerDescription);
+
+        // The frame is built in a buffer that is reused for every frame. That is safe because the next frame is not requested until this one has been fully written.
+        final ByteBuffer buffer = ByteBuffer.wrap(compressedFrameBuffer, 0, frameLength);
+        buffer.put((byte) LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
+        buffer.putInt(compressedLength);
+        buffer.putInt(bytesRead);
+        buffer.rewind();
+
+        checksum.update(compressedFrameBuffer, 0, frameLength);
+
+        phase = TransactionPhase.SEND_FLOWFILE_CONTENTS;
+        return buffer;
+    }
+
+    private ByteBuffer getRawContent() throws IOException {
+        if (phase == TransactionPhase.SEND_FLOWFILE_DEFINITION) {
+            contentBytesRemaining = currentFlowFile.getSize();
+            if (contentBytesRemaining > 0) {
+                flowFileChannel = flowFileContentAccess.openContentChannel(currentFlowFile);
+                if (flowFileChannel == null) {
+                    flowFileInputStream = flowFileContentAccess.read(currentFlowFile);
+                }
             }
 
+            logger.debug("Sending CONTENT_FOLLOWS indicator with a length of {} bytes to Peer {}", contentBytesRemaining, peerDescription);
+            final ByteBuffer buffer = ByteBuffer.allocate(9);
+            buffer.put((byte) LoadBalanceProtocolConstants.CONTENT_FOLLOWS);
+            buffer.putLong(contentBytesRemaining);
+
+            // The raw content itself is not included in the checksum, as it may be transferred by the OS without ever being copied into the JVM.
+            final byte[] frameBytes = buffer.array();
+            checksum.update(frameBytes, 0, frameBytes.length);
+
+            phase = contentBytesRemaining > 0 ? TransactionPhase.SEND_FLOWFILE_CONTENTS : TransactionPhase.GET_NEXT_FLOWFILE;
+            buffer.rewind();
+            return buffer;
+        }
+
+        final ByteBuffer buffer;
+        if (flowFileChannel == null) {
             final int bytesRead = StreamUtils.fillBuffer(flowFileInputStream, byteBuffer, false);
             if (bytesRead < 1) {
-                // If no data available, close the stream and move on to the next phase, returning a NO_DATA_FRAME buffer.
-                flowFileInputStream.close();
-                flowFileInputStream = null;
-                phase = TransactionPhase.GET_NEXT_FLOWFILE;
+                throw new EOFException("Expected " + currentFlowFile + " to contain " + currentFlowFile.getSize() + " bytes but reached End-of-File with "
+                    + contentBytesRemaining + " bytes remaining");
+            }
 
-                final ByteBuffer buffer = ByteBuffer.allocate(1);
-                buffer.put((byte) LoadBalanceProtocolConstants.NO_DATA_FRAME);
-                buffer.rewind();
+            buffer = ByteBuffer.wrap(byteBuffer, 0, bytesRead);
+        } else {
+            // The channel is encrypted, so the content must pass through the SSLEngine. Read it into a direct buffer so that the file read avoids an extra copy.
+            buffer = getContentBuffer();
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), contentBytesRemaining));
+            while (buffer.hasRemaining()) {
+                if (flowFileChannel.read(buffer) < 0) {
+                    throw new EOFException("Expected " + currentFlowFile + " to contain " + currentFlowFile.getSize() + " bytes but reached End-of-File with "
+                        + (contentBytesRemaining - buffer.position()) + " bytes remaining");
+                }
+            }
+            buffer.flip();
+        }
 
-                checksum.update(LoadBalanceProtocolConstants.NO_DATA_FRAME);
+        logger.trace("Sending {} bytes of raw content to Peer {}", buffer.remaining(), peerDescription);
+        contentBytesRemaining -= buffer.remaining();
+        if (contentBytesRemaining < 1) {
+            finishContent();
+        }
 
-                logger.debug("Sending NO_DATA_FRAME indicator to Peer {}", peerDescription);
+        return buffer;
+    }
 
-                return buffer;
+    private boolean transferContent() throws IOException {
+        final long position = flowFileChannel.position();
+        final long bytesTransferred = channel.transferFrom(flowFileChannel, position, contentBytesRemaining);
+        if (bytesTransferred < 1) {
+            if (position >= flowFileChannel.size()) {
+                throw new EOFException("Expected " + currentFlowFile + " to contain " + currentFlowFile.getSize() + " bytes but reached End-of-File with "
+                    + contentBytesRemaining + " bytes remaining");
             }
 
-            logger.trace("Sending Data Frame that is {} bytes long to Peer {}", bytesRead, peerDescription);
-            final ByteBuffer buffer;
+            return false;
+        }
 
-            if (partition.getCompression() == LoadBalanceCompression.COMPRESS_ATTRIBUTES_AND_CONTENT) {
-                final byte[] compressed = compressDataFrame(byteBuffer, bytesRead);
-                final int compressedMaxLen = compressed.length;
+        logger.trace("Transferred {} bytes of content directly from file to Peer {}", bytesTransferred, peerDescription);
+        flowFileChannel.position(position + bytesTransferred);
+        contentBytesRemaining -= bytesTransferred;
+        if (contentBytesRemaining < 1) {
+            finishContent();
+        }
 
-                buffer = ByteBuffer.allocate(3 + compressedMaxLen);
-                buffer.put((byte) LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
-                buffer.putShort((short) compressedMaxLen);
+        return true;
+    }
 
-                buffer.put(compressed, 0, compressedMaxLen);
+    private void finishContent() {
+        closeContent();
+        phase = TransactionPhase.GET_NEXT_FLOWFILE;
+    }
 
-            } else {
-                buffer = ByteBuffer.allocate(3 + bytesRead);
-                buffer.put((byte) LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
-                buffer.putShort((short) bytesRead);
+    private void closeContent() {
+        try {
+            if (flowFileInputStream != null) {
+                flowFileInputStream.close();
+            }
+            if (flowFileChannel != null) {
+                flowFileChannel.close();
+            }
+        } catch (final IOException ioe) {
+            logger.warn("Failed to close content of {} after sending to Peer {}", currentFlowFile, peerDescription, ioe);
+        }
 
-                buffer.put(byteBuffer, 0, bytesRead);
+        flowFileInputStream = null;
+        flowFileChannel = null;
+    }
+
+    private ByteBuffer getContentBuffer() {
+        if (contentBuffer == null) {
+            contentBuffer = contentBufferPool.poll();
+            if (contentBuffer == null) {
+                contentBuffer = ByteBuffer.allocateDirect(CONTENT_BUFFER_SIZE);
             }
+        }
 
-            final byte[] frameArray = buffer.array();
-            checksum.update(frameArray, 0, frameArray.length);
+        return contentBuffer;
+    }
 
-            phase = TransactionPhase.SEND_FLOWFILE_CONTENTS;
-            buffer.rewind();
-            return buffer;
-        } catch (final ContentNotFoundException cnfe) {
-            throw new ContentNotFoundException(currentFlowFile, cnfe.getMissingClaim(), cnfe.getMessage());
+    private void releaseContentBuffer() {
+        if (contentBuffer != null) {
+            contentBufferPool.offer(contentBuffer);
+            contentBuffer = null;
         }
     }
 
+    private ByteBuffer noDataFrame() {
+        // If no data available, close the stream and move on to the next phase, returning a NO_DATA_FRAME buffer.
+        closeContent();
+        phase = TransactionPhase.GET_NEXT_FLOWFILE;
+
+        final ByteBuffer buffer = ByteBuffer.allocate(1);
+        buffer.put((byte) LoadBalanceProtocolConstants.NO_DATA_FRAME);
+        buffer.rewind();
+
+        checksum.update(LoadBalanceProtocolConstants.NO_DATA_FRAME);
+
+        logger.debug("Sending NO_DATA_FRAME indicator to Peer {}", peerDescription);
+
+        return buffer;
+    }
+
     private byte[] compressDataFrame(final byte[] uncompressed, final int byteCount) throws IOException {
         try (final ByteArrayOutputStream baos = new ByteArrayOutputStream();
              final OutputStream gzipOut = new GZIPOutputStream(baos, 1)) {
@@ -356,6 +544,9 @@ public class LoadBalanceSession {
     }
 
     private ByteBuffer getNextFlowFile() throws IOException {
+        // The previous frame has been fully written by the time that we get here, so any buffer used for it may be handed to another session.
+        releaseContentBuffer();
+
         if (transactionThreshold.isThresholdMet()) {
             currentFlowFile = null;
             logger.debug("Transaction Threshold reached sending to Peer {}; Transitioning phase to SEND_CHECKSUM", peerDescription);
@@ -383,8 +574,8 @@ public class LoadBalanceSession {
         final byte[] flowFileEncoded;
         try (final ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
             if (compressAttributes) {
-                try (final OutputStream gzipOut = new GZIPOutputStream(baos, 1);
-                     final ByteCountingOutputStream out = new ByteCountingOutputStream(gzipOut)) {
+                try (final OutputStream compressedOut = protocolVersion < 2 ? new GZIPOutputStream(baos, 1) : new LZ4BlockOutputStream(baos);
+                     final ByteCountingOutputStream out = new ByteCountingOutputStream(compressedOut)) {
 
                     flowFileCodec.encode(currentFlowFile, out);
                 }
@@ -479,8 +670,9 @@ public class LoadBalanceSession {
         }
 
         if (negotiator.isVersionSupported(requestedVersion)) {
+            // The peer expects the version to be recommended again and acknowledges it before anything else is sent
             protocolVersion = requestedVersion;
-            phase = TransactionPhase.SEND_CONNECTION_ID;
+            phase = TransactionPhase.RECOMMEND_PROTOCOL_VERSION;
             logger.debug("Peer {} recommended Protocol Version of {}. Accepting version.", peerDescription, requestedVersion);
 
             return true;
@@ -579,6 +771,7 @@ public class LoadBalanceSession {
             phase = TransactionPhase.RECOMMEND_PROTOCOL_VERSION;
             checksum.reset(); // We are restarting the session entirely so we need to reset our checksum
             complete = true; // consider complete because there's nothing else that we can do in this session. Allow client to move on to a different session.
+            peerQueueFull = true;
             partition.penalize(1000L);
         } else {
             throw new TransactionAbortedException("After requesting to know whether or not Peer " + peerDescription + " has space available in Connection " + connectionId
@@ -37,6 +37,7 @@ import javax.net.ssl.SSLEngine;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
@@ -46,6 +47,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -66,6 +68,7 @@ public class NioAsyncLoadBalanceClient implements AsyncLoadBalanceClient {
     private final FlowFileContentAccess flowFileContentAccess;
     private final LoadBalanceFlowFileCodec flowFileCodec;
     private final EventReporter eventReporter;
+    private final BlockingQueue<ByteBuffer> contentBufferPool;
 
     private volatile boolean running = false;
     private final AtomicLong penalizationEnd = new AtomicLong(0L);
@@ -88,13 +91,14 @@ public class NioAsyncLoadBalanceClient implements AsyncLoadBalanceClient {
 
 
     public NioAsyncLoadBalanceClient(final NodeIdentifier nodeIdentifier, final SSLContext sslContext, final int timeoutMillis, final FlowFileContentAccess flowFileContentAccess,
-                                     final LoadBalanceFlowFileCodec flowFileCodec, final EventReporter eventReporter) {
+                                     final LoadBalanceFlowFileCodec flowFileCodec, final EventReporter eventReporter, final BlockingQueue<ByteBuffer> contentBufferPool) {
         this.nodeIdentifier = nodeIdentifier;
         this.sslContext = sslContext;
         this.timeoutMillis = timeoutMillis;
         this.flowFileContentAccess = flowFileContentAccess;
         this.flowFileCodec = flowFileCodec;
         this.eventReporter = eventReporter;
+        this.contentBufferPool = contentBufferPool;
     }
 
     @Override
@@ -256,7 +260,12 @@ public class NioAsyncLoadBalanceClient implements AsyncLoadBalanceClient {
             } while (success);
 
             if (loadBalanceSession.isComplete()) {
-                loadBalanceSession.getPartition().getSuccessCallback().onTransactionComplete(loadBalanceSession.getFlowFilesSent(), nodeIdentifier);
+                final TransactionCompleteCallback successCallback = loadBalanceSession.getPartition().getSuccessCallback();
+                if (loadBalanceSession.isPeerQueueFull()) {
+                    successCallback.onPeerQueueFull(nodeIdentifier);
+                }
+
+                successCallback.onTransactionComplete(loadBalanceSession.getFlowFilesSent(), nodeIdentifier);
             }
 
             return anySuccess;
@@ -371,7 +380,7 @@ public class NioAsyncLoadBalanceClient implements AsyncLoadBalanceClient {
             return null;
         }
 
-        loadBalanceSession = new LoadBalanceSession(readyPartition, flowFileContentAccess, flowFileCodec, channel, timeoutMillis, newTransactionThreshold());
+        loadBalanceSession = new LoadBalanceSession(readyPartition, flowFileContentAccess, flowFileCodec, channel, timeoutMillis, newTransactionThreshold(), contentBufferPool);
         partitionQueue.offer(readyPartition);
 
         return loadBalanceSession;
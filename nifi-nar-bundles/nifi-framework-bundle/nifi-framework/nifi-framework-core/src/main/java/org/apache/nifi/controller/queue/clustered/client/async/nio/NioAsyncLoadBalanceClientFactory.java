@@ -25,13 +25,20 @@ import org.apache.nifi.controller.queue.clustered.client.async.AsyncLoadBalanceC
 import org.apache.nifi.events.EventReporter;
 
 import javax.net.ssl.SSLContext;
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 public class NioAsyncLoadBalanceClientFactory implements AsyncLoadBalanceClientFactory {
+    // Direct buffers are shared by all clients; sessions allocate a new one if the pool is empty, and any buffer that does not fit back into the pool is left for GC.
+    private static final int CONTENT_BUFFER_POOL_SIZE = 16;
+
     private final SSLContext sslContext;
     private final int timeoutMillis;
     private final FlowFileContentAccess flowFileContentAccess;
     private final EventReporter eventReporter;
     private final LoadBalanceFlowFileCodec flowFileCodec;
+    private final BlockingQueue<ByteBuffer> contentBufferPool = new LinkedBlockingQueue<>(CONTENT_BUFFER_POOL_SIZE);
 
     public NioAsyncLoadBalanceClientFactory(final SSLContext sslContext, final int timeoutMillis, final FlowFileContentAccess flowFileContentAccess, final EventReporter eventReporter,
                                             final LoadBalanceFlowFileCodec loadBalanceFlowFileCodec) {
@@ -45,6 +52,6 @@ public class NioAsyncLoadBalanceClientFactory implements AsyncLoadBalanceClientF
 
     @Override
     public NioAsyncLoadBalanceClient createClient(final NodeIdentifier nodeIdentifier) {
-        return new NioAsyncLoadBalanceClient(nodeIdentifier, sslContext, timeoutMillis, flowFileContentAccess, new StandardLoadBalanceFlowFileCodec(), eventReporter);
+        return new NioAsyncLoadBalanceClient(nodeIdentifier, sslContext, timeoutMillis, flowFileContentAccess, new StandardLoadBalanceFlowFileCodec(), eventReporter, contentBufferPool);
     }
 }
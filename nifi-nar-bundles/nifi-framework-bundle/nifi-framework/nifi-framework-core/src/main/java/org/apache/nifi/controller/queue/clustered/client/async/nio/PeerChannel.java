@@ -26,6 +26,7 @@ import javax.net.ssl.SSLException;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SocketChannel;
 import java.util.OptionalInt;
 
@@ -65,6 +66,10 @@ public class PeerChannel implements Closeable {
         return peerDescription;
     }
 
+    public boolean isEncrypted() {
+        return sslEngine != null;
+    }
+
     public boolean write(final byte b) throws IOException {
         singleByteBuffer.clear();
         singleByteBuffer.put(b);
@@ -132,6 +137,27 @@ public class PeerChannel implements Closeable {
         return socketChannel.write(preparedBuffer);
     }
 
+    /**
+     * Transfers up to <code>count</code> bytes from the given FileChannel directly to the underlying SocketChannel, starting at the given position
+     * of the FileChannel. This allows the operating system to move the bytes without copying them into the JVM and can therefore only be used when
+     * the channel is not encrypted. As with {@link #write(ByteBuffer)}, the number of bytes transferred may be fewer than requested, or even 0, if
+     * the socket's send buffer is full.
+     *
+     * @param fileChannel the channel to transfer bytes from
+     * @param position the position in the FileChannel of the first byte to transfer
+     * @param count the maximum number of bytes to transfer
+     * @return the number of bytes transferred
+     * @throws IOException if unable to transfer the data
+     * @throws IllegalStateException if the channel is encrypted
+     */
+    public long transferFrom(final FileChannel fileChannel, final long position, final long count) throws IOException {
+        if (sslEngine != null) {
+            throw new IllegalStateException("Cannot transfer file contents directly to Peer " + peerDescription + " because the channel is encrypted");
+        }
+
+        return fileChannel.transferTo(position, count, socketChannel);
+    }
+
 
     public int read(final ByteBuffer dst) throws IOException {
         // If we have data ready to go, then go ahead and copy it.
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue.clustered.partition;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Partitions FlowFiles based on the value of an attribute, using Rendezvous (Highest Random Weight) hashing. Every node is scored
+ * against the attribute value using the node's identifier, and the node with the highest score is chosen. Because the score depends
+ * only on the value and the node, and not on the position of the node in the cluster, adding or removing a node moves only those
+ * values that map to that node, or roughly 1/N of all values, rather than reshuffling the values of every node that sorts after it.
+ */
+public class ConsistentHashAttributePartitioner implements FlowFilePartitioner {
+    private static final HashFunction hashFunction = Hashing.murmur3_128();
+
+    private final String partitioningAttribute;
+    private final Supplier<NodeIdentifier> localNodeIdentifierSupplier;
+    private final Map<String, Long> nodeHashes = new ConcurrentHashMap<>();
+
+    /**
+     * @param partitioningAttribute the name of the attribute whose value determines the partition
+     * @param localNodeIdentifierSupplier supplies the identifier of the local node, which is needed in order to score the local partition
+     *            the same way that other nodes in the cluster score it. May supply <code>null</code> if the identifier is not yet known, in which
+     *            case FlowFiles are kept in the local partition until it is known.
+     */
+    public ConsistentHashAttributePartitioner(final String partitioningAttribute, final Supplier<NodeIdentifier> localNodeIdentifierSupplier) {
+        this.partitioningAttribute = partitioningAttribute;
+        this.localNodeIdentifierSupplier = localNodeIdentifierSupplier;
+    }
+
+    @Override
+    public QueuePartition getPartition(final FlowFileRecord flowFile, final QueuePartition[] partitions, final QueuePartition localPartition) {
+        if (partitions.length == 1) {
+            return partitions[0];
+        }
+
+        // Without the local node's identifier the local partition cannot be scored the same way that the other nodes score it, so any choice made
+        // here could disagree with theirs. Keep the data local instead; it is rebalanced once the cluster topology, and with it the identifier, is known.
+        final NodeIdentifier localNodeId = localNodeIdentifierSupplier.get();
+        if (localNodeId == null && localPartition != null) {
+            return localPartition;
+        }
+
+        final String value = flowFile.getAttribute(partitioningAttribute);
+        final long valueHash = value == null ? 0L : hashFunction.hashString(value, StandardCharsets.UTF_8).asLong();
+
+        QueuePartition selected = partitions[0];
+        long highestScore = Long.MIN_VALUE;
+        for (final QueuePartition partition : partitions) {
+            final NodeIdentifier nodeId = partition.getNodeIdentifier().orElse(localNodeId);
+            if (nodeId == null) {
+                // only the local partition lacks a node identifier, and it cannot be scored if the local identifier is unknown
+                continue;
+            }
+
+            final long score = mix(valueHash ^ getNodeHash(nodeId));
+            if (score > highestScore) {
+                highestScore = score;
+                selected = partition;
+            }
+        }
+
+        return selected;
+    }
+
+    private long getNodeHash(final NodeIdentifier nodeId) {
+        return nodeHashes.computeIfAbsent(nodeId.getId(), key -> hashFunction.hashString(key, StandardCharsets.UTF_8).asLong());
+    }
+
+    /**
+     * The 64-bit finalizer from MurmurHash3, which spreads the combined value/node hash so that scores are not correlated across nodes.
+     */
+    private static long mix(final long hash) {
+        long h = hash;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    @Override
+    public boolean isRebalanceOnClusterResize() {
+        return true;
+    }
+
+    @Override
+    public boolean isRebalanceOnFailure() {
+        return false;
+    }
+}
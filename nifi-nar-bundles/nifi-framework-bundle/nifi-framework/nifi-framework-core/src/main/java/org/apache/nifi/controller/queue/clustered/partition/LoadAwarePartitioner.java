@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue.clustered.partition;
+
+import org.apache.nifi.controller.repository.FlowFileRecord;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Distributes FlowFiles across the nodes in the cluster in proportion to how quickly each node is expected to work off the data that is
+ * already queued for it. Each partition is weighted by <code>1 / (1 + secondsToDrain)</code>, where <code>secondsToDrain</code> is the number
+ * of FlowFiles queued for the partition divided by the rate at which FlowFiles have recently been sent to that node. A node that falls behind
+ * therefore receives a shrinking share of new data instead of an equal share. Nodes that have recently responded that their queue is full are
+ * weighted down so heavily that they are effectively chosen only if every node is applying back pressure.
+ */
+public class LoadAwarePartitioner implements FlowFilePartitioner {
+    // Rate assumed for a node that has not been sent anything recently, so that a node making no progress is weighted by its backlog rather than treated as infinitely slow.
+    static final double MIN_TRANSFER_RATE = 1.0D;
+    static final double BACKPRESSURE_WEIGHT_FACTOR = 0.001D;
+
+    @Override
+    public QueuePartition getPartition(final FlowFileRecord flowFile, final QueuePartition[] partitions, final QueuePartition localPartition) {
+        if (partitions.length == 1) {
+            return partitions[0];
+        }
+
+        // The local partition is not sent over the network, so it has no transfer rate of its own. Assume that it keeps up as well as the average remote node.
+        double rateSum = 0D;
+        int remoteCount = 0;
+        for (final QueuePartition partition : partitions) {
+            if (partition instanceof RemoteQueuePartition) {
+                rateSum += Math.max(MIN_TRANSFER_RATE, ((RemoteQueuePartition) partition).getTransferRate());
+                remoteCount++;
+            }
+        }
+        final double defaultRate = remoteCount == 0 ? MIN_TRANSFER_RATE : rateSum / remoteCount;
+
+        final double[] weights = new double[partitions.length];
+        double totalWeight = 0D;
+        for (int i = 0; i < partitions.length; i++) {
+            weights[i] = getWeight(partitions[i], defaultRate);
+            totalWeight += weights[i];
+        }
+
+        double remaining = ThreadLocalRandom.current().nextDouble(totalWeight);
+        for (int i = 0; i < partitions.length; i++) {
+            remaining -= weights[i];
+            if (remaining < 0D) {
+                return partitions[i];
+            }
+        }
+
+        return partitions[partitions.length - 1];
+    }
+
+    private static double getWeight(final QueuePartition partition, final double defaultRate) {
+        double transferRate = defaultRate;
+        boolean backpressured = false;
+        if (partition instanceof RemoteQueuePartition) {
+            final RemoteQueuePartition remotePartition = (RemoteQueuePartition) partition;
+            transferRate = Math.max(MIN_TRANSFER_RATE, remotePartition.getTransferRate());
+            backpressured = remotePartition.isPeerBackpressured();
+        }
+
+        final double secondsToDrain = partition.size().getObjectCount() / transferRate;
+        final double weight = 1D / (1D + secondsToDrain);
+        return backpressured ? weight * BACKPRESSURE_WEIGHT_FACTOR : weight;
+    }
+
+    @Override
+    public boolean isRebalanceOnClusterResize() {
+        return false;
+    }
+
+    @Override
+    public boolean isRebalanceOnFailure() {
+        return true;
+    }
+}
@@ -45,6 +45,9 @@ import org.apache.nifi.provenance.ProvenanceEventRecord;
 import org.apache.nifi.provenance.ProvenanceEventRepository;
 import org.apache.nifi.provenance.ProvenanceEventType;
 import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.apache.nifi.util.timebuffer.LongEntityAccess;
+import org.apache.nifi.util.timebuffer.TimedBuffer;
+import org.apache.nifi.util.timebuffer.TimestampedLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,6 +66,9 @@ import java.util.stream.Collectors;
  */
 public class RemoteQueuePartition implements QueuePartition {
     private static final Logger logger = LoggerFactory.getLogger(RemoteQueuePartition.class);
+    private static final long TRANSFER_RATE_WINDOW_MILLIS = TimeUnit.MINUTES.toMillis(1L);
+    private static final long TRANSFER_RATE_REFRESH_MILLIS = TimeUnit.SECONDS.toMillis(1L);
+    private static final long PEER_BACKPRESSURE_MILLIS = TimeUnit.SECONDS.toMillis(5L);
 
     private final NodeIdentifier nodeIdentifier;
     private final SwappablePriorityQueue priorityQueue;
@@ -77,6 +83,11 @@ public class RemoteQueuePartition implements QueuePartition {
     private boolean running = false;
     private final String description;
 
+    private final TimedBuffer<TimestampedLong> sentFlowFileCounts = new TimedBuffer<>(TimeUnit.SECONDS, (int) TimeUnit.MILLISECONDS.toSeconds(TRANSFER_RATE_WINDOW_MILLIS), new LongEntityAccess());
+    private volatile double transferRate = 0D;
+    private volatile long transferRateTimestamp = 0L;
+    private volatile long peerQueueFullTimestamp = 0L;
+
     public RemoteQueuePartition(final NodeIdentifier nodeId, final SwappablePriorityQueue priorityQueue, final TransferFailureDestination failureDestination,
                                 final FlowFileRepository flowFileRepo, final ProvenanceEventRepository provRepo, final ContentRepository contentRepository,
                                 final AsyncLoadBalanceClientRegistry clientRegistry, final LoadBalancedFlowFileQueue flowFileQueue) {
@@ -97,6 +108,27 @@ public class RemoteQueuePartition implements QueuePartition {
         return priorityQueue.size();
     }
 
+    /**
+     * @return the average number of FlowFiles per second that were sent to the node over the last minute. The value is recalculated at most once per second.
+     */
+    public double getTransferRate() {
+        final long now = System.currentTimeMillis();
+        if (now - transferRateTimestamp > TRANSFER_RATE_REFRESH_MILLIS) {
+            final TimestampedLong sent = sentFlowFileCounts.getAggregateValue(now - TRANSFER_RATE_WINDOW_MILLIS);
+            transferRate = sent == null ? 0D : sent.getValue() * 1000D / TRANSFER_RATE_WINDOW_MILLIS;
+            transferRateTimestamp = now;
+        }
+
+        return transferRate;
+    }
+
+    /**
+     * @return <code>true</code> if the node has recently responded to a request to send data with an indication that its queue is full
+     */
+    public boolean isPeerBackpressured() {
+        return System.currentTimeMillis() - peerQueueFullTimestamp < PEER_BACKPRESSURE_MILLIS;
+    }
+
     @Override
     public String getSwapPartitionName() {
         return nodeIdentifier.getId();
@@ -211,6 +243,15 @@ public class RemoteQueuePartition implements QueuePartition {
                 priorityQueue.acknowledge(flowFilesSent);
                 flowFileQueue.onTransfer(flowFilesSent);
                 updateRepositories(flowFilesSent, Collections.emptyList(), nodeIdentifier);
+
+                if (!flowFilesSent.isEmpty()) {
+                    sentFlowFileCounts.add(new TimestampedLong((long) flowFilesSent.size()));
+                }
+            }
+
+            @Override
+            public void onPeerQueueFull(final NodeIdentifier nodeIdentifier) {
+                peerQueueFullTimestamp = System.currentTimeMillis();
             }
         };
 
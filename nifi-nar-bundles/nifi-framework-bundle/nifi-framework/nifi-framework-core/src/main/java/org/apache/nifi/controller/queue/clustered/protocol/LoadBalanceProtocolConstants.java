@@ -43,4 +43,5 @@ public class LoadBalanceProtocolConstants {
     // data frame constants
     public static final int NO_DATA_FRAME = 0x40;
     public static final int DATA_FRAME_FOLLOWS = 0x42;
+    public static final int CONTENT_FOLLOWS = 0x43;
 }
@@ -17,6 +17,9 @@
 
 package org.apache.nifi.controller.queue.clustered.server;
 
+import net.jpountz.lz4.LZ4BlockInputStream;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
 import org.apache.nifi.connectable.Connection;
 import org.apache.nifi.controller.FlowController;
 import org.apache.nifi.controller.queue.FlowFileQueue;
@@ -75,6 +78,7 @@ import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalancePro
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.COMPLETE_TRANSACTION;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.CONFIRM_CHECKSUM;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.CONFIRM_COMPLETE_TRANSACTION;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.CONTENT_FOLLOWS;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.MORE_FLOWFILES;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.NO_DATA_FRAME;
@@ -91,6 +95,8 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
 
     private static final int SOCKET_CLOSED = -1;
     private static final int NO_DATA_AVAILABLE = 0;
+    private static final int DATA_BUFFER_SIZE = 65536 + 4096;
+    private static final LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance().fastDecompressor();
 
     private final FlowFileRepository flowFileRepository;
     private final ContentRepository contentRepository;
@@ -99,6 +105,7 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
     private final LoadBalanceAuthorizer authorizer;
 
     private final ThreadLocal<byte[]> dataBuffer = new ThreadLocal<>();
+    private final ThreadLocal<byte[]> decompressionBuffer = new ThreadLocal<>();
     private final AtomicLong lineageStartIndex = new AtomicLong(0L);
 
     public StandardLoadBalanceProtocol(final FlowFileRepository flowFileRepository, final ContentRepository contentRepository, final ProvenanceRepository provenanceRepository,
@@ -140,7 +147,7 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
 
 
     protected int negotiateProtocolVersion(final InputStream in, final OutputStream out, final String peerDescription) throws IOException {
-        final VersionNegotiator negotiator = new StandardVersionNegotiator(1);
+        final VersionNegotiator negotiator = new StandardVersionNegotiator(2, 1);
 
         for (int i=0;; i++) {
             final int requestedVersion;
@@ -254,7 +261,7 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
                         contentClaimOut = contentRepository.write(contentClaim);
                     }
 
-                    final RemoteFlowFileRecord flowFile = receiveFlowFile(dataIn, contentClaimOut, contentClaim, claimOffset, protocolVersion, peerDescription, compression);
+                    final RemoteFlowFileRecord flowFile = receiveFlowFile(dataIn, in, contentClaimOut, contentClaim, claimOffset, protocolVersion, peerDescription, compression);
 
                     // The FlowFile's Content Claim will either be null or equal to the provided Content Claim.
                     // Incrementing the FlowFile's content claim will increment the count for the provided Content Claim, if it was
@@ -393,10 +400,18 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
     }
 
     private byte[] getDataBuffer() {
-        byte[] buffer = dataBuffer.get();
+        return getBuffer(dataBuffer);
+    }
+
+    private byte[] getDecompressionBuffer() {
+        return getBuffer(decompressionBuffer);
+    }
+
+    private byte[] getBuffer(final ThreadLocal<byte[]> threadLocal) {
+        byte[] buffer = threadLocal.get();
         if (buffer == null) {
-            buffer = new byte[65536 + 4096];
-            dataBuffer.set(buffer);
+            buffer = new byte[DATA_BUFFER_SIZE];
+            threadLocal.set(buffer);
         }
 
         return buffer;
@@ -430,13 +445,20 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
             + ") or 'No More FlowFiles' indicator (" + NO_MORE_FLOWFILES + ") but received invalid value of " + indicator);
     }
 
-    private RemoteFlowFileRecord receiveFlowFile(final DataInputStream dis, final OutputStream out, final ContentClaim contentClaim, final long claimOffset, final int protocolVersion,
-                                                 final String peerDescription, final LoadBalanceCompression compression) throws IOException {
+    /**
+     * Receives a single FlowFile from the Peer.
+     *
+     * @param dis the stream to read the FlowFile from, which updates the transaction's checksum
+     * @param rawIn the stream that backs <code>dis</code>. As of version 2 of the protocol, uncompressed content is not included in the checksum and is read directly from this stream
+     */
+    private RemoteFlowFileRecord receiveFlowFile(final DataInputStream dis, final InputStream rawIn, final OutputStream out, final ContentClaim contentClaim, final long claimOffset,
+                                                 final int protocolVersion, final String peerDescription, final LoadBalanceCompression compression) throws IOException {
         final int metadataLength = dis.readInt();
 
-        DataInputStream metadataIn = new DataInputStream(new LimitingInputStream(dis, metadataLength));
+        final LimitingInputStream limitedMetadataIn = new LimitingInputStream(dis, metadataLength);
+        DataInputStream metadataIn = new DataInputStream(limitedMetadataIn);
         if (compression != LoadBalanceCompression.DO_NOT_COMPRESS) {
-            metadataIn = new DataInputStream(new GZIPInputStream(metadataIn));
+            metadataIn = new DataInputStream(protocolVersion < 2 ? new GZIPInputStream(metadataIn) : new LZ4BlockInputStream(metadataIn));
         }
 
         final Map<String, String> attributes = readAttributes(metadataIn);
@@ -447,7 +469,19 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
         final long lineageStartDate = metadataIn.readLong();
         final long entryDate = metadataIn.readLong();
 
-        final ContentClaimTriple contentClaimTriple = consumeContent(dis, out, contentClaim, claimOffset, peerDescription, compression == LoadBalanceCompression.COMPRESS_ATTRIBUTES_AND_CONTENT);
+        // The compressed stream may stop short of the end of the metadata, since the LZ4 end mark (and a GZIP trailer that has not yet been
+        // buffered) is not needed to read the fields above. Consume whatever remains so that the next read starts at the content indicator.
+        final byte[] remainingMetadata = new byte[256];
+        while (limitedMetadataIn.read(remainingMetadata) >= 0) {
+        }
+
+        final boolean compressContent = compression == LoadBalanceCompression.COMPRESS_ATTRIBUTES_AND_CONTENT;
+        final ContentClaimTriple contentClaimTriple;
+        if (protocolVersion < 2) {
+            contentClaimTriple = consumeContent(dis, out, contentClaim, claimOffset, peerDescription, compressContent);
+        } else {
+            contentClaimTriple = consumeContentV2(dis, rawIn, out, contentClaim, claimOffset, peerDescription);
+        }
 
         final FlowFileRecord flowFileRecord = new StandardFlowFileRecord.Builder()
             .id(flowFileRepository.getNextFlowFileSequence())
@@ -547,6 +581,96 @@ public class StandardLoadBalanceProtocol implements LoadBalanceProtocol {
         return new ContentClaimTriple(contentClaim, claimOffset, claimLength);
     }
 
+    private ContentClaimTriple consumeContentV2(final DataInputStream in, final InputStream rawIn, final OutputStream out, final ContentClaim contentClaim, final long claimOffset,
+                                                final String peerDescription) throws IOException {
+        logger.debug("Consuming content from Peer {}", peerDescription);
+
+        int dataFrameIndicator = in.read();
+        if (dataFrameIndicator < 0) {
+            throw new EOFException("Encountered End-of-File when expecting to read Data Frame Indicator from Peer " + peerDescription);
+        }
+        if (dataFrameIndicator == NO_DATA_FRAME) {
+            logger.debug("Peer {} indicates that there is no Data Frame for the FlowFile", peerDescription);
+            return new ContentClaimTriple(null, 0L, 0L);
+        }
+        if (dataFrameIndicator == ABORT_TRANSACTION) {
+            throw new TransactionAbortedException("Peer " + peerDescription + " requested that transaction be aborted");
+        }
+
+        if (dataFrameIndicator == CONTENT_FOLLOWS) {
+            final long contentLength = in.readLong();
+            logger.trace("Peer {} indicates that {} bytes of uncompressed content follow", peerDescription, contentLength);
+            if (contentLength < 0) {
+                throw new IOException("Peer " + peerDescription + " indicated a negative content length of " + contentLength);
+            }
+            if (contentLength == 0) {
+                return new ContentClaimTriple(null, 0L, 0L);
+            }
+
+            final byte[] buffer = getDataBuffer();
+            long bytesRemaining = contentLength;
+            while (bytesRemaining > 0) {
+                final int bytesRead = rawIn.read(buffer, 0, (int) Math.min(buffer.length, bytesRemaining));
+                if (bytesRead < 0) {
+                    throw new EOFException("Expected to receive " + contentLength + " bytes of content from Peer " + peerDescription + " but received only "
+                        + (contentLength - bytesRemaining) + " bytes");
+                }
+
+                out.write(buffer, 0, bytesRead);
+                bytesRemaining -= bytesRead;
+            }
+
+            return new ContentClaimTriple(contentClaim, claimOffset, contentLength);
+        }
+
+        final byte[] compressedBuffer = getDataBuffer();
+        final byte[] decompressedBuffer = getDecompressionBuffer();
+
+        long claimLength = 0;
+        while (true) {
+            if (dataFrameIndicator == NO_DATA_FRAME) {
+                logger.debug("Peer {} indicated that no more data frames are available", peerDescription);
+                break;
+            }
+            if (dataFrameIndicator == ABORT_TRANSACTION) {
+                throw new TransactionAbortedException("Peer " + peerDescription + " requested that transaction be aborted");
+            }
+            if (dataFrameIndicator != DATA_FRAME_FOLLOWS) {
+                throw new IOException("Expected a Data Frame Indicator from Peer " + peerDescription + " but received a value of " + dataFrameIndicator);
+            }
+
+            final int compressedLength = in.readInt();
+            final int decompressedLength = in.readInt();
+            logger.trace("Received Data Frame Length of {} ({} bytes decompressed) for {}", compressedLength, decompressedLength, peerDescription);
+            if (compressedLength < 0 || compressedLength > compressedBuffer.length || decompressedLength < 0 || decompressedLength > decompressedBuffer.length) {
+                throw new IOException("Peer " + peerDescription + " sent a Data Frame with invalid length of " + compressedLength + " bytes (" + decompressedLength + " bytes decompressed)");
+            }
+
+            in.readFully(compressedBuffer, 0, compressedLength);
+
+            final int bytesDecompressed;
+            try {
+                bytesDecompressed = decompressor.decompress(compressedBuffer, 0, decompressedBuffer, 0, decompressedLength);
+            } catch (final RuntimeException e) {
+                throw new IOException("Failed to decompress Data Frame received from Peer " + peerDescription, e);
+            }
+            if (bytesDecompressed != compressedLength) {
+                throw new IOException("Data Frame received from Peer " + peerDescription + " was " + compressedLength + " bytes long but only " + bytesDecompressed
+                    + " bytes were consumed when decompressing it");
+            }
+
+            out.write(decompressedBuffer, 0, decompressedLength);
+            claimLength += decompressedLength;
+
+            dataFrameIndicator = in.read();
+            if (dataFrameIndicator < 0) {
+                throw new EOFException("Encountered End-of-File when expecting to receive a Data Frame Indicator");
+            }
+        }
+
+        return new ContentClaimTriple(contentClaim, claimOffset, claimLength);
+    }
+
     private static class ContentClaimTriple {
         private final ContentClaim contentClaim;
         private final long claimOffset;
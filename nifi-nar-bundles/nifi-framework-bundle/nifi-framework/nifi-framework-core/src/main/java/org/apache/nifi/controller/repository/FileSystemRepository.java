@@ -17,12 +17,16 @@
 package org.apache.nifi.controller.repository;
 
 import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
@@ -64,6 +68,7 @@ import org.apache.nifi.controller.repository.claim.ContentClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
 import org.apache.nifi.controller.repository.claim.StandardContentClaim;
+import org.apache.nifi.controller.repository.io.ByteBufferInputStream;
 import org.apache.nifi.controller.repository.io.LimitedInputStream;
 import org.apache.nifi.engine.FlowEngine;
 import org.apache.nifi.processor.DataUnit;
@@ -123,6 +128,9 @@ public class FileSystemRepository implements ContentRepository {
     private final boolean alwaysSync;
     private final ScheduledExecutorService containerCleanupExecutor;
 
+    // null unless memory-mapped reads are enabled
+    private final MappedResourceClaimCache mappedClaimCache;
+
     private ResourceClaimManager resourceClaimManager; // effectively final
 
     // Map of container to archived files that should be deleted next.
@@ -148,6 +156,7 @@ public class FileSystemRepository implements ContentRepository {
         maxAppendableClaimLength = 0;
         maxFlowFilesPerClaim = 0;
         writableClaimQueue = null;
+        mappedClaimCache = null;
     }
 
     public FileSystemRepository(final NiFiProperties nifiProperties) throws IOException {
@@ -248,6 +257,17 @@ public class FileSystemRepository implements ContentRepository {
 
         this.alwaysSync = Boolean.parseBoolean(nifiProperties.getProperty("nifi.content.repository.always.sync"));
         LOG.info("Initializing FileSystemRepository with 'Always Sync' set to {}", alwaysSync);
+
+        if (Boolean.parseBoolean(nifiProperties.getProperty(NiFiProperties.CONTENT_REPOSITORY_MAPPED_READS_ENABLED))) {
+            final String maxMappedSize = nifiProperties.getProperty(NiFiProperties.CONTENT_REPOSITORY_MAPPED_READS_MAX_SIZE,
+                NiFiProperties.DEFAULT_CONTENT_REPOSITORY_MAPPED_READS_MAX_SIZE);
+            final long maxMappedBytes = DataUnit.parseDataSize(maxMappedSize, DataUnit.B).longValue();
+            mappedClaimCache = new MappedResourceClaimCache(maxMappedBytes);
+            LOG.info("Memory-mapped reads are enabled for the FileSystemRepository, mapping up to {} of Resource Claims", maxMappedSize);
+        } else {
+            mappedClaimCache = null;
+        }
+
         initializeRepository();
 
         containerCleanupExecutor = new FlowEngine(containers.size(), "Cleanup FileSystemRepository Container", true);
@@ -279,6 +299,10 @@ public class FileSystemRepository implements ContentRepository {
         executor.shutdown();
         containerCleanupExecutor.shutdown();
 
+        if (mappedClaimCache != null) {
+            mappedClaimCache.clear();
+        }
+
         // Close any of the writable claim streams that are currently open.
         // Other threads may be writing to these streams, and that's okay.
         // If that happens, we will simply close the stream, resulting in an
@@ -689,6 +713,10 @@ public class FileSystemRepository implements ContentRepository {
         } catch (final ContentNotFoundException cnfe) {
         }
 
+        if (mappedClaimCache != null) {
+            mappedClaimCache.evict(claim);
+        }
+
         // Ensure that we have no writable claim streams for this resource claim
         final ByteCountingOutputStream bcos = writableClaimStreams.remove(claim);
 
@@ -859,6 +887,61 @@ public class FileSystemRepository implements ContentRepository {
         }
     }
 
+    @Override
+    public long exportTo(final ContentClaim claim, final WritableByteChannel destination, final long offset, final long length) throws IOException {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset cannot be negative");
+        }
+        if (claim == null) {
+            return 0L;
+        }
+
+        final long claimSize = size(claim);
+        if (offset > claimSize) {
+            throw new IllegalArgumentException("offset of " + offset + " exceeds claim size of " + claimSize);
+        }
+
+        // Transfer directly from the file so that the content need not be copied into the JVM's heap.
+        final Path path = getPath(claim, true);
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long startPosition = claim.getOffset() + offset;
+            long transferred = 0L;
+            while (transferred < length) {
+                final long position = startPosition + transferred;
+                if (position >= channel.size()) {
+                    throw new EOFException("Expected to transfer " + length + " bytes from " + claim + " but only " + transferred + " bytes were available");
+                }
+
+                transferred += channel.transferTo(position, length - transferred, destination);
+            }
+
+            return transferred;
+        }
+    }
+
+    /**
+     * Opens a read-only FileChannel for the file that backs the given Content Claim, positioned at the start of the claim's content.
+     * Unlike {@link #read(ContentClaim)}, the content is never copied into the JVM's heap, which allows callers to hand the channel
+     * to {@link FileChannel#transferTo(long, long, WritableByteChannel)}. The caller is responsible for closing the channel.
+     *
+     * @param claim the claim to open a channel for
+     * @return a FileChannel positioned at the claim's offset
+     * @throws ContentNotFoundException if the file backing the claim does not exist
+     * @throws IOException if unable to open the file
+     */
+    public FileChannel openChannel(final ContentClaim claim) throws IOException {
+        final Path path = getPath(claim, true);
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            channel.position(claim.getOffset());
+        } catch (final IOException ioe) {
+            channel.close();
+            throw ioe;
+        }
+
+        return channel;
+    }
+
     @Override
     public long size(final ContentClaim claim) throws IOException {
         if (claim == null) {
@@ -879,6 +962,15 @@ public class FileSystemRepository implements ContentRepository {
             return new ByteArrayInputStream(new byte[0]);
         }
         final Path path = getPath(claim, true);
+
+        // Content Claims whose Resource Claim is still being written to may grow, so those are always read from the file.
+        if (mappedClaimCache != null && claim.getLength() >= 0 && !writableClaimStreams.containsKey(claim.getResourceClaim())) {
+            final ByteBuffer content = mappedClaimCache.getContent(claim.getResourceClaim(), path, claim.getOffset(), claim.getLength());
+            if (content != null) {
+                return new ByteBufferInputStream(content);
+            }
+        }
+
         final FileInputStream fis = new FileInputStream(path.toFile());
         if (claim.getOffset() > 0L) {
             try {
@@ -1200,6 +1292,10 @@ public class FileSystemRepository implements ContentRepository {
             }
         }
 
+        if (mappedClaimCache != null) {
+            mappedClaimCache.evict(claim);
+        }
+
         final Path curPath = getPath(claim);
         if (curPath == null) {
             return false;
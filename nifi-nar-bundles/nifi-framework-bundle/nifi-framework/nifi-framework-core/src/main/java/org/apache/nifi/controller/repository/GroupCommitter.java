@@ -0,0 +1,324 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>
+ * Coalesces the repository updates of concurrently committing sessions. Each session hands its Provenance Events and Repository Records
+ * to {@link #commit(Iterable, Collection)}. The first thread to arrive becomes the leader of a group. If other sessions are committing at the
+ * same time, it waits up to the configured commit window for more sessions to join; otherwise it writes its own commit immediately, so that
+ * a session that commits alone does not pay for the window. The leader writes the events of every session in the group with a single call to
+ * {@link ProvenanceEventRepository#registerEvents(Iterable)} followed by the records of every session with a single call to
+ * {@link FlowFileRepository#updateRepository(Collection)}. The other threads block until the group that contains their commit has been written.
+ * </p>
+ *
+ * <p>
+ * From the perspective of a single session, the semantics are the same as if it had updated the repositories itself: the call does not return
+ * until both repositories have been updated, and if either update fails, the failure is thrown to every session in the group so that each of
+ * them can roll back.
+ * </p>
+ */
+public class GroupCommitter {
+    private static final Logger logger = LoggerFactory.getLogger(GroupCommitter.class);
+
+    static final int MAX_COMMITS_PER_GROUP = 1000;
+
+    private final FlowFileRepository flowFileRepository;
+    private final ProvenanceEventRepository provenanceRepository;
+    private final long commitWindowNanos;
+
+    private final Queue<PendingCommit> pendingCommits = new ConcurrentLinkedQueue<>();
+    private final Lock groupLock = new ReentrantLock();
+    private final AtomicInteger activeCommits = new AtomicInteger(0);
+    private volatile Thread leaderThread;
+
+    public GroupCommitter(final FlowFileRepository flowFileRepository, final ProvenanceEventRepository provenanceRepository, final long commitWindow, final TimeUnit timeUnit) {
+        this.flowFileRepository = flowFileRepository;
+        this.provenanceRepository = provenanceRepository;
+        this.commitWindowNanos = timeUnit.toNanos(commitWindow);
+    }
+
+    /**
+     * Registers the given events with the Provenance Repository and the given records with the FlowFile Repository, possibly along with
+     * the events and records of other sessions that are committing at the same time. This method does not return until the updates
+     * have been written.
+     *
+     * @param events the provenance events to register
+     * @param records the records to update in the FlowFile Repository
+     * @return the time spent updating each of the repositories for the group that contained the commit
+     * @throws IOException if the FlowFile Repository could not be updated
+     */
+    public CommitTiming commit(final Iterable<ProvenanceEventRecord> events, final Collection<RepositoryRecord> records) throws IOException {
+        if (activeCommits.incrementAndGet() >= MAX_COMMITS_PER_GROUP) {
+            // The group is full, so there is no reason for the leader to keep waiting.
+            final Thread leader = leaderThread;
+            if (leader != null) {
+                LockSupport.unpark(leader);
+            }
+        }
+
+        try {
+            return awaitCommit(events, records);
+        } finally {
+            activeCommits.decrementAndGet();
+        }
+    }
+
+    private CommitTiming awaitCommit(final Iterable<ProvenanceEventRecord> events, final Collection<RepositoryRecord> records) throws IOException {
+        final PendingCommit commit = new PendingCommit(events, records);
+        pendingCommits.offer(commit);
+
+        boolean interrupted = false;
+        while (!commit.future.isDone()) {
+            if (groupLock.tryLock()) {
+                try {
+                    // Our commit may have been written by the previous leader while we were acquiring the lock.
+                    if (!commit.future.isDone()) {
+                        leaderThread = Thread.currentThread();
+                        try {
+                            awaitGroup(commit);
+                        } finally {
+                            leaderThread = null;
+                        }
+
+                        writeGroup(drainGroup());
+                    }
+                } finally {
+                    groupLock.unlock();
+                }
+            } else {
+                try {
+                    commit.future.get(Math.max(commitWindowNanos, 1L), TimeUnit.NANOSECONDS);
+                } catch (final InterruptedException ie) {
+                    // The commit may already be part of a group that is being written, so we cannot abandon it. Keep waiting and restore
+                    // the interrupt flag afterward.
+                    interrupted = true;
+                } catch (final ExecutionException | TimeoutException e) {
+                    // Either the group failed, which is handled below, or the leader has not finished yet. In the latter case we may
+                    // need to become the leader of the next group, so go back around the loop.
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        final Throwable failure = commit.getFailure();
+        if (failure == null) {
+            return commit.future.getNow(null);
+        }
+
+        if (failure instanceof IOException) {
+            throw new IOException(failure.getMessage(), failure);
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        throw new RuntimeException(failure);
+    }
+
+    private void awaitGroup(final PendingCommit leaderCommit) {
+        final long deadline = leaderCommit.createdNanos + commitWindowNanos;
+
+        // If no other session is committing, there is no one to wait for, so write immediately rather than adding the window to the
+        // latency of every commit on a lightly loaded system. Likewise, stop waiting once the group cannot grow any larger.
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            final int commitCount = activeCommits.get();
+            if (commitCount <= 1 || commitCount >= MAX_COMMITS_PER_GROUP) {
+                return;
+            }
+
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private List<PendingCommit> drainGroup() {
+        final List<PendingCommit> group = new ArrayList<>();
+
+        PendingCommit commit;
+        while (group.size() < MAX_COMMITS_PER_GROUP && (commit = pendingCommits.poll()) != null) {
+            group.add(commit);
+        }
+
+        return group;
+    }
+
+    private void writeGroup(final List<PendingCommit> group) {
+        if (group.isEmpty()) {
+            return;
+        }
+
+        final long startNanos = System.nanoTime();
+        int recordCount = 0;
+        for (final PendingCommit commit : group) {
+            recordCount += commit.records.size();
+        }
+
+        final List<RepositoryRecord> records = new ArrayList<>(recordCount);
+        for (final PendingCommit commit : group) {
+            records.addAll(commit.records);
+        }
+
+        final CommitTiming timing;
+        try {
+            final long provenanceStartNanos = System.nanoTime();
+            provenanceRepository.registerEvents(new GroupEventIterable(group));
+
+            final long flowFileRepositoryStartNanos = System.nanoTime();
+            flowFileRepository.updateRepository(records);
+
+            timing = new CommitTiming(flowFileRepositoryStartNanos - provenanceStartNanos, System.nanoTime() - flowFileRepositoryStartNanos);
+        } catch (final Throwable t) {
+            logger.error("Failed to update repositories for a group of {} session commits", group.size(), t);
+
+            for (final PendingCommit commit : group) {
+                commit.future.completeExceptionally(t);
+            }
+
+            return;
+        }
+
+        for (final PendingCommit commit : group) {
+            commit.future.complete(timing);
+        }
+
+        if (logger.isDebugEnabled()) {
+            final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            logger.debug("Committed {} sessions with a total of {} Repository Records in {} millis", group.size(), recordCount, millis);
+        }
+    }
+
+
+    private static class PendingCommit {
+        private final Iterable<ProvenanceEventRecord> events;
+        private final Collection<RepositoryRecord> records;
+        private final long createdNanos = System.nanoTime();
+        private final CompletableFuture<CommitTiming> future = new CompletableFuture<>();
+
+        public PendingCommit(final Iterable<ProvenanceEventRecord> events, final Collection<RepositoryRecord> records) {
+            this.events = events;
+            this.records = records;
+        }
+
+        public Throwable getFailure() {
+            try {
+                future.get();
+                return null;
+            } catch (final ExecutionException ee) {
+                return ee.getCause();
+            } catch (final InterruptedException ie) {
+                // The future is already complete, so this cannot happen
+                Thread.currentThread().interrupt();
+                return ie;
+            }
+        }
+    }
+
+    /**
+     * The time that was spent updating each of the repositories for a group of commits. Because the whole group is written at once,
+     * these are the times for the group rather than for any one session.
+     */
+    public static class CommitTiming {
+        private final long provenanceNanos;
+        private final long flowFileRepositoryNanos;
+
+        public CommitTiming(final long provenanceNanos, final long flowFileRepositoryNanos) {
+            this.provenanceNanos = provenanceNanos;
+            this.flowFileRepositoryNanos = flowFileRepositoryNanos;
+        }
+
+        public long getProvenanceNanos() {
+            return provenanceNanos;
+        }
+
+        public long getFlowFileRepositoryNanos() {
+            return flowFileRepositoryNanos;
+        }
+    }
+
+    /**
+     * Iterates over the events of each commit in the group, in the order in which the commits were submitted. Each commit's events are
+     * iterated lazily so that the sessions do not need to create an intermediate collection of enriched events.
+     */
+    private static class GroupEventIterable implements Iterable<ProvenanceEventRecord> {
+        private final List<PendingCommit> group;
+
+        public GroupEventIterable(final List<PendingCommit> group) {
+            this.group = group;
+        }
+
+        @Override
+        public Iterator<ProvenanceEventRecord> iterator() {
+            final Iterator<PendingCommit> commitIterator = group.iterator();
+
+            return new Iterator<ProvenanceEventRecord>() {
+                private Iterator<ProvenanceEventRecord> current;
+
+                @Override
+                public boolean hasNext() {
+                    while (current == null || !current.hasNext()) {
+                        if (!commitIterator.hasNext()) {
+                            return false;
+                        }
+
+                        final Iterable<ProvenanceEventRecord> events = commitIterator.next().events;
+                        current = events == null ? null : events.iterator();
+                    }
+
+                    return true;
+                }
+
+                @Override
+                public ProvenanceEventRecord next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+
+                    return current.next();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * A bounded, least-recently-used cache of read-only memory mappings of Resource Claim files. Mapping a file once and handing out
+ * slices of the mapping allows many small Content Claims that share a Resource Claim to be read without opening, seeking, and
+ * closing the file for each one.
+ * </p>
+ *
+ * <p>
+ * Only Resource Claims that are no longer being written to may be mapped, as the mapping covers the length of the file at the time
+ * that it is created. The cache is bounded by the total number of bytes mapped. Note that the JVM does not release a mapping until the
+ * MappedByteBuffer has been garbage collected, so evicted mappings may remain resident for a short while after eviction.
+ * </p>
+ */
+class MappedResourceClaimCache {
+    private final long maxMappedBytes;
+
+    // guarded by synchronizing on this
+    private final Map<ResourceClaim, MappedByteBuffer> mappings = new LinkedHashMap<>(16, 0.75F, true);
+    private long mappedBytes = 0L;
+    private long evictionCount = 0L;
+
+    MappedResourceClaimCache(final long maxMappedBytes) {
+        this.maxMappedBytes = maxMappedBytes;
+    }
+
+    /**
+     * Returns a buffer containing the given range of the given Resource Claim's file, mapping the file if necessary.
+     *
+     * @param resourceClaim the resource claim
+     * @param path the path of the resource claim's file
+     * @param offset the offset into the file at which the content begins
+     * @param length the number of bytes of content
+     * @return a buffer whose remaining bytes are the requested content, or <code>null</code> if the file is too large to be mapped
+     * @throws IOException if unable to map the file
+     */
+    ByteBuffer getContent(final ResourceClaim resourceClaim, final Path path, final long offset, final long length) throws IOException {
+        final long requiredLength = offset + length;
+        if (requiredLength > maxMappedBytes || requiredLength > Integer.MAX_VALUE) {
+            return null;
+        }
+
+        MappedByteBuffer mapping;
+        final long evictionsBeforeMapping;
+        synchronized (this) {
+            mapping = mappings.get(resourceClaim);
+            evictionsBeforeMapping = evictionCount;
+        }
+
+        if (mapping == null || mapping.capacity() < requiredLength) {
+            mapping = map(path);
+            if (mapping == null || mapping.capacity() < requiredLength) {
+                return null;
+            }
+
+            cache(resourceClaim, mapping, evictionsBeforeMapping);
+        }
+
+        final ByteBuffer content = mapping.duplicate();
+        content.limit((int) requiredLength);
+        content.position((int) offset);
+        return content.slice();
+    }
+
+    private MappedByteBuffer map(final Path path) throws IOException {
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > maxMappedBytes || size > Integer.MAX_VALUE) {
+                return null;
+            }
+
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0L, size);
+        }
+    }
+
+    private synchronized void cache(final ResourceClaim resourceClaim, final MappedByteBuffer mapping, final long evictionsBeforeMapping) {
+        // The file is mapped outside of the lock, so the claim may have been evicted (and its file archived or destroyed) in the
+        // meantime. In that case the mapping is still handed to the caller, but it must not be cached, or it would outlive the file.
+        if (evictionCount != evictionsBeforeMapping || !resourceClaim.isInUse()) {
+            return;
+        }
+
+        final MappedByteBuffer previous = mappings.put(resourceClaim, mapping);
+        if (previous != null) {
+            mappedBytes -= previous.capacity();
+        }
+        mappedBytes += mapping.capacity();
+
+        final Iterator<Map.Entry<ResourceClaim, MappedByteBuffer>> itr = mappings.entrySet().iterator();
+        while (mappedBytes > maxMappedBytes && itr.hasNext()) {
+            final Map.Entry<ResourceClaim, MappedByteBuffer> eldest = itr.next();
+            if (eldest.getKey().equals(resourceClaim)) {
+                continue;
+            }
+
+            mappedBytes -= eldest.getValue().capacity();
+            itr.remove();
+        }
+    }
+
+    /**
+     * Removes any mapping of the given Resource Claim, so that the mapping does not outlive the file being archived or destroyed.
+     *
+     * @param resourceClaim the resource claim
+     */
+    synchronized void evict(final ResourceClaim resourceClaim) {
+        evictionCount++;
+        final MappedByteBuffer mapping = mappings.remove(resourceClaim);
+        if (mapping != null) {
+            mappedBytes -= mapping.capacity();
+        }
+    }
+
+    synchronized void clear() {
+        mappings.clear();
+        mappedBytes = 0L;
+        evictionCount++;
+    }
+}
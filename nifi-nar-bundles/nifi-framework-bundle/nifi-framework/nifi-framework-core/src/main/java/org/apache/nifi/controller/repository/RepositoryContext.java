@@ -40,17 +40,25 @@ public class RepositoryContext {
     private final FlowFileEventRepository flowFileEventRepo;
     private final CounterRepository counterRepo;
     private final ProvenanceEventRepository provenanceRepo;
+    private final GroupCommitter groupCommitter;
     private final AtomicLong connectionIndex;
 
     public RepositoryContext(final Connectable connectable, final AtomicLong connectionIndex, final ContentRepository contentRepository,
             final FlowFileRepository flowFileRepository, final FlowFileEventRepository flowFileEventRepository,
             final CounterRepository counterRepository, final ProvenanceEventRepository provenanceRepository) {
+        this(connectable, connectionIndex, contentRepository, flowFileRepository, flowFileEventRepository, counterRepository, provenanceRepository, null);
+    }
+
+    public RepositoryContext(final Connectable connectable, final AtomicLong connectionIndex, final ContentRepository contentRepository,
+            final FlowFileRepository flowFileRepository, final FlowFileEventRepository flowFileEventRepository,
+            final CounterRepository counterRepository, final ProvenanceEventRepository provenanceRepository, final GroupCommitter groupCommitter) {
         this.connectable = connectable;
         contentRepo = contentRepository;
         flowFileRepo = flowFileRepository;
         flowFileEventRepo = flowFileEventRepository;
         counterRepo = counterRepository;
         provenanceRepo = provenanceRepository;
+        this.groupCommitter = groupCommitter;
 
         this.connectionIndex = connectionIndex;
     }
@@ -144,6 +152,14 @@ public class RepositoryContext {
         return provenanceRepo;
     }
 
+    /**
+     * @return the GroupCommitter to use for updating the FlowFile and Provenance Repositories when a session is committed,
+     *         or <code>null</code> if each session should update the repositories on its own
+     */
+    GroupCommitter getGroupCommitter() {
+        return groupCommitter;
+    }
+
     long getNextFlowFileSequence() {
         return flowFileRepo.getNextFlowFileSequence();
     }
@@ -66,6 +66,7 @@ import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -116,6 +117,7 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
     private static final Logger LOG = LoggerFactory.getLogger(StandardProcessSession.class);
     private static final Logger claimLog = LoggerFactory.getLogger(StandardProcessSession.class.getSimpleName() + ".claims");
     private static final int MAX_ROLLBACK_FLOWFILES_TO_LOG = 5;
+    private static final long CHANNEL_EXPORT_CHUNK_SIZE = 8 * 1024 * 1024;
 
     private final Map<Long, StandardRepositoryRecord> records = new ConcurrentHashMap<>();
     private final Map<String, StandardFlowFileEvent> connectionCounts = new ConcurrentHashMap<>();
@@ -358,16 +360,40 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
                 claimCache.reset();
             }
 
+            final GroupCommitter groupCommitter = context.getGroupCommitter();
+            final Collection<StandardRepositoryRecord> repoRecords = checkpoint.records.values();
+
             final long updateProvenanceStart = System.nanoTime();
-            updateProvenanceRepo(checkpoint);
+            final Iterable<ProvenanceEventRecord> provenanceEvents;
+            if (groupCommitter == null) {
+                updateProvenanceRepo(checkpoint);
+                provenanceEvents = null;
+            } else {
+                // The events are registered along with the FlowFile Repository update below
+                provenanceEvents = createProvenanceEvents(checkpoint);
+            }
+
+            // FlowFiles whose attributes changed are being handed to a queue, where they may wait for some time. Compact their
+            // attributes before updating the FlowFile Repository so that the queue and the repository share the same FlowFile.
+            if (StandardFlowFileRecord.isCompactAttributesEnabled()) {
+                for (final StandardRepositoryRecord record : repoRecords) {
+                    if (record.getDestination() != null && record.isWorking() && record.isAttributesChanged() && !record.isMarkedForAbort() && !record.isMarkedForDelete()) {
+                        record.setWorking(new StandardFlowFileRecord.Builder().fromFlowFile(record.getCurrent()).compactAttributes().build());
+                    }
+                }
+            }
 
             final long flowFileRepoUpdateStart = System.nanoTime();
-            final long updateProvenanceNanos = flowFileRepoUpdateStart - updateProvenanceStart;
+            long updateProvenanceNanos = flowFileRepoUpdateStart - updateProvenanceStart;
 
             // Update the FlowFile Repository
+            GroupCommitter.CommitTiming groupCommitTiming = null;
             try {
-                final Collection<StandardRepositoryRecord> repoRecords = checkpoint.records.values();
-                context.getFlowFileRepository().updateRepository((Collection) repoRecords);
+                if (groupCommitter == null) {
+                    context.getFlowFileRepository().updateRepository((Collection) repoRecords);
+                } else {
+                    groupCommitTiming = groupCommitter.commit(provenanceEvents, (Collection) repoRecords);
+                }
             } catch (final IOException ioe) {
                 // if we fail to commit the session, we need to roll back
                 // the checkpoints as well because none of the checkpoints
@@ -377,7 +403,18 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
             }
 
             final long flowFileRepoUpdateFinishNanos = System.nanoTime();
-            final long flowFileRepoUpdateNanos = flowFileRepoUpdateFinishNanos - flowFileRepoUpdateStart;
+            final long flowFileRepoUpdateNanos;
+            final long groupCommitWaitNanos;
+            if (groupCommitTiming == null) {
+                flowFileRepoUpdateNanos = flowFileRepoUpdateFinishNanos - flowFileRepoUpdateStart;
+                groupCommitWaitNanos = 0L;
+            } else {
+                // The group commit registered the provenance events as well, so attribute its time to each repository separately,
+                // and whatever remains to waiting for the group to be written.
+                updateProvenanceNanos += groupCommitTiming.getProvenanceNanos();
+                flowFileRepoUpdateNanos = groupCommitTiming.getFlowFileRepositoryNanos();
+                groupCommitWaitNanos = Math.max(0L, flowFileRepoUpdateFinishNanos - flowFileRepoUpdateStart - groupCommitTiming.getProvenanceNanos() - flowFileRepoUpdateNanos);
+            }
 
             if (LOG.isInfoEnabled()) {
                 for (final RepositoryRecord record : checkpoint.records.values()) {
@@ -459,6 +496,10 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
                 formatNanos(enqueueFlowFileNanos, timingInfo);
                 timingInfo.append("; Updating Provenance Event Repository took ");
                 formatNanos(updateProvenanceNanos, timingInfo);
+                if (groupCommitTiming != null) {
+                    timingInfo.append("; Waiting for Group Commit took ");
+                    formatNanos(groupCommitWaitNanos, timingInfo);
+                }
 
                 LOG.debug(timingInfo.toString());
             }
@@ -579,7 +620,10 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
     private void updateProvenanceRepo(final Checkpoint checkpoint) {
         // Update Provenance Repository
         final ProvenanceEventRepository provenanceRepo = context.getProvenanceRepository();
+        provenanceRepo.registerEvents(createProvenanceEvents(checkpoint));
+    }
 
+    private Iterable<ProvenanceEventRecord> createProvenanceEvents(final Checkpoint checkpoint) {
         // We need to de-dupe the events that we've created and those reported to the provenance reporter,
         // in case the Processor developer submitted the same events to the reporter. So we use a LinkedHashSet
         // for this, so that we are able to ensure that the events are submitted in the proper order.
@@ -778,7 +822,7 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
             }
         };
 
-        provenanceRepo.registerEvents(iterable);
+        return iterable;
     }
 
 
@@ -3140,6 +3184,54 @@ public final class StandardProcessSession implements ProcessSession, ProvenanceE
         }
     }
 
+    @Override
+    public void exportTo(FlowFile source, final WritableByteChannel destination) {
+        verifyTaskActive();
+        source = validateRecordState(source);
+        final StandardRepositoryRecord record = getRecord(source);
+
+        if (record.getCurrentClaim() == null) {
+            return;
+        }
+
+        try {
+            ensureNotAppending(record.getCurrentClaim());
+
+            claimCache.flush(record.getCurrentClaim());
+
+            // Transfer the content in bounded chunks so that the task's termination can be detected between chunks,
+            // just as the TaskTerminationOutputStream does when exporting to an OutputStream, without giving up the
+            // repository's ability to transfer directly from the file to the channel.
+            incrementReadCount(source);
+            try {
+                final long size = source.getSize();
+                long copied = 0L;
+                while (copied < size) {
+                    final long chunkSize = Math.min(CHANNEL_EXPORT_CHUNK_SIZE, size - copied);
+                    final long transferred = context.getContentRepository().exportTo(record.getCurrentClaim(), destination, record.getCurrentClaimOffset() + copied, chunkSize);
+                    if (transferred <= 0) {
+                        throw new EOFException("Expected to export " + size + " bytes of " + source + " but only " + copied + " bytes were available");
+                    }
+
+                    copied += transferred;
+                    bytesRead += transferred;
+
+                    if (copied < size) {
+                        verifyTaskActive();
+                    }
+                }
+            } finally {
+                decrementReadCount(source);
+            }
+        } catch (final ContentNotFoundException nfe) {
+            handleContentNotFound(nfe, record);
+        } catch (final TerminatedTaskException tte) {
+            throw tte;
+        } catch (final Throwable t) {
+            throw new FlowFileAccessException("Failed to export " + source + " to " + destination + " due to " + t.toString(), t);
+        }
+    }
+
     @Override
     public void exportTo(FlowFile source, final OutputStream destination) {
         verifyTaskActive();
@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository.metrics;
+
+import org.apache.nifi.controller.repository.FlowFileEvent;
+import org.apache.nifi.controller.repository.FlowFileEventRepository;
+import org.apache.nifi.controller.repository.StandardRepositoryStatusReport;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * A FlowFileEventRepository that provides the same per-second, rolling window of statistics as the {@link RingBufferEventRepository}
+ * but stores them in primitive arrays rather than in an object per component per second. Each component is given a slot the first time
+ * that an event is recorded for it. The slot holds a <code>long[]</code> ring buffer with one row of counters for each second in the
+ * window, so recording an event only adds the event's values into the row for the current second, and does not create any objects
+ * (unless the event contains a counter that has not been seen before for the component).
+ * </p>
+ *
+ * <p>
+ * Each slot is guarded by its own lock, so threads updating different components never contend with one another.
+ * </p>
+ */
+public class PrimitiveRingBufferEventRepository implements FlowFileEventRepository {
+    private static final long EMPTY_BIN = Long.MIN_VALUE;
+
+    private static final int FLOWFILES_IN = 0;
+    private static final int FLOWFILES_OUT = 1;
+    private static final int FLOWFILES_REMOVED = 2;
+    private static final int FLOWFILES_RECEIVED = 3;
+    private static final int FLOWFILES_SENT = 4;
+    private static final int CONTENT_SIZE_IN = 5;
+    private static final int CONTENT_SIZE_OUT = 6;
+    private static final int CONTENT_SIZE_REMOVED = 7;
+    private static final int BYTES_READ = 8;
+    private static final int BYTES_WRITTEN = 9;
+    private static final int BYTES_RECEIVED = 10;
+    private static final int BYTES_SENT = 11;
+    private static final int PROCESSING_NANOS = 12;
+    private static final int AGGREGATE_LINEAGE_MILLIS = 13;
+    private static final int INVOCATIONS = 14;
+    private static final int FIELD_COUNT = 15;
+
+    private final int numBins;
+    private final ConcurrentMap<String, ComponentSlot> componentSlots = new ConcurrentHashMap<>();
+    private final Function<String, ComponentSlot> slotFactory;
+    private volatile long lastEventTime = 0L;
+
+    public PrimitiveRingBufferEventRepository(final int numMinutes) {
+        // As with the SecondPrecisionEventContainer, we keep one bin for each second in the window plus one for the current second.
+        this.numBins = numMinutes * 60 + 1;
+        this.slotFactory = componentId -> new ComponentSlot(numBins);
+    }
+
+    @Override
+    public void close() throws IOException {
+    }
+
+    @Override
+    public void updateRepository(final FlowFileEvent event, final String componentId) {
+        updateRepository(event, componentId, System.currentTimeMillis());
+    }
+
+    void updateRepository(final FlowFileEvent event, final String componentId, final long timestamp) {
+        ComponentSlot slot = componentSlots.get(componentId);
+        if (slot == null) {
+            slot = componentSlots.computeIfAbsent(componentId, slotFactory);
+        }
+
+        slot.add(event, timestamp / 1000L);
+        updateLastEventTime(timestamp);
+    }
+
+    private void updateLastEventTime(final long timestamp) {
+        // only write the volatile field once per second, as events are added far more often than the time is read
+        if (timestamp - lastEventTime >= 1000L) {
+            lastEventTime = timestamp;
+        }
+    }
+
+    @Override
+    public long getLastEventTime() {
+        return lastEventTime;
+    }
+
+    @Override
+    public StandardRepositoryStatusReport reportTransferEvents(final long now) {
+        final StandardRepositoryStatusReport report = new StandardRepositoryStatusReport();
+
+        final long currentSecond = now / 1000L;
+        componentSlots.forEach((componentId, slot) -> report.addReportEntry(slot.generateReport(currentSecond), componentId));
+        return report;
+    }
+
+    @Override
+    public void purgeTransferEvents(final long cutoffEpochMilliseconds) {
+        // Bins are reset as the ring buffer wraps around, so there is nothing to purge.
+    }
+
+    @Override
+    public void purgeTransferEvents(final String componentIdentifier) {
+        componentSlots.remove(componentIdentifier);
+    }
+
+
+    private static class ComponentSlot {
+        private final int numBins;
+
+        // guarded by synchronizing on this
+        private final long[] binSeconds;
+        private final long[] values;
+        private String[] counterNames = new String[0];
+        private long[][] counterValues = new long[0][];
+
+        ComponentSlot(final int numBins) {
+            this.numBins = numBins;
+            this.binSeconds = new long[numBins];
+            this.values = new long[numBins * FIELD_COUNT];
+            Arrays.fill(binSeconds, EMPTY_BIN);
+        }
+
+        synchronized void add(final FlowFileEvent event, final long second) {
+            final int bin = (int) (second % numBins);
+            if (binSeconds[bin] != second) {
+                resetBin(bin, second);
+            }
+
+            final int offset = bin * FIELD_COUNT;
+            values[offset + FLOWFILES_IN] += event.getFlowFilesIn();
+            values[offset + FLOWFILES_OUT] += event.getFlowFilesOut();
+            values[offset + FLOWFILES_REMOVED] += event.getFlowFilesRemoved();
+            values[offset + FLOWFILES_RECEIVED] += event.getFlowFilesReceived();
+            values[offset + FLOWFILES_SENT] += event.getFlowFilesSent();
+            values[offset + CONTENT_SIZE_IN] += event.getContentSizeIn();
+            values[offset + CONTENT_SIZE_OUT] += event.getContentSizeOut();
+            values[offset + CONTENT_SIZE_REMOVED] += event.getContentSizeRemoved();
+            values[offset + BYTES_READ] += event.getBytesRead();
+            values[offset + BYTES_WRITTEN] += event.getBytesWritten();
+            values[offset + BYTES_RECEIVED] += event.getBytesReceived();
+            values[offset + BYTES_SENT] += event.getBytesSent();
+            values[offset + PROCESSING_NANOS] += event.getProcessingNanoseconds();
+            values[offset + AGGREGATE_LINEAGE_MILLIS] += event.getAggregateLineageMillis();
+            values[offset + INVOCATIONS] += event.getInvocations();
+
+            final Map<String, Long> counters = event.getCounters();
+            if (counters != null && !counters.isEmpty()) {
+                for (final Map.Entry<String, Long> entry : counters.entrySet()) {
+                    getCounterBins(entry.getKey())[bin] += entry.getValue();
+                }
+            }
+        }
+
+        private void resetBin(final int bin, final long second) {
+            binSeconds[bin] = second;
+
+            final int offset = bin * FIELD_COUNT;
+            Arrays.fill(values, offset, offset + FIELD_COUNT, 0L);
+            for (final long[] counterBins : counterValues) {
+                counterBins[bin] = 0L;
+            }
+        }
+
+        private long[] getCounterBins(final String counterName) {
+            for (int i = 0; i < counterNames.length; i++) {
+                if (counterNames[i].equals(counterName)) {
+                    return counterValues[i];
+                }
+            }
+
+            final int index = counterNames.length;
+            counterNames = Arrays.copyOf(counterNames, index + 1);
+            counterValues = Arrays.copyOf(counterValues, index + 1);
+            counterNames[index] = counterName;
+            counterValues[index] = new long[numBins];
+            return counterValues[index];
+        }
+
+        synchronized FlowFileEvent generateReport(final long currentSecond) {
+            // Include only those bins that fall within the window ending at the current second.
+            final long oldestSecond = currentSecond - numBins;
+            final long[] totals = new long[FIELD_COUNT];
+            final long[] counterTotals = new long[counterNames.length];
+            boolean empty = true;
+
+            for (int bin = 0; bin < numBins; bin++) {
+                final long binSecond = binSeconds[bin];
+                if (binSecond == EMPTY_BIN || binSecond <= oldestSecond) {
+                    continue;
+                }
+
+                empty = false;
+                final int offset = bin * FIELD_COUNT;
+                for (int field = 0; field < FIELD_COUNT; field++) {
+                    totals[field] += values[offset + field];
+                }
+                for (int i = 0; i < counterTotals.length; i++) {
+                    counterTotals[i] += counterValues[i][bin];
+                }
+            }
+
+            if (empty) {
+                return EmptyFlowFileEvent.INSTANCE;
+            }
+
+            final StandardFlowFileEvent event = new StandardFlowFileEvent();
+            event.setFlowFilesIn((int) totals[FLOWFILES_IN]);
+            event.setFlowFilesOut((int) totals[FLOWFILES_OUT]);
+            event.setFlowFilesRemoved((int) totals[FLOWFILES_REMOVED]);
+            event.setFlowFilesReceived((int) totals[FLOWFILES_RECEIVED]);
+            event.setFlowFilesSent((int) totals[FLOWFILES_SENT]);
+            event.setContentSizeIn(totals[CONTENT_SIZE_IN]);
+            event.setContentSizeOut(totals[CONTENT_SIZE_OUT]);
+            event.setContentSizeRemoved(totals[CONTENT_SIZE_REMOVED]);
+            event.setBytesRead(totals[BYTES_READ]);
+            event.setBytesWritten(totals[BYTES_WRITTEN]);
+            event.setBytesReceived(totals[BYTES_RECEIVED]);
+            event.setBytesSent(totals[BYTES_SENT]);
+            event.setProcessingNanos(totals[PROCESSING_NANOS]);
+            event.setAggregateLineageMillis(totals[AGGREGATE_LINEAGE_MILLIS]);
+            event.setInvocations((int) totals[INVOCATIONS]);
+
+            if (counterTotals.length == 0) {
+                event.setCounters(Collections.emptyMap());
+            } else {
+                final Map<String, Long> counters = new HashMap<>();
+                for (int i = 0; i < counterTotals.length; i++) {
+                    counters.put(counterNames[i], counterTotals[i]);
+                }
+                event.setCounters(Collections.unmodifiableMap(counters));
+            }
+
+            return event;
+        }
+    }
+}
@@ -27,6 +27,7 @@ import java.util.concurrent.ConcurrentMap;
 public class RingBufferEventRepository implements FlowFileEventRepository {
     private final int numMinutes;
     private final ConcurrentMap<String, EventContainer> componentEventMap = new ConcurrentHashMap<>();
+    private volatile long lastEventTime = 0L;
 
     public RingBufferEventRepository(final int numMinutes) {
         this.numMinutes = numMinutes;
@@ -40,6 +41,19 @@ public class RingBufferEventRepository implements FlowFileEventRepository {
     public void updateRepository(final FlowFileEvent event, final String componentId) {
         final EventContainer eventContainer = componentEventMap.computeIfAbsent(componentId, id -> new SecondPrecisionEventContainer(numMinutes));
         eventContainer.addEvent(event);
+        updateLastEventTime(System.currentTimeMillis());
+    }
+
+    private void updateLastEventTime(final long timestamp) {
+        // only write the volatile field once per second, as events are added far more often than the time is read
+        if (timestamp - lastEventTime >= 1000L) {
+            lastEventTime = timestamp;
+        }
+    }
+
+    @Override
+    public long getLastEventTime() {
+        return lastEventTime;
     }
 
     @Override
@@ -240,7 +240,7 @@ public class SimpleSwapDeserializer implements SwapDeserializer {
                     }
                 }
 
-                final FlowFileRecord record = ffBuilder.build();
+                final FlowFileRecord record = ffBuilder.compactAttributes().build();
                 if (resourceClaim != null) {
                     resourceClaims.add(resourceClaim);
                 }
@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.swap;
+
+import org.apache.nifi.controller.queue.QueueSize;
+import org.apache.nifi.controller.repository.SwapSummary;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>
+ * An append-only index of the Swap Summaries of the swap files that belong to a single FlowFile Queue. An entry is appended whenever a
+ * swap file is written and whenever one is removed, so that on restart the summaries of all of the queue's swap files can be recovered
+ * by reading a single file rather than opening every swap file.
+ * </p>
+ *
+ * <p>
+ * The index is only a cache of information that is also held in the swap files themselves. Entries are not synced to disk, and any
+ * swap file that is not found in the index, for example because NiFi was stopped after writing the swap file but before updating the
+ * index, is expected to have its summary read from the swap file itself.
+ * </p>
+ */
+public class SwapIndex {
+    private static final Logger logger = LoggerFactory.getLogger(SwapIndex.class);
+
+    private static final byte[] MAGIC_HEADER = {'S', 'W', 'I', 'X'};
+    private static final int ENCODING_VERSION = 1;
+    private static final int ADD_ENTRY = 1;
+    private static final int REMOVE_ENTRY = 2;
+    private static final int COMPACTION_THRESHOLD = 1000;
+
+    private final File indexFile;
+    private final ResourceClaimManager claimManager;
+
+    // guarded by synchronizing on this
+    private final Set<String> indexedFilenames = new HashSet<>();
+    private int entryCount = 0;
+
+    public SwapIndex(final File indexFile, final ResourceClaimManager claimManager) {
+        this.indexFile = indexFile;
+        this.claimManager = claimManager;
+    }
+
+    /**
+     * Reads the index, returning the Swap Summary of each of the given swap files that is found in it. Entries for any swap file that
+     * is not in the given set are discarded, and the index is rewritten to contain only the entries that are returned.
+     *
+     * @param swapFilenames the names of the swap files that currently exist for the queue
+     * @return a Map of swap file name to the Swap Summary for that file
+     * @throws IOException if unable to rewrite the index
+     */
+    public synchronized Map<String, SwapSummary> recover(final Set<String> swapFilenames) throws IOException {
+        final Map<String, byte[]> entries = readEntries();
+        entries.keySet().retainAll(swapFilenames);
+
+        final Map<String, SwapSummary> summaries = new HashMap<>();
+        for (final Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            summaries.put(entry.getKey(), decodeSummary(entry.getValue()));
+        }
+
+        rewrite(entries);
+        return summaries;
+    }
+
+    /**
+     * Records the summary of a newly written swap file.
+     *
+     * @param swapFilename the name of the swap file
+     * @param summary the summary of the swap file's contents
+     * @throws IOException if unable to update the index
+     */
+    public synchronized void add(final String swapFilename, final SwapSummary summary) throws IOException {
+        final byte[] encodedSummary = encodeSummary(summary);
+
+        try (final DataOutputStream out = openForAppend()) {
+            out.writeByte(ADD_ENTRY);
+            out.writeUTF(swapFilename);
+            out.writeInt(encodedSummary.length);
+            out.write(encodedSummary);
+        }
+
+        indexedFilenames.add(swapFilename);
+        entryCount++;
+    }
+
+    /**
+     * Records that a swap file has been removed
+     *
+     * @param swapFilename the name of the swap file
+     * @throws IOException if unable to update the index
+     */
+    public synchronized void remove(final String swapFilename) throws IOException {
+        if (!indexedFilenames.remove(swapFilename)) {
+            return;
+        }
+
+        try (final DataOutputStream out = openForAppend()) {
+            out.writeByte(REMOVE_ENTRY);
+            out.writeUTF(swapFilename);
+        }
+
+        entryCount++;
+        if (entryCount > indexedFilenames.size() * 2 + COMPACTION_THRESHOLD) {
+            final Map<String, byte[]> entries = readEntries();
+            entries.keySet().retainAll(indexedFilenames);
+            rewrite(entries);
+        }
+    }
+
+    /**
+     * @param swapFilename the name of a swap file
+     * @return <code>true</code> if the index holds a summary for the given swap file
+     */
+    public synchronized boolean contains(final String swapFilename) {
+        return indexedFilenames.contains(swapFilename);
+    }
+
+    public synchronized void delete() {
+        indexedFilenames.clear();
+        entryCount = 0;
+
+        if (indexFile.exists() && !indexFile.delete()) {
+            logger.warn("Failed to delete Swap Index {}", indexFile);
+        }
+    }
+
+    private DataOutputStream openForAppend() throws IOException {
+        final boolean newFile = !indexFile.exists() || indexFile.length() == 0;
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile, true)));
+        if (newFile) {
+            writeHeader(out);
+        }
+
+        return out;
+    }
+
+    private void writeHeader(final DataOutputStream out) throws IOException {
+        out.write(MAGIC_HEADER);
+        out.writeInt(ENCODING_VERSION);
+    }
+
+    private Map<String, byte[]> readEntries() {
+        final Map<String, byte[]> entries = new LinkedHashMap<>();
+        if (!indexFile.exists()) {
+            return entries;
+        }
+
+        try (final InputStream fis = new FileInputStream(indexFile);
+             final DataInputStream in = new DataInputStream(new BufferedInputStream(fis))) {
+
+            final byte[] magicHeader = new byte[MAGIC_HEADER.length];
+            in.readFully(magicHeader);
+            if (!Arrays.equals(magicHeader, MAGIC_HEADER)) {
+                logger.warn("Swap Index {} does not have the expected header; ignoring its contents", indexFile);
+                return entries;
+            }
+
+            final int version = in.readInt();
+            if (version != ENCODING_VERSION) {
+                logger.warn("Swap Index {} was written with encoding version {}, which is not supported; ignoring its contents", indexFile, version);
+                return entries;
+            }
+
+            int entryType;
+            while ((entryType = in.read()) != -1) {
+                final String swapFilename = in.readUTF();
+                if (entryType == ADD_ENTRY) {
+                    final byte[] encodedSummary = new byte[in.readInt()];
+                    in.readFully(encodedSummary);
+                    entries.put(swapFilename, encodedSummary);
+                } else if (entryType == REMOVE_ENTRY) {
+                    entries.remove(swapFilename);
+                } else {
+                    logger.warn("Encountered unexpected entry type {} in Swap Index {}; ignoring the remainder of the index", entryType, indexFile);
+                    break;
+                }
+            }
+        } catch (final EOFException eof) {
+            // The last entry was only partially written, most likely because NiFi was stopped while the index was being updated.
+            // Any swap file that it pertains to will have its summary read from the swap file itself.
+            logger.debug("Encountered truncated entry at end of Swap Index {}; ignoring the partial entry", indexFile);
+        } catch (final IOException ioe) {
+            logger.warn("Failed to read Swap Index {}; the summaries of swap files will be read from the swap files themselves", indexFile, ioe);
+        }
+
+        return entries;
+    }
+
+    private void rewrite(final Map<String, byte[]> entries) throws IOException {
+        indexedFilenames.clear();
+        entryCount = 0;
+
+        final File tempFile = new File(indexFile.getParentFile(), indexFile.getName() + ".part");
+        try (final OutputStream fos = new FileOutputStream(tempFile);
+             final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos))) {
+
+            writeHeader(out);
+            for (final Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                out.writeByte(ADD_ENTRY);
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().length);
+                out.write(entry.getValue());
+            }
+        }
+
+        Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        indexedFilenames.addAll(entries.keySet());
+        entryCount = entries.size();
+    }
+
+    private byte[] encodeSummary(final SwapSummary summary) throws IOException {
+        // Store each distinct Resource Claim once, along with the number of times that it is referenced.
+        final Map<ResourceClaim, Integer> claimCounts = new LinkedHashMap<>();
+        for (final ResourceClaim claim : summary.getResourceClaims()) {
+            claimCounts.merge(claim, 1, Integer::sum);
+        }
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (final DataOutputStream out = new DataOutputStream(baos)) {
+            out.writeInt(summary.getQueueSize().getObjectCount());
+            out.writeLong(summary.getQueueSize().getByteCount());
+
+            final Long maxFlowFileId = summary.getMaxFlowFileId();
+            out.writeLong(maxFlowFileId == null ? -1L : maxFlowFileId);
+
+            out.writeInt(claimCounts.size());
+            for (final Map.Entry<ResourceClaim, Integer> entry : claimCounts.entrySet()) {
+                final ResourceClaim claim = entry.getKey();
+                out.writeUTF(claim.getContainer());
+                out.writeUTF(claim.getSection());
+                out.writeUTF(claim.getId());
+                out.writeBoolean(claim.isLossTolerant());
+                out.writeInt(entry.getValue());
+            }
+        }
+
+        return baos.toByteArray();
+    }
+
+    private SwapSummary decodeSummary(final byte[] encodedSummary) throws IOException {
+        try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(encodedSummary))) {
+            final int flowFileCount = in.readInt();
+            final long flowFileSize = in.readLong();
+            final long maxFlowFileId = in.readLong();
+
+            final int distinctClaims = in.readInt();
+            final List<ResourceClaim> resourceClaims = new ArrayList<>();
+            for (int i = 0; i < distinctClaims; i++) {
+                final String container = in.readUTF();
+                final String section = in.readUTF();
+                final String identifier = in.readUTF();
+                final boolean lossTolerant = in.readBoolean();
+                final int references = in.readInt();
+
+                // As when reading the summary from the swap file, preserve any existing Resource Claim so that its writability is honored.
+                ResourceClaim resourceClaim = claimManager.getResourceClaim(container, section, identifier);
+                if (resourceClaim == null) {
+                    resourceClaim = claimManager.newResourceClaim(container, section, identifier, lossTolerant, false);
+                }
+
+                for (int j = 0; j < references; j++) {
+                    resourceClaims.add(resourceClaim);
+                }
+            }
+
+            return new StandardSwapSummary(new QueueSize(flowFileCount, flowFileSize), maxFlowFileId, resourceClaims);
+        }
+    }
+}
@@ -42,10 +42,17 @@ public class VolatileBulletinRepository implements BulletinRepository {
 
     private final ConcurrentMap<String, ConcurrentMap<String, RingBuffer<Bulletin>>> bulletinStoreMap = new ConcurrentHashMap<>();
     private volatile BulletinProcessingStrategy processingStrategy = new DefaultBulletinProcessingStrategy();
+    private volatile long lastBulletinTime = 0L;
 
     @Override
     public void addBulletin(final Bulletin bulletin) {
         processingStrategy.update(bulletin);
+        lastBulletinTime = System.currentTimeMillis();
+    }
+
+    @Override
+    public long getLastBulletinTime() {
+        return lastBulletinTime;
     }
 
     @Override
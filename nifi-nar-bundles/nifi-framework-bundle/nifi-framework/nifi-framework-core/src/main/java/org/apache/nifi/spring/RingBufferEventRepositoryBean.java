@@ -16,29 +16,46 @@
  */
 package org.apache.nifi.spring;
 
+import org.apache.nifi.controller.repository.FlowFileEventRepository;
+import org.apache.nifi.controller.repository.metrics.PrimitiveRingBufferEventRepository;
 import org.apache.nifi.controller.repository.metrics.RingBufferEventRepository;
+import org.apache.nifi.util.NiFiProperties;
 import org.springframework.beans.factory.FactoryBean;
 
-public class RingBufferEventRepositoryBean implements FactoryBean<RingBufferEventRepository> {
+public class RingBufferEventRepositoryBean implements FactoryBean<FlowFileEventRepository> {
 
-    private RingBufferEventRepository repository;
+    private FlowFileEventRepository repository;
+    private NiFiProperties properties;
 
     @Override
-    public RingBufferEventRepository getObject() throws Exception {
+    public FlowFileEventRepository getObject() throws Exception {
         if (repository == null) {
-            // create the h2 repository
-            repository = new RingBufferEventRepository(5);
+            final String implementation = properties == null ? NiFiProperties.DEFAULT_FLOWFILE_EVENT_REPOSITORY_IMPLEMENTATION
+                : properties.getProperty(NiFiProperties.FLOWFILE_EVENT_REPOSITORY_IMPLEMENTATION, NiFiProperties.DEFAULT_FLOWFILE_EVENT_REPOSITORY_IMPLEMENTATION);
+
+            if (RingBufferEventRepository.class.getName().equals(implementation.trim())) {
+                repository = new RingBufferEventRepository(5);
+            } else if (PrimitiveRingBufferEventRepository.class.getName().equals(implementation.trim())) {
+                repository = new PrimitiveRingBufferEventRepository(5);
+            } else {
+                throw new IllegalStateException("Invalid value for property '" + NiFiProperties.FLOWFILE_EVENT_REPOSITORY_IMPLEMENTATION + "': " + implementation
+                    + ". Must be either " + RingBufferEventRepository.class.getName() + " or " + PrimitiveRingBufferEventRepository.class.getName());
+            }
         }
         return repository;
     }
 
     @Override
     public Class<?> getObjectType() {
-        return RingBufferEventRepository.class;
+        return FlowFileEventRepository.class;
     }
 
     @Override
     public boolean isSingleton() {
         return true;
     }
+
+    public void setProperties(final NiFiProperties properties) {
+        this.properties = properties;
+    }
 }
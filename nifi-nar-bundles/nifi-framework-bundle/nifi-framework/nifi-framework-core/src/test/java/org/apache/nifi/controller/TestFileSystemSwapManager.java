@@ -21,6 +21,7 @@ import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRepository;
 import org.apache.nifi.controller.repository.SwapContents;
 import org.apache.nifi.controller.repository.SwapManagerInitializationContext;
+import org.apache.nifi.controller.repository.SwapSummary;
 import org.apache.nifi.controller.repository.claim.ResourceClaim;
 import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
 import org.apache.nifi.events.EventReporter;
@@ -37,13 +38,18 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
@@ -146,13 +152,73 @@ public class TestFileSystemSwapManager {
         assertEquals(10000, contents.getFlowFiles().size());
     }
 
+    @Test
+    public void testSwapSummaryRecoveredFromIndex() throws IOException {
+        final FlowFileQueue flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        when(flowFileQueue.getIdentifier()).thenReturn("87bb99fe-412c-49f6-a441-d1b0af4e20b4");
+
+        final FlowFileRepository flowFileRepo = Mockito.mock(FlowFileRepository.class);
+        when(flowFileRepo.isValidSwapLocationSuffix(anyString())).thenReturn(true);
+
+        final Path repoPath = Paths.get("target/swap-index-" + System.nanoTime());
+        final FileSystemSwapManager swapManager = createSwapManager(new FileSystemSwapManager(repoPath), flowFileRepo);
+
+        final List<FlowFileRecord> flowFileRecords = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            flowFileRecords.add(new MockFlowFileRecord(10L));
+        }
+
+        final String swapLocation = swapManager.swapOut(flowFileRecords, flowFileQueue, null);
+
+        // Overwrite the swap file so that its summary can only be obtained from the Swap Index
+        try (final OutputStream fos = new FileOutputStream(swapLocation)) {
+            fos.write("corrupt".getBytes(StandardCharsets.UTF_8));
+        }
+
+        final FileSystemSwapManager recoveryManager = createSwapManager(new FileSystemSwapManager(repoPath), flowFileRepo);
+        final List<String> recoveredLocations = recoveryManager.recoverSwapLocations(flowFileQueue, null);
+        assertEquals(Collections.singletonList(swapLocation), recoveredLocations);
+
+        final SwapSummary summary = recoveryManager.getSwapSummary(swapLocation);
+        assertEquals(100, summary.getQueueSize().getObjectCount());
+        assertEquals(1000L, summary.getQueueSize().getByteCount());
+    }
+
+    @Test
+    public void testOnlyOwnPartialSwapFilesRemovedOnRecovery() throws IOException {
+        final String queueId = "87bb99fe-412c-49f6-a441-d1b0af4e20b4";
+        final String otherQueueId = "1b2c3d4e-5f60-4718-8293-a4b5c6d7e8f9";
+
+        final FlowFileQueue flowFileQueue = Mockito.mock(FlowFileQueue.class);
+        when(flowFileQueue.getIdentifier()).thenReturn(queueId);
+
+        final Path repoPath = Paths.get("target/swap-partial-" + System.nanoTime());
+        final FileSystemSwapManager swapManager = createSwapManager(new FileSystemSwapManager(repoPath), Mockito.mock(FlowFileRepository.class));
+
+        final File swapDir = repoPath.resolve("swap").toFile();
+        final File ownPartialFile = new File(swapDir, "1-" + queueId + "-b5d1ad6f-0a5c-4bbc-9b33-4a5f1c5e0b11.swap.part");
+        final File otherPartialFile = new File(swapDir, "1-" + otherQueueId + "-c6e2be70-1b6d-4ccd-8c44-5b602d6f1c22.swap.part");
+        assertTrue(ownPartialFile.createNewFile());
+        assertTrue(otherPartialFile.createNewFile());
+
+        final List<String> recoveredLocations = swapManager.recoverSwapLocations(flowFileQueue, null);
+        assertTrue(recoveredLocations.isEmpty());
+
+        // The other queue may be recovered concurrently, so its partial swap file must be left for it to clean up.
+        assertFalse(ownPartialFile.exists());
+        assertTrue(otherPartialFile.exists());
+    }
+
     private FileSystemSwapManager createSwapManager() {
         final FlowFileRepository flowFileRepo = Mockito.mock(FlowFileRepository.class);
         return createSwapManager(flowFileRepo);
     }
 
     private FileSystemSwapManager createSwapManager(final FlowFileRepository flowFileRepo) {
-        final FileSystemSwapManager swapManager = new FileSystemSwapManager();
+        return createSwapManager(new FileSystemSwapManager(), flowFileRepo);
+    }
+
+    private FileSystemSwapManager createSwapManager(final FileSystemSwapManager swapManager, final FlowFileRepository flowFileRepo) {
         final ResourceClaimManager resourceClaimManager = new NopResourceClaimManager();
         swapManager.initialize(new SwapManagerInitializationContext() {
             @Override
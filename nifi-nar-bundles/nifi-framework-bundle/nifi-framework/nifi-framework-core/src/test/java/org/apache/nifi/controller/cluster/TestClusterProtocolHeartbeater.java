@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.cluster;
+
+import org.apache.nifi.cluster.coordination.ClusterCoordinator;
+import org.apache.nifi.cluster.coordination.node.ClusterRoles;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionState;
+import org.apache.nifi.cluster.coordination.node.NodeConnectionStatus;
+import org.apache.nifi.cluster.protocol.HeartbeatPayload;
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.cluster.protocol.NodeProtocolSender;
+import org.apache.nifi.cluster.protocol.message.HeartbeatMessage;
+import org.apache.nifi.cluster.protocol.message.HeartbeatResponseMessage;
+import org.apache.nifi.controller.leader.election.LeaderElectionManager;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestClusterProtocolHeartbeater {
+    private NodeIdentifier nodeId;
+    private LeaderElectionManager electionManager;
+    private ClusterProtocolHeartbeater heartbeater;
+    private final List<HeartbeatPayload> sentPayloads = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        nodeId = new NodeIdentifier(UUID.randomUUID().toString(), "localhost", 9999, "localhost", 8888, "localhost", 777, "localhost", null, null, false);
+
+        final NodeProtocolSender protocolSender = mock(NodeProtocolSender.class);
+        when(protocolSender.heartbeat(any(HeartbeatMessage.class), anyString())).thenAnswer(invocation -> {
+            final HeartbeatMessage message = invocation.getArgument(0);
+            sentPayloads.add(HeartbeatPayload.unmarshal(message.getHeartbeat().getPayload()));
+
+            final HeartbeatResponseMessage response = new HeartbeatResponseMessage();
+            response.setUpdatedNodeStatuses(Collections.emptyList());
+            return response;
+        });
+
+        electionManager = mock(LeaderElectionManager.class);
+        when(electionManager.getLeader(ClusterRoles.CLUSTER_COORDINATOR)).thenReturn("localhost:8888");
+
+        heartbeater = new ClusterProtocolHeartbeater(protocolSender, mock(ClusterCoordinator.class), electionManager);
+    }
+
+    @Test
+    public void testClusterStatusOmittedWhileUnchanged() throws Exception {
+        final List<NodeConnectionStatus> clusterStatus = Collections.singletonList(new NodeConnectionStatus(nodeId, NodeConnectionState.CONNECTED));
+
+        for (int i = 0; i < ClusterProtocolHeartbeater.FULL_CLUSTER_STATUS_INTERVAL + 2; i++) {
+            send(createPayload(clusterStatus));
+        }
+
+        // The first heartbeat is full, followed by FULL_CLUSTER_STATUS_INTERVAL heartbeats that omit the cluster status, and then another full heartbeat.
+        assertFull(sentPayloads.get(0));
+        for (int i = 1; i <= ClusterProtocolHeartbeater.FULL_CLUSTER_STATUS_INTERVAL; i++) {
+            assertOmitted(sentPayloads.get(i));
+            assertEquals(5, sentPayloads.get(i).getActiveThreadCount());
+        }
+        assertFull(sentPayloads.get(ClusterProtocolHeartbeater.FULL_CLUSTER_STATUS_INTERVAL + 1));
+    }
+
+    @Test
+    public void testClusterStatusSentWhenChanged() throws Exception {
+        final NodeIdentifier otherNodeId = new NodeIdentifier(UUID.randomUUID().toString(), "localhost", 7777, "localhost", 6666, "localhost", 555, "localhost", null, null, false);
+        final NodeConnectionStatus connected = new NodeConnectionStatus(nodeId, NodeConnectionState.CONNECTED);
+
+        send(createPayload(Arrays.asList(connected, new NodeConnectionStatus(otherNodeId, NodeConnectionState.CONNECTING))));
+        send(createPayload(Arrays.asList(connected, new NodeConnectionStatus(otherNodeId, NodeConnectionState.CONNECTED))));
+
+        assertFull(sentPayloads.get(0));
+        assertFull(sentPayloads.get(1));
+        assertEquals(2, sentPayloads.get(1).getClusterStatus().size());
+    }
+
+    @Test
+    public void testClusterStatusSentWhenOnlyUpdateIdentifierChanges() throws Exception {
+        final NodeConnectionStatus connected = new NodeConnectionStatus(nodeId, NodeConnectionState.CONNECTED);
+        final NodeConnectionStatus reconnected = new NodeConnectionStatus(nodeId, NodeConnectionState.CONNECTED);
+        assertEquals(connected, reconnected);
+
+        send(createPayload(Collections.singletonList(connected)));
+        send(createPayload(Collections.singletonList(connected)));
+        send(createPayload(Collections.singletonList(reconnected)));
+
+        assertFull(sentPayloads.get(0));
+        assertOmitted(sentPayloads.get(1));
+        assertFull(sentPayloads.get(2));
+        assertEquals(reconnected.getUpdateIdentifier(), sentPayloads.get(2).getClusterStatus().get(0).getUpdateIdentifier());
+    }
+
+    @Test
+    public void testClusterStatusSentWhenCoordinatorChanges() throws Exception {
+        final List<NodeConnectionStatus> clusterStatus = Collections.singletonList(new NodeConnectionStatus(nodeId, NodeConnectionState.CONNECTED));
+
+        send(createPayload(clusterStatus));
+        send(createPayload(clusterStatus));
+
+        when(electionManager.getLeader(ClusterRoles.CLUSTER_COORDINATOR)).thenReturn("otherhost:8888");
+        send(createPayload(clusterStatus));
+
+        assertFull(sentPayloads.get(0));
+        assertOmitted(sentPayloads.get(1));
+        assertFull(sentPayloads.get(2));
+    }
+
+    private void assertFull(final HeartbeatPayload payload) {
+        assertFalse(payload.isClusterStatusUnchanged());
+        assertFalse(payload.getClusterStatus().isEmpty());
+    }
+
+    private void assertOmitted(final HeartbeatPayload payload) {
+        assertTrue(payload.isClusterStatusUnchanged());
+        assertNull(payload.getClusterStatus());
+    }
+
+    private void send(final HeartbeatPayload payload) throws Exception {
+        heartbeater.send(nodeId, new NodeConnectionStatus(nodeId, NodeConnectionState.CONNECTED), payload);
+    }
+
+    private HeartbeatPayload createPayload(final List<NodeConnectionStatus> clusterStatus) {
+        final HeartbeatPayload payload = new HeartbeatPayload();
+        payload.setActiveThreadCount(5);
+        payload.setClusterStatus(clusterStatus);
+        return payload;
+    }
+}
@@ -27,6 +27,7 @@ import org.apache.nifi.controller.queue.SwappablePriorityQueue;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.flowfile.FlowFilePrioritizer;
+import org.apache.nifi.processor.FlowFileFilter;
 import org.apache.nifi.reporting.Severity;
 import org.apache.nifi.util.MockFlowFile;
 import org.junit.Assert;
@@ -39,6 +40,8 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -495,4 +498,177 @@ public class TestSwappablePriorityQueue {
 
         assertTrue(swapManager.swappedOut.isEmpty());
     }
+
+    @Test
+    public void testFifoOrderingWithoutPrioritizers() {
+        // Add FlowFiles with descending IDs. Without a prioritizer, they should be polled in the order that they were added.
+        for (int i = 0; i < 5000; i++) {
+            queue.put(new MockFlowFile(5000 - i));
+        }
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        for (int i = 0; i < 5000; i++) {
+            final FlowFileRecord polled = queue.poll(expiredRecords, 500000L);
+            assertEquals(5000 - i, polled.getId());
+        }
+
+        assertNull(queue.poll(expiredRecords, 500000L));
+    }
+
+    @Test
+    public void testFifoOrderingRetainedWhenPrioritizerRemoved() {
+        final FlowFilePrioritizer reversePrioritizer = (o1, o2) -> Long.compare(o2.getId(), o1.getId());
+        queue.setPriorities(Collections.singletonList(reversePrioritizer));
+
+        for (int i = 0; i < 1000; i++) {
+            queue.put(new MockFlowFile(i));
+        }
+
+        // Removing the prioritizer should leave the FlowFiles in the order that they were prioritized in.
+        queue.setPriorities(Collections.emptyList());
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        final List<FlowFileRecord> polled = queue.poll(1000, expiredRecords, 500000L);
+        assertEquals(1000, polled.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(999 - i, polled.get(i).getId());
+        }
+    }
+
+    @Test
+    public void testPenalizedFlowFileDoesNotBlockFifoQueue() {
+        final FlowFileRecord penalized = mock(FlowFileRecord.class);
+        when(penalized.isPenalized()).thenReturn(true);
+        when(penalized.getPenaltyExpirationMillis()).thenReturn(System.currentTimeMillis() + 60000L);
+        when(penalized.getEntryDate()).thenReturn(System.currentTimeMillis());
+
+        queue.put(penalized);
+        queue.put(new MockFlowFile(1));
+        queue.put(new MockFlowFile(2));
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        assertEquals(1, queue.poll(expiredRecords, 500000L).getId());
+        assertEquals(2, queue.poll(expiredRecords, 500000L).getId());
+        assertNull(queue.poll(expiredRecords, 500000L));
+        assertEquals(1, queue.getFlowFileQueueSize().getActiveCount());
+
+        // Once the penalty expires, the FlowFile should be available again.
+        when(penalized.isPenalized()).thenReturn(false);
+        assertSame(penalized, queue.poll(expiredRecords, 500000L));
+        assertEquals(0, queue.getFlowFileQueueSize().getActiveCount());
+    }
+
+    @Test
+    public void testUnselectedFlowFilesRetainFifoOrder() {
+        for (int i = 0; i < 10; i++) {
+            queue.put(new MockFlowFile(i));
+        }
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        final List<FlowFileRecord> evens = queue.poll(flowFile -> flowFile.getId() % 2 == 0 ? FlowFileFilter.FlowFileFilterResult.ACCEPT_AND_CONTINUE
+            : FlowFileFilter.FlowFileFilterResult.REJECT_AND_CONTINUE, expiredRecords, 500000L);
+        assertEquals(5, evens.size());
+
+        for (int i = 1; i < 10; i += 2) {
+            assertEquals(i, queue.poll(expiredRecords, 500000L).getId());
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testConcurrentPutAndPollWithoutPrioritizers() throws InterruptedException {
+        final int numThreads = 8;
+        final int flowFilesPerThread = 10000;
+        final AtomicLong idGenerator = new AtomicLong(0L);
+        final AtomicInteger polledCount = new AtomicInteger(0);
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            final Thread thread = new Thread(() -> {
+                final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+                for (int i = 0; i < flowFilesPerThread; i++) {
+                    queue.put(new MockFlowFile(idGenerator.getAndIncrement()));
+
+                    final FlowFileRecord polled = queue.poll(expiredRecords, 0L);
+                    if (polled != null) {
+                        queue.acknowledge(polled);
+                        polledCount.incrementAndGet();
+                    }
+                }
+            });
+
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        FlowFileRecord polled;
+        while ((polled = queue.poll(expiredRecords, 0L)) != null) {
+            queue.acknowledge(polled);
+            polledCount.incrementAndGet();
+        }
+
+        assertEquals(numThreads * flowFilesPerThread, polledCount.get());
+        assertEquals(0, queue.size().getObjectCount());
+        assertEquals(0, queue.getFlowFileQueueSize().getActiveCount());
+        assertEquals(0, queue.getFlowFileQueueSize().getUnacknowledgedCount());
+    }
+
+    @Test
+    public void testFifoOrderingRetainedWhenSwapping() {
+        queue = new SwappablePriorityQueue(swapManager, 1000, eventReporter, flowFileQueue, dropAction, "local");
+
+        // Swap files are written once 10,000 FlowFiles are waiting on the swap queue, so this causes two swap files to be written
+        // and leaves FlowFiles on both the active queue and the swap queue. Use descending IDs so that insertion order differs
+        // from the order that the default comparator would impose.
+        for (int i = 0; i < 25000; i++) {
+            queue.put(new MockFlowFile(25000 - i));
+        }
+
+        assertEquals(2, swapManager.swapOutCalledCount);
+        assertEquals(25000, queue.size().getObjectCount());
+
+        final Set<FlowFileRecord> expiredRecords = new HashSet<>();
+        for (int i = 0; i < 25000; i++) {
+            final FlowFileRecord polled = queue.poll(expiredRecords, 500000L);
+            assertEquals(25000 - i, polled.getId());
+            queue.acknowledge(polled);
+        }
+
+        assertNull(queue.poll(expiredRecords, 500000L));
+        assertEquals(0, queue.size().getObjectCount());
+    }
+
+    @Test(timeout = 60000)
+    public void testConcurrentPutsDoNotExceedSwapThreshold() throws InterruptedException {
+        final int numThreads = 8;
+        final int flowFilesPerThread = 1000;
+        final AtomicLong idGenerator = new AtomicLong(0L);
+
+        queue = new SwappablePriorityQueue(swapManager, 5000, eventReporter, flowFileQueue, dropAction, "local");
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < flowFilesPerThread; i++) {
+                    queue.put(new MockFlowFile(idGenerator.getAndIncrement()));
+                }
+            });
+
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(numThreads * flowFilesPerThread, queue.size().getObjectCount());
+        assertEquals(5000, queue.getQueueDiagnostics().getActiveQueueSize().getObjectCount());
+        assertEquals(5000, queue.getActiveFlowFiles().size());
+        assertEquals(numThreads * flowFilesPerThread - 5000, queue.getFlowFileQueueSize().getSwappedCount());
+    }
 }
@@ -38,13 +38,18 @@ import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.zip.CRC32;
 import java.util.zip.CheckedOutputStream;
 import java.util.zip.Checksum;
@@ -69,6 +74,7 @@ public class TestLoadBalanceSession {
     private ByteArrayOutputStream received;
     private ServerSocket serverSocket;
     private int port;
+    private volatile int peerProtocolVersion = LoadBalanceSession.PROTOCOL_VERSION;
 
     @Before
     public void setup() throws IOException {
@@ -84,6 +90,17 @@ public class TestLoadBalanceSession {
                     final InputStream in = socket.getInputStream();
                     int data;
 
+                    // Ask the client to fall back to the peer's version, as an older node would
+                    while ((data = in.read()) != -1) {
+                        received.write(data);
+                        if (data == peerProtocolVersion) {
+                            break;
+                        }
+
+                        socket.getOutputStream().write(LoadBalanceProtocolConstants.REQEUST_DIFFERENT_VERSION);
+                        socket.getOutputStream().write(peerProtocolVersion);
+                    }
+
                     socket.getOutputStream().write(LoadBalanceProtocolConstants.VERSION_ACCEPTED);
                     socket.getOutputStream().write(LoadBalanceProtocolConstants.SPACE_AVAILABLE);
                     socket.getOutputStream().write(LoadBalanceProtocolConstants.CONFIRM_CHECKSUM);
@@ -109,6 +126,17 @@ public class TestLoadBalanceSession {
 
     @Test(timeout = 10000)
     public void testSunnyCase() throws InterruptedException, IOException {
+        verifySunnyCase(LoadBalanceSession.PROTOCOL_VERSION);
+    }
+
+    @Test(timeout = 10000)
+    public void testSunnyCaseProtocolVersion1() throws InterruptedException, IOException {
+        verifySunnyCase(1);
+    }
+
+    private void verifySunnyCase(final int protocolVersion) throws InterruptedException, IOException {
+        peerProtocolVersion = protocolVersion;
+
         final Queue<FlowFileRecord> flowFiles = new LinkedList<>();
         final FlowFileRecord flowFile1 = new MockFlowFileRecord(5);
         final FlowFileRecord flowFile2 = new MockFlowFileRecord(8);
@@ -129,7 +157,7 @@ public class TestLoadBalanceSession {
         socketChannel.configureBlocking(false);
         final PeerChannel peerChannel = new PeerChannel(socketChannel, null, "unit-test");
         final LoadBalanceSession transaction = new LoadBalanceSession(partition, contentAccess, new StandardLoadBalanceFlowFileCodec(), peerChannel, 30000,
-            new SimpleLimitThreshold(100, 10_000_000));
+            new SimpleLimitThreshold(100, 10_000_000), new LinkedBlockingQueue<>());
 
         Thread.sleep(100L);
 
@@ -141,7 +169,10 @@ public class TestLoadBalanceSession {
 
         final Checksum expectedChecksum = new CRC32();
         final ByteArrayOutputStream expectedOut = new ByteArrayOutputStream();
-        expectedOut.write(1); // Protocol Version
+        expectedOut.write(LoadBalanceSession.PROTOCOL_VERSION); // Recommended Protocol Version
+        if (protocolVersion != LoadBalanceSession.PROTOCOL_VERSION) {
+            expectedOut.write(protocolVersion); // Protocol Version requested by the peer
+        }
 
         final DataOutputStream expectedDos = new DataOutputStream(new CheckedOutputStream(expectedOut, expectedChecksum));
         expectedDos.writeUTF("unit-test-connection");
@@ -156,10 +187,16 @@ public class TestLoadBalanceSession {
         expectedDos.write(flowFile1.getAttribute("uuid").getBytes());
         expectedDos.writeLong(flowFile1.getLineageStartDate()); // lineage start date
         expectedDos.writeLong(flowFile1.getEntryDate()); // entry date
-        expectedDos.write(LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
-        expectedDos.writeShort(5);
-        expectedDos.write("hello".getBytes());
-        expectedDos.write(LoadBalanceProtocolConstants.NO_DATA_FRAME);
+        if (protocolVersion < 2) {
+            expectedDos.write(LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
+            expectedDos.writeShort(5);
+            expectedDos.write("hello".getBytes());
+            expectedDos.write(LoadBalanceProtocolConstants.NO_DATA_FRAME);
+        } else {
+            expectedDos.write(LoadBalanceProtocolConstants.CONTENT_FOLLOWS);
+            expectedDos.writeLong(5);
+            expectedOut.write("hello".getBytes()); // raw content is not part of the checksum
+        }
 
         expectedDos.write(LoadBalanceProtocolConstants.MORE_FLOWFILES);
         expectedDos.writeInt(68); // metadata length
@@ -170,10 +207,16 @@ public class TestLoadBalanceSession {
         expectedDos.write(flowFile2.getAttribute("uuid").getBytes());
         expectedDos.writeLong(flowFile2.getLineageStartDate()); // lineage start date
         expectedDos.writeLong(flowFile2.getEntryDate()); // entry date
-        expectedDos.write(LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
-        expectedDos.writeShort(8);
-        expectedDos.write("good-bye".getBytes());
-        expectedDos.write(LoadBalanceProtocolConstants.NO_DATA_FRAME);
+        if (protocolVersion < 2) {
+            expectedDos.write(LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
+            expectedDos.writeShort(8);
+            expectedDos.write("good-bye".getBytes());
+            expectedDos.write(LoadBalanceProtocolConstants.NO_DATA_FRAME);
+        } else {
+            expectedDos.write(LoadBalanceProtocolConstants.CONTENT_FOLLOWS);
+            expectedDos.writeLong(8);
+            expectedOut.write("good-bye".getBytes());
+        }
 
         expectedDos.write(LoadBalanceProtocolConstants.NO_MORE_FLOWFILES);
         expectedDos.writeLong(expectedChecksum.getValue());
@@ -194,6 +237,17 @@ public class TestLoadBalanceSession {
 
     @Test(timeout = 10000)
     public void testLargeContent() throws InterruptedException, IOException {
+        verifyLargeContent(LoadBalanceSession.PROTOCOL_VERSION);
+    }
+
+    @Test(timeout = 10000)
+    public void testLargeContentProtocolVersion1() throws InterruptedException, IOException {
+        verifyLargeContent(1);
+    }
+
+    private void verifyLargeContent(final int protocolVersion) throws InterruptedException, IOException {
+        peerProtocolVersion = protocolVersion;
+
         final byte[] content = new byte[66000];
         for (int i=0; i < 66000; i++) {
             content[i] = 'A';
@@ -216,7 +270,7 @@ public class TestLoadBalanceSession {
         socketChannel.configureBlocking(false);
         final PeerChannel peerChannel = new PeerChannel(socketChannel, null, "unit-test");
         final LoadBalanceSession transaction = new LoadBalanceSession(partition, contentAccess, new StandardLoadBalanceFlowFileCodec(), peerChannel, 30000,
-            new SimpleLimitThreshold(100, 10_000_000));
+            new SimpleLimitThreshold(100, 10_000_000), new LinkedBlockingQueue<>());
 
         Thread.sleep(100L);
 
@@ -227,7 +281,10 @@ public class TestLoadBalanceSession {
 
         final Checksum expectedChecksum = new CRC32();
         final ByteArrayOutputStream expectedOut = new ByteArrayOutputStream();
-        expectedOut.write(1); // Protocol Version
+        expectedOut.write(LoadBalanceSession.PROTOCOL_VERSION); // Recommended Protocol Version
+        if (protocolVersion != LoadBalanceSession.PROTOCOL_VERSION) {
+            expectedOut.write(protocolVersion); // Protocol Version requested by the peer
+        }
 
         final DataOutputStream expectedDos = new DataOutputStream(new CheckedOutputStream(expectedOut, expectedChecksum));
 
@@ -244,16 +301,113 @@ public class TestLoadBalanceSession {
         expectedDos.writeLong(flowFile1.getLineageStartDate()); // lineage start date
         expectedDos.writeLong(flowFile1.getEntryDate()); // entry date
 
-        // first data frame
-        expectedDos.write(LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
-        expectedDos.writeShort(LoadBalanceSession.MAX_DATA_FRAME_SIZE);
-        expectedDos.write(Arrays.copyOfRange(content, 0, LoadBalanceSession.MAX_DATA_FRAME_SIZE));
+        if (protocolVersion < 2) {
+            // first data frame
+            expectedDos.write(LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
+            expectedDos.writeShort(LoadBalanceSession.MAX_DATA_FRAME_SIZE);
+            expectedDos.write(Arrays.copyOfRange(content, 0, LoadBalanceSession.MAX_DATA_FRAME_SIZE));
+
+            // second data frame
+            expectedDos.write(LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
+            expectedDos.writeShort(content.length - LoadBalanceSession.MAX_DATA_FRAME_SIZE);
+            expectedDos.write(Arrays.copyOfRange(content, LoadBalanceSession.MAX_DATA_FRAME_SIZE, content.length));
+            expectedDos.write(LoadBalanceProtocolConstants.NO_DATA_FRAME);
+        } else {
+            // content is sent in its entirety, following its length, regardless of how many reads it takes to send it
+            expectedDos.write(LoadBalanceProtocolConstants.CONTENT_FOLLOWS);
+            expectedDos.writeLong(content.length);
+            expectedOut.write(content);
+        }
+
+        expectedDos.write(LoadBalanceProtocolConstants.NO_MORE_FLOWFILES);
+        expectedDos.writeLong(expectedChecksum.getValue());
+        expectedDos.write(LoadBalanceProtocolConstants.COMPLETE_TRANSACTION);
+
+        final byte[] expectedSent = expectedOut.toByteArray();
+
+        while (received.size() < expectedSent.length) {
+            Thread.sleep(10L);
+        }
+        final byte[] dataSent = received.toByteArray();
+
+        assertArrayEquals(expectedSent, dataSent);
+
+        assertEquals(Arrays.asList(flowFile1), transaction.getFlowFilesSent());
+    }
+
+
+    @Test(timeout = 10000)
+    public void testContentTransferredFromFileChannel() throws InterruptedException, IOException {
+        final byte[] content = new byte[150_000];
+        for (int i=0; i < content.length; i++) {
+            content[i] = (byte) ('A' + i % 26);
+        }
+
+        // Place the content after some other data, as it would be within a Resource Claim
+        final Path contentFile = Files.createTempFile("load-balance-session", ".bin");
+        contentFile.toFile().deleteOnExit();
+        final byte[] prefix = "other content".getBytes();
+        Files.write(contentFile, prefix);
+        Files.write(contentFile, content, StandardOpenOption.APPEND);
+
+        final Queue<FlowFileRecord> flowFiles = new LinkedList<>();
+        final FlowFileRecord flowFile1 = new MockFlowFileRecord(content.length);
+        flowFiles.offer(flowFile1);
+
+        final FlowFileContentAccess contentAccess = new FlowFileContentAccess() {
+            @Override
+            public InputStream read(final FlowFileRecord flowFile) {
+                throw new AssertionError("Content should have been read from the FileChannel");
+            }
+
+            @Override
+            public FileChannel openContentChannel(final FlowFileRecord flowFile) throws IOException {
+                final FileChannel channel = FileChannel.open(contentFile, StandardOpenOption.READ);
+                channel.position(prefix.length);
+                return channel;
+            }
+        };
+
+        final RegisteredPartition partition = new RegisteredPartition("unit-test-connection", () -> false,
+            flowFiles::poll, NOP_FAILURE_CALLBACK, (ff, nodeId) -> {}, () -> LoadBalanceCompression.DO_NOT_COMPRESS, () -> true);
+
+        final SocketChannel socketChannel = SocketChannel.open(new InetSocketAddress("localhost", port));
+
+        socketChannel.configureBlocking(false);
+        final PeerChannel peerChannel = new PeerChannel(socketChannel, null, "unit-test");
+        final LoadBalanceSession transaction = new LoadBalanceSession(partition, contentAccess, new StandardLoadBalanceFlowFileCodec(), peerChannel, 30000,
+            new SimpleLimitThreshold(100, 10_000_000), new LinkedBlockingQueue<>());
+
+        Thread.sleep(100L);
+
+        while (!transaction.isComplete()) {
+            transaction.communicate();
+        }
+
+        socketChannel.close();
+
+        final Checksum expectedChecksum = new CRC32();
+        final ByteArrayOutputStream expectedOut = new ByteArrayOutputStream();
+        expectedOut.write(LoadBalanceSession.PROTOCOL_VERSION); // Protocol Version
+
+        final DataOutputStream expectedDos = new DataOutputStream(new CheckedOutputStream(expectedOut, expectedChecksum));
+
+        expectedDos.writeUTF("unit-test-connection");
+
+        expectedDos.write(LoadBalanceProtocolConstants.CHECK_SPACE);
+        expectedDos.write(LoadBalanceProtocolConstants.MORE_FLOWFILES);
+        expectedDos.writeInt(68); // metadata length
+        expectedDos.writeInt(1); // 1 attribute
+        expectedDos.writeInt(4); // length of attribute
+        expectedDos.write("uuid".getBytes());
+        expectedDos.writeInt(flowFile1.getAttribute("uuid").length());
+        expectedDos.write(flowFile1.getAttribute("uuid").getBytes());
+        expectedDos.writeLong(flowFile1.getLineageStartDate()); // lineage start date
+        expectedDos.writeLong(flowFile1.getEntryDate()); // entry date
 
-        // second data frame
-        expectedDos.write(LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS);
-        expectedDos.writeShort(content.length - LoadBalanceSession.MAX_DATA_FRAME_SIZE);
-        expectedDos.write(Arrays.copyOfRange(content, LoadBalanceSession.MAX_DATA_FRAME_SIZE, content.length));
-        expectedDos.write(LoadBalanceProtocolConstants.NO_DATA_FRAME);
+        expectedDos.write(LoadBalanceProtocolConstants.CONTENT_FOLLOWS);
+        expectedDos.writeLong(content.length);
+        expectedOut.write(content);
 
         expectedDos.write(LoadBalanceProtocolConstants.NO_MORE_FLOWFILES);
         expectedDos.writeLong(expectedChecksum.getValue());
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue.clustered.partition;
+
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestConsistentHashAttributePartitioner {
+    private static final String ATTRIBUTE = "group";
+    private static final int VALUE_COUNT = 10_000;
+
+    private int nodePort = 8000;
+
+    @Test
+    public void testSameValueSamePartitionRegardlessOfOrder() {
+        final ConsistentHashAttributePartitioner partitioner = new ConsistentHashAttributePartitioner(ATTRIBUTE, () -> null);
+        final List<QueuePartition> partitions = createPartitions(5);
+
+        final QueuePartition[] ordered = partitions.toArray(new QueuePartition[0]);
+        final List<QueuePartition> shuffled = new ArrayList<>(partitions);
+        Collections.reverse(shuffled);
+        final QueuePartition[] reversed = shuffled.toArray(new QueuePartition[0]);
+
+        for (int i = 0; i < 1000; i++) {
+            final FlowFileRecord flowFile = createFlowFile("value-" + i);
+            final QueuePartition expected = partitioner.getPartition(flowFile, ordered, null);
+            assertSame(expected, partitioner.getPartition(flowFile, ordered, null));
+            assertSame(expected, partitioner.getPartition(flowFile, reversed, null));
+        }
+    }
+
+    @Test
+    public void testRemovingNodeOnlyMovesItsValues() {
+        final ConsistentHashAttributePartitioner partitioner = new ConsistentHashAttributePartitioner(ATTRIBUTE, () -> null);
+        final List<QueuePartition> partitions = createPartitions(5);
+        final Map<String, QueuePartition> before = assign(partitioner, partitions);
+
+        // Remove a node from the middle of the list, which with index-based hashing would shift every node after it.
+        final QueuePartition removed = partitions.remove(2);
+        final Map<String, QueuePartition> after = assign(partitioner, partitions);
+
+        for (final Map.Entry<String, QueuePartition> entry : before.entrySet()) {
+            if (entry.getValue() != removed) {
+                assertSame(entry.getValue(), after.get(entry.getKey()));
+            }
+        }
+    }
+
+    @Test
+    public void testAddingNodeMovesRoughlyOneNth() {
+        final ConsistentHashAttributePartitioner partitioner = new ConsistentHashAttributePartitioner(ATTRIBUTE, () -> null);
+        final List<QueuePartition> partitions = createPartitions(4);
+        final Map<String, QueuePartition> before = assign(partitioner, partitions);
+
+        final QueuePartition added = createPartition();
+        partitions.add(1, added);
+        final Map<String, QueuePartition> after = assign(partitioner, partitions);
+
+        int moved = 0;
+        for (final Map.Entry<String, QueuePartition> entry : before.entrySet()) {
+            final QueuePartition newPartition = after.get(entry.getKey());
+            if (newPartition != entry.getValue()) {
+                assertSame(added, newPartition);
+                moved++;
+            }
+        }
+
+        // Expect about 1/5 of the values to move to the new node.
+        assertTrue("Moved " + moved + " values", moved > VALUE_COUNT / 10 && moved < VALUE_COUNT * 3 / 10);
+    }
+
+    @Test
+    public void testLocalPartitionScoredByLocalNodeIdentifier() {
+        final NodeIdentifier localNodeId = createNodeIdentifier();
+        final QueuePartition localPartition = mock(QueuePartition.class);
+        when(localPartition.getNodeIdentifier()).thenReturn(Optional.empty());
+        when(localPartition.getSwapPartitionName()).thenReturn("local");
+
+        final QueuePartition remoteViewOfLocal = mock(QueuePartition.class);
+        when(remoteViewOfLocal.getNodeIdentifier()).thenReturn(Optional.of(localNodeId));
+
+        final List<QueuePartition> others = createPartitions(3);
+
+        final ConsistentHashAttributePartitioner localPartitioner = new ConsistentHashAttributePartitioner(ATTRIBUTE, () -> localNodeId);
+        final ConsistentHashAttributePartitioner remotePartitioner = new ConsistentHashAttributePartitioner(ATTRIBUTE, () -> null);
+
+        final List<QueuePartition> localView = new ArrayList<>(others);
+        localView.add(localPartition);
+        final List<QueuePartition> remoteView = new ArrayList<>(others);
+        remoteView.add(0, remoteViewOfLocal);
+
+        final Map<String, QueuePartition> localAssignments = assign(localPartitioner, localView);
+        final Map<String, QueuePartition> remoteAssignments = assign(remotePartitioner, remoteView);
+
+        for (final Map.Entry<String, QueuePartition> entry : localAssignments.entrySet()) {
+            final QueuePartition expected = entry.getValue() == localPartition ? remoteViewOfLocal : entry.getValue();
+            assertSame(expected, remoteAssignments.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void testLocalPartitionUsedWhileLocalNodeIdentifierUnknown() {
+        final QueuePartition localPartition = mock(QueuePartition.class);
+        when(localPartition.getNodeIdentifier()).thenReturn(Optional.empty());
+
+        final List<QueuePartition> partitions = createPartitions(3);
+        partitions.add(localPartition);
+        final QueuePartition[] partitionArray = partitions.toArray(new QueuePartition[0]);
+
+        final ConsistentHashAttributePartitioner partitioner = new ConsistentHashAttributePartitioner(ATTRIBUTE, () -> null);
+        for (int i = 0; i < 1000; i++) {
+            assertSame(localPartition, partitioner.getPartition(createFlowFile("value-" + i), partitionArray, localPartition));
+        }
+    }
+
+    @Test
+    public void testSinglePartition() {
+        final ConsistentHashAttributePartitioner partitioner = new ConsistentHashAttributePartitioner(ATTRIBUTE, () -> null);
+        final QueuePartition partition = createPartition();
+        assertSame(partition, partitioner.getPartition(createFlowFile("abc"), new QueuePartition[] {partition}, null));
+    }
+
+    private Map<String, QueuePartition> assign(final FlowFilePartitioner partitioner, final List<QueuePartition> partitions) {
+        final QueuePartition[] partitionArray = partitions.toArray(new QueuePartition[0]);
+        final Map<String, QueuePartition> assignments = new HashMap<>();
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            final String value = "value-" + i;
+            assignments.put(value, partitioner.getPartition(createFlowFile(value), partitionArray, null));
+        }
+        return assignments;
+    }
+
+    private List<QueuePartition> createPartitions(final int count) {
+        final List<QueuePartition> partitions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            partitions.add(createPartition());
+        }
+        return partitions;
+    }
+
+    private QueuePartition createPartition() {
+        final QueuePartition partition = mock(QueuePartition.class);
+        when(partition.getNodeIdentifier()).thenReturn(Optional.of(createNodeIdentifier()));
+        return partition;
+    }
+
+    private NodeIdentifier createNodeIdentifier() {
+        return new NodeIdentifier(UUID.randomUUID().toString(), "localhost", nodePort++, "localhost", nodePort++,
+            "localhost", nodePort++, "localhost", nodePort++, nodePort++, true, Collections.emptySet());
+    }
+
+    private FlowFileRecord createFlowFile(final String value) {
+        final FlowFileRecord flowFile = mock(FlowFileRecord.class);
+        when(flowFile.getAttribute(ATTRIBUTE)).thenReturn(value);
+        return flowFile;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.queue.clustered.partition;
+
+import org.apache.nifi.controller.queue.QueueSize;
+import org.apache.nifi.controller.repository.FlowFileRecord;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TestLoadAwarePartitioner {
+    private static final int ITERATIONS = 10_000;
+
+    private final FlowFileRecord flowFile = mock(FlowFileRecord.class);
+
+    @Test
+    public void testIdleNodesShareEvenly() {
+        final QueuePartition first = createRemotePartition(0, 100D, false);
+        final QueuePartition second = createRemotePartition(0, 100D, false);
+
+        final Map<QueuePartition, Integer> counts = distribute(first, second);
+        assertTrue(counts.get(first) > ITERATIONS * 4 / 10);
+        assertTrue(counts.get(second) > ITERATIONS * 4 / 10);
+    }
+
+    @Test
+    public void testBackloggedNodeReceivesLess() {
+        // 1,000 queued at 10/sec is 100 seconds of backlog, compared to 1 second for the other node.
+        final QueuePartition slow = createRemotePartition(1_000, 10D, false);
+        final QueuePartition fast = createRemotePartition(100, 100D, false);
+
+        final Map<QueuePartition, Integer> counts = distribute(slow, fast);
+        assertTrue("Slow node received " + counts.get(slow), counts.get(slow) < ITERATIONS / 10);
+    }
+
+    @Test
+    public void testBackpressuredNodeAvoided() {
+        final QueuePartition full = createRemotePartition(0, 100D, true);
+        final QueuePartition available = createRemotePartition(0, 100D, false);
+
+        final Map<QueuePartition, Integer> counts = distribute(full, available);
+        assertTrue("Back-pressured node received " + counts.get(full), counts.get(full) < ITERATIONS / 100);
+    }
+
+    @Test
+    public void testAllBackpressuredStillDistributes() {
+        final QueuePartition first = createRemotePartition(0, 100D, true);
+        final QueuePartition second = createRemotePartition(0, 100D, true);
+
+        final Map<QueuePartition, Integer> counts = distribute(first, second);
+        assertEquals(ITERATIONS, counts.get(first) + counts.get(second));
+        assertTrue(counts.get(first) > 0);
+        assertTrue(counts.get(second) > 0);
+    }
+
+    @Test
+    public void testLocalPartitionUsesAverageRemoteRate() {
+        final QueuePartition local = mock(QueuePartition.class);
+        when(local.size()).thenReturn(new QueueSize(1_000, 0L));
+        final QueuePartition remote = createRemotePartition(0, 100D, false);
+
+        final Map<QueuePartition, Integer> counts = distribute(local, remote);
+        assertTrue("Local partition received " + counts.get(local), counts.get(local) < ITERATIONS / 5);
+    }
+
+    private Map<QueuePartition, Integer> distribute(final QueuePartition... partitions) {
+        final LoadAwarePartitioner partitioner = new LoadAwarePartitioner();
+        final Map<QueuePartition, Integer> counts = new HashMap<>();
+        for (final QueuePartition partition : partitions) {
+            counts.put(partition, 0);
+        }
+
+        for (int i = 0; i < ITERATIONS; i++) {
+            counts.merge(partitioner.getPartition(flowFile, partitions, partitions[0]), 1, Integer::sum);
+        }
+
+        return counts;
+    }
+
+    private RemoteQueuePartition createRemotePartition(final int queued, final double transferRate, final boolean backpressured) {
+        final RemoteQueuePartition partition = mock(RemoteQueuePartition.class);
+        when(partition.size()).thenReturn(new QueueSize(queued, 0L));
+        when(partition.getTransferRate()).thenReturn(transferRate);
+        when(partition.isPeerBackpressured()).thenReturn(backpressured);
+        return partition;
+    }
+}
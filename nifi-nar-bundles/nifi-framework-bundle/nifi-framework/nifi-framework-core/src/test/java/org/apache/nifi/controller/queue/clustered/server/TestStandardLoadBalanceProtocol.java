@@ -19,9 +19,17 @@ package org.apache.nifi.controller.queue.clustered.server;
 
 import org.apache.nifi.connectable.Connection;
 import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.controller.MockFlowFileRecord;
 import org.apache.nifi.controller.flow.FlowManager;
 import org.apache.nifi.controller.queue.LoadBalanceCompression;
 import org.apache.nifi.controller.queue.LoadBalancedFlowFileQueue;
+import org.apache.nifi.controller.queue.clustered.FlowFileContentAccess;
+import org.apache.nifi.controller.queue.clustered.SimpleLimitThreshold;
+import org.apache.nifi.controller.queue.clustered.client.StandardLoadBalanceFlowFileCodec;
+import org.apache.nifi.controller.queue.clustered.client.async.TransactionFailureCallback;
+import org.apache.nifi.controller.queue.clustered.client.async.nio.LoadBalanceSession;
+import org.apache.nifi.controller.queue.clustered.client.async.nio.PeerChannel;
+import org.apache.nifi.controller.queue.clustered.client.async.nio.RegisteredPartition;
 import org.apache.nifi.controller.repository.ContentRepository;
 import org.apache.nifi.controller.repository.FlowFileRecord;
 import org.apache.nifi.controller.repository.FlowFileRepository;
@@ -38,21 +46,31 @@ import org.mockito.Mockito;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.CRC32;
 import java.util.zip.CheckedOutputStream;
 import java.util.zip.Checksum;
@@ -62,6 +80,7 @@ import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalancePro
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.COMPLETE_TRANSACTION;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.CONFIRM_CHECKSUM;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.CONFIRM_COMPLETE_TRANSACTION;
+import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.CONTENT_FOLLOWS;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.DATA_FRAME_FOLLOWS;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.MORE_FLOWFILES;
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.NO_DATA_FRAME;
@@ -71,6 +90,7 @@ import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalancePro
 import static org.apache.nifi.controller.queue.clustered.protocol.LoadBalanceProtocolConstants.SPACE_AVAILABLE;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyList;
@@ -224,6 +244,149 @@ public class TestStandardLoadBalanceProtocol {
         Mockito.verify(flowFileQueue, times(1)).receiveFromPeer(anyCollection());
     }
 
+    @Test
+    public void testVersion2RawContentExcludedFromChecksum() throws IOException {
+        final StandardLoadBalanceProtocol protocol = new StandardLoadBalanceProtocol(flowFileRepo, contentRepo, provenanceRepo, flowController, ALWAYS_AUTHORIZED);
+
+        final PipedInputStream serverInput = new PipedInputStream();
+        final PipedOutputStream serverContentSource = new PipedOutputStream();
+        serverInput.connect(serverContentSource);
+
+        final ByteArrayOutputStream serverOutput = new ByteArrayOutputStream();
+
+        // Write connection ID
+        final Checksum checksum = new CRC32();
+        final OutputStream checkedOutput = new CheckedOutputStream(serverContentSource, checksum);
+        final DataOutputStream dos = new DataOutputStream(checkedOutput);
+        dos.writeUTF("unit-test-connection-id");
+
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("uuid", "unit-test-id");
+
+        dos.write(CHECK_SPACE);
+        dos.write(MORE_FLOWFILES);
+        writeAttributes(attributes, dos);
+        dos.write(CONTENT_FOLLOWS);
+        dos.writeLong(5L);
+        serverContentSource.write("hello".getBytes());
+
+        dos.write(MORE_FLOWFILES);
+        writeAttributes(attributes, dos);
+        dos.write(CONTENT_FOLLOWS);
+        dos.writeLong(0L);
+        dos.write(NO_MORE_FLOWFILES);
+
+        dos.writeLong(checksum.getValue());
+        dos.write(COMPLETE_TRANSACTION);
+
+        protocol.receiveFlowFiles(serverInput, serverOutput, "Unit Test", 2);
+
+        final byte[] serverResponse = serverOutput.toByteArray();
+        assertEquals(3, serverResponse.length);
+        assertEquals(SPACE_AVAILABLE, serverResponse[0]);
+        assertEquals(CONFIRM_CHECKSUM, serverResponse[1]);
+        assertEquals(CONFIRM_COMPLETE_TRANSACTION, serverResponse[2]);
+
+        assertEquals(1, claimContents.size());
+        assertArrayEquals("hello".getBytes(), claimContents.values().iterator().next());
+
+        assertEquals(2, flowFileQueueReceiveRecords.size());
+        assertEquals(5L, flowFileQueueReceiveRecords.get(0).getSize());
+        assertEquals(0L, flowFileQueueReceiveRecords.get(1).getSize());
+        Mockito.verify(flowFileQueue, times(1)).receiveFromPeer(anyCollection());
+    }
+
+    @Test(timeout = 20000)
+    public void testVersion2RoundTripCompressAttributesOnly() throws Exception {
+        verifyRoundTrip(LoadBalanceCompression.COMPRESS_ATTRIBUTES_ONLY);
+    }
+
+    @Test(timeout = 20000)
+    public void testVersion2RoundTripCompressAttributesAndContent() throws Exception {
+        verifyRoundTrip(LoadBalanceCompression.COMPRESS_ATTRIBUTES_AND_CONTENT);
+    }
+
+    private void verifyRoundTrip(final LoadBalanceCompression compression) throws Exception {
+        when(flowFileQueue.getLoadBalanceCompression()).thenReturn(compression);
+        final StandardLoadBalanceProtocol protocol = new StandardLoadBalanceProtocol(flowFileRepo, contentRepo, provenanceRepo, flowController, ALWAYS_AUTHORIZED);
+
+        final byte[] smallContent = "hello".getBytes();
+        final byte[] largeContent = new byte[150_000];
+        for (int i=0; i < largeContent.length; i++) {
+            largeContent[i] = (byte) ('A' + i % 26);
+        }
+
+        final Queue<FlowFileRecord> flowFiles = new LinkedList<>();
+        final FlowFileRecord flowFile1 = new MockFlowFileRecord(Collections.singletonMap("greeting", "hello"), smallContent.length);
+        final FlowFileRecord flowFile2 = new MockFlowFileRecord(Collections.singletonMap("greeting", "good-bye"), largeContent.length);
+        flowFiles.offer(flowFile1);
+        flowFiles.offer(flowFile2);
+
+        final Map<FlowFileRecord, InputStream> contentMap = new HashMap<>();
+        contentMap.put(flowFile1, new ByteArrayInputStream(smallContent));
+        contentMap.put(flowFile2, new ByteArrayInputStream(largeContent));
+        final FlowFileContentAccess contentAccess = contentMap::get;
+
+        final TransactionFailureCallback failureCallback = new TransactionFailureCallback() {
+            @Override
+            public void onTransactionFailed(final List<FlowFileRecord> flowFiles, final Exception cause, final TransactionPhase transactionPhase) {
+            }
+
+            @Override
+            public boolean isRebalanceOnFailure() {
+                return false;
+            }
+        };
+
+        final RegisteredPartition partition = new RegisteredPartition("unit-test-connection-id", () -> false,
+            flowFiles::poll, failureCallback, (ff, nodeId) -> {}, () -> compression, () -> true);
+
+        final AtomicReference<Throwable> serverFailure = new AtomicReference<>();
+        try (final ServerSocket serverSocket = new ServerSocket(0)) {
+            final Thread serverThread = new Thread(() -> {
+                try (final Socket socket = serverSocket.accept()) {
+                    protocol.receiveFlowFiles(socket);
+                } catch (final Throwable t) {
+                    serverFailure.set(t);
+                }
+            });
+            serverThread.setDaemon(true);
+            serverThread.start();
+
+            try (final SocketChannel socketChannel = SocketChannel.open(new InetSocketAddress("localhost", serverSocket.getLocalPort()))) {
+                socketChannel.configureBlocking(false);
+                final PeerChannel peerChannel = new PeerChannel(socketChannel, null, "unit-test");
+                final LoadBalanceSession session = new LoadBalanceSession(partition, contentAccess, new StandardLoadBalanceFlowFileCodec(), peerChannel, 30000,
+                    new SimpleLimitThreshold(100, 10_000_000), new LinkedBlockingQueue<>());
+
+                while (!session.isComplete()) {
+                    session.communicate();
+                }
+
+                assertEquals(Arrays.asList(flowFile1, flowFile2), session.getFlowFilesSent());
+            }
+
+            serverThread.join();
+        }
+
+        assertNull(serverFailure.get());
+
+        assertEquals(2, flowFileQueueReceiveRecords.size());
+        final FlowFileRecord received1 = flowFileQueueReceiveRecords.get(0);
+        final FlowFileRecord received2 = flowFileQueueReceiveRecords.get(1);
+        assertEquals("hello", received1.getAttribute("greeting"));
+        assertEquals("good-bye", received2.getAttribute("greeting"));
+        assertEquals(smallContent.length, received1.getSize());
+        assertEquals(largeContent.length, received2.getSize());
+
+        assertEquals(1, claimContents.size());
+        final ByteArrayOutputStream expectedContent = new ByteArrayOutputStream();
+        expectedContent.write(smallContent);
+        expectedContent.write(largeContent);
+        assertArrayEquals(expectedContent.toByteArray(), claimContents.values().iterator().next());
+        Mockito.verify(flowFileQueue, times(1)).receiveFromPeer(anyCollection());
+    }
+
     @Test
     public void testMultipleFlowFiles() throws IOException {
         final StandardLoadBalanceProtocol protocol = new StandardLoadBalanceProtocol(flowFileRepo, contentRepo, provenanceRepo, flowController, ALWAYS_AUTHORIZED);
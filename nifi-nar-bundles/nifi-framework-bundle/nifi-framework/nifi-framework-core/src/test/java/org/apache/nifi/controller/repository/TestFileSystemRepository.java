@@ -41,6 +41,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Method;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -423,6 +425,62 @@ public class TestFileSystemRepository {
         assertTrue(Arrays.equals(doubleExpected, Files.readAllBytes(outPath)));
     }
 
+    @Test
+    public void testExportToChannel() throws IOException {
+        final ContentClaim claim = repository.create(true);
+        try (final OutputStream out = repository.write(claim)) {
+            out.write("prefix".getBytes(StandardCharsets.UTF_8));
+            Files.copy(helloWorldFile.toPath(), out);
+        }
+
+        final byte[] expected = Files.readAllBytes(helloWorldFile.toPath());
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final long copied = repository.exportTo(claim, Channels.newChannel(baos), 6, expected.length);
+
+        assertEquals(expected.length, copied);
+        assertArrayEquals(expected, baos.toByteArray());
+    }
+
+    @Test
+    public void testMappedReads() throws IOException {
+        final List<ContentClaim> claims = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            final ContentClaim claim = repository.create(false);
+            try (final OutputStream out = repository.write(claim)) {
+                out.write(("content-" + i).getBytes(StandardCharsets.UTF_8));
+            }
+            claims.add(claim);
+        }
+
+        // Restart with memory-mapped reads enabled so that the Resource Claim is no longer writable.
+        repository.shutdown();
+        final Map<String, String> addProps = new HashMap<>();
+        addProps.put(NiFiProperties.CONTENT_REPOSITORY_MAPPED_READS_ENABLED, "true");
+        repository = new FileSystemRepository(NiFiProperties.createBasicNiFiProperties(null, addProps));
+        repository.initialize(new StandardResourceClaimManager());
+
+        for (int i = claims.size() - 1; i >= 0; i--) {
+            try (final InputStream in = repository.read(claims.get(i))) {
+                final byte[] expected = ("content-" + i).getBytes(StandardCharsets.UTF_8);
+                assertArrayEquals(expected, readFully(in, expected.length));
+                assertEquals(-1, in.read());
+            }
+        }
+
+        // Content Claims that are still being written to must not be mapped.
+        final ContentClaim writableClaim = repository.create(false);
+        try (final OutputStream out = repository.write(writableClaim)) {
+            out.write("hello".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            try (final InputStream in = repository.read(writableClaim)) {
+                final byte[] buffer = new byte[5];
+                StreamUtils.fillBuffer(in, buffer);
+                assertEquals("hello", new String(buffer, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
     @Test
     public void testSize() throws IOException {
         final ContentClaim claim = repository.create(true);
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.repository;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+public class TestGroupCommitter {
+    private FlowFileRepository flowFileRepository;
+    private ProvenanceEventRepository provenanceRepository;
+
+    private final List<RepositoryRecord> updatedRecords = Collections.synchronizedList(new ArrayList<>());
+    private final List<ProvenanceEventRecord> registeredEvents = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger repositoryUpdates = new AtomicInteger(0);
+    private final AtomicInteger provenanceUpdates = new AtomicInteger(0);
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() throws IOException {
+        flowFileRepository = mock(FlowFileRepository.class);
+        doAnswer(invocation -> {
+            repositoryUpdates.incrementAndGet();
+            updatedRecords.addAll(invocation.getArgument(0));
+            return null;
+        }).when(flowFileRepository).updateRepository(any(Collection.class));
+
+        provenanceRepository = mock(ProvenanceEventRepository.class);
+        doAnswer(invocation -> {
+            provenanceUpdates.incrementAndGet();
+            final Iterable<ProvenanceEventRecord> events = invocation.getArgument(0);
+            for (final ProvenanceEventRecord event : events) {
+                registeredEvents.add(event);
+            }
+            return null;
+        }).when(provenanceRepository).registerEvents(any(Iterable.class));
+    }
+
+    @Test(timeout = 10000)
+    public void testSingleCommit() throws IOException {
+        final GroupCommitter committer = new GroupCommitter(flowFileRepository, provenanceRepository, 1, TimeUnit.MILLISECONDS);
+
+        final RepositoryRecord record = mock(RepositoryRecord.class);
+        final ProvenanceEventRecord event = mock(ProvenanceEventRecord.class);
+        committer.commit(Collections.singletonList(event), Collections.singletonList(record));
+
+        assertEquals(1, repositoryUpdates.get());
+        assertEquals(1, provenanceUpdates.get());
+        assertEquals(Collections.singletonList(record), updatedRecords);
+        assertEquals(Collections.singletonList(event), registeredEvents);
+    }
+
+    @Test(timeout = 10000)
+    public void testCommitWithoutOtherCommittersDoesNotWaitForWindow() throws IOException {
+        // If the leader waited for the window, this would not complete before the test times out.
+        final GroupCommitter committer = new GroupCommitter(flowFileRepository, provenanceRepository, 1, TimeUnit.MINUTES);
+
+        for (int i = 0; i < 3; i++) {
+            committer.commit(Collections.singletonList(mock(ProvenanceEventRecord.class)), Collections.singletonList(mock(RepositoryRecord.class)));
+        }
+
+        assertEquals(3, repositoryUpdates.get());
+        assertEquals(3, provenanceUpdates.get());
+    }
+
+    @Test(timeout = 10000)
+    @SuppressWarnings("unchecked")
+    public void testRepositoryTimingsReportedSeparately() throws IOException {
+        doAnswer(invocation -> {
+            Thread.sleep(50L);
+            return null;
+        }).when(provenanceRepository).registerEvents(any(Iterable.class));
+
+        final GroupCommitter committer = new GroupCommitter(flowFileRepository, provenanceRepository, 1, TimeUnit.MILLISECONDS);
+        final GroupCommitter.CommitTiming timing = committer.commit(Collections.singletonList(mock(ProvenanceEventRecord.class)),
+            Collections.singletonList(mock(RepositoryRecord.class)));
+
+        assertTrue(timing.getProvenanceNanos() >= TimeUnit.MILLISECONDS.toNanos(50L));
+        assertTrue(timing.getFlowFileRepositoryNanos() < TimeUnit.MILLISECONDS.toNanos(50L));
+    }
+
+    @Test(timeout = 30000)
+    @SuppressWarnings("unchecked")
+    public void testConcurrentCommitsAreGrouped() throws Exception {
+        // Simulate the time taken to sync the repository, so that sessions that commit while a group is being written queue up behind it.
+        doAnswer(invocation -> {
+            Thread.sleep(20L);
+            repositoryUpdates.incrementAndGet();
+            updatedRecords.addAll(invocation.getArgument(0));
+            return null;
+        }).when(flowFileRepository).updateRepository(any(Collection.class));
+
+        final GroupCommitter committer = new GroupCommitter(flowFileRepository, provenanceRepository, 250, TimeUnit.MILLISECONDS);
+
+        final int threads = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    startLatch.await();
+                    committer.commit(Collections.singletonList(mock(ProvenanceEventRecord.class)), Collections.singletonList(mock(RepositoryRecord.class)));
+                    return null;
+                }));
+            }
+
+            startLatch.countDown();
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Every commit must be written, but with a 250 millisecond window, they should not each require their own update.
+        assertEquals(threads, updatedRecords.size());
+        assertEquals(threads, registeredEvents.size());
+        assertTrue(repositoryUpdates.get() < threads);
+        assertEquals(repositoryUpdates.get(), provenanceUpdates.get());
+    }
+
+    @Test(timeout = 10000)
+    @SuppressWarnings("unchecked")
+    public void testFailureIsThrownToCommitter() throws IOException {
+        doThrow(new IOException("Intentional Unit Test Exception"))
+            .doAnswer(invocation -> updatedRecords.addAll(invocation.getArgument(0)))
+            .when(flowFileRepository).updateRepository(any(Collection.class));
+
+        final GroupCommitter committer = new GroupCommitter(flowFileRepository, provenanceRepository, 1, TimeUnit.MILLISECONDS);
+
+        try {
+            committer.commit(Collections.emptyList(), Collections.singletonList(mock(RepositoryRecord.class)));
+            fail("Expected IOException");
+        } catch (final IOException expected) {
+            assertEquals("Intentional Unit Test Exception", expected.getMessage());
+        }
+
+        // A failed group must not prevent subsequent commits from being written.
+        committer.commit(Collections.emptyList(), Collections.singletonList(mock(RepositoryRecord.class)));
+        assertEquals(1, updatedRecords.size());
+    }
+}
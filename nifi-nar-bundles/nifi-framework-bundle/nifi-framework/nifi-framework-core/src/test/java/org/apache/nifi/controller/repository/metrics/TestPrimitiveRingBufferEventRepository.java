@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository.metrics;
+
+import org.apache.nifi.controller.repository.FlowFileEvent;
+import org.apache.nifi.controller.repository.RepositoryStatusReport;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class TestPrimitiveRingBufferEventRepository {
+
+    @Test
+    public void testUpdateOncePerSecond() {
+        final PrimitiveRingBufferEventRepository repo = new PrimitiveRingBufferEventRepository(5);
+        final long startTime = System.currentTimeMillis();
+
+        final StandardFlowFileEvent event = new StandardFlowFileEvent();
+        event.setBytesRead(100L);
+        event.setBytesWritten(100L);
+        event.setFlowFilesIn(1);
+
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < 300; j++) {
+                repo.updateRepository(event, "component", startTime + (i * 300_000) + (j * 1000));
+            }
+
+            final long timestamp = startTime + 300_000 * i + 300_000;
+            final FlowFileEvent result = repo.reportTransferEvents(timestamp).getReportEntry("component");
+            assertEquals("Failure at i=" + i, 300 * 100, result.getBytesRead());
+            assertEquals("Failure at i=" + i, 300 * 100, result.getBytesWritten());
+            assertEquals("Failure at i=" + i, 300, result.getFlowFilesIn());
+        }
+    }
+
+    @Test
+    public void testLastEventTimeUpdatedOncePerSecond() {
+        final PrimitiveRingBufferEventRepository repo = new PrimitiveRingBufferEventRepository(5);
+        assertEquals(0L, repo.getLastEventTime());
+
+        final long startTime = System.currentTimeMillis();
+        final StandardFlowFileEvent event = new StandardFlowFileEvent();
+        event.setFlowFilesIn(1);
+
+        repo.updateRepository(event, "component", startTime);
+        assertEquals(startTime, repo.getLastEventTime());
+
+        repo.updateRepository(event, "component", startTime + 500);
+        assertEquals(startTime, repo.getLastEventTime());
+
+        repo.updateRepository(event, "component", startTime + 1000);
+        assertEquals(startTime + 1000, repo.getLastEventTime());
+    }
+
+    @Test
+    public void testExpiresOnReportGeneration() {
+        final PrimitiveRingBufferEventRepository repo = new PrimitiveRingBufferEventRepository(5);
+        final long startTime = System.currentTimeMillis();
+
+        final StandardFlowFileEvent event = new StandardFlowFileEvent();
+        event.setBytesRead(100L);
+        event.setBytesWritten(100L);
+
+        for (int j = 0; j < 100; j++) {
+            repo.updateRepository(event, "component", startTime + (j * 1000));
+        }
+
+        assertEquals(100 * 100, repo.reportTransferEvents(startTime + 300_000).getReportEntry("component").getBytesRead());
+        assertEquals(50 * 100, repo.reportTransferEvents(startTime + 350_000).getReportEntry("component").getBytesRead());
+        assertEquals(100, repo.reportTransferEvents(startTime + 399_000).getReportEntry("component").getBytesRead());
+        assertSame(EmptyFlowFileEvent.INSTANCE, repo.reportTransferEvents(startTime + 400_000).getReportEntry("component"));
+    }
+
+    @Test
+    public void testCounters() {
+        final PrimitiveRingBufferEventRepository repo = new PrimitiveRingBufferEventRepository(5);
+        final long startTime = System.currentTimeMillis();
+
+        final Map<String, Long> counters = new HashMap<>();
+        counters.put("a", 1L);
+        counters.put("b", 2L);
+
+        final StandardFlowFileEvent event = new StandardFlowFileEvent();
+        event.setCounters(counters);
+
+        for (int j = 0; j < 10; j++) {
+            repo.updateRepository(event, "component", startTime + (j * 1000));
+        }
+
+        final Map<String, Long> reported = repo.reportTransferEvents(startTime + 10_000).getReportEntry("component").getCounters();
+        assertEquals(Long.valueOf(10L), reported.get("a"));
+        assertEquals(Long.valueOf(20L), reported.get("b"));
+
+        // Once the first 5 bins have expired, only the last 5 updates should be counted.
+        final Map<String, Long> expired = repo.reportTransferEvents(startTime + 305_000).getReportEntry("component").getCounters();
+        assertEquals(Long.valueOf(5L), expired.get("a"));
+        assertEquals(Long.valueOf(10L), expired.get("b"));
+    }
+
+    @Test
+    public void testPurge() {
+        final PrimitiveRingBufferEventRepository repo = new PrimitiveRingBufferEventRepository(5);
+        final StandardFlowFileEvent event = new StandardFlowFileEvent();
+        event.setFlowFilesIn(1);
+
+        repo.updateRepository(event, "component1");
+        repo.updateRepository(event, "component2");
+
+        RepositoryStatusReport report = repo.reportTransferEvents(System.currentTimeMillis());
+        assertNotNull(report.getReportEntry("component1"));
+        assertNotNull(report.getReportEntry("component2"));
+
+        repo.purgeTransferEvents("component1");
+        report = repo.reportTransferEvents(System.currentTimeMillis());
+        assertNull(report.getReportEntry("component1"));
+        assertNotNull(report.getReportEntry("component2"));
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.nifi.controller.swap;
+
+import org.apache.nifi.controller.queue.QueueSize;
+import org.apache.nifi.controller.repository.SwapSummary;
+import org.apache.nifi.controller.repository.claim.ResourceClaim;
+import org.apache.nifi.controller.repository.claim.ResourceClaimManager;
+import org.apache.nifi.controller.repository.claim.StandardResourceClaimManager;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestSwapIndex {
+    private File indexFile;
+    private ResourceClaimManager claimManager;
+
+    @Before
+    public void setup() {
+        final File dir = new File("target/swap-index");
+        dir.mkdirs();
+
+        indexFile = new File(dir, System.nanoTime() + ".swapindex");
+        claimManager = new StandardResourceClaimManager();
+    }
+
+    @Test
+    public void testRecoverSummaries() throws IOException {
+        final ResourceClaim claimA = claimManager.newResourceClaim("container", "section", "a", false, false);
+        final ResourceClaim claimB = claimManager.newResourceClaim("container", "section", "b", true, false);
+        final List<ResourceClaim> claims = Arrays.asList(claimA, claimB, claimA, claimA);
+
+        final SwapIndex index = new SwapIndex(indexFile, claimManager);
+        index.add("1.swap", new StandardSwapSummary(new QueueSize(4, 400L), 17L, claims));
+        index.add("2.swap", new StandardSwapSummary(new QueueSize(1, 10L), 20L, Collections.emptyList()));
+        index.add("3.swap", new StandardSwapSummary(new QueueSize(1, 10L), 30L, Collections.emptyList()));
+        index.remove("3.swap");
+
+        final Map<String, SwapSummary> recovered = new SwapIndex(indexFile, claimManager).recover(new HashSet<>(Arrays.asList("1.swap", "2.swap", "3.swap")));
+        assertEquals(2, recovered.size());
+
+        final SwapSummary summary = recovered.get("1.swap");
+        assertEquals(new QueueSize(4, 400L), summary.getQueueSize());
+        assertEquals(Long.valueOf(17L), summary.getMaxFlowFileId());
+        assertEquals(4, summary.getResourceClaims().size());
+        assertEquals(3, summary.getResourceClaims().stream().filter(claimA::equals).count());
+        assertEquals(1, summary.getResourceClaims().stream().filter(claimB::equals).count());
+
+        assertEquals(Long.valueOf(20L), recovered.get("2.swap").getMaxFlowFileId());
+    }
+
+    @Test
+    public void testEntriesForMissingSwapFilesDiscarded() throws IOException {
+        final SwapIndex index = new SwapIndex(indexFile, claimManager);
+        index.add("1.swap", new StandardSwapSummary(new QueueSize(1, 10L), 1L, Collections.emptyList()));
+        index.add("2.swap", new StandardSwapSummary(new QueueSize(1, 10L), 2L, Collections.emptyList()));
+
+        final SwapIndex recoveredIndex = new SwapIndex(indexFile, claimManager);
+        assertEquals(Collections.singleton("2.swap"), recoveredIndex.recover(Collections.singleton("2.swap")).keySet());
+        assertTrue(recoveredIndex.contains("2.swap"));
+        assertFalse(recoveredIndex.contains("1.swap"));
+
+        // The index should have been rewritten without the entry for the missing swap file
+        assertEquals(Collections.singleton("2.swap"), new SwapIndex(indexFile, claimManager).recover(new HashSet<>(Arrays.asList("1.swap", "2.swap"))).keySet());
+    }
+
+    @Test
+    public void testTruncatedEntryIgnored() throws IOException {
+        final SwapIndex index = new SwapIndex(indexFile, claimManager);
+        index.add("1.swap", new StandardSwapSummary(new QueueSize(1, 10L), 1L, Collections.emptyList()));
+
+        // Simulate NiFi being stopped part way through appending an entry
+        try (final OutputStream out = new FileOutputStream(indexFile, true)) {
+            out.write(new byte[] {1, 0, 6, '2', '.'});
+        }
+
+        final Map<String, SwapSummary> recovered = new SwapIndex(indexFile, claimManager).recover(new HashSet<>(Arrays.asList("1.swap", "2.swap")));
+        assertEquals(Collections.singleton("1.swap"), recovered.keySet());
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        final SwapIndex index = new SwapIndex(indexFile, claimManager);
+        index.add("keep.swap", new StandardSwapSummary(new QueueSize(1, 10L), 1L, Collections.emptyList()));
+
+        for (int i = 0; i < 2000; i++) {
+            index.add(i + ".swap", new StandardSwapSummary(new QueueSize(1, 10L), (long) i, Collections.emptyList()));
+            index.remove(i + ".swap");
+        }
+
+        // Compaction should have kept the index from growing in proportion to the number of swap files that have been written
+        assertTrue(indexFile.length() < 50_000L);
+        assertEquals(Collections.singleton("keep.swap"), new SwapIndex(indexFile, claimManager).recover(Collections.singleton("keep.swap")).keySet());
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * <p>
+ * An immutable Map of FlowFile attributes that is intended to use far less heap than a HashMap for FlowFiles that sit in a queue for
+ * some time. Attribute keys are shared with every other CompactAttributeMap via a dictionary, as most FlowFiles in a flow carry the
+ * same attribute names, and all of the values are packed into a single UTF-8 encoded byte array. There are no per-entry objects, and
+ * a value is only turned back into a String when it is requested.
+ * </p>
+ *
+ * <p>
+ * Lookups are performed by scanning the keys, so this Map is not intended for FlowFiles that are being actively modified; those are
+ * expected to copy the attributes into a HashMap first, as {@link StandardFlowFileRecord.Builder} does.
+ * </p>
+ */
+public final class CompactAttributeMap extends AbstractMap<String, String> {
+    private static final int MAX_DICTIONARY_SIZE = 16384;
+    private static final ConcurrentMap<String, String> keyDictionary = new ConcurrentHashMap<>();
+
+    private final String[] keys;
+    private final int[] valueEndOffsets;
+    private final byte[] values;
+
+    private CompactAttributeMap(final String[] keys, final int[] valueEndOffsets, final byte[] values) {
+        this.keys = keys;
+        this.valueEndOffsets = valueEndOffsets;
+        this.values = values;
+    }
+
+    /**
+     * Creates a CompactAttributeMap that contains the same entries as the given Map. Any entry whose key or value is <code>null</code> is ignored.
+     *
+     * @param attributes the attributes to copy
+     * @return a CompactAttributeMap with the given attributes
+     */
+    public static CompactAttributeMap of(final Map<String, String> attributes) {
+        if (attributes instanceof CompactAttributeMap) {
+            return (CompactAttributeMap) attributes;
+        }
+
+        final String[] keys = new String[attributes.size()];
+        final byte[][] encodedValues = new byte[attributes.size()][];
+
+        int count = 0;
+        int totalLength = 0;
+        for (final Map.Entry<String, String> entry : attributes.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                continue;
+            }
+
+            keys[count] = dictionaryKey(entry.getKey());
+            encodedValues[count] = entry.getValue().getBytes(StandardCharsets.UTF_8);
+            totalLength += encodedValues[count].length;
+            count++;
+        }
+
+        final String[] compactKeys = count == keys.length ? keys : Arrays.copyOf(keys, count);
+        final int[] valueEndOffsets = new int[count];
+        final byte[] values = new byte[totalLength];
+
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(encodedValues[i], 0, values, offset, encodedValues[i].length);
+            offset += encodedValues[i].length;
+            valueEndOffsets[i] = offset;
+        }
+
+        return new CompactAttributeMap(compactKeys, valueEndOffsets, values);
+    }
+
+    private static String dictionaryKey(final String key) {
+        final String existing = keyDictionary.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        // Attribute names are usually drawn from a small set, but if a flow generates unique names then we do not want to hold onto
+        // all of them forever, so once the dictionary is full, any new key is simply held by the map that uses it.
+        if (keyDictionary.size() >= MAX_DICTIONARY_SIZE) {
+            return key;
+        }
+
+        final String previous = keyDictionary.putIfAbsent(key, key);
+        return previous == null ? key : previous;
+    }
+
+    private int indexOf(final Object key) {
+        if (key == null) {
+            return -1;
+        }
+
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i].equals(key)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private String getValue(final int index) {
+        final int start = index == 0 ? 0 : valueEndOffsets[index - 1];
+        return new String(values, start, valueEndOffsets[index] - start, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String get(final Object key) {
+        final int index = indexOf(key);
+        return index < 0 ? null : getValue(index);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    @Override
+    public Set<Map.Entry<String, String>> entrySet() {
+        return new AbstractSet<Map.Entry<String, String>>() {
+            @Override
+            public Iterator<Map.Entry<String, String>> iterator() {
+                return new Iterator<Map.Entry<String, String>>() {
+                    private int index = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < keys.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, String> next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+
+                        final Map.Entry<String, String> entry = new SimpleImmutableEntry<>(keys[index], getValue(index));
+                        index++;
+                        return entry;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+}
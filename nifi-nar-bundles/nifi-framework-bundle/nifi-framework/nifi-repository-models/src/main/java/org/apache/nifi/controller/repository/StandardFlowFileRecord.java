@@ -43,6 +43,13 @@ import org.apache.nifi.flowfile.attributes.CoreAttributes;
  */
 public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
 
+    /**
+     * System Property that, when set to <code>true</code>, causes the attributes of FlowFiles that are enqueued or restored from
+     * the FlowFile Repository or a swap file to be held in a {@link CompactAttributeMap} rather than a HashMap.
+     */
+    public static final String COMPACT_ATTRIBUTES_PROPERTY = "nifi.flowfile.attributes.compact";
+    private static final boolean COMPACT_ATTRIBUTES = Boolean.getBoolean(COMPACT_ATTRIBUTES_PROPERTY);
+
     private final long id;
     private final long entryDate;
     private final long lineageStartDate;
@@ -57,7 +64,14 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
 
     private StandardFlowFileRecord(final Builder builder) {
         this.id = builder.bId;
-        this.attributes = builder.bAttributes == null ? Collections.emptyMap() : builder.bAttributes;
+        if (builder.bAttributes == null) {
+            this.attributes = Collections.emptyMap();
+        } else if (builder.bCompactAttributes && COMPACT_ATTRIBUTES) {
+            this.attributes = CompactAttributeMap.of(builder.bAttributes);
+        } else {
+            this.attributes = builder.bAttributes;
+        }
+
         this.entryDate = builder.bEntryDate;
         this.lineageStartDate = builder.bLineageStartDate;
         this.lineageStartIndex = builder.bLineageStartIndex;
@@ -69,6 +83,13 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
         this.queueDateIndex = builder.bQueueDateIndex;
     }
 
+    /**
+     * @return <code>true</code> if the {@link #COMPACT_ATTRIBUTES_PROPERTY} System Property is enabled
+     */
+    public static boolean isCompactAttributesEnabled() {
+        return COMPACT_ATTRIBUTES;
+    }
+
     @Override
     public long getId() {
         return id;
@@ -182,6 +203,7 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
         private long bQueueDateIndex = 0L;
         private Map<String, String> bAttributes;
         private boolean bAttributesCopied = false;
+        private boolean bCompactAttributes = false;
 
         public Builder id(final long id) {
             bId = id;
@@ -308,6 +330,17 @@ public final class StandardFlowFileRecord implements FlowFile, FlowFileRecord {
             return this;
         }
 
+        /**
+         * Indicates that the FlowFile being built is expected to remain in a queue rather than be modified further, so its attributes
+         * should be stored compactly if the {@link StandardFlowFileRecord#COMPACT_ATTRIBUTES_PROPERTY} System Property is enabled.
+         *
+         * @return this Builder
+         */
+        public Builder compactAttributes() {
+            this.bCompactAttributes = true;
+            return this;
+        }
+
         public Builder fromFlowFile(final FlowFileRecord specFlowFile) {
             if (specFlowFile == null) {
                 return this;
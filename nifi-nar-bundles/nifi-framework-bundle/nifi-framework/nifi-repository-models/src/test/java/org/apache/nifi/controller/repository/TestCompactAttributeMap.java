@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.controller.repository;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestCompactAttributeMap {
+
+    @Test
+    public void testMatchesOriginalMap() {
+        final Map<String, String> attributes = new LinkedHashMap<>();
+        attributes.put("uuid", "1234-5678");
+        attributes.put("filename", "黃凱揚.txt");
+        attributes.put("empty", "");
+        attributes.put("ignored", null);
+
+        final Map<String, String> compact = CompactAttributeMap.of(attributes);
+        attributes.remove("ignored");
+
+        assertEquals(3, compact.size());
+        assertEquals(attributes, compact);
+        assertEquals(attributes, new HashMap<>(compact));
+        assertEquals(attributes.hashCode(), compact.hashCode());
+        assertEquals("黃凱揚.txt", compact.get("filename"));
+        assertEquals("", compact.get("empty"));
+        assertTrue(compact.containsKey("empty"));
+        assertFalse(compact.containsKey("ignored"));
+        assertNull(compact.get("missing"));
+        assertNull(compact.get(null));
+    }
+
+    @Test
+    public void testKeysShared() {
+        final Map<String, String> first = CompactAttributeMap.of(singleAttribute(new String("path"), "a"));
+        final Map<String, String> second = CompactAttributeMap.of(singleAttribute(new String("path"), "b"));
+
+        assertSame(first.keySet().iterator().next(), second.keySet().iterator().next());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        CompactAttributeMap.of(singleAttribute("path", "a")).put("path", "b");
+    }
+
+    private static Map<String, String> singleAttribute(final String key, final String value) {
+        final Map<String, String> map = new HashMap<>();
+        map.put(key, value);
+        return map;
+    }
+}
@@ -971,6 +971,18 @@ public interface NiFiServiceFacade {
      */
     ProcessGroupFlowEntity getProcessGroupFlow(String groupId);
 
+    /**
+     * Returns a value that changes whenever the configuration, status, or bulletins of the components, or the users, groups, and access
+     * policies change in a way that could change the flow returned by {@link #getProcessGroupFlow(String)}. The value is not specific to the
+     * group, so it may also change when the flow of the group does not. The status that a Remote Process Group retrieves from its target
+     * instance in the background is not captured. The value is only meaningful when compared with another value obtained from this instance
+     * for the same group.
+     *
+     * @param groupId group
+     * @return the modification stamp of the group's flow
+     */
+    long getProcessGroupFlowModificationStamp(String groupId);
+
     // ----------------------------------------
     // ProcessGroup methods
     // ----------------------------------------
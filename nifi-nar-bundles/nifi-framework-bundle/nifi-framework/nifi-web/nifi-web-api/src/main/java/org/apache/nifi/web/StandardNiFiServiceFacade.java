@@ -36,6 +36,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -392,6 +393,12 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
 
     private AuthorizableLookup authorizableLookup;
 
+    // incremented whenever a user, group, or access policy is modified, as that may change the permissions in a flow without a component revision update
+    private final AtomicLong authorizationsModificationCount = new AtomicLong();
+
+    // incremented whenever a drop request is created or deleted, as dropping FlowFiles changes the queued counts in a flow without any processing activity
+    private final AtomicLong flowFileQueueModificationCount = new AtomicLong();
+
     // -----------------------------------------
     // Synchronization methods
     // -----------------------------------------
@@ -632,6 +639,7 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
                 });
 
         final PermissionsDTO permissions = dtoFactory.createPermissionsDto(authorizable);
+        authorizationsModificationCount.incrementAndGet();
         return entityFactory.createAccessPolicyEntity(snapshot.getComponent(), dtoFactory.createRevisionDTO(snapshot.getLastModification()), permissions);
     }
 
@@ -650,6 +658,7 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
                 });
 
         final PermissionsDTO permissions = dtoFactory.createPermissionsDto(usersAuthorizable);
+        authorizationsModificationCount.incrementAndGet();
         return entityFactory.createUserEntity(snapshot.getComponent(), dtoFactory.createRevisionDTO(snapshot.getLastModification()), permissions);
     }
 
@@ -668,6 +677,7 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
         );
 
         final PermissionsDTO permissions = dtoFactory.createPermissionsDto(userGroupsAuthorizable);
+        authorizationsModificationCount.incrementAndGet();
         return entityFactory.createUserGroupEntity(snapshot.getComponent(), dtoFactory.createRevisionDTO(snapshot.getLastModification()), permissions);
     }
 
@@ -1552,7 +1562,9 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
 
     @Override
     public DropRequestDTO deleteFlowFileDropRequest(final String connectionId, final String dropRequestId) {
-        return dtoFactory.createDropRequestDTO(connectionDAO.deleteFlowFileDropRequest(connectionId, dropRequestId));
+        final DropRequestDTO dropRequest = dtoFactory.createDropRequestDTO(connectionDAO.deleteFlowFileDropRequest(connectionId, dropRequestId));
+        flowFileQueueModificationCount.incrementAndGet();
+        return dropRequest;
     }
 
     @Override
@@ -1643,6 +1655,7 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
                 false, // no user specific policies to remove
                 dtoFactory.createUserDto(user, userGroups, policyEntities));
 
+        authorizationsModificationCount.incrementAndGet();
         return entityFactory.createUserEntity(snapshot, null, permissions);
     }
 
@@ -1678,6 +1691,7 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
                 false, // no user group specific policies to remove
                 dtoFactory.createUserGroupDto(userGroup, users, policyEntities));
 
+        authorizationsModificationCount.incrementAndGet();
         return entityFactory.createUserGroupEntity(snapshot, null, permissions);
     }
 
@@ -1710,6 +1724,7 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
                 false, // no need to clean up any policies as it's already been removed above
                 dtoFactory.createAccessPolicyDto(accessPolicy, userGroups, users, componentReference));
 
+        authorizationsModificationCount.incrementAndGet();
         return entityFactory.createAccessPolicyEntity(snapshot, null, permissions);
     }
 
@@ -1952,7 +1967,9 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
 
     @Override
     public DropRequestDTO createFlowFileDropRequest(final String connectionId, final String dropRequestId) {
-        return dtoFactory.createDropRequestDTO(connectionDAO.createFlowFileDropRequest(connectionId, dropRequestId));
+        final DropRequestDTO dropRequest = dtoFactory.createDropRequestDTO(connectionDAO.createFlowFileDropRequest(connectionId, dropRequestId));
+        flowFileQueueModificationCount.incrementAndGet();
+        return dropRequest;
     }
 
     @Override
@@ -2071,6 +2088,7 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
                 }).collect(Collectors.toSet()), componentReference);
 
         final PermissionsDTO permissions = dtoFactory.createPermissionsDto(authorizableLookup.getAccessPolicyById(accessPolicyDTO.getId()));
+        authorizationsModificationCount.incrementAndGet();
         return entityFactory.createAccessPolicyEntity(newAccessPolicyDto, dtoFactory.createRevisionDTO(new FlowModification(revision, creator)), permissions);
     }
 
@@ -2085,6 +2103,7 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
         final UserDTO newUserDto = dtoFactory.createUserDto(newUser, tenantEntities, policyEntities);
 
         final PermissionsDTO permissions = dtoFactory.createPermissionsDto(authorizableLookup.getTenant());
+        authorizationsModificationCount.incrementAndGet();
         return entityFactory.createUserEntity(newUserDto, dtoFactory.createRevisionDTO(new FlowModification(revision, creator)), permissions);
     }
 
@@ -2131,6 +2150,7 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
         final UserGroupDTO newUserGroupDto = dtoFactory.createUserGroupDto(newUserGroup, tenantEntities, policyEntities);
 
         final PermissionsDTO permissions = dtoFactory.createPermissionsDto(authorizableLookup.getTenant());
+        authorizationsModificationCount.incrementAndGet();
         return entityFactory.createUserGroupEntity(newUserGroupDto, dtoFactory.createRevisionDTO(new FlowModification(revision, creator)), permissions);
     }
 
@@ -4095,6 +4115,21 @@ public class StandardNiFiServiceFacade implements NiFiServiceFacade {
         return entityFactory.createProcessGroupFlowEntity(dtoFactory.createProcessGroupFlowDto(processGroup, groupStatus, revisionManager, this::getProcessGroupBulletins), permissions);
     }
 
+    @Override
+    public long getProcessGroupFlowModificationStamp(final String groupId) {
+        final ProcessGroup processGroup = processGroupDAO.getProcessGroup(groupId);
+
+        // Any change made through the REST API updates a revision, so the number of revision updates captures every configuration change.
+        // Permissions may change with the users, groups, and policies, and the queued FlowFiles may be dropped, without a revision update.
+        // The status, validity, and version control state of the components are captured by the component status stamp of the controller.
+        long stamp = processGroup.getIdentifier().hashCode();
+        stamp = 31 * stamp + revisionManager.getRevisionUpdateCount();
+        stamp = 31 * stamp + authorizationsModificationCount.get();
+        stamp = 31 * stamp + flowFileQueueModificationCount.get();
+        stamp = 31 * stamp + controllerFacade.getComponentStatusStamp();
+        return stamp;
+    }
+
     @Override
     public ProcessGroupEntity getProcessGroup(final String groupId) {
         final ProcessGroup processGroup = processGroupDAO.getProcessGroup(groupId);
@@ -247,6 +247,20 @@ public abstract class ApplicationResource {
         return response.cacheControl(cacheControl);
     }
 
+    /**
+     * Edit the response headers to allow a client to store the response but require that it is revalidated
+     * before each use.
+     *
+     * @param response response
+     * @return builder
+     */
+    protected ResponseBuilder revalidate(final ResponseBuilder response) {
+        final CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        cacheControl.setNoCache(true);
+        return response.cacheControl(cacheControl);
+    }
+
     protected String generateUuid() {
         final Optional<String> seed = getIdGenerationSeed();
         UUID uuid;
@@ -16,6 +16,8 @@
  */
 package org.apache.nifi.web.api;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -32,6 +34,7 @@ import org.apache.nifi.authorization.user.NiFiUserUtils;
 import org.apache.nifi.bundle.Bundle;
 import org.apache.nifi.bundle.BundleDetails;
 import org.apache.nifi.cluster.coordination.ClusterCoordinator;
+import org.apache.nifi.cluster.coordination.http.replication.AsyncClusterResponse;
 import org.apache.nifi.cluster.coordination.node.NodeConnectionState;
 import org.apache.nifi.cluster.manager.NodeResponse;
 import org.apache.nifi.cluster.protocol.NodeIdentifier;
@@ -45,6 +48,7 @@ import org.apache.nifi.groups.ProcessGroup;
 import org.apache.nifi.nar.NarClassLoadersHolder;
 import org.apache.nifi.registry.client.NiFiRegistryException;
 import org.apache.nifi.util.NiFiProperties;
+import org.apache.nifi.util.Tuple;
 import org.apache.nifi.web.IllegalClusterResourceRequestException;
 import org.apache.nifi.web.NiFiServiceFacade;
 import org.apache.nifi.web.ResourceNotFoundException;
@@ -127,6 +131,8 @@ import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.text.Collator;
@@ -160,6 +166,8 @@ import static org.apache.nifi.web.api.entity.ScheduleComponentsEntity.STATE_ENAB
 public class FlowResource extends ApplicationResource {
 
     private static final String RECURSIVE = "false";
+    private static final int MAX_CACHED_FLOWS = 100;
+    private static final String COMBINED_TAG_SEPARATOR = ".";
 
     private NiFiServiceFacade serviceFacade;
     private Authorizer authorizer;
@@ -176,10 +184,20 @@ public class FlowResource extends ApplicationResource {
     private ControllerServiceResource controllerServiceResource;
     private ReportingTaskResource reportingTaskResource;
 
+    private Cache<Tuple<List<Object>, String>, CachedFlow> flowCache;
+
     public FlowResource() {
         super();
     }
 
+    @Override
+    public void setProperties(final NiFiProperties properties) {
+        super.setProperties(properties);
+
+        // cached flows are replaced once the modification stamp of their group changes, so they only need to be bounded in number
+        flowCache = properties.isWebFlowCacheEnabled() ? CacheBuilder.newBuilder().maximumSize(MAX_CACHED_FLOWS).build() : null;
+    }
+
     /**
      * Populates the remaining fields in the specified process group.
      *
@@ -372,13 +390,211 @@ public class FlowResource extends ApplicationResource {
         authorizeFlow();
 
         if (isReplicateRequest()) {
-            return replicate(HttpMethod.GET);
+            return replicateFlowRequest();
+        }
+
+        // determine the modification stamp before creating the flow, so a concurrent modification results in a different tag on the next request
+        final long modificationStamp = serviceFacade.getProcessGroupFlowModificationStamp(groupId);
+        final List<Object> userChainKey = getUserChainKey(NiFiUserUtils.getNiFiUser());
+
+        final EntityTag entityTag = getEntityTag(modificationStamp, userChainKey);
+        if (isNotModified(entityTag)) {
+            return revalidate(Response.notModified(entityTag)).build();
+        }
+
+        final ProcessGroupFlowEntity entity = getProcessGroupFlow(groupId, modificationStamp, userChainKey);
+        return revalidate(Response.ok(entity)).tag(entityTag).build();
+    }
+
+    /**
+     * Gets the flow of the specified process group for the current user. The flow is reused from the cache, if enabled, when it was created for
+     * the current user with the same modification stamp.
+     *
+     * @param groupId group id
+     * @param modificationStamp the modification stamp of the group's flow
+     * @param userChainKey the key of the current user
+     * @return the flow
+     */
+    private ProcessGroupFlowEntity getProcessGroupFlow(final String groupId, final long modificationStamp, final List<Object> userChainKey) {
+        final Tuple<List<Object>, String> key = new Tuple<>(userChainKey, groupId);
+        final CachedFlow cachedFlow = flowCache == null ? null : flowCache.getIfPresent(key);
+        if (cachedFlow != null && cachedFlow.getModificationStamp() == modificationStamp) {
+            return cachedFlow.getEntity();
         }
 
-        // get this process group flow
         final ProcessGroupFlowEntity entity = serviceFacade.getProcessGroupFlow(groupId);
         populateRemainingFlowContent(entity.getProcessGroupFlow());
-        return generateOkResponse(entity).build();
+
+        if (flowCache != null) {
+            flowCache.put(key, new CachedFlow(entity, modificationStamp));
+        }
+
+        return entity;
+    }
+
+    /**
+     * Creates the entity tag of a flow. The flow depends on the permissions of the user, so the tag differs between users even when the
+     * modification stamp does not. The cluster coordinator combines the tags of the nodes, so the tag of a connected node also differs
+     * from those of the other nodes.
+     *
+     * @param modificationStamp the modification stamp of the group's flow
+     * @param userChainKey the key of the current user
+     * @return the entity tag
+     */
+    private EntityTag getEntityTag(final long modificationStamp, final List<Object> userChainKey) {
+        long tag = 31 * modificationStamp + userChainKey.hashCode();
+        if (isConnectedToCluster()) {
+            tag = 31 * tag + getClusterCoordinator().getLocalNodeIdentifier().getId().hashCode();
+        }
+
+        return new EntityTag(Long.toHexString(tag));
+    }
+
+    /**
+     * Replicates the request for a flow to the nodes in the cluster. The tag of the merged flow combines the tags of the flows of the nodes, so
+     * each node determines whether its own flow has been modified and the flows are only merged when the flow of any node has been.
+     *
+     * @return the response
+     * @throws InterruptedException if interrupted while replicating the request
+     */
+    private Response replicateFlowRequest() throws InterruptedException {
+        // only the cluster coordinator has the responses of the individual nodes, so any other node forwards the request to it
+        if (getReplicationTarget() != ReplicationTarget.CLUSTER_NODES) {
+            return replicate(HttpMethod.GET);
+        }
+
+        final Map<String, String> headers = getHeaders();
+        AsyncClusterResponse clusterResponse = replicateFlowRequest(headers);
+        Set<NodeResponse> nodeResponses = clusterResponse.getCompletedNodeResponses();
+
+        final long notModifiedCount = nodeResponses.stream().filter(nodeResponse -> nodeResponse.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode()).count();
+        if (notModifiedCount > 0 && notModifiedCount == nodeResponses.size()) {
+            final EntityTag entityTag = getCombinedEntityTag(nodeResponses);
+            if (entityTag != null) {
+                return revalidate(Response.notModified(entityTag)).build();
+            }
+        }
+
+        // the flows of all nodes are needed to merge the flows, so request them again when the flows of only some nodes have been modified
+        if (notModifiedCount > 0) {
+            nodeResponses.stream().filter(NodeResponse::is2xx).forEach(nodeResponse -> nodeResponse.getClientResponse().close());
+            headers.keySet().removeIf(HttpHeaders.IF_NONE_MATCH::equalsIgnoreCase);
+
+            clusterResponse = replicateFlowRequest(headers);
+            nodeResponses = clusterResponse.getCompletedNodeResponses();
+        }
+
+        final Response mergedResponse = clusterResponse.awaitMergedResponse().getResponse();
+        final EntityTag entityTag = getCombinedEntityTag(nodeResponses);
+        if (mergedResponse.getStatus() != Response.Status.OK.getStatusCode() || entityTag == null) {
+            return mergedResponse;
+        }
+
+        return Response.fromResponse(mergedResponse).tag(entityTag).build();
+    }
+
+    private AsyncClusterResponse replicateFlowRequest(final Map<String, String> headers) throws InterruptedException {
+        final AsyncClusterResponse clusterResponse = getRequestReplicator().replicate(HttpMethod.GET, getAbsolutePath(), getRequestParameters(), headers);
+        clusterResponse.awaitMergedResponse();
+        return clusterResponse;
+    }
+
+    /**
+     * Combines the entity tags of the specified node responses, ordered by node, into a single entity tag.
+     *
+     * @param nodeResponses the node responses
+     * @return the combined entity tag, or null if any node response does not have an entity tag
+     */
+    private EntityTag getCombinedEntityTag(final Set<NodeResponse> nodeResponses) {
+        final List<NodeResponse> orderedResponses = new ArrayList<>(nodeResponses);
+        orderedResponses.sort(Comparator.comparing(nodeResponse -> nodeResponse.getNodeId().getId()));
+
+        final List<String> tags = new ArrayList<>();
+        for (final NodeResponse nodeResponse : orderedResponses) {
+            final Response clientResponse = nodeResponse.getClientResponse();
+            final String tag = clientResponse == null ? null : clientResponse.getHeaderString(HttpHeaders.ETAG);
+            if (StringUtils.isBlank(tag)) {
+                return null;
+            }
+
+            tags.add(getTagValue(tag));
+        }
+
+        return new EntityTag(StringUtils.join(tags, COMBINED_TAG_SEPARATOR));
+    }
+
+    /**
+     * Creates a key that identifies the specified user for the purposes of authorization. The permissions in a flow depend on every user in the
+     * proxy chain, including their groups and client address, so the identity of the end user alone does not identify the flow.
+     *
+     * @param user the user
+     * @return the key
+     */
+    private List<Object> getUserChainKey(final NiFiUser user) {
+        final List<Object> key = new ArrayList<>();
+        for (NiFiUser chainedUser = user; chainedUser != null; chainedUser = chainedUser.getChain()) {
+            key.add(chainedUser.getIdentity());
+            key.add(chainedUser.isAnonymous());
+            key.add(chainedUser.getGroups());
+            key.add(chainedUser.getClientAddress());
+        }
+        return key;
+    }
+
+    /**
+     * Determines whether the If-None-Match header of the current request matches the specified entity tag.
+     *
+     * @param entityTag the entity tag of the current representation
+     * @return whether the client already has the current representation
+     */
+    private boolean isNotModified(final EntityTag entityTag) {
+        final String ifNoneMatch = httpServletRequest.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (StringUtils.isBlank(ifNoneMatch)) {
+            return false;
+        }
+
+        for (final String candidate : ifNoneMatch.split(",")) {
+            final String tag = candidate.trim();
+            if ("*".equals(tag)) {
+                return true;
+            }
+
+            // the tag may have been combined with the tags of the other nodes in the cluster, in which case this node only checks its own
+            for (final String nodeTag : StringUtils.split(getTagValue(tag), COMBINED_TAG_SEPARATOR)) {
+                if (entityTag.getValue().equals(nodeTag)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private String getTagValue(final String tag) {
+        // weak comparison is sufficient for a GET request
+        final String strongTag = tag.startsWith("W/") ? tag.substring(2) : tag;
+        return StringUtils.removeEnd(StringUtils.removeStart(strongTag, "\""), "\"");
+    }
+
+    /**
+     * A process group flow created for a specific user.
+     */
+    private static class CachedFlow {
+        private final ProcessGroupFlowEntity entity;
+        private final long modificationStamp;
+
+        private CachedFlow(final ProcessGroupFlowEntity entity, final long modificationStamp) {
+            this.entity = entity;
+            this.modificationStamp = modificationStamp;
+        }
+
+        private ProcessGroupFlowEntity getEntity() {
+            return entity;
+        }
+
+        private long getModificationStamp() {
+            return modificationStamp;
+        }
     }
 
     // -------------------
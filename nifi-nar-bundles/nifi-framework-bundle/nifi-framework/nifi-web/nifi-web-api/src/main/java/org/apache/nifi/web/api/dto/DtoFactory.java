@@ -2354,16 +2354,32 @@ public final class DtoFactory {
         return statusDTO;
     }
 
+    private <S> Map<String, S> indexStatusById(final Collection<S> statuses, final Function<S, String> getId) {
+        final Map<String, S> statusById = new HashMap<>(statuses.size());
+        for (final S status : statuses) {
+            statusById.putIfAbsent(getId.apply(status), status);
+        }
+        return statusById;
+    }
+
     public FlowDTO createFlowDto(final ProcessGroup group, final ProcessGroupStatus groupStatus, final RevisionManager revisionManager,
                                  final Function<ProcessGroup, List<BulletinEntity>> getProcessGroupBulletins) {
         final FlowDTO dto = new FlowDTO();
 
+        // index the status of each component up front, rather than searching all of the group's statuses for every component
+        final Map<String, ProcessorStatus> processorStatuses = indexStatusById(groupStatus.getProcessorStatus(), ProcessorStatus::getId);
+        final Map<String, ConnectionStatus> connectionStatuses = indexStatusById(groupStatus.getConnectionStatus(), ConnectionStatus::getId);
+        final Map<String, ProcessGroupStatus> processGroupStatuses = indexStatusById(groupStatus.getProcessGroupStatus(), ProcessGroupStatus::getId);
+        final Map<String, RemoteProcessGroupStatus> remoteProcessGroupStatuses = indexStatusById(groupStatus.getRemoteProcessGroupStatus(), RemoteProcessGroupStatus::getId);
+        final Map<String, PortStatus> inputPortStatuses = indexStatusById(groupStatus.getInputPortStatus(), PortStatus::getId);
+        final Map<String, PortStatus> outputPortStatuses = indexStatusById(groupStatus.getOutputPortStatus(), PortStatus::getId);
+
         for (final ProcessorNode procNode : group.getProcessors()) {
             final RevisionDTO revision = createRevisionDTO(revisionManager.getRevision(procNode.getIdentifier()));
             final PermissionsDTO permissions = createPermissionsDto(procNode);
             final PermissionsDTO operatePermissions = createPermissionsDto(new OperationAuthorizable(procNode));
             final ProcessorStatusDTO status = getComponentStatus(
-                () -> groupStatus.getProcessorStatus().stream().filter(processorStatus -> procNode.getIdentifier().equals(processorStatus.getId())).findFirst().orElse(null),
+                () -> processorStatuses.get(procNode.getIdentifier()),
                 processorStatus -> createProcessorStatusDto(processorStatus)
             );
             final List<BulletinDTO> bulletins = createBulletinDtos(bulletinRepository.findBulletinsForSource(procNode.getIdentifier()));
@@ -2375,7 +2391,7 @@ public final class DtoFactory {
             final RevisionDTO revision = createRevisionDTO(revisionManager.getRevision(connNode.getIdentifier()));
             final PermissionsDTO permissions = createPermissionsDto(connNode);
             final ConnectionStatusDTO status = getComponentStatus(
-                () -> groupStatus.getConnectionStatus().stream().filter(connectionStatus -> connNode.getIdentifier().equals(connectionStatus.getId())).findFirst().orElse(null),
+                () -> connectionStatuses.get(connNode.getIdentifier()),
                 connectionStatus -> createConnectionStatusDto(connectionStatus)
             );
             dto.getConnections().add(entityFactory.createConnectionEntity(createConnectionDto(connNode), revision, permissions, status));
@@ -2397,7 +2413,7 @@ public final class DtoFactory {
             final RevisionDTO revision = createRevisionDTO(revisionManager.getRevision(childGroup.getIdentifier()));
             final PermissionsDTO permissions = createPermissionsDto(childGroup);
             final ProcessGroupStatusDTO status = getComponentStatus(
-                () -> groupStatus.getProcessGroupStatus().stream().filter(processGroupStatus -> childGroup.getIdentifier().equals(processGroupStatus.getId())).findFirst().orElse(null),
+                () -> processGroupStatuses.get(childGroup.getIdentifier()),
                 processGroupStatus -> createConciseProcessGroupStatusDto(processGroupStatus)
             );
             final List<BulletinEntity> bulletins = getProcessGroupBulletins.apply(childGroup);
@@ -2409,7 +2425,7 @@ public final class DtoFactory {
             final PermissionsDTO permissions = createPermissionsDto(rpg);
             final PermissionsDTO operatePermissions = createPermissionsDto(new OperationAuthorizable(rpg));
             final RemoteProcessGroupStatusDTO status = getComponentStatus(
-                () -> groupStatus.getRemoteProcessGroupStatus().stream().filter(remoteProcessGroupStatus -> rpg.getIdentifier().equals(remoteProcessGroupStatus.getId())).findFirst().orElse(null),
+                () -> remoteProcessGroupStatuses.get(rpg.getIdentifier()),
                 remoteProcessGroupStatus -> createRemoteProcessGroupStatusDto(rpg, remoteProcessGroupStatus)
             );
             final List<BulletinDTO> bulletins = createBulletinDtos(bulletinRepository.findBulletinsForSource(rpg.getIdentifier()));
@@ -2422,7 +2438,7 @@ public final class DtoFactory {
             final PermissionsDTO permissions = createPermissionsDto(inputPort);
             final PermissionsDTO operatePermissions = createPermissionsDto(new OperationAuthorizable(inputPort));
             final PortStatusDTO status = getComponentStatus(
-                () -> groupStatus.getInputPortStatus().stream().filter(inputPortStatus -> inputPort.getIdentifier().equals(inputPortStatus.getId())).findFirst().orElse(null),
+                () -> inputPortStatuses.get(inputPort.getIdentifier()),
                 inputPortStatus -> createPortStatusDto(inputPortStatus)
             );
             final List<BulletinDTO> bulletins = createBulletinDtos(bulletinRepository.findBulletinsForSource(inputPort.getIdentifier()));
@@ -2435,7 +2451,7 @@ public final class DtoFactory {
             final PermissionsDTO permissions = createPermissionsDto(outputPort);
             final PermissionsDTO operatePermissions = createPermissionsDto(new OperationAuthorizable(outputPort));
             final PortStatusDTO status = getComponentStatus(
-                () -> groupStatus.getOutputPortStatus().stream().filter(outputPortStatus -> outputPort.getIdentifier().equals(outputPortStatus.getId())).findFirst().orElse(null),
+                () -> outputPortStatuses.get(outputPort.getIdentifier()),
                 outputPortStatus -> createPortStatusDto(outputPortStatus)
             );
             final List<BulletinDTO> bulletins = createBulletinDtos(bulletinRepository.findBulletinsForSource(outputPort.getIdentifier()));
@@ -3336,18 +3352,16 @@ public final class DtoFactory {
         final List<LineageNode> nodes = results.getNodes();
         final List<LineageEdge> edges = results.getEdges();
 
+        // create the node dto's. if the computation is still running, these are the nodes that have been found so far
         final List<ProvenanceNodeDTO> nodeDtos = new ArrayList<>();
-        if (results.isFinished()) {
-            // create the node dto's
-            for (final LineageNode node : nodes) {
-                switch (node.getNodeType()) {
-                    case FLOWFILE_NODE:
-                        nodeDtos.add(createFlowFileNodeDTO(node));
-                        break;
-                    case PROVENANCE_EVENT_NODE:
-                        nodeDtos.add(createProvenanceEventNodeDTO((ProvenanceEventLineageNode) node));
-                        break;
-                }
+        for (final LineageNode node : nodes) {
+            switch (node.getNodeType()) {
+                case FLOWFILE_NODE:
+                    nodeDtos.add(createFlowFileNodeDTO(node));
+                    break;
+                case PROVENANCE_EVENT_NODE:
+                    nodeDtos.add(createProvenanceEventNodeDTO((ProvenanceEventLineageNode) node));
+                    break;
             }
         }
         resultsDto.setNodes(nodeDtos);
@@ -425,6 +425,15 @@ public class ControllerFacade implements Authorizable {
         return getRootGroup().getComments();
     }
 
+    /**
+     * Gets a value that changes whenever the status of the components in the flow may have changed without their configuration being modified.
+     *
+     * @return stamp
+     */
+    public long getComponentStatusStamp() {
+        return flowController.getComponentStatusStamp();
+    }
+
     /**
      * Gets the max timer driven thread count of this controller.
      *
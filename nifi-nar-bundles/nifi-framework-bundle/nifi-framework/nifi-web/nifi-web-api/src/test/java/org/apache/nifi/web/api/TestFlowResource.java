@@ -0,0 +1,387 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.web.api;
+
+import org.apache.nifi.authorization.user.NiFiUser;
+import org.apache.nifi.authorization.user.NiFiUserDetails;
+import org.apache.nifi.authorization.user.StandardNiFiUser.Builder;
+import org.apache.nifi.cluster.coordination.ClusterCoordinator;
+import org.apache.nifi.cluster.coordination.http.replication.AsyncClusterResponse;
+import org.apache.nifi.cluster.coordination.http.replication.RequestReplicator;
+import org.apache.nifi.cluster.manager.NodeResponse;
+import org.apache.nifi.cluster.protocol.NodeIdentifier;
+import org.apache.nifi.controller.FlowController;
+import org.apache.nifi.util.NiFiProperties;
+import org.apache.nifi.web.NiFiServiceFacade;
+import org.apache.nifi.web.api.dto.flow.ProcessGroupFlowDTO;
+import org.apache.nifi.web.api.entity.ProcessGroupFlowEntity;
+import org.apache.nifi.web.security.token.NiFiAuthenticationToken;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TestFlowResource {
+    private static final String GROUP_ID = "group-id";
+    private static final NodeIdentifier NODE_1 = new NodeIdentifier("node-1", "localhost", 8080, "localhost", 8081, "localhost", 8082, null, false);
+    private static final NodeIdentifier NODE_2 = new NodeIdentifier("node-2", "localhost", 9080, "localhost", 9081, "localhost", 9082, null, false);
+    private static final String FLOW_URI = "http://localhost:8080/nifi-api/flow/process-groups/" + GROUP_ID;
+
+    private NiFiServiceFacade serviceFacade;
+    private HttpServletRequest request;
+    private UriInfo uriInfo;
+    private AtomicLong modificationStamp;
+    private ClusterCoordinator clusterCoordinator;
+    private RequestReplicator requestReplicator;
+    private FlowController flowController;
+
+    @Before
+    public void setup() {
+        modificationStamp = new AtomicLong();
+
+        serviceFacade = mock(NiFiServiceFacade.class);
+        when(serviceFacade.getProcessGroupFlowModificationStamp(anyString())).thenAnswer(invocation -> modificationStamp.get());
+        when(serviceFacade.getProcessGroupFlow(anyString())).thenAnswer(invocation -> {
+            final ProcessGroupFlowDTO flow = new ProcessGroupFlowDTO();
+            flow.setId(invocation.getArgument(0));
+
+            final ProcessGroupFlowEntity entity = new ProcessGroupFlowEntity();
+            entity.setProcessGroupFlow(flow);
+            return entity;
+        });
+
+        request = mock(HttpServletRequest.class);
+        when(request.getHeaderNames()).thenAnswer(invocation -> Collections.enumeration(getHeaderNames()));
+        when(request.getParameterMap()).thenReturn(Collections.emptyMap());
+
+        uriInfo = mock(UriInfo.class);
+        when(uriInfo.getAbsolutePath()).thenReturn(URI.create(FLOW_URI));
+
+        flowController = mock(FlowController.class);
+        when(flowController.isInitialized()).thenReturn(true);
+
+        setUser(new Builder().identity("user-1").build());
+    }
+
+    @After
+    public void teardown() {
+        SecurityContextHolder.getContext().setAuthentication(null);
+    }
+
+    private List<String> getHeaderNames() {
+        final List<String> headerNames = new ArrayList<>();
+        for (final String headerName : Arrays.asList(HttpHeaders.IF_NONE_MATCH, RequestReplicator.REPLICATION_INDICATOR_HEADER)) {
+            if (request.getHeader(headerName) != null) {
+                headerNames.add(headerName);
+            }
+        }
+        return headerNames;
+    }
+
+    private void setUser(final NiFiUser user) {
+        SecurityContextHolder.getContext().setAuthentication(new NiFiAuthenticationToken(new NiFiUserDetails(user)));
+    }
+
+    private FlowResource createFlowResource(final boolean cacheEnabled) {
+        final FlowResource resource = new FlowResource() {
+            @Override
+            protected String generateResourceUri(final String... path) {
+                return "http://localhost:8080/nifi-api/" + String.join("/", path);
+            }
+        };
+
+        final NiFiProperties properties = mock(NiFiProperties.class);
+        when(properties.isWebFlowCacheEnabled()).thenReturn(cacheEnabled);
+        when(properties.isNode()).thenReturn(clusterCoordinator != null);
+
+        resource.setProperties(properties);
+        resource.setServiceFacade(serviceFacade);
+        resource.setClusterCoordinator(clusterCoordinator);
+        resource.setRequestReplicator(requestReplicator);
+        resource.setFlowController(flowController);
+        resource.httpServletRequest = request;
+        resource.uriInfo = uriInfo;
+        return resource;
+    }
+
+    @Test
+    public void testFlowReusedForSameUser() throws InterruptedException {
+        final FlowResource resource = createFlowResource(true);
+
+        final Response first = resource.getFlow(GROUP_ID);
+        final Response second = resource.getFlow(GROUP_ID);
+
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+        assertSame(first.getEntity(), second.getEntity());
+        assertEquals(first.getEntityTag(), second.getEntityTag());
+        verify(serviceFacade, times(1)).getProcessGroupFlow(GROUP_ID);
+    }
+
+    @Test
+    public void testFlowRecreatedWhenModified() throws InterruptedException {
+        final FlowResource resource = createFlowResource(true);
+
+        final Response first = resource.getFlow(GROUP_ID);
+        modificationStamp.incrementAndGet();
+        final Response second = resource.getFlow(GROUP_ID);
+
+        assertNotSame(first.getEntity(), second.getEntity());
+        verify(serviceFacade, times(2)).getProcessGroupFlow(GROUP_ID);
+    }
+
+    @Test
+    public void testFlowNotSharedAcrossUsers() throws InterruptedException {
+        final FlowResource resource = createFlowResource(true);
+
+        final Response first = resource.getFlow(GROUP_ID);
+        setUser(new Builder().identity("user-2").build());
+        final Response second = resource.getFlow(GROUP_ID);
+
+        assertNotSame(first.getEntity(), second.getEntity());
+        verify(serviceFacade, times(2)).getProcessGroupFlow(GROUP_ID);
+    }
+
+    @Test
+    public void testFlowNotSharedAcrossProxyChains() throws InterruptedException {
+        final FlowResource resource = createFlowResource(true);
+
+        final Response direct = resource.getFlow(GROUP_ID);
+
+        setUser(new Builder().identity("user-1").chain(new Builder().identity("proxy-1").build()).build());
+        final Response proxied = resource.getFlow(GROUP_ID);
+
+        setUser(new Builder().identity("user-1").chain(new Builder().identity("proxy-2").build()).build());
+        final Response otherProxy = resource.getFlow(GROUP_ID);
+
+        assertNotSame(direct.getEntity(), proxied.getEntity());
+        assertNotSame(proxied.getEntity(), otherProxy.getEntity());
+        verify(serviceFacade, times(3)).getProcessGroupFlow(GROUP_ID);
+    }
+
+    @Test
+    public void testFlowNotSharedAcrossGroups() throws InterruptedException {
+        final FlowResource resource = createFlowResource(true);
+
+        setUser(new Builder().identity("user-1").groups(Collections.singleton("group-1")).build());
+        final Response first = resource.getFlow(GROUP_ID);
+
+        setUser(new Builder().identity("user-1").groups(Collections.singleton("group-2")).build());
+        final Response second = resource.getFlow(GROUP_ID);
+
+        assertNotSame(first.getEntity(), second.getEntity());
+        verify(serviceFacade, times(2)).getProcessGroupFlow(GROUP_ID);
+    }
+
+    @Test
+    public void testNotModified() throws InterruptedException {
+        final FlowResource resource = createFlowResource(true);
+
+        final Response first = resource.getFlow(GROUP_ID);
+        assertEquals(200, first.getStatus());
+        assertNotNull(first.getEntityTag());
+
+        when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("\"" + first.getEntityTag().getValue() + "\"");
+        final Response notModified = resource.getFlow(GROUP_ID);
+        assertEquals(304, notModified.getStatus());
+        assertNull(notModified.getEntity());
+        assertEquals(first.getEntityTag(), notModified.getEntityTag());
+
+        // once the flow has been modified, the client's copy is out of date
+        modificationStamp.incrementAndGet();
+        final Response modified = resource.getFlow(GROUP_ID);
+        assertEquals(200, modified.getStatus());
+        assertNotNull(modified.getEntity());
+    }
+
+    @Test
+    public void testNotModifiedRequiresMatchingTag() throws InterruptedException {
+        final FlowResource resource = createFlowResource(true);
+
+        resource.getFlow(GROUP_ID);
+
+        when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("\"some-other-tag\", W/\"another-tag\"");
+        final Response response = resource.getFlow(GROUP_ID);
+        assertEquals(200, response.getStatus());
+        assertNotNull(response.getEntity());
+    }
+
+    @Test
+    public void testCacheDisabled() throws InterruptedException {
+        final FlowResource resource = createFlowResource(false);
+
+        final Response first = resource.getFlow(GROUP_ID);
+        final Response second = resource.getFlow(GROUP_ID);
+
+        assertNotSame(first.getEntity(), second.getEntity());
+        verify(serviceFacade, times(2)).getProcessGroupFlow(GROUP_ID);
+
+        // conditional requests are supported without the cache
+        assertNotNull(first.getEntityTag());
+        assertEquals(first.getEntityTag(), second.getEntityTag());
+
+        when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("\"" + first.getEntityTag().getValue() + "\"");
+        final Response notModified = resource.getFlow(GROUP_ID);
+        assertEquals(304, notModified.getStatus());
+        verify(serviceFacade, times(2)).getProcessGroupFlow(GROUP_ID);
+    }
+
+    @Test
+    public void testEntityTagDerivedFromModificationStamp() throws InterruptedException {
+        final Response first = createFlowResource(true).getFlow(GROUP_ID);
+        final Response second = createFlowResource(true).getFlow(GROUP_ID);
+        assertEquals(first.getEntityTag(), second.getEntityTag());
+
+        modificationStamp.incrementAndGet();
+        final Response modified = createFlowResource(true).getFlow(GROUP_ID);
+        assertNotEquals(first.getEntityTag(), modified.getEntityTag());
+    }
+
+    @Test
+    public void testNotModifiedRequiresSameUser() throws InterruptedException {
+        final FlowResource resource = createFlowResource(false);
+
+        final Response first = resource.getFlow(GROUP_ID);
+        when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("\"" + first.getEntityTag().getValue() + "\"");
+
+        setUser(new Builder().identity("user-2").build());
+        final Response response = resource.getFlow(GROUP_ID);
+        assertEquals(200, response.getStatus());
+        assertNotNull(response.getEntity());
+    }
+
+    @Test
+    public void testNodeNotModifiedWithCombinedTag() throws InterruptedException {
+        setupCluster(NODE_1);
+        when(request.getHeader(RequestReplicator.REPLICATION_INDICATOR_HEADER)).thenReturn("true");
+        final FlowResource resource = createFlowResource(false);
+
+        final Response first = resource.getFlow(GROUP_ID);
+        assertEquals(200, first.getStatus());
+
+        // the tag of the node differs from the tag of another node with the same modification stamp
+        setupCluster(NODE_2);
+        assertNotEquals(first.getEntityTag(), createFlowResource(false).getFlow(GROUP_ID).getEntityTag());
+
+        // the node only checks its own tag within the combined tag of the cluster
+        setupCluster(NODE_1);
+        when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("\"other-tag." + first.getEntityTag().getValue() + "\"");
+        final Response notModified = resource.getFlow(GROUP_ID);
+        assertEquals(304, notModified.getStatus());
+        verify(serviceFacade, times(2)).getProcessGroupFlow(GROUP_ID);
+    }
+
+    @Test
+    public void testCoordinatorNotModifiedWhenNoNodeModified() throws InterruptedException {
+        setupCluster(NODE_1);
+        when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("\"tag-1.tag-2\"");
+
+        final AsyncClusterResponse clusterResponse = mockClusterResponse(null, createNodeResponse(NODE_2, 304, "tag-2"), createNodeResponse(NODE_1, 304, "tag-1"));
+        when(requestReplicator.replicate(eq(HttpMethod.GET), any(URI.class), any(), anyMap())).thenReturn(clusterResponse);
+
+        final Response response = createFlowResource(false).getFlow(GROUP_ID);
+        assertEquals(304, response.getStatus());
+        assertEquals("tag-1.tag-2", response.getEntityTag().getValue());
+        verify(requestReplicator, times(1)).replicate(eq(HttpMethod.GET), any(URI.class), any(), anyMap());
+        verify(serviceFacade, never()).getProcessGroupFlow(anyString());
+    }
+
+    @Test
+    public void testCoordinatorMergesAllFlowsWhenAnyNodeModified() throws InterruptedException {
+        setupCluster(NODE_1);
+        when(request.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("\"tag-1.tag-2\"");
+
+        final AsyncClusterResponse partialResponse = mockClusterResponse(null, createNodeResponse(NODE_1, 304, "tag-1"), createNodeResponse(NODE_2, 200, "tag-3"));
+        final NodeResponse mergedResponse = mock(NodeResponse.class);
+        when(mergedResponse.getResponse()).thenReturn(Response.ok().tag("tag-1").build());
+        final AsyncClusterResponse fullResponse = mockClusterResponse(mergedResponse, createNodeResponse(NODE_1, 200, "tag-1"), createNodeResponse(NODE_2, 200, "tag-3"));
+
+        final List<Map<String, String>> replicatedHeaders = new ArrayList<>();
+        when(requestReplicator.replicate(eq(HttpMethod.GET), any(URI.class), any(), anyMap())).thenAnswer(invocation -> {
+            replicatedHeaders.add(new HashMap<>(invocation.getArgument(3)));
+            return replicatedHeaders.size() == 1 ? partialResponse : fullResponse;
+        });
+
+        final Response response = createFlowResource(false).getFlow(GROUP_ID);
+        assertEquals(200, response.getStatus());
+        assertEquals("tag-1.tag-3", response.getEntityTag().getValue());
+
+        // the flows are requested again from every node, so they can all be merged
+        assertEquals(2, replicatedHeaders.size());
+        assertTrue(replicatedHeaders.get(0).containsKey(HttpHeaders.IF_NONE_MATCH));
+        assertFalse(replicatedHeaders.get(1).containsKey(HttpHeaders.IF_NONE_MATCH));
+    }
+
+    private void setupCluster(final NodeIdentifier localNodeId) {
+        clusterCoordinator = mock(ClusterCoordinator.class);
+        when(clusterCoordinator.isConnected()).thenReturn(true);
+        when(clusterCoordinator.isActiveClusterCoordinator()).thenReturn(true);
+        when(clusterCoordinator.getLocalNodeIdentifier()).thenReturn(localNodeId);
+
+        requestReplicator = mock(RequestReplicator.class);
+    }
+
+    private NodeResponse createNodeResponse(final NodeIdentifier nodeId, final int status, final String tag) {
+        final Response response = mock(Response.class);
+        when(response.getStatus()).thenReturn(status);
+        when(response.getHeaderString(HttpHeaders.ETAG)).thenReturn("\"" + tag + "\"");
+        when(response.readEntity(InputStream.class)).thenReturn(new ByteArrayInputStream(new byte[0]));
+        return new NodeResponse(nodeId, HttpMethod.GET, URI.create(FLOW_URI), response, 0L, "request-id");
+    }
+
+    private AsyncClusterResponse mockClusterResponse(final NodeResponse mergedResponse, final NodeResponse... nodeResponses) throws InterruptedException {
+        final AsyncClusterResponse clusterResponse = mock(AsyncClusterResponse.class);
+        when(clusterResponse.getCompletedNodeResponses()).thenReturn(new HashSet<>(Arrays.asList(nodeResponses)));
+        when(clusterResponse.awaitMergedResponse()).thenReturn(mergedResponse == null ? nodeResponses[0] : mergedResponse);
+        return clusterResponse;
+    }
+}
@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.nifi.authorization.user.NiFiUser;
 import org.apache.nifi.web.InvalidRevisionException;
@@ -43,6 +44,7 @@ public class NaiveRevisionManager implements RevisionManager {
     private static final Logger logger = LoggerFactory.getLogger(NaiveRevisionManager.class);
 
     private final ConcurrentMap<String, Revision> revisionMap = new ConcurrentHashMap<>();
+    private final AtomicLong revisionUpdateCount = new AtomicLong(0L);
 
 
     @Override
@@ -53,6 +55,8 @@ public class NaiveRevisionManager implements RevisionManager {
             for (final Revision revision : revisions) {
                 revisionMap.put(revision.getComponentId(), revision);
             }
+
+            revisionUpdateCount.incrementAndGet();
         }
     }
 
@@ -61,6 +65,11 @@ public class NaiveRevisionManager implements RevisionManager {
         return new ArrayList<>(revisionMap.values());
     }
 
+    @Override
+    public long getRevisionUpdateCount() {
+        return revisionUpdateCount.get();
+    }
+
     @Override
     public Revision getRevision(final String componentId) {
         return revisionMap.computeIfAbsent(componentId, id -> new Revision(0L, null, componentId));
@@ -88,6 +97,7 @@ public class NaiveRevisionManager implements RevisionManager {
         for (final Revision revision : revisionList) {
             revisionMap.remove(revision.getComponentId());
         }
+        revisionUpdateCount.incrementAndGet();
 
         return taskResult;
     }
@@ -122,6 +132,7 @@ public class NaiveRevisionManager implements RevisionManager {
             for (final Revision updatedRevision : updatedComponent.getUpdatedRevisions()) {
                 revisionMap.put(updatedRevision.getComponentId(), updatedRevision);
             }
+            revisionUpdateCount.incrementAndGet();
         }
 
         return updatedComponent;
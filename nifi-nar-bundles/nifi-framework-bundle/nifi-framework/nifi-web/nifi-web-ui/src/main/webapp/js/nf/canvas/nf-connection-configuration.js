@@ -79,6 +79,15 @@
         d3.select('path.connector').remove();
     };
 
+    /**
+     * Determines whether the specified load balance strategy partitions FlowFiles by the value of an attribute.
+     *
+     * @argument {string} loadBalanceStrategy       The load balance strategy
+     */
+    var isPartitionedByAttribute = function (loadBalanceStrategy) {
+        return loadBalanceStrategy === 'PARTITION_BY_ATTRIBUTE' || loadBalanceStrategy === 'CONSISTENT_HASH_BY_ATTRIBUTE';
+    };
+
     /**
      * Activates dialog's button model refresh on a connection relationships change.
      */
@@ -934,7 +943,7 @@
         var prioritizers = $('#prioritizer-selected').sortable('toArray');
         var loadBalanceStrategy = $('#load-balance-strategy-combo').combo('getSelectedOption').value;
         var shouldLoadBalance = 'DO_NOT_LOAD_BALANCE' !== loadBalanceStrategy;
-        var loadBalancePartitionAttribute = shouldLoadBalance && 'PARTITION_BY_ATTRIBUTE' === loadBalanceStrategy ? $('#load-balance-partition-attribute').val() : '';
+        var loadBalancePartitionAttribute = shouldLoadBalance && isPartitionedByAttribute(loadBalanceStrategy) ? $('#load-balance-partition-attribute').val() : '';
         var loadBalanceCompression = shouldLoadBalance ? $('#load-balance-compression-combo').combo('getSelectedOption').value : 'DO_NOT_COMPRESS';
 
         if (validateSettings()) {
@@ -1029,7 +1038,7 @@
         var prioritizers = $('#prioritizer-selected').sortable('toArray');
         var loadBalanceStrategy = $('#load-balance-strategy-combo').combo('getSelectedOption').value;
         var shouldLoadBalance = 'DO_NOT_LOAD_BALANCE' !== loadBalanceStrategy;
-        var loadBalancePartitionAttribute = shouldLoadBalance && 'PARTITION_BY_ATTRIBUTE' === loadBalanceStrategy ? $('#load-balance-partition-attribute').val() : '';
+        var loadBalancePartitionAttribute = shouldLoadBalance && isPartitionedByAttribute(loadBalanceStrategy) ? $('#load-balance-partition-attribute').val() : '';
         var loadBalanceCompression = shouldLoadBalance ? $('#load-balance-compression-combo').combo('getSelectedOption').value : 'DO_NOT_COMPRESS';
 
         if (validateSettings()) {
@@ -1120,9 +1129,9 @@
         if (nfCommon.isBlank($('#back-pressure-data-size-threshold').val())) {
             errors.push('Back pressure data size threshold must be specified');
         }
-        if ($('#load-balance-strategy-combo').combo('getSelectedOption').value === 'PARTITION_BY_ATTRIBUTE'
+        if (isPartitionedByAttribute($('#load-balance-strategy-combo').combo('getSelectedOption').value)
             && nfCommon.isBlank($('#load-balance-partition-attribute').val())) {
-            errors.push('Cannot set Load Balance Strategy to "Partition by attribute" without providing a partitioning "Attribute Name"');
+            errors.push('Cannot set Load Balance Strategy to "' + $('#load-balance-strategy-combo').combo('getSelectedOption').text + '" without providing a partitioning "Attribute Name"');
         }
 
         if (errors.length > 0) {
@@ -1257,7 +1266,7 @@
                 options: nfCommon.loadBalanceStrategyOptions,
                 select: function (selectedOption) {
                     // Show the appropriate configurations
-                    if (selectedOption.value === 'PARTITION_BY_ATTRIBUTE') {
+                    if (isPartitionedByAttribute(selectedOption.value)) {
                         $('#load-balance-partition-attribute-setting-separator').show();
                         $('#load-balance-partition-attribute-setting').show();
                     } else {
@@ -1427,7 +1427,7 @@
                         }).select('title').text(function () {
                             if (d.permissions.canRead) {
                                 var loadBalanceStrategy = nfCommon.getComboOptionText(nfCommon.loadBalanceStrategyOptions, d.component.loadBalanceStrategy);
-                                if ('PARTITION_BY_ATTRIBUTE' === d.component.loadBalanceStrategy) {
+                                if ('PARTITION_BY_ATTRIBUTE' === d.component.loadBalanceStrategy || 'CONSISTENT_HASH_BY_ATTRIBUTE' === d.component.loadBalanceStrategy) {
                                     loadBalanceStrategy += ' (' + d.component.loadBalancePartitionAttribute + ')'
                                 }
 
@@ -1230,10 +1230,20 @@
                 value: 'PARTITION_BY_ATTRIBUTE',
                 description: 'Determine which node to send a given FlowFile to based on the value of a user-specified FlowFile Attribute.'
                                 + ' All FlowFiles that have the same value for said Attribute will be sent to the same node in the cluster.'
+            }, {
+                text: 'Partition by attribute (consistent hashing)',
+                value: 'CONSISTENT_HASH_BY_ATTRIBUTE',
+                description: 'Determine which node to send a given FlowFile to based on the value of a user-specified FlowFile Attribute, using a consistent hash of the node identifiers.'
+                                + ' All FlowFiles that have the same value for said Attribute will be sent to the same node in the cluster, and only the values of a node that joins or leaves the cluster are reassigned.'
             }, {
                 text: 'Round robin',
                 value: 'ROUND_ROBIN',
                 description: 'FlowFiles will be distributed to nodes in the cluster in a Round-Robin fashion.'
+            }, {
+                text: 'Load aware',
+                value: 'LOAD_AWARE',
+                description: 'FlowFiles will be distributed to nodes in the cluster in proportion to how quickly each node is working off the data already queued for it.'
+                                + ' Nodes that fall behind or report that their queue is full will receive less of the data.'
             }, {
                 text: 'Single node',
                 value: 'SINGLE_NODE',
@@ -27,7 +27,9 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import org.apache.nifi.processor.DataUnit;
+import org.apache.nifi.provenance.index.EventIndexType;
 import org.apache.nifi.provenance.search.SearchableField;
+import org.apache.nifi.provenance.serialization.CompressionCodec;
 import org.apache.nifi.security.kms.CryptoUtils;
 import org.apache.nifi.util.FormatUtils;
 import org.apache.nifi.util.NiFiProperties;
@@ -60,12 +62,16 @@ public class RepositoryConfiguration {
     private List<SearchableField> searchableFields = new ArrayList<>();
     private List<SearchableField> searchableAttributes = new ArrayList<>();
     private boolean compress = true;
+    private CompressionCodec compressionCodec = CompressionCodec.GZIP;
+    private EventIndexType eventIndexType = EventIndexType.LUCENE;
     private boolean alwaysSync = false;
     private int queryThreadPoolSize = 2;
+    private int maxLineageNodes = 1000;
     private int indexThreadPoolSize = 1;
     private boolean allowRollover = true;
     private int concurrentMergeThreads = 4;
     private Integer warmCacheFrequencyMinutes = null;
+    private int lineageLookupMaxMappings = 250_000;
 
     public void setAllowRollover(final boolean allow) {
         this.allowRollover = allow;
@@ -230,6 +236,48 @@ public class RepositoryConfiguration {
         this.compress = compress;
     }
 
+    /**
+     * @return the codec to use when compressing event files on rollover
+     */
+    public CompressionCodec getCompressionCodec() {
+        return compressionCodec;
+    }
+
+    /**
+     * @param compressionCodec the codec to use when compressing event files on rollover
+     */
+    public void setCompressionCodec(final CompressionCodec compressionCodec) {
+        this.compressionCodec = compressionCodec;
+    }
+
+    /**
+     * @return the type of Event Index to use for searching events
+     */
+    public EventIndexType getEventIndexType() {
+        return eventIndexType;
+    }
+
+    /**
+     * @param eventIndexType the type of Event Index to use for searching events
+     */
+    public void setEventIndexType(final EventIndexType eventIndexType) {
+        this.eventIndexType = eventIndexType;
+    }
+
+    /**
+     * @return the maximum number of events that a single lineage computation may include in its graph
+     */
+    public int getMaxLineageNodes() {
+        return maxLineageNodes;
+    }
+
+    public void setMaxLineageNodes(final int maxLineageNodes) {
+        if (maxLineageNodes < 1) {
+            throw new IllegalArgumentException("Max Lineage Nodes must be at least 1");
+        }
+        this.maxLineageNodes = maxLineageNodes;
+    }
+
     /**
      * @return the number of threads to use to query the repo
      */
@@ -366,6 +414,22 @@ public class RepositoryConfiguration {
         return Optional.ofNullable(warmCacheFrequencyMinutes);
     }
 
+    /**
+     * @return the maximum number of FlowFile UUID to event mappings that are kept in memory so that lineage for recent events
+     *         can be computed without searching the index. A value of 0 disables the lookup.
+     */
+    public int getLineageLookupMaxMappings() {
+        return lineageLookupMaxMappings;
+    }
+
+    /**
+     * Sets the maximum number of FlowFile UUID to event mappings that are kept in memory so that lineage for recent events
+     * can be computed without searching the index. A value of 0 disables the lookup.
+     */
+    public void setLineageLookupMaxMappings(final int lineageLookupMaxMappings) {
+        this.lineageLookupMaxMappings = lineageLookupMaxMappings;
+    }
+
     public boolean supportsEncryption() {
         boolean keyProviderIsConfigured = CryptoUtils.isValidKeyProvider(keyProviderImplementation, keyProviderLocation, keyId, encryptionKeys);
 
@@ -427,10 +491,12 @@ public class RepositoryConfiguration {
         final String rolloverSize = nifiProperties.getProperty(NiFiProperties.PROVENANCE_ROLLOVER_SIZE, "100 MB");
         final String shardSize = nifiProperties.getProperty(NiFiProperties.PROVENANCE_INDEX_SHARD_SIZE, "500 MB");
         final int queryThreads = nifiProperties.getIntegerProperty(NiFiProperties.PROVENANCE_QUERY_THREAD_POOL_SIZE, 2);
+        final int maxLineageNodes = nifiProperties.getIntegerProperty(NiFiProperties.PROVENANCE_LINEAGE_MAX_NODES, 1000);
         final int indexThreads = nifiProperties.getIntegerProperty(NiFiProperties.PROVENANCE_INDEX_THREAD_POOL_SIZE, 2);
         final int journalCount = nifiProperties.getIntegerProperty(NiFiProperties.PROVENANCE_JOURNAL_COUNT, 16);
         final int concurrentMergeThreads = nifiProperties.getIntegerProperty(CONCURRENT_MERGE_THREADS, 2);
         final String warmCacheFrequency = nifiProperties.getProperty(WARM_CACHE_FREQUENCY);
+        final int lineageLookupMaxMappings = nifiProperties.getIntegerProperty(NiFiProperties.PROVENANCE_LINEAGE_LOOKUP_MAX_MAPPINGS, 250_000);
 
         final long storageMillis = FormatUtils.getTimeDuration(storageTime, TimeUnit.MILLISECONDS);
         final long maxStorageBytes = DataUnit.parseDataSize(storageSize, DataUnit.B).longValue();
@@ -438,6 +504,8 @@ public class RepositoryConfiguration {
         final long rolloverBytes = DataUnit.parseDataSize(rolloverSize, DataUnit.B).longValue();
 
         final boolean compressOnRollover = Boolean.parseBoolean(nifiProperties.getProperty(NiFiProperties.PROVENANCE_COMPRESS_ON_ROLLOVER));
+        final String compressionCodecName = nifiProperties.getProperty(NiFiProperties.PROVENANCE_COMPRESSION_CODEC, CompressionCodec.GZIP.name());
+        final String eventIndexTypeName = nifiProperties.getProperty(NiFiProperties.PROVENANCE_INDEX_IMPLEMENTATION, EventIndexType.LUCENE.name());
         final String indexedFieldString = nifiProperties.getProperty(NiFiProperties.PROVENANCE_INDEXED_FIELDS);
         final String indexedAttrString = nifiProperties.getProperty(NiFiProperties.PROVENANCE_INDEXED_ATTRIBUTES);
 
@@ -471,6 +539,18 @@ public class RepositoryConfiguration {
             config.addStorageDirectory(entry.getKey(), entry.getValue().toFile());
         }
         config.setCompressOnRollover(compressOnRollover);
+        final String codecName = compressionCodecName.trim().toUpperCase();
+        if (CompressionCodec.GZIP.name().equals(codecName) || CompressionCodec.LZ4.name().equals(codecName)) {
+            config.setCompressionCodec(CompressionCodec.valueOf(codecName));
+        } else {
+            logger.warn("Found compression codec property set to {} but valid values are GZIP and LZ4; using GZIP instead", compressionCodecName);
+        }
+        final String indexTypeName = eventIndexTypeName.trim().toUpperCase();
+        if (EventIndexType.LUCENE.name().equals(indexTypeName) || EventIndexType.COLUMNAR.name().equals(indexTypeName)) {
+            config.setEventIndexType(EventIndexType.valueOf(indexTypeName));
+        } else {
+            logger.warn("Found index implementation property set to {} but valid values are LUCENE and COLUMNAR; using LUCENE instead", eventIndexTypeName);
+        }
         config.setSearchableFields(searchableFields);
         config.setSearchableAttributes(searchableAttributes);
         config.setMaxEventFileCapacity(rolloverBytes);
@@ -478,10 +558,12 @@ public class RepositoryConfiguration {
         config.setMaxRecordLife(storageMillis, TimeUnit.MILLISECONDS);
         config.setMaxStorageCapacity(maxStorageBytes);
         config.setQueryThreadPoolSize(queryThreads);
+        config.setMaxLineageNodes(maxLineageNodes);
         config.setIndexThreadPoolSize(indexThreads);
         config.setJournalCount(journalCount);
         config.setMaxAttributeChars(maxAttrChars);
         config.setConcurrentMergeThreads(concurrentMergeThreads);
+        config.setLineageLookupMaxMappings(Math.max(0, lineageLookupMaxMappings));
 
         if (warmCacheFrequency != null && !warmCacheFrequency.trim().equals("")) {
             config.setWarmCacheFrequencyMinutes((int) FormatUtils.getTimeDuration(warmCacheFrequency, TimeUnit.MINUTES));
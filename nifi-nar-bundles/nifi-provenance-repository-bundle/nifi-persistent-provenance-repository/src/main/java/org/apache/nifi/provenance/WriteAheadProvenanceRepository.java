@@ -25,6 +25,8 @@ import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.provenance.authorization.EventAuthorizer;
 import org.apache.nifi.provenance.authorization.UserEventAuthorizer;
 import org.apache.nifi.provenance.index.EventIndex;
+import org.apache.nifi.provenance.index.EventIndexType;
+import org.apache.nifi.provenance.index.columnar.ColumnarEventIndex;
 import org.apache.nifi.provenance.index.lucene.LuceneEventIndex;
 import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
 import org.apache.nifi.provenance.lucene.IndexManager;
@@ -82,6 +84,11 @@ import java.util.Set;
  * </p>
  *
  * <p>
+ * Alternatively, the repository may be configured to use the {@link ColumnarEventIndex}, which does not make use of Lucene. Indexing events is far cheaper,
+ * but only the queries that NiFi itself issues are supported.
+ * </p>
+ *
+ * <p>
  * This Repositories supports the notion of 'partitions'. The repository can be configured to store data to one or more partitions. Each partition is typically
  * stored on a separate physical partition on disk. As a result, this allows striping of data across multiple partitions in order to achieve linear scalability
  * across disks for far greater performance.
@@ -144,8 +151,12 @@ public class WriteAheadProvenanceRepository implements ProvenanceRepository {
 
         eventStore = new PartitionedWriteAheadEventStore(config, recordWriterFactory, recordReaderFactory, eventReporter, fileManager);
 
-        final IndexManager indexManager = new StandardIndexManager(config);
-        eventIndex = new LuceneEventIndex(config, indexManager, eventReporter);
+        if (config.getEventIndexType() == EventIndexType.COLUMNAR) {
+            eventIndex = new ColumnarEventIndex(config, eventReporter);
+        } else {
+            final IndexManager indexManager = new StandardIndexManager(config);
+            eventIndex = new LuceneEventIndex(config, indexManager, eventReporter);
+        }
 
         this.eventReporter = eventReporter;
         this.authorizer = authorizer;
@@ -0,0 +1,32 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index;
+
+/**
+ * The implementations of {@link EventIndex} that the WriteAheadProvenanceRepository is able to use.
+ */
+public enum EventIndexType {
+    /**
+     * Events are indexed using Apache Lucene, which supports arbitrary queries at the cost of more expensive indexing
+     */
+    LUCENE,
+
+    /**
+     * Events are indexed in columnar segments, which is considerably cheaper than using Lucene but supports only the queries that NiFi itself issues
+     */
+    COLUMNAR;
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import org.apache.nifi.util.Tuple;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Base class for segments that hold their columns in memory. The events of a segment are identified by their position within the segment,
+ * and each indexed field is dictionary encoded, with a postings list of event positions for each distinct value. A query is evaluated by
+ * combining the postings of each term into a bitmap and then applying any Event Time or File Size restrictions to the remaining events.
+ */
+abstract class AbstractIndexSegment implements IndexSegment {
+
+    protected abstract long getEventId(int eventIndex);
+
+    protected abstract long getEventTime(int eventIndex);
+
+    protected abstract long getFileSize(int eventIndex);
+
+    /**
+     * Sets the bit for the position of each event that has a value for the term's field that matches the term
+     *
+     * @param term the term to match
+     * @param matches the bitmap to update
+     */
+    protected abstract void addMatches(SegmentQuery.Term term, BitSet matches);
+
+    @Override
+    public Tuple<List<Long>, Long> search(final SegmentQuery query, final int maxResults) {
+        final int eventCount = getEventCount();
+        if (!isOverlapping(query.getMinEventTime(), query.getMaxEventTime())) {
+            return new Tuple<>(Collections.emptyList(), 0L);
+        }
+
+        BitSet candidates = null;
+        for (final SegmentQuery.Term term : query.getTerms()) {
+            final BitSet matches = new BitSet(eventCount);
+            addMatches(term, matches);
+
+            if (candidates == null) {
+                candidates = matches;
+            } else {
+                candidates.and(matches);
+            }
+
+            if (candidates.isEmpty()) {
+                return new Tuple<>(Collections.emptyList(), 0L);
+            }
+        }
+
+        if (candidates == null) {
+            candidates = new BitSet(eventCount);
+            candidates.set(0, eventCount);
+        }
+
+        // If the entire segment falls within the requested time range, there is no need to check the time of each event.
+        final boolean checkEventTime = getMinEventTime() < query.getMinEventTime() || getMaxEventTime() > query.getMaxEventTime();
+        final boolean checkFileSize = query.isFileSizeRestricted();
+
+        final List<Long> eventIds = new ArrayList<>(Math.min(maxResults, candidates.cardinality()));
+        long totalHits = 0L;
+        for (int i = candidates.previousSetBit(eventCount - 1); i >= 0; i = candidates.previousSetBit(i - 1)) {
+            if (checkEventTime && !query.isEventTimeMatch(getEventTime(i))) {
+                continue;
+            }
+            if (checkFileSize && !query.isFileSizeMatch(getFileSize(i))) {
+                continue;
+            }
+
+            totalHits++;
+            if (eventIds.size() < maxResults) {
+                eventIds.add(getEventId(i));
+            }
+        }
+
+        return new Tuple<>(eventIds, totalHits);
+    }
+}
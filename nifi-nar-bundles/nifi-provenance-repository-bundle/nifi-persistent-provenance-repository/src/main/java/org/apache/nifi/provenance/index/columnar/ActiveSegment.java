@@ -0,0 +1,285 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import org.apache.nifi.flowfile.attributes.CoreAttributes;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.SearchableFields;
+import org.apache.nifi.provenance.search.SearchableField;
+import org.apache.nifi.util.Tuple;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The segment that events are currently being added to. Once the segment is full, it is sealed into an immutable {@link SealedSegment}
+ * and written to disk. Events are added and searched concurrently, so all access is synchronized.
+ */
+class ActiveSegment extends AbstractIndexSegment {
+    // Values are truncated so that they can always be written to a segment file with DataOutput.writeUTF
+    static final int MAX_VALUE_LENGTH = 8192;
+
+    private final Set<SearchableField> searchableEventFields;
+    private final List<SearchableField> searchableAttributes;
+    private final Map<String, ColumnBuilder> columns = new LinkedHashMap<>();
+
+    private long[] eventIds = new long[1024];
+    private long[] eventTimes = new long[1024];
+    private long[] fileSizes = new long[1024];
+    private int eventCount = 0;
+    private long minEventId = Long.MAX_VALUE;
+    private long maxEventId = -1L;
+    private long minEventTime = Long.MAX_VALUE;
+    private long maxEventTime = Long.MIN_VALUE;
+
+    ActiveSegment(final Set<SearchableField> searchableEventFields, final List<SearchableField> searchableAttributes) {
+        this.searchableEventFields = searchableEventFields;
+        this.searchableAttributes = searchableAttributes;
+    }
+
+    synchronized void addEvent(final ProvenanceEventRecord event, final long eventId) {
+        if (eventCount == eventIds.length) {
+            final int capacity = eventCount * 2;
+            eventIds = Arrays.copyOf(eventIds, capacity);
+            eventTimes = Arrays.copyOf(eventTimes, capacity);
+            fileSizes = Arrays.copyOf(fileSizes, capacity);
+        }
+
+        final int eventIndex = eventCount;
+        eventIds[eventIndex] = eventId;
+        eventTimes[eventIndex] = event.getEventTime();
+        fileSizes[eventIndex] = event.getFileSize();
+
+        addValue(SearchableFields.FlowFileUUID, event.getFlowFileUuid(), eventIndex);
+        addValue(SearchableFields.Filename, event.getAttribute(CoreAttributes.FILENAME.key()), eventIndex);
+        addValue(SearchableFields.ComponentID, event.getComponentId(), eventIndex);
+        addValue(SearchableFields.AlternateIdentifierURI, event.getAlternateIdentifierUri(), eventIndex);
+        addValue(SearchableFields.EventType, event.getEventType().name(), eventIndex);
+        addValue(SearchableFields.Relationship, event.getRelationship(), eventIndex);
+        addValue(SearchableFields.Details, event.getDetails(), eventIndex);
+        addValue(SearchableFields.ContentClaimSection, event.getContentClaimSection(), eventIndex);
+        addValue(SearchableFields.ContentClaimContainer, event.getContentClaimContainer(), eventIndex);
+        addValue(SearchableFields.ContentClaimIdentifier, event.getContentClaimIdentifier(), eventIndex);
+        addValue(SearchableFields.SourceQueueIdentifier, event.getSourceQueueIdentifier(), eventIndex);
+        addValue(SearchableFields.TransitURI, event.getTransitUri(), eventIndex);
+
+        for (final SearchableField searchableAttribute : searchableAttributes) {
+            addValue(searchableAttribute, event.getAttribute(searchableAttribute.getSearchableFieldName()), eventIndex);
+        }
+
+        // As with the Lucene index, an event is also found by the UUIDs of the FlowFiles that it created or joined, so that lineage can be followed.
+        final ProvenanceEventType eventType = event.getEventType();
+        if (eventType == ProvenanceEventType.FORK || eventType == ProvenanceEventType.CLONE || eventType == ProvenanceEventType.REPLAY) {
+            for (final String uuid : event.getChildUuids()) {
+                addValue(SearchableFields.FlowFileUUID, uuid, eventIndex);
+            }
+        } else if (eventType == ProvenanceEventType.JOIN) {
+            for (final String uuid : event.getParentUuids()) {
+                addValue(SearchableFields.FlowFileUUID, uuid, eventIndex);
+            }
+        } else if (eventType == ProvenanceEventType.RECEIVE && event.getSourceSystemFlowFileIdentifier() != null) {
+            final String sourceIdentifier = event.getSourceSystemFlowFileIdentifier();
+            final int lastColon = sourceIdentifier.lastIndexOf(":");
+            if (lastColon > -1 && lastColon < sourceIdentifier.length() - 2) {
+                addValue(SearchableFields.FlowFileUUID, sourceIdentifier.substring(lastColon + 1), eventIndex);
+            }
+        }
+
+        eventCount++;
+        minEventId = Math.min(minEventId, eventId);
+        maxEventId = Math.max(maxEventId, eventId);
+        minEventTime = Math.min(minEventTime, event.getEventTime());
+        maxEventTime = Math.max(maxEventTime, event.getEventTime());
+    }
+
+    private void addValue(final SearchableField field, final String value, final int eventIndex) {
+        if (value == null || (!field.isAttribute() && !searchableEventFields.contains(field))) {
+            return;
+        }
+
+        final String indexedValue = value.length() > MAX_VALUE_LENGTH ? value.substring(0, MAX_VALUE_LENGTH) : value;
+        columns.computeIfAbsent(field.getSearchableFieldName(), name -> new ColumnBuilder()).add(indexedValue.toLowerCase(), eventIndex);
+    }
+
+    /**
+     * Creates an immutable copy of this segment, in which the values of each column are sorted so that they can be found by binary search
+     *
+     * @return the sealed segment
+     */
+    synchronized SealedSegment seal() {
+        final Map<String, SealedSegment.Column> sealedColumns = new LinkedHashMap<>();
+        for (final Map.Entry<String, ColumnBuilder> entry : columns.entrySet()) {
+            sealedColumns.put(entry.getKey(), entry.getValue().seal());
+        }
+
+        return new SealedSegment(Arrays.copyOf(eventIds, eventCount), Arrays.copyOf(eventTimes, eventCount), Arrays.copyOf(fileSizes, eventCount),
+            minEventId, maxEventId, minEventTime, maxEventTime, sealedColumns);
+    }
+
+    @Override
+    public synchronized Tuple<List<Long>, Long> search(final SegmentQuery query, final int maxResults) {
+        return super.search(query, maxResults);
+    }
+
+    @Override
+    public synchronized int getEventCount() {
+        return eventCount;
+    }
+
+    @Override
+    public synchronized long getMinEventId() {
+        return minEventId;
+    }
+
+    @Override
+    public synchronized long getMaxEventId() {
+        return maxEventId;
+    }
+
+    @Override
+    public synchronized long getMinEventTime() {
+        return minEventTime;
+    }
+
+    @Override
+    public synchronized long getMaxEventTime() {
+        return maxEventTime;
+    }
+
+    @Override
+    protected long getEventId(final int eventIndex) {
+        return eventIds[eventIndex];
+    }
+
+    @Override
+    protected long getEventTime(final int eventIndex) {
+        return eventTimes[eventIndex];
+    }
+
+    @Override
+    protected long getFileSize(final int eventIndex) {
+        return fileSizes[eventIndex];
+    }
+
+    @Override
+    protected void addMatches(final SegmentQuery.Term term, final BitSet matches) {
+        final ColumnBuilder column = columns.get(term.getFieldName());
+        if (column != null) {
+            column.addMatches(term, matches);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ActiveSegment[events=" + eventCount + ", eventIds=[" + minEventId + ", " + maxEventId + "]]";
+    }
+
+
+    private static class ColumnBuilder {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private int[][] postings = new int[16][];
+        private int[] postingCounts = new int[16];
+
+        void add(final String value, final int eventIndex) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+
+                if (code == postings.length) {
+                    postings = Arrays.copyOf(postings, code * 2);
+                    postingCounts = Arrays.copyOf(postingCounts, code * 2);
+                }
+
+                postings[code] = new int[2];
+            }
+
+            int[] eventIndices = postings[code];
+            final int count = postingCounts[code];
+            if (count > 0 && eventIndices[count - 1] == eventIndex) {
+                return; // the event has already been indexed with this value
+            }
+
+            if (count == eventIndices.length) {
+                eventIndices = Arrays.copyOf(eventIndices, count * 2);
+                postings[code] = eventIndices;
+            }
+
+            eventIndices[count] = eventIndex;
+            postingCounts[code] = count + 1;
+        }
+
+        void addMatches(final SegmentQuery.Term term, final BitSet matches) {
+            for (final String value : term.getExactValues()) {
+                final Integer code = codes.get(value);
+                if (code != null) {
+                    setBits(code, matches);
+                }
+            }
+
+            if (term.getWildcardCount() > 0) {
+                for (int code = 0; code < values.size(); code++) {
+                    if (term.isWildcardMatch(values.get(code))) {
+                        setBits(code, matches);
+                    }
+                }
+            }
+        }
+
+        private void setBits(final int code, final BitSet matches) {
+            final int[] eventIndices = postings[code];
+            final int count = postingCounts[code];
+            for (int i = 0; i < count; i++) {
+                matches.set(eventIndices[i]);
+            }
+        }
+
+        SealedSegment.Column seal() {
+            final String[] sortedValues = values.toArray(new String[0]);
+            Arrays.sort(sortedValues);
+
+            int totalPostings = 0;
+            for (int code = 0; code < values.size(); code++) {
+                totalPostings += postingCounts[code];
+            }
+
+            final int[] offsets = new int[sortedValues.length + 1];
+            final int[] eventIndices = new int[totalPostings];
+            int offset = 0;
+            for (int i = 0; i < sortedValues.length; i++) {
+                final int code = codes.get(sortedValues[i]);
+                final int count = postingCounts[code];
+                System.arraycopy(postings[code], 0, eventIndices, offset, count);
+
+                offsets[i] = offset;
+                offset += count;
+            }
+            offsets[sortedValues.length] = offset;
+
+            return new SealedSegment.Column(sortedValues, offsets, eventIndices);
+        }
+    }
+}
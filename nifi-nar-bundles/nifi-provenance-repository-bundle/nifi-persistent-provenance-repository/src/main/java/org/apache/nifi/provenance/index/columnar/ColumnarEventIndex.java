@@ -0,0 +1,371 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import org.apache.nifi.authorization.user.NiFiUser;
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.provenance.AsyncLineageSubmission;
+import org.apache.nifi.provenance.AsyncQuerySubmission;
+import org.apache.nifi.provenance.ProgressiveResult;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.RepositoryConfiguration;
+import org.apache.nifi.provenance.StandardLineageResult;
+import org.apache.nifi.provenance.StandardQueryResult;
+import org.apache.nifi.provenance.authorization.EventAuthorizer;
+import org.apache.nifi.provenance.authorization.EventTransformer;
+import org.apache.nifi.provenance.index.AbstractEventIndex;
+import org.apache.nifi.provenance.index.EventIndex;
+import org.apache.nifi.provenance.index.lucene.CachedQuery;
+import org.apache.nifi.provenance.index.lucene.LatestEventsPerProcessorQuery;
+import org.apache.nifi.provenance.index.lucene.LatestEventsQuery;
+import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
+import org.apache.nifi.provenance.lineage.LineageComputationType;
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.QuerySubmission;
+import org.apache.nifi.provenance.search.SearchableField;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.apache.nifi.provenance.store.EventStore;
+import org.apache.nifi.provenance.util.NamedThreadFactory;
+import org.apache.nifi.reporting.Severity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * An {@link EventIndex} that does not make use of Lucene. Instead, the events of each partition are indexed in segments, each of which holds
+ * a fixed number of events. Within a segment, each indexed field is stored as a column of dictionary-encoded values, with a postings list
+ * of the events that have each value. The Event ID, Event Time and File Size of each event are stored as plain columns.
+ * </p>
+ *
+ * <p>
+ * Indexing an event requires only a dictionary lookup and an append for each indexed field, which is far cheaper than creating and writing
+ * a Lucene Document. The trade-off is that only the queries that NiFi itself issues are supported: exact or wildcard matches of indexed
+ * fields, combined with ranges of Event Time and File Size, as well as the lookups by FlowFile UUID that are necessary to compute lineage.
+ * </p>
+ *
+ * <p>
+ * Events are added to an in-memory segment, which is written to disk once it is full or when NiFi is shut down. Upon restart, the events
+ * that had not yet been written are re-indexed from the Event Store.
+ * </p>
+ */
+public class ColumnarEventIndex extends AbstractEventIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarEventIndex.class);
+    private static final String EVENT_CATEGORY = "Provenance Repository";
+    private static final String INDEX_DIRECTORY_NAME = "columnar-index";
+
+    public static final int DEFAULT_EVENTS_PER_SEGMENT = 100_000;
+
+    // Events are not necessarily added to the index in the order of their IDs, so when re-indexing upon restart we start somewhat
+    // before the last event that was written to disk. Any event that was already written is skipped.
+    static final long REINDEX_OVERLAP = 10_000L;
+
+    private final Map<String, PartitionIndex> partitions = new LinkedHashMap<>();
+    private final List<CachedQuery> cachedQueries = new ArrayList<>();
+    private final ExecutorService queryExecutor;
+    private final EventReporter eventReporter;
+    private final int maxLineageNodes;
+
+    private ScheduledExecutorService maintenanceExecutor; // effectively final
+    private EventStore eventStore;
+
+    public ColumnarEventIndex(final RepositoryConfiguration config, final EventReporter eventReporter) {
+        this(config, DEFAULT_EVENTS_PER_SEGMENT, eventReporter);
+    }
+
+    public ColumnarEventIndex(final RepositoryConfiguration config, final int eventsPerSegment, final EventReporter eventReporter) {
+        this.eventReporter = eventReporter;
+        this.maxLineageNodes = config.getMaxLineageNodes();
+        this.queryExecutor = Executors.newFixedThreadPool(config.getQueryThreadPoolSize(), new NamedThreadFactory("Provenance Query"));
+
+        final Set<SearchableField> searchableEventFields = Collections.unmodifiableSet(new HashSet<>(config.getSearchableFields()));
+        final List<SearchableField> searchableAttributes = Collections.unmodifiableList(new ArrayList<>(config.getSearchableAttributes()));
+        for (final Map.Entry<String, File> entry : config.getStorageDirectories().entrySet()) {
+            final File indexDirectory = new File(entry.getValue(), INDEX_DIRECTORY_NAME);
+            partitions.put(entry.getKey(), new PartitionIndex(entry.getKey(), indexDirectory, eventsPerSegment, searchableEventFields, searchableAttributes));
+        }
+    }
+
+    @Override
+    public void initialize(final EventStore eventStore) {
+        this.eventStore = eventStore;
+
+        for (final PartitionIndex partition : partitions.values()) {
+            try {
+                partition.initialize();
+            } catch (final IOException ioe) {
+                logger.error("Failed to initialize Provenance Event Index", ioe);
+                eventReporter.reportEvent(Severity.ERROR, EVENT_CATEGORY, "Failed to initialize Provenance Event Index. See logs for more information.");
+            }
+        }
+
+        maintenanceExecutor = Executors.newScheduledThreadPool(1, new NamedThreadFactory("Provenance Repository Maintenance"));
+        maintenanceExecutor.scheduleWithFixedDelay(this::performMaintenance, 1, 1, TimeUnit.MINUTES);
+        maintenanceExecutor.scheduleWithFixedDelay(this::purgeObsoleteQueries, 30, 30, TimeUnit.SECONDS);
+
+        cachedQueries.add(new LatestEventsQuery());
+        cachedQueries.add(new LatestEventsPerProcessorQuery());
+    }
+
+    @Override
+    public void addEvents(final Map<ProvenanceEventRecord, StorageSummary> events) {
+        for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : events.entrySet()) {
+            for (final CachedQuery cachedQuery : cachedQueries) {
+                cachedQuery.update(entry.getKey(), entry.getValue());
+            }
+        }
+
+        addToPartitions(events.entrySet());
+    }
+
+    @Override
+    public boolean isReindexNecessary() {
+        return true;
+    }
+
+    @Override
+    public void reindexEvents(final Map<ProvenanceEventRecord, StorageSummary> events) {
+        final List<Map.Entry<ProvenanceEventRecord, StorageSummary>> eventsToIndex = new ArrayList<>(events.size());
+
+        try {
+            for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : events.entrySet()) {
+                final PartitionIndex partition = getPartition(entry.getValue());
+                if (partition != null && !partition.isPersisted(entry.getValue().getEventId())) {
+                    eventsToIndex.add(entry);
+                }
+            }
+        } catch (final IOException ioe) {
+            logger.error("Failed to determine which Provenance Events have already been indexed; will not re-index {} events", events.size(), ioe);
+            eventReporter.reportEvent(Severity.ERROR, EVENT_CATEGORY, "Failed to re-index some Provenance Events. "
+                + "Some Provenance Events may not be available for querying. See logs for more information.");
+            return;
+        }
+
+        for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : eventsToIndex) {
+            for (final CachedQuery cachedQuery : cachedQueries) {
+                cachedQuery.update(entry.getKey(), entry.getValue());
+            }
+        }
+
+        addToPartitions(eventsToIndex);
+    }
+
+    private void addToPartitions(final Collection<Map.Entry<ProvenanceEventRecord, StorageSummary>> events) {
+        // Events are typically all destined for the same partition, but group them in case they are not.
+        final Map<PartitionIndex, List<Map.Entry<ProvenanceEventRecord, StorageSummary>>> eventsByPartition = new HashMap<>();
+        for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : events) {
+            final PartitionIndex partition = getPartition(entry.getValue());
+            if (partition != null) {
+                eventsByPartition.computeIfAbsent(partition, key -> new ArrayList<>()).add(entry);
+            }
+        }
+
+        for (final Map.Entry<PartitionIndex, List<Map.Entry<ProvenanceEventRecord, StorageSummary>>> entry : eventsByPartition.entrySet()) {
+            entry.getKey().addEvents(entry.getValue());
+        }
+    }
+
+    private PartitionIndex getPartition(final StorageSummary storageSummary) {
+        final String partitionName = storageSummary.getPartitionName().orElse(null);
+        final PartitionIndex partition = partitionName == null ? null : partitions.get(partitionName);
+        if (partition == null) {
+            logger.warn("Received Provenance Event {} to index but its partition {} is not known to the Event Index, so it will not be indexed",
+                storageSummary.getEventId(), partitionName);
+        }
+
+        return partition;
+    }
+
+    @Override
+    public long getSize() {
+        long size = 0L;
+        for (final PartitionIndex partition : partitions.values()) {
+            size += partition.getSize();
+        }
+
+        return size;
+    }
+
+    @Override
+    protected EventStore getEventStore() {
+        return eventStore;
+    }
+
+    @Override
+    public long getMinimumEventIdToReindex(final String partitionName) {
+        final PartitionIndex partition = partitions.get(partitionName);
+        if (partition == null) {
+            return 0L;
+        }
+
+        return Math.max(0L, partition.getMaxPersistedEventId() + 1 - REINDEX_OVERLAP);
+    }
+
+    @Override
+    public void commitChanges(final String partitionName) {
+        final PartitionIndex partition = partitions.get(partitionName);
+        if (partition != null) {
+            partition.commit();
+        }
+    }
+
+    @Override
+    public void close() {
+        queryExecutor.shutdownNow();
+        if (maintenanceExecutor != null) {
+            maintenanceExecutor.shutdown();
+        }
+
+        // Write out the events that are held only in memory so that they need not be re-indexed upon restart
+        for (final PartitionIndex partition : partitions.values()) {
+            partition.commit();
+        }
+    }
+
+    private List<IndexSegment> getSegments(final long minEventTime, final long maxEventTime) {
+        final List<IndexSegment> segments = new ArrayList<>();
+        for (final PartitionIndex partition : partitions.values()) {
+            segments.addAll(partition.getSegments(minEventTime, maxEventTime));
+        }
+
+        segments.sort(Comparator.comparingLong(IndexSegment::getMaxEventId).reversed());
+        return segments;
+    }
+
+    private void submitSegmentQueries(final List<IndexSegment> segments, final SegmentQuery segmentQuery, final ProgressiveResult result, final int maxResults,
+                                      final EventAuthorizer authorizer, final EventTransformer transformer) {
+        if (segments.isEmpty()) {
+            result.update(Collections.emptyList(), 0L);
+            return;
+        }
+
+        for (final IndexSegment segment : segments) {
+            queryExecutor.submit(new SegmentQueryTask(segmentQuery, result, maxResults, segment, eventStore, authorizer, transformer));
+        }
+    }
+
+    @Override
+    public QuerySubmission submitQuery(final Query query, final EventAuthorizer authorizer, final String userId) {
+        validate(query);
+
+        // Check if we have any cached queries first that can give us the answer
+        for (final CachedQuery cachedQuery : cachedQueries) {
+            final Optional<List<Long>> eventIdListOption = cachedQuery.evaluate(query);
+            if (eventIdListOption.isPresent()) {
+                final AsyncQuerySubmission submission = new AsyncQuerySubmission(query, 1, userId);
+                querySubmissionMap.put(query.getIdentifier(), submission);
+
+                final List<Long> eventIds = eventIdListOption.get();
+                queryExecutor.submit(() -> {
+                    try {
+                        final List<ProvenanceEventRecord> events = eventStore.getEvents(eventIds, authorizer, EventTransformer.EMPTY_TRANSFORMER);
+                        submission.getResult().update(events, eventIds.size());
+                    } catch (final Exception e) {
+                        submission.getResult().setError("Failed to retrieve Provenance Events from store; see logs for more details");
+                        logger.error("Failed to retrieve Provenance Events from store", e);
+                    }
+                });
+
+                awaitCompletion(submission.getResult());
+                return submission;
+            }
+        }
+
+        final SegmentQuery segmentQuery = SegmentQuery.fromQuery(query);
+        final List<IndexSegment> segments = getSegments(segmentQuery.getMinEventTime(), segmentQuery.getMaxEventTime());
+
+        final AsyncQuerySubmission submission = new AsyncQuerySubmission(query, Math.max(1, segments.size()), userId);
+        querySubmissionMap.put(query.getIdentifier(), submission);
+
+        logger.debug("Submitting query {} with identifier {} against {} index segments", segmentQuery, query.getIdentifier(), segments.size());
+        submitSegmentQueries(segments, segmentQuery, submission.getResult(), query.getMaxResults(), authorizer, EventTransformer.EMPTY_TRANSFORMER);
+
+        awaitCompletion(submission.getResult());
+        return submission;
+    }
+
+    @Override
+    protected ComputeLineageSubmission submitLineageComputation(final Collection<String> flowFileUuids, final NiFiUser user, final EventAuthorizer eventAuthorizer,
+                                                                final LineageComputationType computationType, final Long eventId, final long startTimestamp, final long endTimestamp) {
+
+        // Matching a FlowFile UUID against a segment is a dictionary lookup, so there is no need to limit or batch the UUIDs as the Lucene index does.
+        final List<IndexSegment> segments = flowFileUuids.isEmpty() ? Collections.emptyList() : getSegments(startTimestamp, endTimestamp);
+        final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, flowFileUuids, Math.max(1, segments.size()),
+            user == null ? null : user.getIdentity());
+        lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
+
+        final SegmentQuery segmentQuery = SegmentQuery.forFlowFiles(flowFileUuids, startTimestamp, endTimestamp);
+        submitSegmentQueries(segments, segmentQuery, submission.getResult(), maxLineageNodes, eventAuthorizer, EventTransformer.PLACEHOLDER_TRANSFORMER);
+
+        awaitCompletion(submission.getResult());
+        return submission;
+    }
+
+    // Many queries complete very quickly, so wait a short while for the result rather than requiring the client to issue a second request.
+    private void awaitCompletion(final StandardQueryResult result) {
+        try {
+            result.awaitCompletion(500, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitCompletion(final StandardLineageResult result) {
+        try {
+            result.awaitCompletion(500, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void performMaintenance() {
+        try {
+            final List<ProvenanceEventRecord> firstEvents = eventStore.getEvents(0, 1);
+            if (firstEvents.isEmpty()) {
+                logger.debug("Found no events in the Provenance Repository, so will not remove any Index Segments");
+                return;
+            }
+
+            final long firstEventId = firstEvents.get(0).getEventId();
+            logger.debug("First Event ID in the Provenance Repository is {}; will remove any Index Segment that contains only older events", firstEventId);
+
+            for (final PartitionIndex partition : partitions.values()) {
+                partition.deleteSegmentsBefore(firstEventId);
+            }
+        } catch (final Exception e) {
+            logger.error("Failed to perform background maintenance procedures", e);
+            eventReporter.reportEvent(Severity.ERROR, EVENT_CATEGORY, "Failed to perform maintenance of Provenance Repository. See logs for more information.");
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import org.apache.nifi.util.Tuple;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A segment of a {@link ColumnarEventIndex}, which indexes a contiguous run of the events that were added to a single partition.
+ */
+interface IndexSegment {
+
+    /**
+     * @return the number of events in the segment
+     */
+    int getEventCount();
+
+    long getMinEventId();
+
+    long getMaxEventId();
+
+    long getMinEventTime();
+
+    long getMaxEventTime();
+
+    /**
+     * @param minEventTime the earliest Event Time of interest
+     * @param maxEventTime the latest Event Time of interest
+     * @return <code>true</code> if the segment may contain events whose Event Time falls within the given range
+     */
+    default boolean isOverlapping(final long minEventTime, final long maxEventTime) {
+        return getEventCount() > 0 && getMinEventTime() <= maxEventTime && getMaxEventTime() >= minEventTime;
+    }
+
+    /**
+     * Searches the segment for events that match the given query. If more than <code>maxResults</code> events match, the events
+     * that were most recently added to the segment are returned.
+     *
+     * @param query the query to evaluate
+     * @param maxResults the maximum number of Event IDs to return
+     * @return a Tuple whose key is the IDs of the matching events and whose value is the total number of matching events
+     * @throws IOException if unable to read the segment
+     */
+    Tuple<List<Long>, Long> search(SegmentQuery query, int maxResults) throws IOException;
+}
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.search.SearchableField;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The segments that index the events of a single partition of the Event Store. Events are added to an {@link ActiveSegment} until it
+ * holds the configured number of events, at which point it is sealed and written to the partition's index directory.
+ */
+class PartitionIndex {
+    private static final Logger logger = LoggerFactory.getLogger(PartitionIndex.class);
+    private static final String SEGMENT_FILE_SUFFIX = ".segment";
+
+    private final String partitionName;
+    private final File indexDirectory;
+    private final int eventsPerSegment;
+    private final Set<SearchableField> searchableEventFields;
+    private final List<SearchableField> searchableAttributes;
+
+    // keyed by the smallest Event ID of each segment, which is also what the segment's file is named after, so it is unique
+    private final ConcurrentNavigableMap<Long, SegmentFile> segmentFiles = new ConcurrentSkipListMap<>();
+    private volatile long maxSegmentIdSpan = 0L; // the largest difference between the smallest and largest Event ID of any segment
+    private final List<ActiveSegment> sealingSegments = new CopyOnWriteArrayList<>(); // full segments that are in the process of being written
+    private ActiveSegment activeSegment; // guarded by synchronizing on this
+
+    PartitionIndex(final String partitionName, final File indexDirectory, final int eventsPerSegment, final Set<SearchableField> searchableEventFields,
+                   final List<SearchableField> searchableAttributes) {
+        this.partitionName = partitionName;
+        this.indexDirectory = indexDirectory;
+        this.eventsPerSegment = eventsPerSegment;
+        this.searchableEventFields = searchableEventFields;
+        this.searchableAttributes = searchableAttributes;
+        this.activeSegment = new ActiveSegment(searchableEventFields, searchableAttributes);
+    }
+
+    /**
+     * Creates the index directory if necessary and reads the headers of any segments that were previously written
+     *
+     * @throws IOException if unable to create the index directory
+     */
+    void initialize() throws IOException {
+        if (!indexDirectory.exists() && !indexDirectory.mkdirs()) {
+            throw new IOException("Unable to create Provenance Index Directory " + indexDirectory);
+        }
+
+        final File[] files = indexDirectory.listFiles();
+        if (files == null) {
+            throw new IOException("Unable to list the contents of Provenance Index Directory " + indexDirectory);
+        }
+
+        for (final File file : files) {
+            if (!file.getName().endsWith(SEGMENT_FILE_SUFFIX)) {
+                // Any other file is a segment that was only partially written
+                deleteFile(file);
+                continue;
+            }
+
+            try {
+                addSegmentFile(SealedSegment.readHeader(file));
+            } catch (final IOException ioe) {
+                logger.warn("Failed to read Provenance Index Segment {}; the segment will be deleted and the events that it indexed will not be searchable", file, ioe);
+                deleteFile(file);
+            }
+        }
+
+        logger.info("Found {} Provenance Index Segments for Partition {} in {}", segmentFiles.size(), partitionName, indexDirectory);
+    }
+
+    void addEvents(final Collection<Map.Entry<ProvenanceEventRecord, StorageSummary>> events) {
+        List<ActiveSegment> fullSegments = null;
+        synchronized (this) {
+            for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : events) {
+                activeSegment.addEvent(entry.getKey(), entry.getValue().getEventId());
+
+                if (activeSegment.getEventCount() >= eventsPerSegment) {
+                    if (fullSegments == null) {
+                        fullSegments = new ArrayList<>(1);
+                    }
+                    fullSegments.add(rollover());
+                }
+            }
+        }
+
+        // Write the segments without holding the lock so that events can continue to be added to the new Active Segment.
+        if (fullSegments != null) {
+            for (final ActiveSegment fullSegment : fullSegments) {
+                persist(fullSegment);
+            }
+        }
+    }
+
+    private ActiveSegment rollover() {
+        final ActiveSegment fullSegment = activeSegment;
+        sealingSegments.add(fullSegment);
+        activeSegment = new ActiveSegment(searchableEventFields, searchableAttributes);
+        return fullSegment;
+    }
+
+    private void persist(final ActiveSegment segment) {
+        final File file = new File(indexDirectory, segment.getMinEventId() + SEGMENT_FILE_SUFFIX);
+
+        // Synchronize on the segment so that it is not written twice if a commit occurs while it is being written following a rollover
+        synchronized (segment) {
+            if (!sealingSegments.contains(segment)) {
+                return;
+            }
+
+            try {
+                final SegmentFile segmentFile = SegmentFile.create(segment.seal(), file);
+                synchronized (this) {
+                    addSegmentFile(segmentFile);
+                    sealingSegments.remove(segment);
+                }
+
+                logger.debug("Wrote Provenance Index Segment {} with {} events for Partition {}", file, segment.getEventCount(), partitionName);
+            } catch (final IOException ioe) {
+                // Keep the segment in memory so that its events remain searchable. It will be written again on the next commit.
+                logger.error("Failed to write Provenance Index Segment {} for Partition {}", file, partitionName, ioe);
+            }
+        }
+    }
+
+    private synchronized void addSegmentFile(final SegmentFile segmentFile) {
+        maxSegmentIdSpan = Math.max(maxSegmentIdSpan, segmentFile.getMaxEventId() - segmentFile.getMinEventId());
+        segmentFiles.put(segmentFile.getMinEventId(), segmentFile);
+    }
+
+    /**
+     * Writes any events that have not yet been written to disk, so that they do not need to be re-indexed upon restart
+     */
+    void commit() {
+        synchronized (this) {
+            if (activeSegment.getEventCount() > 0) {
+                rollover();
+            }
+        }
+
+        for (final ActiveSegment sealingSegment : sealingSegments) {
+            persist(sealingSegment);
+        }
+    }
+
+    /**
+     * @param minEventTime the earliest Event Time of interest
+     * @param maxEventTime the latest Event Time of interest
+     * @return the segments that may contain events within the given time range, most recent first
+     */
+    List<IndexSegment> getSegments(final long minEventTime, final long maxEventTime) {
+        final List<IndexSegment> segments = new ArrayList<>();
+        synchronized (this) {
+            segments.addAll(segmentFiles.values());
+            segments.addAll(sealingSegments);
+            segments.add(activeSegment);
+        }
+
+        segments.removeIf(segment -> !segment.isOverlapping(minEventTime, maxEventTime));
+        segments.sort(Comparator.comparingLong(IndexSegment::getMaxEventId).reversed());
+        return segments;
+    }
+
+    /**
+     * @return the largest Event ID that has been written to disk, or <code>-1</code> if no segments have been written
+     */
+    long getMaxPersistedEventId() {
+        long maxEventId = -1L;
+        for (final SegmentFile segmentFile : segmentFiles.values()) {
+            maxEventId = Math.max(maxEventId, segmentFile.getMaxEventId());
+        }
+
+        return maxEventId;
+    }
+
+    /**
+     * @param eventId the ID of an event
+     * @return <code>true</code> if the event has already been written to disk as part of one of this partition's segments
+     * @throws IOException if unable to read a segment
+     */
+    boolean isPersisted(final long eventId) throws IOException {
+        // Only a segment whose smallest Event ID is no larger than the given ID, and no smaller than the given ID minus the largest span
+        // of any segment, can contain the event. Segments are usually disjoint, so this is typically a single segment.
+        final long minCandidateId = eventId - maxSegmentIdSpan;
+        for (final SegmentFile segmentFile : segmentFiles.headMap(eventId, true).descendingMap().values()) {
+            if (segmentFile.getMinEventId() < minCandidateId) {
+                break;
+            }
+
+            if (segmentFile.containsEventId(eventId)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Deletes any segment that holds only events whose ID is smaller than the given ID. A segment that is being read when it is removed
+     * is deleted once the read completes.
+     *
+     * @param minEventId the smallest Event ID that is still held by the Event Store
+     */
+    void deleteSegmentsBefore(final long minEventId) {
+        for (final SegmentFile segmentFile : segmentFiles.headMap(minEventId).values()) {
+            if (segmentFile.getMaxEventId() < minEventId && segmentFiles.remove(segmentFile.getMinEventId(), segmentFile)) {
+                segmentFile.release();
+                logger.debug("Removed expired Provenance Index Segment {}", segmentFile.getFile());
+            }
+        }
+    }
+
+    long getSize() {
+        long size = 0L;
+        for (final SegmentFile segmentFile : segmentFiles.values()) {
+            size += segmentFile.getFile().length();
+        }
+
+        return size;
+    }
+
+    private void deleteFile(final File file) {
+        if (file.exists() && !file.delete()) {
+            logger.warn("Failed to delete {}; this file should be cleaned up manually", file);
+        }
+    }
+}
@@ -0,0 +1,375 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * An immutable segment whose columns have been sorted so that values can be found by binary search, and whose postings are held in a
+ * single array per column. A Sealed Segment is written to disk so that it does not need to be rebuilt upon restart.
+ * </p>
+ *
+ * <p>
+ * The segment file begins with a fixed-length header that holds the number of events along with the range of Event IDs and Event Times,
+ * so that the segments that are relevant to a query can be determined without reading their columns. The Event IDs, Event Times and
+ * File Sizes follow, delta and variable-length encoded, and then each column's dictionary of values along with the postings for each value.
+ * </p>
+ */
+class SealedSegment extends AbstractIndexSegment {
+    static final int ENCODING_VERSION = 1;
+    private static final byte[] MAGIC_HEADER = {'N', 'P', 'S', 'G'};
+
+    private final long[] eventIds;
+    private final long[] eventTimes;
+    private final long[] fileSizes;
+    private final long minEventId;
+    private final long maxEventId;
+    private final long minEventTime;
+    private final long maxEventTime;
+    private final Map<String, Column> columns;
+    private volatile long[] sortedEventIds;
+
+    SealedSegment(final long[] eventIds, final long[] eventTimes, final long[] fileSizes, final long minEventId, final long maxEventId,
+                  final long minEventTime, final long maxEventTime, final Map<String, Column> columns) {
+        this.eventIds = eventIds;
+        this.eventTimes = eventTimes;
+        this.fileSizes = fileSizes;
+        this.minEventId = minEventId;
+        this.maxEventId = maxEventId;
+        this.minEventTime = minEventTime;
+        this.maxEventTime = maxEventTime;
+        this.columns = columns;
+    }
+
+    @Override
+    public int getEventCount() {
+        return eventIds.length;
+    }
+
+    @Override
+    public long getMinEventId() {
+        return minEventId;
+    }
+
+    @Override
+    public long getMaxEventId() {
+        return maxEventId;
+    }
+
+    @Override
+    public long getMinEventTime() {
+        return minEventTime;
+    }
+
+    @Override
+    public long getMaxEventTime() {
+        return maxEventTime;
+    }
+
+    @Override
+    protected long getEventId(final int eventIndex) {
+        return eventIds[eventIndex];
+    }
+
+    @Override
+    protected long getEventTime(final int eventIndex) {
+        return eventTimes[eventIndex];
+    }
+
+    @Override
+    protected long getFileSize(final int eventIndex) {
+        return fileSizes[eventIndex];
+    }
+
+    @Override
+    protected void addMatches(final SegmentQuery.Term term, final BitSet matches) {
+        final Column column = columns.get(term.getFieldName());
+        if (column != null) {
+            column.addMatches(term, matches);
+        }
+    }
+
+    /**
+     * @param eventId the ID of an event
+     * @return <code>true</code> if the segment contains the event with the given ID
+     */
+    boolean containsEventId(final long eventId) {
+        if (eventId < minEventId || eventId > maxEventId) {
+            return false;
+        }
+
+        long[] sorted = sortedEventIds;
+        if (sorted == null) {
+            sorted = eventIds.clone();
+            Arrays.sort(sorted);
+            sortedEventIds = sorted;
+        }
+
+        return Arrays.binarySearch(sorted, eventId) >= 0;
+    }
+
+    /**
+     * Writes the segment to the given file. The segment is first written to a temporary file, which then replaces the given file,
+     * so that a partially written segment is never encountered.
+     *
+     * @param file the file to write to
+     * @throws IOException if unable to write the segment
+     */
+    void write(final File file) throws IOException {
+        final File partialFile = new File(file.getParentFile(), file.getName() + ".part");
+
+        try (final FileOutputStream fos = new FileOutputStream(partialFile);
+             final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos, 65536))) {
+
+            out.write(MAGIC_HEADER);
+            out.writeInt(ENCODING_VERSION);
+            out.writeInt(eventIds.length);
+            out.writeLong(minEventId);
+            out.writeLong(maxEventId);
+            out.writeLong(minEventTime);
+            out.writeLong(maxEventTime);
+
+            writeDeltas(eventIds, out);
+            writeDeltas(eventTimes, out);
+            for (final long fileSize : fileSizes) {
+                writeVarLong(fileSize, out);
+            }
+
+            out.writeInt(columns.size());
+            for (final Map.Entry<String, Column> entry : columns.entrySet()) {
+                out.writeUTF(entry.getKey());
+                entry.getValue().write(out);
+            }
+
+            out.flush();
+            fos.getFD().sync();
+        }
+
+        Files.move(partialFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Reads the header of the given segment file
+     *
+     * @param file the segment file
+     * @return a segment that can be used to access the given file, whose columns are only read when the segment is searched
+     * @throws IOException if unable to read the file or the file is not a valid segment
+     */
+    static SegmentFile readHeader(final File file) throws IOException {
+        try (final InputStream fis = new FileInputStream(file);
+             final DataInputStream in = new DataInputStream(new BufferedInputStream(fis, 64))) {
+
+            final int eventCount = readHeader(file, in);
+            return new SegmentFile(file, eventCount, in.readLong(), in.readLong(), in.readLong(), in.readLong());
+        }
+    }
+
+    /**
+     * Reads the entire contents of the given segment file
+     *
+     * @param file the segment file
+     * @return the segment
+     * @throws IOException if unable to read the file or the file is not a valid segment
+     */
+    static SealedSegment read(final File file) throws IOException {
+        try (final InputStream fis = new FileInputStream(file);
+             final DataInputStream in = new DataInputStream(new BufferedInputStream(fis, 65536))) {
+
+            final int eventCount = readHeader(file, in);
+            final long minEventId = in.readLong();
+            final long maxEventId = in.readLong();
+            final long minEventTime = in.readLong();
+            final long maxEventTime = in.readLong();
+
+            final long[] eventIds = readDeltas(eventCount, in);
+            final long[] eventTimes = readDeltas(eventCount, in);
+            final long[] fileSizes = new long[eventCount];
+            for (int i = 0; i < eventCount; i++) {
+                fileSizes[i] = readVarLong(in);
+            }
+
+            final int columnCount = in.readInt();
+            final Map<String, Column> columns = new LinkedHashMap<>();
+            for (int i = 0; i < columnCount; i++) {
+                final String fieldName = in.readUTF();
+                columns.put(fieldName, Column.read(in));
+            }
+
+            return new SealedSegment(eventIds, eventTimes, fileSizes, minEventId, maxEventId, minEventTime, maxEventTime, columns);
+        }
+    }
+
+    private static int readHeader(final File file, final DataInputStream in) throws IOException {
+        final byte[] magicHeader = new byte[MAGIC_HEADER.length];
+        in.readFully(magicHeader);
+        if (!Arrays.equals(magicHeader, MAGIC_HEADER)) {
+            throw new IOException(file + " is not a Provenance Index Segment");
+        }
+
+        final int version = in.readInt();
+        if (version != ENCODING_VERSION) {
+            throw new IOException("Provenance Index Segment " + file + " was written with encoding version " + version + ", which is not supported");
+        }
+
+        return in.readInt();
+    }
+
+    private static void writeDeltas(final long[] values, final DataOutput out) throws IOException {
+        long previous = 0L;
+        for (final long value : values) {
+            final long delta = value - previous;
+            writeVarLong((delta << 1) ^ (delta >> 63), out); // zig-zag encode, as Event IDs are not necessarily added in order
+            previous = value;
+        }
+    }
+
+    private static long[] readDeltas(final int count, final DataInput in) throws IOException {
+        final long[] values = new long[count];
+        long previous = 0L;
+        for (int i = 0; i < count; i++) {
+            final long zigZag = readVarLong(in);
+            previous += (zigZag >>> 1) ^ -(zigZag & 1);
+            values[i] = previous;
+        }
+
+        return values;
+    }
+
+    private static void writeVarLong(long value, final DataOutput out) throws IOException {
+        while ((value & ~0x7FL) != 0L) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(final DataInput in) throws IOException {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed variable-length value in Provenance Index Segment");
+    }
+
+
+    /**
+     * A dictionary encoded column. The values are sorted, and the positions of the events that have the value at index <code>i</code>
+     * are held in <code>eventIndices</code>, from <code>offsets[i]</code> (inclusive) to <code>offsets[i + 1]</code> (exclusive).
+     */
+    static class Column {
+        private final String[] values;
+        private final int[] offsets;
+        private final int[] eventIndices;
+
+        Column(final String[] values, final int[] offsets, final int[] eventIndices) {
+            this.values = values;
+            this.offsets = offsets;
+            this.eventIndices = eventIndices;
+        }
+
+        void addMatches(final SegmentQuery.Term term, final BitSet matches) {
+            for (final String value : term.getExactValues()) {
+                final int index = Arrays.binarySearch(values, value);
+                if (index >= 0) {
+                    setBits(index, matches);
+                }
+            }
+
+            // Any value that matches a wildcard must start with the text before the first wildcard, so only that range of the dictionary is checked
+            for (int i = 0; i < term.getWildcardCount(); i++) {
+                final String prefix = term.getWildcardPrefix(i);
+                final int prefixIndex = Arrays.binarySearch(values, prefix);
+                for (int index = prefixIndex >= 0 ? prefixIndex : -prefixIndex - 1; index < values.length && values[index].startsWith(prefix); index++) {
+                    if (term.isWildcardMatch(i, values[index])) {
+                        setBits(index, matches);
+                    }
+                }
+            }
+        }
+
+        private void setBits(final int valueIndex, final BitSet matches) {
+            for (int i = offsets[valueIndex]; i < offsets[valueIndex + 1]; i++) {
+                matches.set(eventIndices[i]);
+            }
+        }
+
+        void write(final DataOutput out) throws IOException {
+            out.writeInt(values.length);
+            for (int i = 0; i < values.length; i++) {
+                out.writeUTF(values[i]);
+
+                // Postings are in ascending order, so the gaps between them are written
+                writeVarLong(offsets[i + 1] - offsets[i], out);
+                int previous = 0;
+                for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                    writeVarLong(eventIndices[j] - previous, out);
+                    previous = eventIndices[j];
+                }
+            }
+        }
+
+        static Column read(final DataInput in) throws IOException {
+            final int valueCount = in.readInt();
+            final String[] values = new String[valueCount];
+            final int[] offsets = new int[valueCount + 1];
+            int[] eventIndices = new int[Math.max(16, valueCount)];
+
+            int offset = 0;
+            for (int i = 0; i < valueCount; i++) {
+                values[i] = in.readUTF();
+                offsets[i] = offset;
+
+                final int count = (int) readVarLong(in);
+                if (offset + count > eventIndices.length) {
+                    eventIndices = Arrays.copyOf(eventIndices, Math.max(eventIndices.length * 2, offset + count));
+                }
+
+                int previous = 0;
+                for (int j = 0; j < count; j++) {
+                    previous += (int) readVarLong(in);
+                    eventIndices[offset++] = previous;
+                }
+            }
+            offsets[valueCount] = offset;
+
+            return new Column(values, offsets, Arrays.copyOf(eventIndices, offset));
+        }
+    }
+}
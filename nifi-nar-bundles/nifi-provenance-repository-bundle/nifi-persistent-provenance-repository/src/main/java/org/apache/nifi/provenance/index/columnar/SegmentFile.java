@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import org.apache.nifi.util.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A segment that has been written to disk. Only the header of the segment is held in memory permanently. The segment's columns are
+ * read when it is first searched and are then held via a soft reference, so that recently searched segments need not be read again
+ * but the memory that they use can be reclaimed when necessary.
+ *
+ * The segment is reference counted, starting with the reference held by its partition. A thread that reads the file holds a reference while
+ * doing so, and the file is deleted only once the partition has released its reference and no thread is still reading it.
+ */
+class SegmentFile implements IndexSegment {
+    private static final Logger logger = LoggerFactory.getLogger(SegmentFile.class);
+
+    private final File file;
+    private final int eventCount;
+    private final long minEventId;
+    private final long maxEventId;
+    private final long minEventTime;
+    private final long maxEventTime;
+    private final AtomicInteger referenceCount = new AtomicInteger(1);
+    private volatile SoftReference<SealedSegment> segmentReference = new SoftReference<>(null);
+
+    SegmentFile(final File file, final int eventCount, final long minEventId, final long maxEventId, final long minEventTime, final long maxEventTime) {
+        this.file = file;
+        this.eventCount = eventCount;
+        this.minEventId = minEventId;
+        this.maxEventId = maxEventId;
+        this.minEventTime = minEventTime;
+        this.maxEventTime = maxEventTime;
+    }
+
+    /**
+     * Writes the given segment to the given file
+     *
+     * @param segment the segment to write
+     * @param file the file to write the segment to
+     * @return a SegmentFile for the newly written file
+     * @throws IOException if unable to write the file
+     */
+    static SegmentFile create(final SealedSegment segment, final File file) throws IOException {
+        segment.write(file);
+
+        final SegmentFile segmentFile = new SegmentFile(file, segment.getEventCount(), segment.getMinEventId(), segment.getMaxEventId(),
+            segment.getMinEventTime(), segment.getMaxEventTime());
+        segmentFile.segmentReference = new SoftReference<>(segment);
+        return segmentFile;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    SealedSegment load() throws IOException {
+        SealedSegment segment = segmentReference.get();
+        if (segment != null) {
+            return segment;
+        }
+
+        if (!acquire()) {
+            throw new FileNotFoundException("Provenance Index Segment " + file + " has been deleted");
+        }
+
+        try {
+            segment = SealedSegment.read(file);
+            segmentReference = new SoftReference<>(segment);
+            return segment;
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Obtains a reference to the segment, which must be released once the segment's file is no longer being read
+     *
+     * @return <code>true</code> if a reference was obtained, <code>false</code> if the segment has already been deleted
+     */
+    boolean acquire() {
+        while (true) {
+            final int count = referenceCount.get();
+            if (count == 0) {
+                return false;
+            }
+
+            if (referenceCount.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a reference to the segment. Once the partition's own reference has been released and no thread is reading the segment,
+     * the file is deleted.
+     */
+    void release() {
+        if (referenceCount.decrementAndGet() > 0) {
+            return;
+        }
+
+        segmentReference = new SoftReference<>(null);
+        if (!file.delete() && file.exists()) {
+            logger.warn("Failed to delete {}; this file should be cleaned up manually", file);
+        }
+    }
+
+    /**
+     * @param eventId the ID of an event
+     * @return <code>true</code> if the segment contains the event with the given ID
+     * @throws IOException if unable to read the segment
+     */
+    boolean containsEventId(final long eventId) throws IOException {
+        if (eventId < minEventId || eventId > maxEventId) {
+            return false;
+        }
+
+        try {
+            return load().containsEventId(eventId);
+        } catch (final FileNotFoundException fnfe) {
+            // The segment was deleted because all of its events have aged off
+            return false;
+        }
+    }
+
+    @Override
+    public Tuple<List<Long>, Long> search(final SegmentQuery query, final int maxResults) throws IOException {
+        return load().search(query, maxResults);
+    }
+
+    @Override
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    @Override
+    public long getMinEventId() {
+        return minEventId;
+    }
+
+    @Override
+    public long getMaxEventId() {
+        return maxEventId;
+    }
+
+    @Override
+    public long getMinEventTime() {
+        return minEventTime;
+    }
+
+    @Override
+    public long getMaxEventTime() {
+        return maxEventTime;
+    }
+
+    @Override
+    public String toString() {
+        return "SegmentFile[" + file + "]";
+    }
+}
@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import org.apache.nifi.processor.DataUnit;
+import org.apache.nifi.provenance.SearchableFields;
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.SearchTerm;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A query against the segments of a {@link ColumnarEventIndex}. A query consists of zero or more terms, all of which must be matched
+ * by an event, along with optional ranges of Event Time and File Size.
+ */
+public class SegmentQuery {
+    private final List<Term> terms;
+    private final long minEventTime;
+    private final long maxEventTime;
+    private final long minFileSize;
+    private final long maxFileSize;
+
+    private SegmentQuery(final List<Term> terms, final long minEventTime, final long maxEventTime, final long minFileSize, final long maxFileSize) {
+        this.terms = terms;
+        this.minEventTime = minEventTime;
+        this.maxEventTime = maxEventTime;
+        this.minFileSize = minFileSize;
+        this.maxFileSize = maxFileSize;
+    }
+
+    /**
+     * Creates a SegmentQuery that is equivalent to the given Provenance Query. As with the Lucene based index, values are matched
+     * without regard to case, and the <code>*</code> and <code>?</code> wildcards are supported.
+     *
+     * @param query the query to convert
+     * @return the equivalent SegmentQuery
+     */
+    public static SegmentQuery fromQuery(final Query query) {
+        final List<Term> terms = new ArrayList<>(query.getSearchTerms().size());
+        for (final SearchTerm searchTerm : query.getSearchTerms()) {
+            final String searchValue = searchTerm.getValue();
+            if (searchValue == null) {
+                throw new IllegalArgumentException("Empty search value not allowed (for term '" + searchTerm.getSearchableField().getFriendlyName() + "')");
+            }
+
+            terms.add(new Term(searchTerm.getSearchableField().getSearchableFieldName(), Collections.singletonList(searchValue)));
+        }
+
+        final long minFileSize = query.getMinFileSize() == null ? 0L : DataUnit.parseDataSize(query.getMinFileSize(), DataUnit.B).longValue();
+        final long maxFileSize = query.getMaxFileSize() == null ? Long.MAX_VALUE : DataUnit.parseDataSize(query.getMaxFileSize(), DataUnit.B).longValue();
+        final long minEventTime = query.getStartDate() == null ? 0L : query.getStartDate().getTime();
+        final long maxEventTime = query.getEndDate() == null ? Long.MAX_VALUE : query.getEndDate().getTime();
+
+        return new SegmentQuery(terms, minEventTime, maxEventTime, minFileSize, maxFileSize);
+    }
+
+    /**
+     * Creates a SegmentQuery that matches all events that pertain to any of the given FlowFiles, as is necessary in order to compute lineage
+     *
+     * @param flowFileUuids the UUIDs of the FlowFiles of interest
+     * @param minEventTime the earliest Event Time of interest
+     * @param maxEventTime the latest Event Time of interest
+     * @return a SegmentQuery for the events of the given FlowFiles
+     */
+    public static SegmentQuery forFlowFiles(final Collection<String> flowFileUuids, final long minEventTime, final long maxEventTime) {
+        final Term term = new Term(SearchableFields.FlowFileUUID.getSearchableFieldName(), new ArrayList<>(flowFileUuids));
+        return new SegmentQuery(Collections.singletonList(term), minEventTime, maxEventTime, 0L, Long.MAX_VALUE);
+    }
+
+    public List<Term> getTerms() {
+        return terms;
+    }
+
+    public long getMinEventTime() {
+        return minEventTime;
+    }
+
+    public long getMaxEventTime() {
+        return maxEventTime;
+    }
+
+    public boolean isFileSizeRestricted() {
+        return minFileSize > 0L || maxFileSize < Long.MAX_VALUE;
+    }
+
+    public boolean isFileSizeMatch(final long fileSize) {
+        return fileSize >= minFileSize && fileSize <= maxFileSize;
+    }
+
+    public boolean isEventTimeMatch(final long eventTime) {
+        return eventTime >= minEventTime && eventTime <= maxEventTime;
+    }
+
+    @Override
+    public String toString() {
+        return "SegmentQuery[terms=" + terms + ", eventTime=[" + minEventTime + ", " + maxEventTime + "], fileSize=[" + minFileSize + ", " + maxFileSize + "]]";
+    }
+
+    /**
+     * A term that is matched by any event that has a value for the field that matches any one of the term's values
+     */
+    public static class Term {
+        private final String fieldName;
+        private final List<String> exactValues = new ArrayList<>();
+        private final List<Pattern> wildcardPatterns = new ArrayList<>();
+        private final List<String> wildcardPrefixes = new ArrayList<>();
+
+        Term(final String fieldName, final List<String> values) {
+            this.fieldName = fieldName;
+
+            for (final String value : values) {
+                final String lowerCaseValue = value.toLowerCase();
+                if (lowerCaseValue.contains("*") || lowerCaseValue.contains("?")) {
+                    wildcardPatterns.add(toPattern(lowerCaseValue));
+                    wildcardPrefixes.add(getLiteralPrefix(lowerCaseValue));
+                } else {
+                    exactValues.add(lowerCaseValue);
+                }
+            }
+        }
+
+        public String getFieldName() {
+            return fieldName;
+        }
+
+        /**
+         * @return the lower-case values that must be matched exactly
+         */
+        public List<String> getExactValues() {
+            return exactValues;
+        }
+
+        /**
+         * @return the number of values that contain wildcards
+         */
+        public int getWildcardCount() {
+            return wildcardPatterns.size();
+        }
+
+        /**
+         * @param index the index of the wildcard value
+         * @return the literal text that precedes the first wildcard, which any matching value must start with
+         */
+        public String getWildcardPrefix(final int index) {
+            return wildcardPrefixes.get(index);
+        }
+
+        /**
+         * @param index the index of the wildcard value
+         * @param value a lower-case value from the index
+         * @return <code>true</code> if the given value matches the wildcard value
+         */
+        public boolean isWildcardMatch(final int index, final String value) {
+            return wildcardPatterns.get(index).matcher(value).matches();
+        }
+
+        /**
+         * @param value a lower-case value from the index
+         * @return <code>true</code> if the given value matches any of this term's wildcard values
+         */
+        public boolean isWildcardMatch(final String value) {
+            for (final Pattern pattern : wildcardPatterns) {
+                if (pattern.matcher(value).matches()) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private static Pattern toPattern(final String wildcardValue) {
+            final StringBuilder regex = new StringBuilder();
+            int literalStart = 0;
+            for (int i = 0; i < wildcardValue.length(); i++) {
+                final char c = wildcardValue.charAt(i);
+                if (c == '*' || c == '?') {
+                    if (i > literalStart) {
+                        regex.append(Pattern.quote(wildcardValue.substring(literalStart, i)));
+                    }
+
+                    regex.append(c == '*' ? ".*" : ".");
+                    literalStart = i + 1;
+                }
+            }
+
+            if (literalStart < wildcardValue.length()) {
+                regex.append(Pattern.quote(wildcardValue.substring(literalStart)));
+            }
+
+            return Pattern.compile(regex.toString(), Pattern.DOTALL);
+        }
+
+        private static String getLiteralPrefix(final String wildcardValue) {
+            for (int i = 0; i < wildcardValue.length(); i++) {
+                final char c = wildcardValue.charAt(i);
+                if (c == '*' || c == '?') {
+                    return wildcardValue.substring(0, i);
+                }
+            }
+
+            return wildcardValue;
+        }
+
+        @Override
+        public String toString() {
+            return fieldName + "=" + exactValues + (wildcardPatterns.isEmpty() ? "" : " or " + wildcardPatterns);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import org.apache.nifi.provenance.ProgressiveResult;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.authorization.EventAuthorizer;
+import org.apache.nifi.provenance.authorization.EventTransformer;
+import org.apache.nifi.provenance.store.EventStore;
+import org.apache.nifi.util.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileNotFoundException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches a single {@link IndexSegment} and updates the query result with the matching events.
+ */
+class SegmentQueryTask implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(SegmentQueryTask.class);
+
+    private final SegmentQuery query;
+    private final ProgressiveResult queryResult;
+    private final int maxResults;
+    private final IndexSegment segment;
+    private final EventStore eventStore;
+    private final EventAuthorizer authorizer;
+    private final EventTransformer transformer;
+
+    SegmentQueryTask(final SegmentQuery query, final ProgressiveResult result, final int maxResults, final IndexSegment segment,
+                     final EventStore eventStore, final EventAuthorizer authorizer, final EventTransformer unauthorizedTransformer) {
+        this.query = query;
+        this.queryResult = result;
+        this.maxResults = maxResults;
+        this.segment = segment;
+        this.eventStore = eventStore;
+        this.authorizer = authorizer;
+        this.transformer = unauthorizedTransformer;
+    }
+
+    @Override
+    public void run() {
+        if (queryResult.isFinished()) {
+            logger.debug("Will not search {} because the query is already finished", segment);
+            return;
+        }
+
+        if (queryResult.getTotalHitCount() >= maxResults) {
+            logger.debug("Will not search {} because maximum results have already been obtained", segment);
+            queryResult.update(Collections.emptyList(), 0L);
+            return;
+        }
+
+        try {
+            final long startNanos = System.nanoTime();
+            final Tuple<List<Long>, Long> eventIdsAndTotalHits;
+            try {
+                eventIdsAndTotalHits = segment.search(query, maxResults);
+            } catch (final FileNotFoundException fnfe) {
+                // The segment was removed because its events aged off after the query was submitted
+                logger.debug("Attempted to search {} but the segment no longer exists", segment);
+                queryResult.update(Collections.emptyList(), 0L);
+                return;
+            }
+
+            final long searchNanos = System.nanoTime() - startNanos;
+            final List<Long> eventIds = eventIdsAndTotalHits.getKey();
+
+            if (queryResult.getTotalHitCount() >= maxResults || eventIds.isEmpty()) {
+                queryResult.update(Collections.emptyList(), eventIdsAndTotalHits.getValue());
+                return;
+            }
+
+            final List<ProvenanceEventRecord> events = eventStore.getEvents(eventIds, authorizer, transformer);
+            queryResult.update(events, eventIdsAndTotalHits.getValue());
+
+            final long fetchNanos = System.nanoTime() - startNanos - searchNanos;
+            logger.debug("Searched {} for {} in {} millis, finding {} hits; fetched {} events from the Event Store in {} millis", segment, query,
+                TimeUnit.NANOSECONDS.toMillis(searchNanos), eventIdsAndTotalHits.getValue(), events.size(), TimeUnit.NANOSECONDS.toMillis(fetchNanos));
+        } catch (final Exception e) {
+            logger.error("Failed to search {} for {}", segment, query, e);
+            queryResult.setError("Failed to complete query due to " + e);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.lucene;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+
+/**
+ * <p>
+ * Keeps an in-memory mapping of FlowFile UUID to the IDs of the events that pertain to that FlowFile, for the most recently added events.
+ * The UUIDs that are associated with an event are the same ones that {@link ConvertEventToLuceneDocument} indexes in the FlowFileUUID field,
+ * so that for any time range that the lookup fully covers, it returns the same events that a lineage query against the Lucene index would return,
+ * without having to search any index.
+ * </p>
+ *
+ * <p>
+ * The number of UUID-to-event mappings that are retained is bounded. Once the bound is exceeded, the oldest events are evicted, and the lookup
+ * no longer answers requests for a time range that may include events that have been evicted.
+ * </p>
+ *
+ * <p>
+ * This class is thread-safe. Events are added for every event that is indexed, so no global lock is taken: the mappings are held in concurrent
+ * collections, and only the entries for a single UUID are updated atomically.
+ * </p>
+ */
+public class FlowFileEventLookup {
+    private final int maxMappings;
+    private final long coverageStartTime;
+
+    private final ConcurrentMap<String, Queue<LookupEntry>> entriesByUuid = new ConcurrentHashMap<>();
+    private final Queue<LookupEntry> entries = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger mappingCount = new AtomicInteger(0);
+    private final AtomicLong latestEvictedEventTime = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * @param maxMappings the maximum number of UUID-to-event mappings to hold
+     * @param coverageStartTime the time before which events may not have been added to the lookup. Requests for events before this time will not be answered.
+     */
+    public FlowFileEventLookup(final int maxMappings, final long coverageStartTime) {
+        this.maxMappings = maxMappings;
+        this.coverageStartTime = coverageStartTime;
+    }
+
+    public void update(final ProvenanceEventRecord event, final StorageSummary storageSummary) {
+        final Set<String> uuids = getIndexedUuids(event);
+        final LookupEntry entry = new LookupEntry(storageSummary.getEventId(), event.getEventTime(), uuids.toArray(new String[0]));
+
+        for (final String uuid : uuids) {
+            entriesByUuid.compute(uuid, (key, uuidEntries) -> {
+                final Queue<LookupEntry> updatedEntries = uuidEntries == null ? new ConcurrentLinkedQueue<>() : uuidEntries;
+                updatedEntries.add(entry);
+                return updatedEntries;
+            });
+        }
+        entries.add(entry);
+
+        int count = mappingCount.addAndGet(uuids.size());
+        while (count > maxMappings) {
+            final LookupEntry eldest = entries.poll();
+            if (eldest == null) {
+                break;
+            }
+
+            count = evict(eldest);
+        }
+    }
+
+    private int evict(final LookupEntry entry) {
+        // Record the eviction before removing any mappings, so that a concurrent request for a range that includes the evicted event
+        // cannot return an answer that is missing it.
+        latestEvictedEventTime.accumulateAndGet(entry.eventTime, Math::max);
+
+        for (final String uuid : entry.uuids) {
+            entriesByUuid.computeIfPresent(uuid, (key, uuidEntries) -> {
+                uuidEntries.remove(entry);
+                return uuidEntries.isEmpty() ? null : uuidEntries;
+            });
+        }
+
+        return mappingCount.addAndGet(-entry.uuids.length);
+    }
+
+    /**
+     * Returns the IDs of all events that pertain to any of the given FlowFiles and occurred within the given time range, in ascending order,
+     * if the lookup holds every such event. If events within the time range may have been evicted, or may have occurred before the lookup
+     * was created, an empty Optional is returned and the caller must fall back to searching the index.
+     *
+     * @param flowFileUuids the UUIDs of the FlowFiles of interest
+     * @param startTimestamp the earliest event time of interest
+     * @param endTimestamp the latest event time of interest
+     * @return the IDs of the matching events, or an empty Optional if the lookup cannot provide a complete answer
+     */
+    public Optional<List<Long>> getEventIds(final Collection<String> flowFileUuids, final long startTimestamp, final long endTimestamp) {
+        if (!isCovered(startTimestamp)) {
+            return Optional.empty();
+        }
+
+        final Set<Long> eventIds = new TreeSet<>();
+        for (final String uuid : flowFileUuids) {
+            final Queue<LookupEntry> uuidEntries = entriesByUuid.get(uuid);
+            if (uuidEntries == null) {
+                continue;
+            }
+
+            for (final LookupEntry entry : uuidEntries) {
+                if (entry.eventTime >= startTimestamp && entry.eventTime <= endTimestamp) {
+                    eventIds.add(entry.eventId);
+                }
+            }
+        }
+
+        // Events may have been evicted while we were gathering the results, in which case the results may be incomplete.
+        if (!isCovered(startTimestamp)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(eventIds.isEmpty() ? Collections.emptyList() : new ArrayList<>(eventIds));
+    }
+
+    private boolean isCovered(final long startTimestamp) {
+        return startTimestamp >= coverageStartTime && startTimestamp > latestEvictedEventTime.get();
+    }
+
+    private static Set<String> getIndexedUuids(final ProvenanceEventRecord event) {
+        final Set<String> uuids = new LinkedHashSet<>();
+        uuids.add(event.getFlowFileUuid());
+
+        final ProvenanceEventType eventType = event.getEventType();
+        if (eventType == ProvenanceEventType.FORK || eventType == ProvenanceEventType.CLONE || eventType == ProvenanceEventType.REPLAY) {
+            uuids.addAll(event.getChildUuids());
+        } else if (eventType == ProvenanceEventType.JOIN) {
+            uuids.addAll(event.getParentUuids());
+        } else if (eventType == ProvenanceEventType.RECEIVE && event.getSourceSystemFlowFileIdentifier() != null) {
+            final String sourceIdentifier = event.getSourceSystemFlowFileIdentifier();
+            final int lastColon = sourceIdentifier.lastIndexOf(":");
+            if (lastColon > -1 && lastColon < sourceIdentifier.length() - 2) {
+                uuids.add(sourceIdentifier.substring(lastColon + 1));
+            }
+        }
+
+        return uuids;
+    }
+
+    private static class LookupEntry {
+        private final long eventId;
+        private final long eventTime;
+        private final String[] uuids;
+
+        LookupEntry(final long eventId, final long eventTime, final String[] uuids) {
+            this.eventId = eventId;
+            this.eventTime = eventTime;
+            this.uuids = uuids;
+        }
+    }
+}
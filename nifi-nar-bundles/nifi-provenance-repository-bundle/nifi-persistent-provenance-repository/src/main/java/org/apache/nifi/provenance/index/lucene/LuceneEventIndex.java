@@ -23,7 +23,6 @@ import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.TermQuery;
-import org.apache.nifi.authorization.AccessDeniedException;
 import org.apache.nifi.authorization.user.NiFiUser;
 import org.apache.nifi.events.EventReporter;
 import org.apache.nifi.provenance.AsyncLineageSubmission;
@@ -32,10 +31,9 @@ import org.apache.nifi.provenance.ProvenanceEventRecord;
 import org.apache.nifi.provenance.RepositoryConfiguration;
 import org.apache.nifi.provenance.SearchableFields;
 import org.apache.nifi.provenance.StandardLineageResult;
-import org.apache.nifi.provenance.StandardQueryResult;
 import org.apache.nifi.provenance.authorization.EventAuthorizer;
 import org.apache.nifi.provenance.authorization.EventTransformer;
-import org.apache.nifi.provenance.index.EventIndex;
+import org.apache.nifi.provenance.index.AbstractEventIndex;
 import org.apache.nifi.provenance.index.EventIndexSearcher;
 import org.apache.nifi.provenance.index.EventIndexWriter;
 import org.apache.nifi.provenance.lineage.ComputeLineageSubmission;
@@ -63,13 +61,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -79,18 +74,14 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
-public class LuceneEventIndex implements EventIndex {
+public class LuceneEventIndex extends AbstractEventIndex {
     private static final Logger logger = LoggerFactory.getLogger(LuceneEventIndex.class);
     private static final String EVENT_CATEGORY = "Provenance Repository";
 
-    public static final int MAX_UNDELETED_QUERY_RESULTS = 10;
     public static final int MAX_DELETE_INDEX_WAIT_SECONDS = 30;
-    public static final int MAX_LINEAGE_NODES = 1000;
     public static final int MAX_INDEX_THREADS = 100;
     public static final int MAX_LINEAGE_UUIDS = 100;
 
-    private final ConcurrentMap<String, AsyncQuerySubmission> querySubmissionMap = new ConcurrentHashMap<>();
-    private final ConcurrentMap<String, AsyncLineageSubmission> lineageSubmissionMap = new ConcurrentHashMap<>();
     private final BlockingQueue<StoredDocument> documentQueue = new LinkedBlockingQueue<>(1000);
     private final List<EventIndexTask> indexTasks = Collections.synchronizedList(new ArrayList<>());
     private final ExecutorService queryExecutor;
@@ -107,6 +98,7 @@ public class LuceneEventIndex implements EventIndex {
     private final EventReporter eventReporter;
 
     private final List<CachedQuery> cachedQueries = new ArrayList<>();
+    private final FlowFileEventLookup flowFileEventLookup; // null if disabled
 
     private ScheduledExecutorService maintenanceExecutor; // effectively final
     private ScheduledExecutorService cacheWarmerExecutor;
@@ -148,6 +140,9 @@ public class LuceneEventIndex implements EventIndex {
             indexExecutor.submit(task);
         }
 
+        final int lineageLookupMaxMappings = config.getLineageLookupMaxMappings();
+        flowFileEventLookup = lineageLookupMaxMappings > 0 ? new FlowFileEventLookup(lineageLookupMaxMappings, System.currentTimeMillis()) : null;
+
         this.config = config;
         this.indexManager = indexManager;
         this.eventConverter = new ConvertEventToLuceneDocument(config.getSearchableFields(), config.getSearchableAttributes());
@@ -304,6 +299,11 @@ public class LuceneEventIndex implements EventIndex {
         return false;
     }
 
+    @Override
+    protected EventStore getEventStore() {
+        return eventStore;
+    }
+
     @Override
     public long getMinimumEventIdToReindex(final String partitionName) {
         return Math.max(0, getMaxEventId(partitionName) - EventIndexTask.MAX_DOCUMENTS_PER_THREAD * LuceneEventIndex.MAX_INDEX_THREADS);
@@ -452,6 +452,9 @@ public class LuceneEventIndex implements EventIndex {
         for (final CachedQuery cachedQuery : cachedQueries) {
             cachedQuery.update(event, location);
         }
+        if (flowFileEventLookup != null) {
+            flowFileEventLookup.update(event, location);
+        }
 
         final Document document = eventConverter.convert(event, location);
         if (document == null) {
@@ -515,51 +518,56 @@ public class LuceneEventIndex implements EventIndex {
 
 
     @Override
-    public ComputeLineageSubmission submitLineageComputation(final long eventId, final NiFiUser user, final EventAuthorizer eventAuthorizer) {
-        final Optional<ProvenanceEventRecord> eventOption;
-        try {
-            eventOption = eventStore.getEvent(eventId);
-        } catch (final Exception e) {
-            logger.error("Failed to retrieve Provenance Event with ID " + eventId + " to calculate data lineage due to: " + e, e);
-            final AsyncLineageSubmission result = new AsyncLineageSubmission(LineageComputationType.FLOWFILE_LINEAGE, eventId, Collections.emptySet(), 1, user == null ? null : user.getIdentity());
-            result.getResult().setError("Failed to retrieve Provenance Event with ID " + eventId + ". See logs for more information.");
-            return result;
-        }
-
-        if (!eventOption.isPresent()) {
-            final AsyncLineageSubmission result = new AsyncLineageSubmission(LineageComputationType.FLOWFILE_LINEAGE, eventId, Collections.emptySet(), 1, user == null ? null : user.getIdentity());
-            result.getResult().setError("Could not find Provenance Event with ID " + eventId);
-            lineageSubmissionMap.put(result.getLineageIdentifier(), result);
-            return result;
-        }
+    protected ComputeLineageSubmission submitLineageComputation(final Collection<String> flowFileUuids, final NiFiUser user, final EventAuthorizer eventAuthorizer,
+        final LineageComputationType computationType, final Long eventId, final long startTimestamp, final long endTimestamp) {
 
-        final ProvenanceEventRecord event = eventOption.get();
-        return submitLineageComputation(Collections.singleton(event.getFlowFileUuid()), user, eventAuthorizer, LineageComputationType.FLOWFILE_LINEAGE,
-            eventId, event.getLineageStartDate(), Long.MAX_VALUE);
-    }
+        // A FlowFile may have been split into a very large number of children, so rather than building a single enormous query, we search
+        // for the FlowFiles in batches. The batches are submitted in order, so the FlowFiles that were given first are searched first and
+        // the partial graph fills in breadth-first. Once the configured number of nodes has been obtained, the remaining batches are skipped.
+        final List<List<String>> uuidBatches = new ArrayList<>();
+        List<String> currentBatch = null;
+        for (final String flowFileUuid : flowFileUuids) {
+            if (currentBatch == null || currentBatch.size() >= MAX_LINEAGE_UUIDS) {
+                currentBatch = new ArrayList<>(MAX_LINEAGE_UUIDS);
+                uuidBatches.add(currentBatch);
+            }
 
+            currentBatch.add(flowFileUuid);
+        }
 
-    private ComputeLineageSubmission submitLineageComputation(final Collection<String> flowFileUuids, final NiFiUser user, final EventAuthorizer eventAuthorizer,
-        final LineageComputationType computationType, final Long eventId, final long startTimestamp, final long endTimestamp) {
+        final List<File> indexDirectories = directoryManager.getDirectories(startTimestamp, endTimestamp);
+        indexDirectories.sort(DirectoryUtils.OLDEST_INDEX_FIRST);
 
-        if (flowFileUuids.size() > MAX_LINEAGE_UUIDS) {
-            throw new IllegalArgumentException(String.format("Cannot compute lineage for more than %s FlowFiles. This lineage contains %s.", MAX_LINEAGE_UUIDS, flowFileUuids.size()));
+        // Batches whose events are all still held by the lookup can be answered without searching Lucene at all, and they take
+        // a single step. Determine this up front, as the number of steps must be known when the submission is created.
+        final List<Optional<List<Long>>> lookupResults = new ArrayList<>(uuidBatches.size());
+        int numSteps = 0;
+        for (final List<String> uuidBatch : uuidBatches) {
+            final Optional<List<Long>> lookupResult = flowFileEventLookup == null ? Optional.empty() : flowFileEventLookup.getEventIds(uuidBatch, startTimestamp, endTimestamp);
+            lookupResults.add(lookupResult);
+            numSteps += lookupResult.isPresent() ? 1 : indexDirectories.size();
         }
 
-        final List<File> indexDirs = directoryManager.getDirectories(startTimestamp, endTimestamp);
-        final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, flowFileUuids, indexDirs.size(), user == null ? null : user.getIdentity());
+        final AsyncLineageSubmission submission = new AsyncLineageSubmission(computationType, eventId, flowFileUuids, numSteps, user == null ? null : user.getIdentity());
         lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
 
-        final BooleanQuery lineageQuery = buildLineageQuery(flowFileUuids);
-        final List<File> indexDirectories = directoryManager.getDirectories(startTimestamp, endTimestamp);
-        if (indexDirectories.isEmpty()) {
-            submission.getResult().update(Collections.emptyList(), 0L);
+        final StandardLineageResult lineageResult = submission.getResult();
+        final int maxLineageNodes = config.getMaxLineageNodes();
+        if (numSteps == 0) {
+            lineageResult.update(Collections.emptyList(), 0L);
         } else {
-            indexDirectories.sort(DirectoryUtils.OLDEST_INDEX_FIRST);
+            for (int i = 0; i < uuidBatches.size(); i++) {
+                final Optional<List<Long>> lookupResult = lookupResults.get(i);
 
-            for (final File indexDir : indexDirectories) {
-                queryExecutor.submit(new QueryTask(lineageQuery, submission.getResult(), MAX_LINEAGE_NODES, indexManager, indexDir,
-                    eventStore, eventAuthorizer, EventTransformer.PLACEHOLDER_TRANSFORMER));
+                if (lookupResult.isPresent()) {
+                    queryExecutor.submit(() -> retrieveLineageEvents(lookupResult.get(), lineageResult, maxLineageNodes, eventAuthorizer));
+                } else {
+                    final BooleanQuery lineageQuery = buildLineageQuery(uuidBatches.get(i));
+                    for (final File indexDir : indexDirectories) {
+                        queryExecutor.submit(new QueryTask(lineageQuery, lineageResult, maxLineageNodes, indexManager, indexDir,
+                            eventStore, eventAuthorizer, EventTransformer.PLACEHOLDER_TRANSFORMER));
+                    }
+                }
             }
         }
 
@@ -567,7 +575,7 @@ public class LuceneEventIndex implements EventIndex {
         // for the client to submit a second query to obtain the result. Instead, we want to just
         // wait some short period of time for the computation to complete before returning the submission.
         try {
-            submission.getResult().awaitCompletion(500, TimeUnit.MILLISECONDS);
+            lineageResult.awaitCompletion(500, TimeUnit.MILLISECONDS);
         } catch (final InterruptedException ie) {
             Thread.currentThread().interrupt();
         }
@@ -575,6 +583,28 @@ public class LuceneEventIndex implements EventIndex {
         return submission;
     }
 
+    private void retrieveLineageEvents(final List<Long> eventIds, final StandardLineageResult lineageResult, final int maxLineageNodes, final EventAuthorizer eventAuthorizer) {
+        if (lineageResult.isFinished()) {
+            return;
+        }
+
+        final long remainingNodes = maxLineageNodes - lineageResult.getTotalHitCount();
+        if (remainingNodes <= 0) {
+            logger.debug("Will not retrieve {} lineage events because maximum results have already been obtained", eventIds.size());
+            lineageResult.update(Collections.emptyList(), 0L);
+            return;
+        }
+
+        final List<Long> idsToRetrieve = eventIds.size() > remainingNodes ? eventIds.subList(0, (int) remainingNodes) : eventIds;
+        try {
+            final List<ProvenanceEventRecord> events = eventStore.getEvents(idsToRetrieve, eventAuthorizer, EventTransformer.PLACEHOLDER_TRANSFORMER);
+            lineageResult.update(events, eventIds.size());
+        } catch (final Exception e) {
+            logger.error("Failed to retrieve Provenance Events from store in order to compute lineage", e);
+            lineageResult.setError("Failed to retrieve Provenance Events from store; see logs for more details");
+        }
+    }
+
     private BooleanQuery buildLineageQuery(final Collection<String> flowFileUuids) {
         // Create a query for all Events related to the FlowFiles of interest. We do this by adding all ID's as
         // "SHOULD" clauses and then setting the minimum required to 1.
@@ -665,133 +695,6 @@ public class LuceneEventIndex implements EventIndex {
     }
 
 
-    @Override
-    public ComputeLineageSubmission submitLineageComputation(final String flowFileUuid, final NiFiUser user, final EventAuthorizer eventAuthorizer) {
-        return submitLineageComputation(Collections.singleton(flowFileUuid), user, eventAuthorizer, LineageComputationType.FLOWFILE_LINEAGE, null, 0L, Long.MAX_VALUE);
-    }
-
-    @Override
-    public ComputeLineageSubmission submitExpandChildren(final long eventId, final NiFiUser user, final EventAuthorizer authorizer) {
-        final String userId = user == null ? null : user.getIdentity();
-
-        try {
-            final Optional<ProvenanceEventRecord> eventOption = eventStore.getEvent(eventId);
-            if (!eventOption.isPresent()) {
-                final AsyncLineageSubmission submission = new AsyncLineageSubmission(LineageComputationType.EXPAND_CHILDREN, eventId, Collections.emptyList(), 1, userId);
-                lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
-                submission.getResult().update(Collections.emptyList(), 0L);
-                return submission;
-            }
-
-            final ProvenanceEventRecord event = eventOption.get();
-            switch (event.getEventType()) {
-                case CLONE:
-                case FORK:
-                case JOIN:
-                case REPLAY: {
-                    return submitLineageComputation(event.getChildUuids(), user, authorizer, LineageComputationType.EXPAND_CHILDREN,
-                        eventId, event.getEventTime(), Long.MAX_VALUE);
-                }
-                default: {
-                    final AsyncLineageSubmission submission = new AsyncLineageSubmission(LineageComputationType.EXPAND_CHILDREN,
-                        eventId, Collections.emptyList(), 1, userId);
-
-                    lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
-                    submission.getResult().setError("Event ID " + eventId + " indicates an event of type " + event.getEventType() + " so its children cannot be expanded");
-                    return submission;
-                }
-            }
-        } catch (final Exception e) {
-            final AsyncLineageSubmission submission = new AsyncLineageSubmission(LineageComputationType.EXPAND_CHILDREN,
-                eventId, Collections.emptyList(), 1, userId);
-            lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
-            submission.getResult().setError("Failed to expand children for lineage of event with ID " + eventId + " due to: " + e);
-            return submission;
-        }
-    }
-
-    @Override
-    public ComputeLineageSubmission submitExpandParents(final long eventId, final NiFiUser user, final EventAuthorizer authorizer) {
-        final String userId = user == null ? null : user.getIdentity();
-
-        try {
-            final Optional<ProvenanceEventRecord> eventOption = eventStore.getEvent(eventId);
-            if (!eventOption.isPresent()) {
-                final AsyncLineageSubmission submission = new AsyncLineageSubmission(LineageComputationType.EXPAND_PARENTS, eventId, Collections.emptyList(), 1, userId);
-                lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
-                submission.getResult().update(Collections.emptyList(), 0L);
-                return submission;
-            }
-
-            final ProvenanceEventRecord event = eventOption.get();
-            switch (event.getEventType()) {
-                case JOIN:
-                case FORK:
-                case CLONE:
-                case REPLAY: {
-                    return submitLineageComputation(event.getParentUuids(), user, authorizer, LineageComputationType.EXPAND_PARENTS,
-                        eventId, event.getLineageStartDate(), event.getEventTime());
-                }
-                default: {
-                    final AsyncLineageSubmission submission = new AsyncLineageSubmission(LineageComputationType.EXPAND_PARENTS,
-                        eventId, Collections.emptyList(), 1, userId);
-
-                    lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
-                    submission.getResult().setError("Event ID " + eventId + " indicates an event of type " + event.getEventType() + " so its parents cannot be expanded");
-                    return submission;
-                }
-            }
-        } catch (final Exception e) {
-            final AsyncLineageSubmission submission = new AsyncLineageSubmission(LineageComputationType.EXPAND_PARENTS,
-                eventId, Collections.emptyList(), 1, userId);
-            lineageSubmissionMap.put(submission.getLineageIdentifier(), submission);
-
-            submission.getResult().setError("Failed to expand parents for lineage of event with ID " + eventId + " due to: " + e);
-            return submission;
-        }
-    }
-
-    @Override
-    public AsyncLineageSubmission retrieveLineageSubmission(final String lineageIdentifier, final NiFiUser user) {
-        final AsyncLineageSubmission submission = lineageSubmissionMap.get(lineageIdentifier);
-        final String userId = submission.getSubmitterIdentity();
-
-        if (user == null && userId == null) {
-            return submission;
-        }
-
-        if (user == null) {
-            throw new AccessDeniedException("Cannot retrieve Provenance Lineage Submission because no user id was provided");
-        }
-
-        if (userId == null || userId.equals(user.getIdentity())) {
-            return submission;
-        }
-
-        throw new AccessDeniedException("Cannot retrieve Provenance Lineage Submission because " + user.getIdentity() + " is not the user who submitted the request");
-    }
-
-    @Override
-    public QuerySubmission retrieveQuerySubmission(final String queryIdentifier, final NiFiUser user) {
-        final QuerySubmission submission = querySubmissionMap.get(queryIdentifier);
-
-        final String userId = submission.getSubmitterIdentity();
-
-        if (user == null && userId == null) {
-            return submission;
-        }
-
-        if (user == null) {
-            throw new AccessDeniedException("Cannot retrieve Provenance Query Submission because no user id was provided");
-        }
-
-        if (userId == null || userId.equals(user.getIdentity())) {
-            return submission;
-        }
-
-        throw new AccessDeniedException("Cannot retrieve Provenance Query Submission because " + user.getIdentity() + " is not the user who submitted the request");
-    }
-
     @Override
     public long getSize() {
         long total = 0;
@@ -801,21 +704,6 @@ public class LuceneEventIndex implements EventIndex {
         return total;
     }
 
-    private void validate(final Query query) {
-        final int numQueries = querySubmissionMap.size();
-        if (numQueries > MAX_UNDELETED_QUERY_RESULTS) {
-            purgeObsoleteQueries();
-            if (querySubmissionMap.size() > MAX_UNDELETED_QUERY_RESULTS) {
-                throw new IllegalStateException("Cannot process query because there are currently " + numQueries + " queries whose results have not "
-                    + "been deleted due to poorly behaving clients not issuing DELETE requests. Please try again later.");
-            }
-        }
-
-        if (query.getEndDate() != null && query.getStartDate() != null && query.getStartDate().getTime() > query.getEndDate().getTime()) {
-            throw new IllegalArgumentException("Query End Time cannot be before Query Start Time");
-        }
-    }
-
     void performMaintenance() {
         try {
             final List<ProvenanceEventRecord> firstEvents = eventStore.getEvents(0, 1);
@@ -880,33 +768,4 @@ public class LuceneEventIndex implements EventIndex {
 
         return removed;
     }
-
-    private void purgeObsoleteQueries() {
-        try {
-            final Date now = new Date();
-
-            final Iterator<Map.Entry<String, AsyncQuerySubmission>> queryIterator = querySubmissionMap.entrySet().iterator();
-            while (queryIterator.hasNext()) {
-                final Map.Entry<String, AsyncQuerySubmission> entry = queryIterator.next();
-
-                final StandardQueryResult result = entry.getValue().getResult();
-                if (entry.getValue().isCanceled() || result.isFinished() && result.getExpiration().before(now)) {
-                    queryIterator.remove();
-                }
-            }
-
-            final Iterator<Map.Entry<String, AsyncLineageSubmission>> lineageIterator = lineageSubmissionMap.entrySet().iterator();
-            while (lineageIterator.hasNext()) {
-                final Map.Entry<String, AsyncLineageSubmission> entry = lineageIterator.next();
-
-                final StandardLineageResult result = entry.getValue().getResult();
-                if (entry.getValue().isCanceled() || result.isFinished() && result.getExpiration().before(now)) {
-                    lineageIterator.remove();
-                }
-            }
-        } catch (final Exception e) {
-            logger.error("Failed to expire Provenance Query Results due to {}", e.toString());
-            logger.error("", e);
-        }
-    }
 }
@@ -0,0 +1,177 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.serialization;
+
+import net.jpountz.lz4.LZ4BlockInputStream;
+import net.jpountz.lz4.LZ4BlockOutputStream;
+import net.jpountz.lz4.LZ4Factory;
+import org.apache.nifi.provenance.toc.TocReader;
+import org.apache.nifi.stream.io.GZIPOutputStream;
+import org.apache.nifi.stream.io.NonCloseableOutputStream;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * <p>
+ * The codecs that may be used to compress the blocks of a Provenance Event File. Each block is compressed independently so that a
+ * reader can seek directly to the block offset recorded in the Table of Contents. The identifier of the codec is recorded in the header
+ * of the Table of Contents, so that files written with different codecs can be read side by side.
+ * </p>
+ *
+ * <p>
+ * Compressed event files always have the <code>.gz</code> extension, regardless of the codec, so that the repository can continue to
+ * distinguish compressed files from those that have not yet been compressed by name alone.
+ * </p>
+ */
+public enum CompressionCodec {
+
+    NONE(0) {
+        @Override
+        public OutputStream compress(final OutputStream out) {
+            return new NonCloseableOutputStream(out);
+        }
+
+        @Override
+        public InputStream decompress(final InputStream in) {
+            return in;
+        }
+    },
+
+    /**
+     * GZIP with a compression level of 1. This gives a good compression ratio and was the only codec available in previous versions.
+     */
+    GZIP(1) {
+        @Override
+        public OutputStream compress(final OutputStream out) throws IOException {
+            return new GZIPOutputStream(new NonCloseableOutputStream(out), 1);
+        }
+
+        @Override
+        public InputStream decompress(final InputStream in) throws IOException {
+            return new GZIPInputStream(in);
+        }
+    },
+
+    /**
+     * LZ4, which compresses and decompresses several times faster than GZIP at the cost of a lower compression ratio. The native
+     * implementation is used when it is available for the platform, falling back to a pure Java implementation otherwise.
+     */
+    LZ4(2) {
+        @Override
+        public OutputStream compress(final OutputStream out) {
+            return new LZ4BlockOutputStream(new NonCloseableOutputStream(out), LZ4_BLOCK_SIZE, Lz4.FACTORY.fastCompressor());
+        }
+
+        @Override
+        public InputStream decompress(final InputStream in) throws IOException {
+            return new LZ4BlockInputStream(requireData(in), Lz4.FACTORY.fastDecompressor());
+        }
+    };
+
+    private static final int LZ4_BLOCK_SIZE = 64 * 1024;
+
+    private final int id;
+
+    CompressionCodec(final int id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the identifier that is written to the Table of Contents to indicate that this codec was used
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Wraps the given OutputStream so that data written to the returned stream is compressed. Closing the returned stream completes
+     * the compressed block but does not close the given stream.
+     *
+     * @param out the stream to write compressed data to
+     * @return an OutputStream that compresses the data written to it
+     * @throws IOException if unable to write the header of the compressed block
+     */
+    public abstract OutputStream compress(OutputStream out) throws IOException;
+
+    /**
+     * Wraps the given InputStream so that the data read from the returned stream is decompressed.
+     *
+     * @param in the stream to read compressed data from
+     * @return an InputStream that decompresses the data read from the given stream
+     * @throws EOFException if the given stream has no more data
+     * @throws IOException if unable to read the header of the compressed block
+     */
+    public abstract InputStream decompress(InputStream in) throws IOException;
+
+    /**
+     * @param id the identifier of a codec, as returned by {@link #getId()}
+     * @return the codec with the given identifier, or <code>null</code> if there is no such codec
+     */
+    public static CompressionCodec fromId(final int id) {
+        for (final CompressionCodec codec : values()) {
+            if (codec.id == id) {
+                return codec;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Determines the codec that was used to write the given event file. Older versions of NiFi did not record the codec in the Table of
+     * Contents (and the Table of Contents may be missing altogether), so any file with a <code>.gz</code> extension whose Table of
+     * Contents does not indicate otherwise is assumed to be GZIP compressed.
+     *
+     * @param filename the name of the event file
+     * @param tocReader the reader for the event file's Table of Contents, or <code>null</code> if there is none
+     * @return the codec that was used to write the event file
+     */
+    public static CompressionCodec forEventFile(final String filename, final TocReader tocReader) {
+        if (!filename.endsWith(".gz")) {
+            return NONE;
+        }
+
+        if (tocReader == null || tocReader.getCompressionCodec() == NONE) {
+            return GZIP;
+        }
+
+        return tocReader.getCompressionCodec();
+    }
+
+    // GZIPInputStream reads its header upon construction and so throws an EOFException if there is no data; this provides the same
+    // behavior for codecs that do not, which is what allows readers to detect that there are no more blocks.
+    private static InputStream requireData(final InputStream in) throws IOException {
+        final PushbackInputStream pushback = new PushbackInputStream(in, 1);
+        final int firstByte = pushback.read();
+        if (firstByte < 0) {
+            throw new EOFException();
+        }
+
+        pushback.unread(firstByte);
+        return pushback;
+    }
+
+    // Holds the LZ4 Factory so that the native library is only loaded if the LZ4 codec is used
+    private static class Lz4 {
+        private static final LZ4Factory FACTORY = LZ4Factory.fastestInstance();
+    }
+}
@@ -26,7 +26,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.Collection;
-import java.util.zip.GZIPInputStream;
 import org.apache.nifi.properties.NiFiPropertiesLoader;
 import org.apache.nifi.provenance.ByteArraySchemaRecordReader;
 import org.apache.nifi.provenance.ByteArraySchemaRecordWriter;
@@ -47,6 +46,8 @@ public class RecordReaders {
 
     private static Logger logger = LoggerFactory.getLogger(RecordReaders.class);
 
+    private static final int MAX_HEADER_BLOCK_BYTES = 256 * 1024;
+
     private static boolean isEncryptionAvailable = false;
     private static boolean encryptionPropertiesRead = false;
 
@@ -120,12 +121,14 @@ public class RecordReaders {
             }
 
             final File tocFile = TocUtil.getTocFile(file);
+            final TocReader tocReader = tocFile.exists() ? new StandardTocReader(tocFile) : null;
 
             final InputStream bufferedInStream = new BufferedInputStream(fis);
             final String serializationName;
             try {
-                bufferedInStream.mark(4096);
-                final InputStream in = filename.endsWith(".gz") ? new GZIPInputStream(bufferedInStream) : bufferedInStream;
+                // Some codecs must read an entire compressed block before any of it can be decompressed, so the mark must allow for that.
+                bufferedInStream.mark(MAX_HEADER_BLOCK_BYTES);
+                final InputStream in = CompressionCodec.forEventFile(filename, tocReader).decompress(bufferedInStream);
                 final DataInputStream dis = new DataInputStream(in);
                 serializationName = dis.readUTF();
                 bufferedInStream.reset();
@@ -136,31 +139,28 @@ public class RecordReaders {
 
             switch (serializationName) {
                 case StandardRecordReader.SERIALIZATION_NAME: {
-                    if (tocFile.exists()) {
-                        final TocReader tocReader = new StandardTocReader(tocFile);
+                    if (tocReader != null) {
                         return new StandardRecordReader(bufferedInStream, filename, tocReader, maxAttributeChars);
                     } else {
                         return new StandardRecordReader(bufferedInStream, filename, maxAttributeChars);
                     }
                 }
                 case ByteArraySchemaRecordWriter.SERIALIZATION_NAME: {
-                    if (tocFile.exists()) {
-                        final TocReader tocReader = new StandardTocReader(tocFile);
+                    if (tocReader != null) {
                         return new ByteArraySchemaRecordReader(bufferedInStream, filename, tocReader, maxAttributeChars);
                     } else {
                         return new ByteArraySchemaRecordReader(bufferedInStream, filename, maxAttributeChars);
                     }
                 }
                 case EventIdFirstSchemaRecordWriter.SERIALIZATION_NAME: {
-                    if (!tocFile.exists()) {
+                    if (tocReader == null) {
                         throw new FileNotFoundException("Cannot create TOC Reader because the file " + tocFile + " does not exist");
                     }
 
-                    final TocReader tocReader = new StandardTocReader(tocFile);
                     return new EventIdFirstSchemaRecordReader(bufferedInStream, filename, tocReader, maxAttributeChars);
                 }
                 case EncryptedSchemaRecordReader.SERIALIZATION_NAME: {
-                    if (!tocFile.exists()) {
+                    if (tocReader == null) {
                         throw new FileNotFoundException("Cannot create TOC Reader because the file " + tocFile + " does not exist");
                     }
 
@@ -168,7 +168,6 @@ public class RecordReaders {
                         throw new IOException("Cannot read encrypted repository because this reader is not configured for encryption");
                     }
 
-                    final TocReader tocReader = new StandardTocReader(tocFile);
                     // Return a reader with no eventEncryptor because this method contract cannot change, then inject the encryptor from the writer in the calling method
                     return new EncryptedSchemaRecordReader(bufferedInStream, filename, tocReader, maxAttributeChars, null);
                 }
@@ -23,6 +23,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 
+import org.apache.nifi.provenance.serialization.CompressionCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,7 +32,7 @@ import org.slf4j.LoggerFactory;
  *
  * Format of .toc file:
  * byte 0: version
- * byte 1: compressed: 0 -> not compressed, 1 -> compressed
+ * byte 1: compression codec: 0 -> not compressed, 1 -> GZIP, 2 -> LZ4
  * byte 2-9: long: offset of block 0
  * byte 10-17: long: offset of block 1
  * ...
@@ -54,6 +55,17 @@ public class StandardTocWriter implements TocWriter {
      * @throws IOException if unable to write header info to the specified file
      */
     public StandardTocWriter(final File file, final boolean compressionFlag, final boolean alwaysSync) throws IOException {
+        this(file, compressionFlag ? CompressionCodec.GZIP : CompressionCodec.NONE, alwaysSync);
+    }
+
+    /**
+     * Creates a StandardTocWriter that writes to the given file.
+     * @param file the file to write to
+     * @param compressionCodec the codec that the journal's blocks are compressed with
+     * @param alwaysSync whether or not to sync the file to disk after each update
+     * @throws IOException if unable to write header info to the specified file
+     */
+    public StandardTocWriter(final File file, final CompressionCodec compressionCodec, final boolean alwaysSync) throws IOException {
         final File tocDir = file.getParentFile();
         if ( !tocDir.exists() ) {
             Files.createDirectories(tocDir.toPath());
@@ -65,7 +77,7 @@ public class StandardTocWriter implements TocWriter {
 
         final byte[] header = new byte[2];
         header[0] = VERSION;
-        header[1] = (byte) (compressionFlag ? 1 : 0);
+        header[1] = (byte) compressionCodec.getId();
         fos.write(header);
         fos.flush();
 
@@ -16,6 +16,8 @@
  */
 package org.apache.nifi.provenance.toc;
 
+import org.apache.nifi.provenance.serialization.CompressionCodec;
+
 import java.io.Closeable;
 import java.io.File;
 
@@ -37,6 +39,12 @@ public interface TocReader extends Closeable {
      */
     boolean isCompressed();
 
+    /**
+     * @return the codec that was used to compress the blocks of the corresponding Journal file, or {@link CompressionCodec#NONE}
+     *         if the Journal file is not compressed
+     */
+    CompressionCodec getCompressionCodec();
+
     /**
      * @return the file that holds the TOC information
      */
@@ -0,0 +1,306 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.columnar;
+
+import org.apache.nifi.events.EventReporter;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.RepositoryConfiguration;
+import org.apache.nifi.provenance.SearchableFields;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.apache.nifi.provenance.authorization.EventAuthorizer;
+import org.apache.nifi.provenance.search.Query;
+import org.apache.nifi.provenance.search.QueryResult;
+import org.apache.nifi.provenance.search.QuerySubmission;
+import org.apache.nifi.provenance.search.SearchTerms;
+import org.apache.nifi.provenance.search.SearchableField;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.apache.nifi.provenance.store.ArrayListEventStore;
+import org.apache.nifi.provenance.store.StorageResult;
+import org.apache.nifi.util.Tuple;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestColumnarEventIndex {
+    private static final Set<SearchableField> EVENT_FIELDS = new HashSet<>(Arrays.asList(SearchableFields.FlowFileUUID, SearchableFields.Filename,
+        SearchableFields.ComponentID, SearchableFields.EventType));
+
+    private final AtomicLong idGenerator = new AtomicLong(0L);
+    private File storageDir;
+
+    @Rule
+    public TestName testName = new TestName();
+
+    @Before
+    public void setup() {
+        storageDir = new File("target/storage/" + testName.getMethodName() + "/" + UUID.randomUUID().toString());
+    }
+
+    @Test
+    public void testActiveSegmentSearch() throws IOException {
+        final ActiveSegment segment = new ActiveSegment(EVENT_FIELDS, Collections.emptyList());
+        addEvents(segment);
+
+        assertMatches(segment, query(SearchableFields.Filename, "file-3.txt"), 3L);
+        assertMatches(segment, query(SearchableFields.Filename, "FILE-3.TXT"), 3L);
+        assertMatches(segment, query(SearchableFields.Filename, "file-1*"), 19L, 18L, 17L, 16L, 15L, 14L, 13L, 12L, 11L, 10L, 1L);
+        assertMatches(segment, query(SearchableFields.Filename, "file-?.csv"));
+        assertMatches(segment, query(SearchableFields.Filename, "no-such-file"));
+
+        // Terms are combined such that an event must match all of them
+        final Query componentAndName = query(SearchableFields.ComponentID, "component-1");
+        componentAndName.addSearchTerm(SearchTerms.newSearchTerm(SearchableFields.Filename, "file-1?.txt"));
+        assertMatches(segment, componentAndName, 19L, 17L, 15L, 13L, 11L);
+
+        final Query timeRange = new Query(UUID.randomUUID().toString());
+        timeRange.setStartDate(new Date(1005L));
+        timeRange.setEndDate(new Date(1007L));
+        assertMatches(segment, timeRange, 7L, 6L, 5L);
+
+        final Query sizeRange = new Query(UUID.randomUUID().toString());
+        sizeRange.setMinFileSize("10 B");
+        sizeRange.setMaxFileSize("12 B");
+        assertMatches(segment, sizeRange, 12L, 11L, 10L);
+
+        final Tuple<List<Long>, Long> limited = segment.search(SegmentQuery.fromQuery(query(SearchableFields.ComponentID, "component-0")), 3);
+        assertEquals(Arrays.asList(18L, 16L, 14L), limited.getKey());
+        assertEquals(Long.valueOf(10L), limited.getValue());
+    }
+
+    @Test
+    public void testSealedSegmentMatchesActiveSegment() throws IOException {
+        final ActiveSegment activeSegment = new ActiveSegment(EVENT_FIELDS, Collections.emptyList());
+        addEvents(activeSegment);
+
+        final File segmentFile = new File(storageDir, "0.segment");
+        storageDir.mkdirs();
+        activeSegment.seal().write(segmentFile);
+
+        final SegmentFile header = SealedSegment.readHeader(segmentFile);
+        assertEquals(20, header.getEventCount());
+        assertEquals(0L, header.getMinEventId());
+        assertEquals(19L, header.getMaxEventId());
+        assertEquals(1000L, header.getMinEventTime());
+        assertEquals(1019L, header.getMaxEventTime());
+
+        final SealedSegment sealedSegment = SealedSegment.read(segmentFile);
+        assertTrue(sealedSegment.containsEventId(7L));
+        assertFalse(sealedSegment.containsEventId(20L));
+
+        for (final String filename : new String[] {"file-3.txt", "file-1*", "*.txt", "file-?.txt", "nothing"}) {
+            final SegmentQuery segmentQuery = SegmentQuery.fromQuery(query(SearchableFields.Filename, filename));
+            assertEquals(activeSegment.search(segmentQuery, 100), sealedSegment.search(segmentQuery, 100));
+        }
+
+        final SegmentQuery uuidQuery = SegmentQuery.forFlowFiles(Arrays.asList("uuid-4", "uuid-9"), 0L, Long.MAX_VALUE);
+        assertEquals(Arrays.asList(9L, 4L), sealedSegment.search(uuidQuery, 100).getKey());
+    }
+
+    @Test
+    public void testPartitionRolloverAndRecovery() throws IOException {
+        final File indexDir = new File(storageDir, "columnar-index");
+        final PartitionIndex partition = new PartitionIndex("1", indexDir, 8, EVENT_FIELDS, Collections.emptyList());
+        partition.initialize();
+
+        final List<Map.Entry<ProvenanceEventRecord, StorageSummary>> entries = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final ProvenanceEventRecord event = createEvent(i);
+            entries.add(new AbstractMap.SimpleEntry<>(event, new StorageSummary(event.getEventId(), "1.prov", "1", 1, 2L, 2L)));
+        }
+        partition.addEvents(entries);
+
+        // Two full segments should have been written, and the remaining events held in memory
+        assertEquals(15L, partition.getMaxPersistedEventId());
+        assertTrue(partition.isPersisted(3L));
+        assertFalse(partition.isPersisted(17L));
+        assertEquals(3, partition.getSegments(0L, Long.MAX_VALUE).size());
+
+        partition.commit();
+        assertEquals(19L, partition.getMaxPersistedEventId());
+
+        final PartitionIndex recovered = new PartitionIndex("1", indexDir, 8, EVENT_FIELDS, Collections.emptyList());
+        recovered.initialize();
+        assertEquals(19L, recovered.getMaxPersistedEventId());
+        assertTrue(recovered.isPersisted(17L));
+
+        final List<IndexSegment> segments = recovered.getSegments(0L, Long.MAX_VALUE);
+        assertEquals(3, segments.size());
+        assertEquals(19L, segments.get(0).getMaxEventId());
+
+        recovered.deleteSegmentsBefore(10L);
+        assertEquals(2, recovered.getSegments(0L, Long.MAX_VALUE).size());
+        assertFalse(recovered.isPersisted(3L));
+    }
+
+    @Test
+    public void testIsPersistedWithOverlappingSegments() throws IOException {
+        final PartitionIndex partition = new PartitionIndex("1", new File(storageDir, "columnar-index"), 4, EVENT_FIELDS, Collections.emptyList());
+        partition.initialize();
+
+        // Events are not necessarily indexed in the order of their IDs, so the range of IDs of one segment may span that of another
+        partition.addEvents(createEntries(0L, 20L, 1L, 21L));
+        partition.addEvents(createEntries(2L, 3L, 4L, 5L));
+        partition.addEvents(createEntries(30L, 31L, 32L, 33L));
+
+        for (final long eventId : new long[] {0L, 1L, 2L, 5L, 20L, 21L, 30L, 33L}) {
+            assertTrue("Event " + eventId + " should be persisted", partition.isPersisted(eventId));
+        }
+        for (final long eventId : new long[] {6L, 10L, 22L, 34L}) {
+            assertFalse("Event " + eventId + " should not be persisted", partition.isPersisted(eventId));
+        }
+    }
+
+    @Test
+    public void testSegmentDeletedOnceNoLongerRead() throws IOException {
+        final File indexDir = new File(storageDir, "columnar-index");
+        final PartitionIndex partition = new PartitionIndex("1", indexDir, 4, EVENT_FIELDS, Collections.emptyList());
+        partition.initialize();
+        partition.addEvents(createEntries(0L, 1L, 2L, 3L));
+        partition.addEvents(createEntries(4L, 5L, 6L, 7L));
+
+        final PartitionIndex recovered = new PartitionIndex("1", indexDir, 4, EVENT_FIELDS, Collections.emptyList());
+        recovered.initialize();
+
+        final SegmentFile oldest = (SegmentFile) recovered.getSegments(0L, Long.MAX_VALUE).get(1);
+        assertEquals(0L, oldest.getMinEventId());
+
+        // A reader holds the segment while its events age off, so the file must remain until the reader is done with it
+        assertTrue(oldest.acquire());
+        recovered.deleteSegmentsBefore(4L);
+        assertEquals(1, recovered.getSegments(0L, Long.MAX_VALUE).size());
+        assertTrue(oldest.getFile().exists());
+        assertTrue(oldest.containsEventId(2L));
+
+        oldest.release();
+        assertFalse(oldest.getFile().exists());
+        assertFalse(oldest.acquire());
+        assertFalse(recovered.isPersisted(2L));
+        assertTrue(recovered.isPersisted(6L));
+    }
+
+    @Test(timeout = 5000)
+    public void testQueryThroughEventIndex() throws InterruptedException {
+        final RepositoryConfiguration config = new RepositoryConfiguration();
+        config.addStorageDirectory("1", storageDir);
+        config.setSearchableFields(new ArrayList<>(EVENT_FIELDS));
+
+        final ColumnarEventIndex index = new ColumnarEventIndex(config, 8, EventReporter.NO_OP);
+        final ArrayListEventStore eventStore = new ArrayListEventStore();
+        index.initialize(eventStore);
+
+        try {
+            final List<ProvenanceEventRecord> events = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                events.add(createEvent(i));
+            }
+
+            final StorageResult storageResult = eventStore.addEvents(events);
+            final Map<ProvenanceEventRecord, StorageSummary> locations = new HashMap<>();
+            for (final Map.Entry<ProvenanceEventRecord, StorageSummary> entry : storageResult.getStorageLocations().entrySet()) {
+                final StorageSummary summary = entry.getValue();
+                locations.put(entry.getKey(), new StorageSummary(summary.getEventId(), "1.prov", "1", 1, 2L, 2L));
+            }
+            index.addEvents(locations);
+
+            final QuerySubmission submission = index.submitQuery(query(SearchableFields.Filename, "file-1?.txt"), EventAuthorizer.GRANT_ALL, "unit test user");
+            final QueryResult result = submission.getResult();
+            while (!result.awaitCompletion(100, TimeUnit.MILLISECONDS)) {
+                // wait for all segments to be searched
+            }
+
+            assertNull(result.getError());
+            assertEquals(10L, result.getTotalHitCount());
+            assertEquals(10, result.getMatchingEvents().size());
+            for (final ProvenanceEventRecord event : result.getMatchingEvents()) {
+                assertTrue(event.getAttribute("filename").startsWith("file-1"));
+            }
+        } finally {
+            index.close();
+        }
+    }
+
+    private void addEvents(final ActiveSegment segment) {
+        for (int i = 0; i < 20; i++) {
+            final ProvenanceEventRecord event = createEvent(i);
+            segment.addEvent(event, event.getEventId());
+        }
+    }
+
+    private void assertMatches(final IndexSegment segment, final Query query, final Long... expectedEventIds) throws IOException {
+        final Tuple<List<Long>, Long> result = segment.search(SegmentQuery.fromQuery(query), 100);
+        assertEquals(Arrays.asList(expectedEventIds), result.getKey());
+        assertEquals(Long.valueOf(expectedEventIds.length), result.getValue());
+    }
+
+    private List<Map.Entry<ProvenanceEventRecord, StorageSummary>> createEntries(final long... eventIds) {
+        final List<Map.Entry<ProvenanceEventRecord, StorageSummary>> entries = new ArrayList<>();
+        for (final long eventId : eventIds) {
+            final ProvenanceEventRecord event = createEvent((int) eventId);
+            entries.add(new AbstractMap.SimpleEntry<>(event, new StorageSummary(eventId, "1.prov", "1", 1, 2L, 2L)));
+        }
+
+        return entries;
+    }
+
+    private Query query(final SearchableField field, final String value) {
+        final Query query = new Query(UUID.randomUUID().toString());
+        query.addSearchTerm(SearchTerms.newSearchTerm(field, value));
+        return query;
+    }
+
+    private ProvenanceEventRecord createEvent(final int index) {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("uuid", "uuid-" + index);
+        attributes.put("filename", "file-" + index + ".txt");
+
+        return new StandardProvenanceEventRecord.Builder()
+            .setEventType(ProvenanceEventType.CONTENT_MODIFIED)
+            .setAttributes(Collections.emptyMap(), attributes)
+            .setComponentId("component-" + (index % 2))
+            .setComponentType("unit test")
+            .setEventId(idGenerator.getAndIncrement())
+            .setEventTime(1000L + index)
+            .setFlowFileEntryDate(1000L)
+            .setFlowFileUUID("uuid-" + index)
+            .setLineageStartDate(1000L)
+            .setCurrentContentClaim("container", "section", "unit-test-id", 0L, (long) index)
+            .build();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.index.lucene;
+
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.ProvenanceEventType;
+import org.apache.nifi.provenance.StandardProvenanceEventRecord;
+import org.apache.nifi.provenance.serialization.StorageSummary;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestFlowFileEventLookup {
+
+    @Test
+    public void testEventsFoundForFlowFileAndItsChildren() {
+        final FlowFileEventLookup lookup = new FlowFileEventLookup(100, 0L);
+        lookup.update(createEvent(1L, 1000L, "parent", ProvenanceEventType.CREATE), summary(1L));
+        lookup.update(createEvent(2L, 1001L, "parent", ProvenanceEventType.FORK, "child-1", "child-2"), summary(2L));
+        lookup.update(createEvent(3L, 1002L, "child-1", ProvenanceEventType.CONTENT_MODIFIED), summary(3L));
+        lookup.update(createEvent(4L, 1003L, "child-2", ProvenanceEventType.CONTENT_MODIFIED), summary(4L));
+
+        assertEquals(Arrays.asList(1L, 2L), lookup.getEventIds(Collections.singleton("parent"), 0L, Long.MAX_VALUE).get());
+        assertEquals(Arrays.asList(2L, 3L), lookup.getEventIds(Collections.singleton("child-1"), 0L, Long.MAX_VALUE).get());
+        assertEquals(Arrays.asList(2L, 3L, 4L), lookup.getEventIds(Arrays.asList("child-1", "child-2"), 0L, Long.MAX_VALUE).get());
+        assertEquals(Collections.singletonList(3L), lookup.getEventIds(Collections.singleton("child-1"), 1002L, Long.MAX_VALUE).get());
+        assertEquals(Collections.singletonList(2L), lookup.getEventIds(Collections.singleton("child-1"), 0L, 1001L).get());
+        assertTrue(lookup.getEventIds(Collections.singleton("unknown"), 0L, Long.MAX_VALUE).get().isEmpty());
+    }
+
+    @Test
+    public void testNoAnswerBeforeCoverageStart() {
+        final FlowFileEventLookup lookup = new FlowFileEventLookup(100, 1000L);
+        lookup.update(createEvent(1L, 1000L, "abc", ProvenanceEventType.CREATE), summary(1L));
+
+        assertFalse(lookup.getEventIds(Collections.singleton("abc"), 999L, Long.MAX_VALUE).isPresent());
+        assertEquals(Collections.singletonList(1L), lookup.getEventIds(Collections.singleton("abc"), 1000L, Long.MAX_VALUE).get());
+    }
+
+    @Test
+    public void testNoAnswerForRangeWithEvictedEvents() {
+        final FlowFileEventLookup lookup = new FlowFileEventLookup(3, 0L);
+        lookup.update(createEvent(1L, 1000L, "a", ProvenanceEventType.CREATE), summary(1L));
+        lookup.update(createEvent(2L, 1001L, "b", ProvenanceEventType.CREATE), summary(2L));
+        lookup.update(createEvent(3L, 1002L, "c", ProvenanceEventType.CREATE), summary(3L));
+
+        assertEquals(Collections.singletonList(1L), lookup.getEventIds(Collections.singleton("a"), 0L, Long.MAX_VALUE).get());
+
+        // Each FORK maps 3 UUIDs, which forces out all of the earlier events.
+        lookup.update(createEvent(4L, 1003L, "d", ProvenanceEventType.FORK, "e", "f"), summary(4L));
+
+        assertFalse(lookup.getEventIds(Collections.singleton("a"), 0L, Long.MAX_VALUE).isPresent());
+        assertFalse(lookup.getEventIds(Collections.singleton("d"), 1002L, Long.MAX_VALUE).isPresent());
+        assertEquals(Collections.singletonList(4L), lookup.getEventIds(Collections.singleton("e"), 1003L, Long.MAX_VALUE).get());
+
+        final Optional<List<Long>> evictedRange = lookup.getEventIds(Collections.singleton("b"), 1001L, Long.MAX_VALUE);
+        assertFalse(evictedRange.isPresent());
+    }
+
+    @Test(timeout = 30000)
+    public void testConcurrentUpdates() throws InterruptedException {
+        final int numThreads = 8;
+        final int eventsPerThread = 5000;
+        final FlowFileEventLookup lookup = new FlowFileEventLookup(numThreads * eventsPerThread, 0L);
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            final int threadIndex = t;
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < eventsPerThread; i++) {
+                    final long eventId = (long) threadIndex * eventsPerThread + i;
+                    lookup.update(createEvent(eventId, 1000L + i, "flowfile-" + (i % 100), ProvenanceEventType.CONTENT_MODIFIED), summary(eventId));
+                }
+            });
+
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        // Every thread updated the same 100 FlowFiles, and nothing was evicted, so every event must be found.
+        final List<Long> eventIds = lookup.getEventIds(Collections.singleton("flowfile-7"), 0L, Long.MAX_VALUE).get();
+        assertEquals(numThreads * eventsPerThread / 100, eventIds.size());
+        for (final Long eventId : eventIds) {
+            assertEquals(7, eventId % eventsPerThread % 100);
+        }
+
+        // Exceeding the bound from many threads at once must still evict the oldest events.
+        final FlowFileEventLookup boundedLookup = new FlowFileEventLookup(100, 0L);
+        final List<Thread> boundedThreads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            final int threadIndex = t;
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < eventsPerThread; i++) {
+                    final long eventId = (long) threadIndex * eventsPerThread + i;
+                    boundedLookup.update(createEvent(eventId, 1000L + i, "flowfile-" + eventId, ProvenanceEventType.CREATE), summary(eventId));
+                }
+            });
+
+            boundedThreads.add(thread);
+            thread.start();
+        }
+
+        for (final Thread thread : boundedThreads) {
+            thread.join();
+        }
+
+        assertFalse(boundedLookup.getEventIds(Collections.singleton("flowfile-0"), 0L, Long.MAX_VALUE).isPresent());
+    }
+
+    private StorageSummary summary(final long eventId) {
+        return new StorageSummary(eventId, "unit-test", "1", 1, 100L, 100L);
+    }
+
+    private ProvenanceEventRecord createEvent(final long eventId, final long timestamp, final String uuid, final ProvenanceEventType eventType, final String... childUuids) {
+        final Map<String, String> previousAttributes = new HashMap<>();
+        previousAttributes.put("uuid", uuid);
+
+        final StandardProvenanceEventRecord.Builder builder = new StandardProvenanceEventRecord.Builder()
+                .setEventType(eventType)
+                .setAttributes(previousAttributes, Collections.emptyMap())
+                .setComponentId("component-1")
+                .setComponentType("unit test")
+                .setEventId(eventId)
+                .setEventTime(timestamp)
+                .setFlowFileEntryDate(timestamp)
+                .setFlowFileUUID(uuid)
+                .setLineageStartDate(timestamp)
+                .setCurrentContentClaim("container", "section", "unit-test-id", 0L, 1024L);
+
+        for (final String childUuid : childUuids) {
+            builder.addChildFlowFile(childUuid);
+        }
+
+        return builder.build();
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance.serialization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.nifi.provenance.EventIdFirstSchemaRecordWriter;
+import org.apache.nifi.provenance.IdentifierLookup;
+import org.apache.nifi.provenance.ProvenanceEventRecord;
+import org.apache.nifi.provenance.TestUtil;
+import org.apache.nifi.provenance.store.EventFileManager;
+import org.apache.nifi.provenance.toc.StandardTocReader;
+import org.apache.nifi.provenance.toc.StandardTocWriter;
+import org.apache.nifi.provenance.toc.TocUtil;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+public class TestEventFileCompressor {
+    private File storageDir;
+
+    @Before
+    public void setup() {
+        storageDir = new File("target/storage/" + UUID.randomUUID().toString());
+        storageDir.mkdirs();
+    }
+
+    @Test(timeout = 20000)
+    public void testCompressWithGzip() throws IOException, InterruptedException {
+        testCompressAndRead(CompressionCodec.GZIP);
+    }
+
+    @Test(timeout = 20000)
+    public void testCompressWithLz4() throws IOException, InterruptedException {
+        testCompressAndRead(CompressionCodec.LZ4);
+    }
+
+    private void testCompressAndRead(final CompressionCodec codec) throws IOException, InterruptedException {
+        final int numEvents = 1000;
+        final File eventFile = writeEventFile("0.prov", numEvents);
+        final File compressedFile = compress(eventFile, codec);
+
+        try (final StandardTocReader tocReader = new StandardTocReader(TocUtil.getTocFile(eventFile))) {
+            assertEquals(codec, tocReader.getCompressionCodec());
+        }
+
+        try (final RecordReader reader = RecordReaders.newRecordReader(compressedFile, Collections.emptyList(), 2048)) {
+            for (long id = 0; id < numEvents; id++) {
+                final ProvenanceEventRecord event = reader.nextRecord();
+                assertNotNull(event);
+                assertEquals(id, event.getEventId());
+            }
+
+            assertNull(reader.nextRecord());
+        }
+
+        // Ensure that each block can be read independently
+        try (final RecordReader reader = RecordReaders.newRecordReader(compressedFile, Collections.emptyList(), 2048)) {
+            final Optional<ProvenanceEventRecord> event = reader.skipToEvent(numEvents - 10);
+            assertTrue(event.isPresent());
+            assertEquals(numEvents - 10, event.get().getEventId());
+        }
+    }
+
+    @Test
+    public void testUncompressedFileUsesNoCodec() throws IOException {
+        final File eventFile = writeEventFile("0.prov", 10);
+        try (final StandardTocReader tocReader = new StandardTocReader(TocUtil.getTocFile(eventFile))) {
+            assertFalse(tocReader.isCompressed());
+            assertEquals(CompressionCodec.NONE, CompressionCodec.forEventFile(eventFile.getName(), tocReader));
+        }
+
+        // Event files compressed by older versions have a .gz extension but no codec in the TOC
+        assertEquals(CompressionCodec.GZIP, CompressionCodec.forEventFile("0.prov.gz", null));
+    }
+
+    @Test
+    @Ignore("For local performance testing only")
+    public void testCodecPerformance() throws IOException, InterruptedException {
+        // Compares the time taken to compress a rolled over event file, the size of the result, and the latency of
+        // random-access reads such as those performed when retrieving events for a query, for each of the codecs.
+        final int numEvents = 500_000;
+        final int numLookups = 10_000;
+
+        for (final CompressionCodec codec : new CompressionCodec[] {CompressionCodec.GZIP, CompressionCodec.LZ4}) {
+            final File eventFile = writeEventFile(codec.name() + ".prov", numEvents);
+            final long uncompressedBytes = eventFile.length();
+
+            final long compressStart = System.nanoTime();
+            final File compressedFile = compress(eventFile, codec);
+            final long compressMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - compressStart);
+
+            final Random random = new Random(1L);
+            final long readStart = System.nanoTime();
+            for (int i = 0; i < numLookups; i++) {
+                try (final RecordReader reader = RecordReaders.newRecordReader(compressedFile, Collections.emptyList(), 2048)) {
+                    reader.skipToEvent(random.nextInt(numEvents));
+                }
+            }
+            final long readMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - readStart);
+
+            System.out.println(codec + ": compressed " + uncompressedBytes + " bytes to " + compressedFile.length() + " bytes in " + compressMillis
+                + " millis; average random-access read took " + (readMicros / numLookups) + " micros");
+        }
+    }
+
+    private File writeEventFile(final String filename, final int numEvents) throws IOException {
+        final File eventFile = new File(storageDir, filename);
+        final File tocFile = TocUtil.getTocFile(eventFile);
+
+        try (final RecordWriter writer = new EventIdFirstSchemaRecordWriter(eventFile, new AtomicLong(0L), new StandardTocWriter(tocFile, false, false),
+            false, 8192, IdentifierLookup.EMPTY)) {
+
+            writer.writeHeader(0L);
+            for (int i = 0; i < numEvents; i++) {
+                writer.writeRecord(TestUtil.createEvent());
+            }
+        }
+
+        return eventFile;
+    }
+
+    private File compress(final File eventFile, final CompressionCodec codec) throws InterruptedException {
+        final BlockingQueue<File> filesToCompress = new LinkedBlockingQueue<>();
+        final EventFileCompressor compressor = new EventFileCompressor(filesToCompress, new EventFileManager(), codec);
+        final Thread compressorThread = new Thread(compressor);
+        compressorThread.start();
+
+        try {
+            // The compressor writes a temporary TOC file, which replaces the original once the uncompressed event file is deleted
+            final File tocFile = TocUtil.getTocFile(eventFile);
+            final File tmpTocFile = new File(tocFile.getParentFile(), tocFile.getName() + ".tmp");
+
+            filesToCompress.add(eventFile);
+            while (eventFile.exists() || tmpTocFile.exists() || !tocFile.exists()) {
+                Thread.sleep(10L);
+            }
+        } finally {
+            compressor.shutdown();
+            compressorThread.join();
+        }
+
+        return new File(eventFile.getParentFile(), eventFile.getName() + ".gz");
+    }
+}
@@ -19,6 +19,7 @@ package org.apache.nifi.provenance.toc;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.DataOutputStream;
 import java.io.File;
@@ -27,6 +28,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.UUID;
 
+import org.apache.nifi.provenance.serialization.CompressionCodec;
 import org.junit.Test;
 
 public class TestStandardTocReader {
@@ -63,6 +65,38 @@ public class TestStandardTocReader {
     }
 
 
+    @Test
+    public void testDetectsCompressionCodec() throws IOException {
+        final File file = new File("target/" + UUID.randomUUID().toString());
+        try (final OutputStream out = new FileOutputStream(file)) {
+            out.write(2);
+            out.write(CompressionCodec.LZ4.getId());
+        }
+
+        try {
+            try (final StandardTocReader reader = new StandardTocReader(file)) {
+                assertTrue(reader.isCompressed());
+                assertEquals(CompressionCodec.LZ4, reader.getCompressionCodec());
+            }
+        } finally {
+            file.delete();
+        }
+
+        try (final OutputStream out = new FileOutputStream(file)) {
+            out.write(2);
+            out.write(7);
+        }
+
+        try {
+            try (final StandardTocReader reader = new StandardTocReader(file)) {
+                fail("Expected TOC with unknown compression codec to be rejected");
+            } catch (final IOException expected) {
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
     @Test
     public void testGetBlockIndexV1() throws IOException {
         final File file = new File("target/" + UUID.randomUUID().toString());
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import org.apache.nifi.util.RingBuffer;
+import org.apache.nifi.util.RingBuffer.Filter;
+import org.apache.nifi.util.RingBuffer.ForEachEvaluator;
+import org.apache.nifi.util.RingBuffer.IterationDirection;
+
+import java.util.List;
+
+/**
+ * A {@link ProvenanceEventBuffer} that holds the events themselves in a {@link RingBuffer} on the Java heap
+ */
+class HeapEventBuffer implements ProvenanceEventBuffer {
+    private final RingBuffer<ProvenanceEventRecord> ringBuffer;
+
+    HeapEventBuffer(final int maxEvents) {
+        ringBuffer = new RingBuffer<>(maxEvents);
+    }
+
+    @Override
+    public void add(final ProvenanceEventRecord event) {
+        ringBuffer.add(event);
+    }
+
+    @Override
+    public int getSize() {
+        return ringBuffer.getSize();
+    }
+
+    @Override
+    public Long getNewestEventId() {
+        final ProvenanceEventRecord newest = ringBuffer.getNewestElement();
+        return (newest == null) ? null : newest.getEventId();
+    }
+
+    @Override
+    public ProvenanceEventRecord getEvent(final long eventId) {
+        final List<ProvenanceEventRecord> records = ringBuffer.getSelectedElements(event -> event.getEventId() == eventId, 1);
+        return records.isEmpty() ? null : records.get(0);
+    }
+
+    @Override
+    public List<ProvenanceEventRecord> getSelectedElements(final Filter<ProvenanceEventRecord> filter, final int maxElements) {
+        return ringBuffer.getSelectedElements(filter, maxElements);
+    }
+
+    @Override
+    public List<ProvenanceEventRecord> getSelectedElements(final long minEventId, final Filter<ProvenanceEventRecord> filter, final int maxElements) {
+        return ringBuffer.getSelectedElements(event -> event.getEventId() >= minEventId && filter.select(event), maxElements);
+    }
+
+    @Override
+    public void forEach(final ForEachEvaluator<ProvenanceEventRecord> evaluator, final IterationDirection iterationDirection) {
+        ringBuffer.forEach(evaluator, iterationDirection);
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import org.apache.nifi.provenance.schema.EventFieldNames;
+import org.apache.nifi.provenance.schema.EventRecord;
+import org.apache.nifi.provenance.schema.ProvenanceEventSchema;
+import org.apache.nifi.repository.schema.Record;
+import org.apache.nifi.repository.schema.RecordSchema;
+import org.apache.nifi.repository.schema.SchemaRecordReader;
+import org.apache.nifi.repository.schema.SchemaRecordWriter;
+import org.apache.nifi.stream.io.ByteArrayInputStream;
+import org.apache.nifi.stream.io.ByteArrayOutputStream;
+import org.apache.nifi.util.RingBuffer.Filter;
+import org.apache.nifi.util.RingBuffer.ForEachEvaluator;
+import org.apache.nifi.util.RingBuffer.IterationDirection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <p>
+ * A {@link ProvenanceEventBuffer} that serializes events into a fixed-size, circular region of direct (off-heap) memory, using the same schema
+ * that the persistent Provenance Repositories use to write events to disk. The only information that is held on the Java heap is a small,
+ * fixed-size index of the offset, length, and Event ID of each event in the buffer, so a large number of events can be retained without
+ * increasing the amount of work that must be done by the garbage collector. Events are deserialized only when they are read.
+ * </p>
+ *
+ * <p>
+ * Events are appended one after another. When an event does not fit in the space that remains at the end of the memory region, it is written to
+ * the beginning of the region instead. Before an event is written, any older event that occupies the space that it will be written to is evicted.
+ * An event is also evicted if the buffer already holds the maximum number of events.
+ * </p>
+ */
+class OffHeapEventBuffer implements ProvenanceEventBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapEventBuffer.class);
+
+    private static final RecordSchema eventSchema = ProvenanceEventSchema.PROVENANCE_EVENT_SCHEMA_V1;
+    private static final RecordSchema contentClaimSchema = new RecordSchema(eventSchema.getField(EventFieldNames.CONTENT_CLAIM).getSubFields());
+
+    private final ByteBuffer memory;
+    private static final SchemaRecordWriter recordWriter = new SchemaRecordWriter();
+    private static final SchemaRecordReader recordReader = SchemaRecordReader.fromSchema(eventSchema);
+
+    // The index of the events in the buffer. The oldest event is at index 'oldest'; the events that follow it are in the order that they were added.
+    private final int[] offsets;
+    private final int[] lengths;
+    private final long[] eventIds;
+    private int oldest = 0;
+    private int count = 0;
+    private int writePosition = 0;
+
+    private final ReadWriteLock rwLock = new ReentrantReadWriteLock();
+    private final Lock readLock = rwLock.readLock();
+    private final Lock writeLock = rwLock.writeLock();
+
+    OffHeapEventBuffer(final int capacityBytes, final int maxEvents) {
+        if (capacityBytes < 1) {
+            throw new IllegalArgumentException("Off-heap buffer capacity must be positive");
+        }
+        if (maxEvents < 1) {
+            throw new IllegalArgumentException("Maximum number of events must be positive");
+        }
+
+        memory = ByteBuffer.allocateDirect(capacityBytes);
+        offsets = new int[maxEvents];
+        lengths = new int[maxEvents];
+        eventIds = new long[maxEvents];
+    }
+
+    @Override
+    public void add(final ProvenanceEventRecord event) {
+        // Serialize the event before obtaining the lock so that writers do not block readers while serializing
+        final byte[] serialized;
+        try {
+            serialized = serialize(event);
+        } catch (final IOException ioe) {
+            logger.error("Failed to serialize Provenance Event {}; the event will not be retained", event, ioe);
+            return;
+        }
+
+        final int length = serialized.length;
+        if (length > memory.capacity()) {
+            logger.warn("Provenance Event {} requires {} bytes when serialized, which exceeds the capacity of the off-heap buffer; the event will not be retained",
+                event.getEventId(), length);
+            return;
+        }
+
+        writeLock.lock();
+        try {
+            if (count == offsets.length) {
+                evictOldest();
+            }
+
+            if (writePosition + length > memory.capacity()) {
+                // Wrap around to the start of the memory region. Any event that is stored beyond the current write position is older than
+                // all of the events that were written before the write position, so those events are evicted first.
+                while (count > 0 && offsets[oldest] >= writePosition) {
+                    evictOldest();
+                }
+                writePosition = 0;
+            }
+
+            while (count > 0 && offsets[oldest] < writePosition + length && writePosition < offsets[oldest] + lengths[oldest]) {
+                evictOldest();
+            }
+
+            final ByteBuffer destination = memory.duplicate();
+            destination.position(writePosition);
+            destination.put(serialized);
+
+            final int index = (oldest + count) % offsets.length;
+            offsets[index] = writePosition;
+            lengths[index] = length;
+            eventIds[index] = event.getEventId();
+            count++;
+            writePosition += length;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void evictOldest() {
+        oldest = (oldest + 1) % offsets.length;
+        count--;
+        if (count == 0) {
+            oldest = 0;
+            writePosition = 0;
+        }
+    }
+
+    static byte[] serialize(final ProvenanceEventRecord event) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream(1024);
+        recordWriter.writeRecord(new EventRecord(event, event.getEventId(), eventSchema, contentClaimSchema), baos);
+        return baos.toByteArray();
+    }
+
+    // Must be called while holding the read lock
+    private ProvenanceEventRecord read(final int position) {
+        final int index = (oldest + position) % offsets.length;
+        final byte[] serialized = new byte[lengths[index]];
+
+        final ByteBuffer source = memory.duplicate();
+        source.position(offsets[index]);
+        source.get(serialized);
+
+        try {
+            final Record record = recordReader.readRecord(new ByteArrayInputStream(serialized));
+            return EventRecord.getEvent(record, null, 0L, Integer.MAX_VALUE);
+        } catch (final IOException ioe) {
+            // Should not happen, as we are reading from memory data that we serialized ourselves
+            throw new IllegalStateException("Failed to deserialize Provenance Event with ID " + eventIds[index] + " from off-heap buffer", ioe);
+        }
+    }
+
+    @Override
+    public int getSize() {
+        readLock.lock();
+        try {
+            return count;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public Long getNewestEventId() {
+        readLock.lock();
+        try {
+            return count == 0 ? null : eventIds[(oldest + count - 1) % offsets.length];
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public ProvenanceEventRecord getEvent(final long eventId) {
+        readLock.lock();
+        try {
+            // Event IDs are assigned before events are added, so concurrently added events may not be in order. Scanning the
+            // on-heap index is cheap, though, so start with the newest event, which is the most likely to be of interest.
+            for (int i = count - 1; i >= 0; i--) {
+                if (eventIds[(oldest + i) % offsets.length] == eventId) {
+                    return read(i);
+                }
+            }
+
+            return null;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public List<ProvenanceEventRecord> getSelectedElements(final Filter<ProvenanceEventRecord> filter, final int maxElements) {
+        final List<ProvenanceEventRecord> selected = new ArrayList<>();
+        forEach(event -> {
+            if (filter.select(event)) {
+                selected.add(event);
+            }
+
+            return selected.size() < maxElements;
+        }, IterationDirection.FORWARD);
+
+        return selected;
+    }
+
+    @Override
+    public List<ProvenanceEventRecord> getSelectedElements(final long minEventId, final Filter<ProvenanceEventRecord> filter, final int maxElements) {
+        final List<ProvenanceEventRecord> selected = new ArrayList<>();
+
+        readLock.lock();
+        try {
+            // Use the on-heap index to avoid deserializing events that cannot be selected
+            for (int i = 0; i < count && selected.size() < maxElements; i++) {
+                if (eventIds[(oldest + i) % offsets.length] < minEventId) {
+                    continue;
+                }
+
+                final ProvenanceEventRecord event = read(i);
+                if (filter.select(event)) {
+                    selected.add(event);
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+
+        return selected;
+    }
+
+    @Override
+    public void forEach(final ForEachEvaluator<ProvenanceEventRecord> evaluator, final IterationDirection iterationDirection) {
+        readLock.lock();
+        try {
+            if (iterationDirection == IterationDirection.FORWARD) {
+                for (int i = 0; i < count; i++) {
+                    if (!evaluator.evaluate(read(i))) {
+                        return;
+                    }
+                }
+            } else {
+                for (int i = count - 1; i >= 0; i--) {
+                    if (!evaluator.evaluate(read(i))) {
+                        return;
+                    }
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+}
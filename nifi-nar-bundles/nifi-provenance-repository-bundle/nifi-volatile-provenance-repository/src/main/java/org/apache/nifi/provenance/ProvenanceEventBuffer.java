@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import org.apache.nifi.util.RingBuffer.Filter;
+import org.apache.nifi.util.RingBuffer.ForEachEvaluator;
+import org.apache.nifi.util.RingBuffer.IterationDirection;
+
+import java.util.List;
+
+/**
+ * A fixed-capacity buffer of the most recent Provenance Events. Once the buffer is full, adding an event causes the oldest event(s) to be evicted.
+ * Implementations must be thread-safe.
+ */
+interface ProvenanceEventBuffer {
+
+    /**
+     * Adds the given event to the buffer, evicting the oldest events if necessary in order to make room
+     *
+     * @param event the event to add, whose Event ID has already been assigned
+     */
+    void add(ProvenanceEventRecord event);
+
+    /**
+     * @return the number of events currently held in the buffer
+     */
+    int getSize();
+
+    /**
+     * @return the ID of the event that was most recently added, or <code>null</code> if the buffer is empty
+     */
+    Long getNewestEventId();
+
+    /**
+     * @param eventId the ID of the event to retrieve
+     * @return the event with the given ID, or <code>null</code> if it is not held in the buffer
+     */
+    ProvenanceEventRecord getEvent(long eventId);
+
+    /**
+     * @param filter the filter that determines which events are selected
+     * @param maxElements the maximum number of events to return
+     * @return the selected events, oldest first
+     */
+    List<ProvenanceEventRecord> getSelectedElements(Filter<ProvenanceEventRecord> filter, int maxElements);
+
+    /**
+     * @param minEventId the smallest Event ID of interest
+     * @param filter the filter that determines which of the events with an ID of at least <code>minEventId</code> are selected
+     * @param maxElements the maximum number of events to return
+     * @return the selected events, oldest first
+     */
+    List<ProvenanceEventRecord> getSelectedElements(long minEventId, Filter<ProvenanceEventRecord> filter, int maxElements);
+
+    /**
+     * Iterates over the events in the buffer until the evaluator returns <code>false</code> or all events have been evaluated
+     *
+     * @param evaluator the evaluator to call for each event
+     * @param iterationDirection {@link IterationDirection#FORWARD} to start with the oldest event, {@link IterationDirection#BACKWARD} to start with the newest
+     */
+    void forEach(ForEachEvaluator<ProvenanceEventRecord> evaluator, IterationDirection iterationDirection);
+}
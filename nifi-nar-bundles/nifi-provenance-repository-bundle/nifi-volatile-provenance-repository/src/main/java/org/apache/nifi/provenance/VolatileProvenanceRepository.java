@@ -36,7 +36,6 @@ import org.apache.nifi.provenance.search.QuerySubmission;
 import org.apache.nifi.provenance.search.SearchTerm;
 import org.apache.nifi.provenance.search.SearchableField;
 import org.apache.nifi.util.NiFiProperties;
-import org.apache.nifi.util.RingBuffer;
 import org.apache.nifi.util.RingBuffer.Filter;
 import org.apache.nifi.util.RingBuffer.ForEachEvaluator;
 import org.apache.nifi.util.RingBuffer.IterationDirection;
@@ -67,13 +66,14 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
 
     // properties
     public static final String BUFFER_SIZE = "nifi.provenance.repository.buffer.size";
+    public static final String OFF_HEAP_BUFFER_SIZE = "nifi.provenance.repository.buffer.off.heap.size";
 
     // default property values
     public static final int DEFAULT_BUFFER_SIZE = 10000;
 
     public static String CONTAINER_NAME = "in-memory";
 
-    private final RingBuffer<ProvenanceEventRecord> ringBuffer;
+    private final ProvenanceEventBuffer ringBuffer;
     private final int maxSize;
     private final List<SearchableField> searchableFields;
     private final List<SearchableField> searchableAttributes;
@@ -105,7 +105,18 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
     public VolatileProvenanceRepository(final NiFiProperties nifiProperties) {
 
         maxSize = nifiProperties.getIntegerProperty(BUFFER_SIZE, DEFAULT_BUFFER_SIZE);
-        ringBuffer = new RingBuffer<>(maxSize);
+
+        final String offHeapBufferSize = nifiProperties.getProperty(OFF_HEAP_BUFFER_SIZE);
+        if (offHeapBufferSize == null || offHeapBufferSize.trim().isEmpty()) {
+            ringBuffer = new HeapEventBuffer(maxSize);
+        } else {
+            final long offHeapBytes = DataUnit.parseDataSize(offHeapBufferSize.trim(), DataUnit.B).longValue();
+            if (offHeapBytes < 1 || offHeapBytes > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid value for " + OFF_HEAP_BUFFER_SIZE + ": " + offHeapBufferSize + "; the value must be between 1 byte and 2 GB");
+            }
+
+            ringBuffer = new OffHeapEventBuffer((int) offHeapBytes, maxSize);
+        }
 
         final String indexedFieldString = nifiProperties.getProperty(NiFiProperties.PROVENANCE_INDEXED_FIELDS);
         final String indexedAttrString = nifiProperties.getProperty(NiFiProperties.PROVENANCE_INDEXED_ATTRIBUTES);
@@ -171,22 +182,17 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
 
     @Override
     public List<ProvenanceEventRecord> getEvents(final long firstRecordId, final int maxRecords, final NiFiUser user) throws IOException {
-        return ringBuffer.getSelectedElements(new Filter<ProvenanceEventRecord>() {
+        return ringBuffer.getSelectedElements(firstRecordId, new Filter<ProvenanceEventRecord>() {
             @Override
             public boolean select(final ProvenanceEventRecord value) {
-                if (!isAuthorized(value, user)) {
-                    return false;
-                }
-
-                return value.getEventId() >= firstRecordId;
+                return isAuthorized(value, user);
             }
         }, maxRecords);
     }
 
     @Override
     public Long getMaxEventId() {
-        final ProvenanceEventRecord newest = ringBuffer.getNewestElement();
-        return (newest == null) ? null : newest.getEventId();
+        return ringBuffer.getNewestEventId();
     }
 
     public ProvenanceEventRecord getEvent(final String identifier) throws IOException {
@@ -201,14 +207,7 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
 
     @Override
     public ProvenanceEventRecord getEvent(final long id) {
-        final List<ProvenanceEventRecord> records = ringBuffer.getSelectedElements(new Filter<ProvenanceEventRecord>() {
-            @Override
-            public boolean select(final ProvenanceEventRecord event) {
-                return event.getEventId() == id;
-            }
-        }, 1);
-
-        return records.isEmpty() ? null : records.get(0);
+        return ringBuffer.getEvent(id);
     }
 
     @Override
@@ -649,12 +648,12 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
 
     private static class QueryRunnable implements Runnable {
 
-        private final RingBuffer<ProvenanceEventRecord> ringBuffer;
+        private final ProvenanceEventBuffer ringBuffer;
         private final Filter<ProvenanceEventRecord> filter;
         private final AsyncQuerySubmission submission;
         private final int maxRecords;
 
-        public QueryRunnable(final RingBuffer<ProvenanceEventRecord> ringBuffer, final Filter<ProvenanceEventRecord> filter, final int maxRecords, final AsyncQuerySubmission submission) {
+        public QueryRunnable(final ProvenanceEventBuffer ringBuffer, final Filter<ProvenanceEventRecord> filter, final int maxRecords, final AsyncQuerySubmission submission) {
             this.ringBuffer = ringBuffer;
             this.filter = filter;
             this.submission = submission;
@@ -686,11 +685,11 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
 
     private static class ComputeLineageRunnable implements Runnable {
 
-        private final RingBuffer<ProvenanceEventRecord> ringBuffer;
+        private final ProvenanceEventBuffer ringBuffer;
         private final Filter<ProvenanceEventRecord> filter;
         private final AsyncLineageSubmission submission;
 
-        public ComputeLineageRunnable(final RingBuffer<ProvenanceEventRecord> ringBuffer, final Filter<ProvenanceEventRecord> filter, final AsyncLineageSubmission submission) {
+        public ComputeLineageRunnable(final ProvenanceEventBuffer ringBuffer, final Filter<ProvenanceEventRecord> filter, final AsyncLineageSubmission submission) {
             this.ringBuffer = ringBuffer;
             this.filter = filter;
             this.submission = submission;
@@ -698,7 +697,7 @@ public class VolatileProvenanceRepository implements ProvenanceRepository {
 
         @Override
         public void run() {
-            final List<ProvenanceEventRecord> records = ringBuffer.getSelectedElements(filter);
+            final List<ProvenanceEventRecord> records = ringBuffer.getSelectedElements(filter, Integer.MAX_VALUE);
             submission.getResult().update(records, records.size());
         }
     }
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.provenance;
+
+import org.apache.nifi.util.RingBuffer.IterationDirection;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestOffHeapEventBuffer {
+
+    @Test
+    public void testRoundTrip() {
+        final OffHeapEventBuffer buffer = new OffHeapEventBuffer(1024 * 1024, 100);
+        assertNull(buffer.getNewestEventId());
+
+        final ProvenanceEventRecord original = createEvent(7L, 'x', 10);
+        buffer.add(original);
+
+        final ProvenanceEventRecord recovered = buffer.getEvent(7L);
+        assertEquals(7L, recovered.getEventId());
+        assertEquals(original.getEventType(), recovered.getEventType());
+        assertEquals(original.getFlowFileUuid(), recovered.getFlowFileUuid());
+        assertEquals(original.getComponentId(), recovered.getComponentId());
+        assertEquals(original.getTransitUri(), recovered.getTransitUri());
+        assertEquals(original.getAttributes(), recovered.getAttributes());
+        assertEquals(original.getFileSize(), recovered.getFileSize());
+        assertEquals(original.getContentClaimIdentifier(), recovered.getContentClaimIdentifier());
+        assertEquals(Long.valueOf(7L), buffer.getNewestEventId());
+        assertNull(buffer.getEvent(8L));
+    }
+
+    @Test
+    public void testEvictsWhenMaxEventsReached() {
+        final OffHeapEventBuffer buffer = new OffHeapEventBuffer(1024 * 1024, 10);
+        for (long i = 0; i < 25; i++) {
+            buffer.add(createEvent(i, 'x', 10));
+        }
+
+        assertEquals(10, buffer.getSize());
+        assertEquals(range(15, 25), getEventIds(buffer, IterationDirection.FORWARD));
+        assertNull(buffer.getEvent(14L));
+    }
+
+    @Test
+    public void testEvictsWhenMemoryExhausted() throws IOException {
+        final int eventSize = OffHeapEventBuffer.serialize(createEvent(0L, 'x', 100)).length;
+        final OffHeapEventBuffer buffer = new OffHeapEventBuffer(eventSize * 10 + eventSize / 2, 1000);
+
+        // Write enough events to wrap around the memory region several times, ensuring that the events that remain are always the most recent ones
+        for (long i = 0; i < 95; i++) {
+            buffer.add(createEvent(i, 'x', 100));
+
+            final List<Long> eventIds = getEventIds(buffer, IterationDirection.FORWARD);
+            assertEquals(range(Math.max(0, i - 9), i + 1), eventIds);
+        }
+
+        // Events of differing sizes should evict as many older events as necessary
+        buffer.add(createEvent(95L, 'y', 500));
+        final List<Long> eventIds = getEventIds(buffer, IterationDirection.FORWARD);
+        assertEquals(Long.valueOf(95L), eventIds.get(eventIds.size() - 1));
+        assertTrue(eventIds.size() < 10);
+        assertEquals(range(96 - eventIds.size(), 96), eventIds);
+
+        final List<Long> reversed = getEventIds(buffer, IterationDirection.BACKWARD);
+        assertEquals(Long.valueOf(95L), reversed.get(0));
+        assertEquals(eventIds.size(), reversed.size());
+    }
+
+    @Test
+    public void testEventLargerThanBufferIgnored() throws IOException {
+        final ProvenanceEventRecord event = createEvent(0L, 'x', 1);
+        final OffHeapEventBuffer buffer = new OffHeapEventBuffer(OffHeapEventBuffer.serialize(event).length * 2, 10);
+        buffer.add(event);
+        buffer.add(createEvent(1L, 'x', 1000));
+
+        assertEquals(1, buffer.getSize());
+        assertEquals(Long.valueOf(0L), buffer.getNewestEventId());
+    }
+
+    @Test
+    public void testSelectByMinimumEventId() {
+        final OffHeapEventBuffer buffer = new OffHeapEventBuffer(1024 * 1024, 100);
+        for (long i = 0; i < 20; i++) {
+            buffer.add(createEvent(i, 'x', 10));
+        }
+
+        final List<ProvenanceEventRecord> selected = buffer.getSelectedElements(12L, event -> event.getEventId() % 2 == 0, 3);
+        assertEquals(3, selected.size());
+        assertEquals(12L, selected.get(0).getEventId());
+        assertEquals(14L, selected.get(1).getEventId());
+        assertEquals(16L, selected.get(2).getEventId());
+    }
+
+    private List<Long> getEventIds(final OffHeapEventBuffer buffer, final IterationDirection direction) {
+        final List<Long> eventIds = new ArrayList<>();
+        buffer.forEach(event -> eventIds.add(event.getEventId()), direction);
+        return eventIds;
+    }
+
+    private List<Long> range(final long start, final long end) {
+        final List<Long> values = new ArrayList<>();
+        for (long i = start; i < end; i++) {
+            values.add(i);
+        }
+        return values;
+    }
+
+    private ProvenanceEventRecord createEvent(final long eventId, final char fill, final int attributeLength) {
+        final Map<String, String> attributes = new HashMap<>();
+        attributes.put("uuid", "00000000-0000-0000-0000-" + String.format("%012d", eventId));
+        attributes.put("filename", String.format("file-%03d", eventId));
+        attributes.put("padding", new String(new char[attributeLength]).replace('\0', fill));
+
+        return new StandardProvenanceEventRecord.Builder()
+            .setEventId(eventId)
+            .setEventType(ProvenanceEventType.RECEIVE)
+            .setEventTime(System.currentTimeMillis())
+            .setFlowFileEntryDate(System.currentTimeMillis())
+            .setLineageStartDate(System.currentTimeMillis())
+            .setTransitUri("nifi://unit-test")
+            .setComponentId("1234")
+            .setComponentType("dummy processor")
+            .setFlowFileUUID(attributes.get("uuid"))
+            .setAttributes(new HashMap<>(), attributes)
+            .setCurrentContentClaim("container", "section", "identifier", 0L, 1024L)
+            .build();
+    }
+}
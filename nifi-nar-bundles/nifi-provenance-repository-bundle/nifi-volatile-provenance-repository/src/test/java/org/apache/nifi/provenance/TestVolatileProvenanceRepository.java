@@ -47,7 +47,22 @@ public class TestVolatileProvenanceRepository {
     @Test
     public void testAddAndGet() throws IOException, InterruptedException {
         repo = new VolatileProvenanceRepository(NiFiProperties.createBasicNiFiProperties(null, null));
+        verifyAddAndGet();
+    }
+
+    @Test
+    public void testAddAndGetOffHeap() throws IOException, InterruptedException {
+        final Map<String, String> additionalProperties = new HashMap<>();
+        additionalProperties.put(VolatileProvenanceRepository.OFF_HEAP_BUFFER_SIZE, "1 MB");
+        repo = new VolatileProvenanceRepository(NiFiProperties.createBasicNiFiProperties(null, additionalProperties));
+        verifyAddAndGet();
+
+        assertEquals(Long.valueOf(9L), repo.getMaxEventId());
+        assertEquals(4L, repo.getEvent(4L).getEventId());
+        assertEquals(5, repo.getEvents(5L, 10).size());
+    }
 
+    private void verifyAddAndGet() throws IOException {
         final Map<String, String> attributes = new HashMap<>();
         attributes.put("abc", "xyz");
         attributes.put("xyz", "abc");
@@ -144,6 +144,16 @@ public class ListenSyslog extends AbstractSyslogProcessor {
         .defaultValue("2")
         .required(true)
         .build();
+    public static final PropertyDescriptor SELECTOR_THREADS = new PropertyDescriptor.Builder()
+        .name("selector-threads")
+        .displayName("Selector Threads")
+        .description("The number of threads that wait for Syslog messages to arrive on accepted connections in TCP mode. Connections are assigned "
+                + "to the threads in turn as they are accepted. Increasing this value can improve throughput when receiving from many concurrent senders. "
+                + "No more threads are used than the maximum number of TCP connections.")
+        .addValidator(StandardValidators.createLongValidator(1, 64, true))
+        .defaultValue("1")
+        .required(true)
+        .build();
     public static final PropertyDescriptor MAX_BATCH_SIZE = new PropertyDescriptor.Builder()
         .name("Max Batch Size")
         .displayName("Max Batch Size")
@@ -220,6 +230,7 @@ public class ListenSyslog extends AbstractSyslogProcessor {
         descriptors.add(MAX_MESSAGE_QUEUE_SIZE);
         descriptors.add(MAX_SOCKET_BUFFER_SIZE);
         descriptors.add(MAX_CONNECTIONS);
+        descriptors.add(SELECTOR_THREADS);
         descriptors.add(MAX_BATCH_SIZE);
         descriptors.add(MESSAGE_DELIMITER);
         descriptors.add(PARSE_MESSAGES);
@@ -354,8 +365,9 @@ public class ListenSyslog extends AbstractSyslogProcessor {
                 clientAuth = SslContextFactory.ClientAuth.valueOf(clientAuthValue);
             }
 
+            final int selectorThreads = Math.min(context.getProperty(SELECTOR_THREADS).asInteger(), maxConnections);
             final ChannelHandlerFactory<RawSyslogEvent<SocketChannel>, AsyncChannelDispatcher> handlerFactory = new SocketChannelHandlerFactory<>();
-            return new SocketChannelDispatcher(eventFactory, handlerFactory, bufferPool, events, getLogger(), maxConnections, sslContext, clientAuth, charset);
+            return new SocketChannelDispatcher(eventFactory, handlerFactory, bufferPool, events, getLogger(), maxConnections, selectorThreads, sslContext, clientAuth, charset);
         }
     }
 
@@ -38,6 +38,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
@@ -89,6 +90,7 @@ import org.apache.nifi.processor.util.bin.BinManager;
 import org.apache.nifi.processor.util.bin.BinProcessingResult;
 import org.apache.nifi.processors.standard.merge.AttributeStrategy;
 import org.apache.nifi.processors.standard.merge.AttributeStrategyUtil;
+import org.apache.nifi.processors.standard.merge.KeepCommonAttributeStrategy;
 import org.apache.nifi.stream.io.NonCloseableOutputStream;
 import org.apache.nifi.stream.io.StreamUtils;
 import org.apache.nifi.util.FlowFilePackager;
@@ -308,6 +310,21 @@ public class MergeContent extends BinFiles {
             .addValidator(StandardValidators.NON_EMPTY_VALIDATOR)
             .expressionLanguageSupported(ExpressionLanguageScope.FLOWFILE_ATTRIBUTES)
             .build();
+    public static final PropertyDescriptor INCREMENTAL_MERGE = new PropertyDescriptor.Builder()
+            .name("mergecontent-incremental-merge")
+            .displayName("Incremental Merge")
+            .description("If using the Binary Concatenation Merge Format with the Bin-Packing Algorithm, specifies whether the content of each FlowFile "
+                    + "should be appended to the merged FlowFile as soon as the FlowFile is added to a bin, rather than when the bin is merged. The same "
+                    + "amount of content is copied either way; this only spreads the copying over the life of the bin, so that merging a full bin only "
+                    + "requires writing the footer. While a bin is being filled, its merged content is kept open for appending, which holds an open file "
+                    + "and a writable content claim for each bin, so enabling this with a large 'Maximum number of Bins' (for example, with many "
+                    + "correlation groups) may exhaust the available file handles or content claims. If enabled, the lineage start date of the merged "
+                    + "FlowFile is the time at which the first FlowFile was added to its bin. If using another Merge Format or Merge Strategy, this value "
+                    + "is ignored")
+            .required(true)
+            .allowableValues("true", "false")
+            .defaultValue("false")
+            .build();
     public static final PropertyDescriptor COMPRESSION_LEVEL = new PropertyDescriptor.Builder()
             .name("Compression Level")
             .description("Specifies the compression level to use when using the Zip Merge Format; if not using the Zip Merge Format, this value is "
@@ -366,12 +383,22 @@ public class MergeContent extends BinFiles {
         descriptors.add(HEADER);
         descriptors.add(FOOTER);
         descriptors.add(DEMARCATOR);
+        descriptors.add(INCREMENTAL_MERGE);
         descriptors.add(COMPRESSION_LEVEL);
         descriptors.add(KEEP_PATH);
         descriptors.add(TAR_MODIFIED_TIME);
         return descriptors;
     }
 
+    // the merged FlowFiles of the bins whose content is being concatenated as FlowFiles are added to them
+    private final Map<Bin, IncrementalBundle> incrementalBundles = new ConcurrentHashMap<>();
+
+    @Override
+    protected void onBinRolledBack(final Bin bin) {
+        // the merged FlowFile is discarded along with the rest of the bin's session
+        incrementalBundles.remove(bin);
+    }
+
     @Override
     protected Collection<ValidationResult> additionalCustomValidation(ValidationContext context) {
         final Collection<ValidationResult> results = new ArrayList<>();
@@ -438,6 +465,59 @@ public class MergeContent extends BinFiles {
         } else {
             binManager.setFileCountAttribute(null);
         }
+
+        if (isIncrementalMerge(context)) {
+            binManager.setBinListener((bin, flowFile) -> appendToBundle(context, bin, flowFile));
+        } else {
+            binManager.setBinListener(null);
+        }
+    }
+
+    private boolean isIncrementalMerge(final ProcessContext context) {
+        return context.getProperty(INCREMENTAL_MERGE).asBoolean()
+            && MERGE_FORMAT_CONCAT_VALUE.equals(context.getProperty(MERGE_FORMAT).getValue())
+            && MERGE_STRATEGY_BIN_PACK.equals(context.getProperty(MERGE_STRATEGY).getValue());
+    }
+
+    /**
+     * Appends the content of the given FlowFile, preceded by the header or demarcator, to the merged FlowFile of the given bin,
+     * creating the merged FlowFile if this is the first FlowFile of the bin. If this fails, the bin's content is instead merged
+     * once the bin is complete.
+     */
+    private void appendToBundle(final ProcessContext context, final Bin bin, final FlowFile flowFile) {
+        final IncrementalBundle incremental = incrementalBundles.computeIfAbsent(bin, key -> new IncrementalBundle());
+        if (incremental.failed) {
+            return;
+        }
+
+        final ProcessSession session = bin.getSession();
+        try {
+            final byte[] separator;
+            if (incremental.bundle == null) {
+                final List<FlowFile> first = Collections.singletonList(flowFile);
+                separator = getDelimiterContent(context, first, HEADER);
+                incremental.demarcator = getDelimiterContent(context, first, DEMARCATOR);
+                incremental.bundle = session.create();
+            } else {
+                separator = incremental.demarcator;
+            }
+
+            incremental.bundle = session.append(incremental.bundle, out -> {
+                if (separator != null) {
+                    out.write(separator);
+                }
+                session.read(flowFile, false, in -> StreamUtils.copy(in, out));
+            });
+        } catch (final Exception e) {
+            getLogger().warn("Failed to append {} to the merged content of its bin; the content of the bin will be merged when the bin is complete",
+                new Object[] {flowFile, e});
+
+            if (incremental.bundle != null) {
+                session.remove(incremental.bundle);
+                incremental.bundle = null;
+            }
+            incremental.failed = true;
+        }
     }
 
     @Override
@@ -462,7 +542,12 @@ public class MergeContent extends BinFiles {
                 merger = new FlowFileStreamMerger(new FlowFilePackagerV1(), "application/flowfile-v1");
                 break;
             case MERGE_FORMAT_CONCAT_VALUE:
-                merger = new BinaryConcatenationMerge();
+                final IncrementalBundle incremental = incrementalBundles.remove(bin);
+                if (incremental == null || incremental.bundle == null) {
+                    merger = new BinaryConcatenationMerge();
+                } else {
+                    merger = new IncrementalConcatenationMerge(incremental.bundle);
+                }
                 break;
             case MERGE_FORMAT_AVRO_VALUE:
                 merger = new AvroMerge();
@@ -649,43 +734,102 @@ public class MergeContent extends BinFiles {
             return bundle;
         }
 
-        private byte[] getDelimiterContent(final ProcessContext context, final List<FlowFile> wrappers, final PropertyDescriptor descriptor) throws IOException {
-            final String delimiterStrategyValue = context.getProperty(DELIMITER_STRATEGY).getValue();
-            if (DELIMITER_STRATEGY_FILENAME.equals(delimiterStrategyValue)) {
-                return getDelimiterFileContent(context, wrappers, descriptor);
-            } else {
-                return getDelimiterTextContent(context, wrappers, descriptor);
+        @Override
+        public String getMergedContentType() {
+            return mimeType;
+        }
+
+        @Override
+        public List<FlowFile> getUnmergedFlowFiles() {
+            return Collections.emptyList();
+        }
+    }
+
+    private byte[] getDelimiterContent(final ProcessContext context, final List<FlowFile> wrappers, final PropertyDescriptor descriptor) throws IOException {
+        final String delimiterStrategyValue = context.getProperty(DELIMITER_STRATEGY).getValue();
+        if (DELIMITER_STRATEGY_FILENAME.equals(delimiterStrategyValue)) {
+            return getDelimiterFileContent(context, wrappers, descriptor);
+        } else {
+            return getDelimiterTextContent(context, wrappers, descriptor);
+        }
+    }
+
+    private byte[] getDelimiterFileContent(final ProcessContext context, final List<FlowFile> flowFiles, final PropertyDescriptor descriptor)
+            throws IOException {
+        byte[] property = null;
+        if (flowFiles != null && flowFiles.size() > 0) {
+            final FlowFile flowFile = flowFiles.get(0);
+            if (flowFile != null) {
+                final String value = context.getProperty(descriptor).evaluateAttributeExpressions(flowFile).getValue();
+                if (value != null) {
+                    property = readContent(value);
+                }
             }
         }
+        return property;
+    }
 
-        private byte[] getDelimiterFileContent(final ProcessContext context, final List<FlowFile> flowFiles, final PropertyDescriptor descriptor)
-                throws IOException {
-            byte[] property = null;
-            if (flowFiles != null && flowFiles.size() > 0) {
-                final FlowFile flowFile = flowFiles.get(0);
-                if (flowFile != null) {
-                    final String value = context.getProperty(descriptor).evaluateAttributeExpressions(flowFile).getValue();
-                    if (value != null) {
-                        property = readContent(value);
-                    }
+    private byte[] getDelimiterTextContent(final ProcessContext context, final List<FlowFile> flowFiles, final PropertyDescriptor descriptor)
+            throws IOException {
+        byte[] property = null;
+        if (flowFiles != null && flowFiles.size() > 0) {
+            final FlowFile flowFile = flowFiles.get(0);
+            if (flowFile != null) {
+                final String value = context.getProperty(descriptor).evaluateAttributeExpressions(flowFile).getValue();
+                if (value != null) {
+                    property = value.getBytes(StandardCharsets.UTF_8);
                 }
             }
-            return property;
         }
+        return property;
+    }
 
-        private byte[] getDelimiterTextContent(final ProcessContext context, final List<FlowFile> flowFiles, final PropertyDescriptor descriptor)
-                throws IOException {
-            byte[] property = null;
-            if (flowFiles != null && flowFiles.size() > 0) {
-                final FlowFile flowFile = flowFiles.get(0);
-                if (flowFile != null) {
-                    final String value = context.getProperty(descriptor).evaluateAttributeExpressions(flowFile).getValue();
-                    if (value != null) {
-                        property = value.getBytes(StandardCharsets.UTF_8);
-                    }
+    /**
+     * Completes a merged FlowFile whose content was appended as FlowFiles were added to the bin
+     */
+    private class IncrementalConcatenationMerge implements MergeBin {
+
+        private final FlowFile incrementalBundle;
+        private String mimeType = "application/octet-stream";
+
+        public IncrementalConcatenationMerge(final FlowFile incrementalBundle) {
+            this.incrementalBundle = incrementalBundle;
+        }
+
+        @Override
+        public FlowFile merge(final Bin bin, final ProcessContext context) {
+            final List<FlowFile> contents = bin.getContents();
+            final ProcessSession session = bin.getSession();
+
+            FlowFile bundle = incrementalBundle;
+            try {
+                final byte[] footer = getDelimiterContent(context, contents, FOOTER);
+                if (footer != null) {
+                    bundle = session.append(bundle, out -> out.write(footer));
                 }
+            } catch (final IOException e) {
+                session.remove(bundle);
+                throw new ProcessException("Failed to read footer for merged content", e);
+            } catch (final Exception e) {
+                session.remove(bundle);
+                throw e;
             }
-            return property;
+
+            // the bundle was created before its parents were known, so add the attributes that it would have inherited from them
+            final Map<String, String> inheritedAttributes = new KeepCommonAttributeStrategy().getMergedAttributes(contents);
+            inheritedAttributes.keySet().removeAll(Arrays.asList(CoreAttributes.FILENAME.key(), CoreAttributes.PATH.key(),
+                CoreAttributes.ALTERNATE_IDENTIFIER.key(), CoreAttributes.DISCARD_REASON.key()));
+            bundle = session.putAllAttributes(bundle, inheritedAttributes);
+
+            session.getProvenanceReporter().join(contents, bundle);
+            bundle = session.putAttribute(bundle, CoreAttributes.FILENAME.key(), createFilename(contents));
+
+            final String firstMimeType = contents.get(0).getAttribute(CoreAttributes.MIME_TYPE.key());
+            if (firstMimeType != null && contents.stream().allMatch(flowFile -> firstMimeType.equals(flowFile.getAttribute(CoreAttributes.MIME_TYPE.key())))) {
+                this.mimeType = firstMimeType;
+            }
+
+            return bundle;
         }
 
         @Override
@@ -699,6 +843,14 @@ public class MergeContent extends BinFiles {
         }
     }
 
+    /**
+     * The merged FlowFile of a bin whose content is appended as FlowFiles are added to the bin
+     */
+    private static class IncrementalBundle {
+        private FlowFile bundle;
+        private byte[] demarcator;
+        private boolean failed;
+    }
 
     private String getPath(final FlowFile flowFile) {
         Path path = Paths.get(flowFile.getAttribute(CoreAttributes.PATH.key()));
@@ -37,6 +37,7 @@ import org.apache.nifi.annotation.behavior.WritesAttribute;
 import org.apache.nifi.annotation.behavior.WritesAttributes;
 import org.apache.nifi.annotation.documentation.CapabilityDescription;
 import org.apache.nifi.annotation.documentation.Tags;
+import org.apache.nifi.annotation.lifecycle.OnScheduled;
 import org.apache.nifi.annotation.lifecycle.OnStopped;
 import org.apache.nifi.components.PropertyDescriptor;
 import org.apache.nifi.components.ValidationContext;
@@ -53,12 +54,14 @@ import org.apache.nifi.processor.Relationship;
 import org.apache.nifi.processor.exception.ProcessException;
 import org.apache.nifi.processor.io.OutputStreamCallback;
 import org.apache.nifi.queryrecord.FlowFileTable;
+import org.apache.nifi.queryrecord.SharedRecordScan;
 import org.apache.nifi.record.path.FieldValue;
 import org.apache.nifi.record.path.RecordPath;
 import org.apache.nifi.record.path.RecordPathResult;
 import org.apache.nifi.record.path.StandardFieldValue;
 import org.apache.nifi.record.path.util.RecordPathCache;
 import org.apache.nifi.schema.access.SchemaNotFoundException;
+import org.apache.nifi.serialization.MalformedRecordException;
 import org.apache.nifi.serialization.RecordReader;
 import org.apache.nifi.serialization.RecordReaderFactory;
 import org.apache.nifi.serialization.RecordSetWriter;
@@ -71,6 +74,7 @@ import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
 import org.apache.nifi.serialization.record.ResultSetRecordSet;
+import org.apache.nifi.stream.io.NonCloseableOutputStream;
 import org.apache.nifi.util.StopWatch;
 import org.apache.nifi.util.Tuple;
 
@@ -94,7 +98,12 @@ import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
@@ -167,6 +176,19 @@ public class QueryRecord extends AbstractProcessor {
         .required(true)
         .build();
 
+    static final PropertyDescriptor SHARED_RECORD_SCAN = new PropertyDescriptor.Builder()
+        .name("shared-record-scan")
+        .displayName("Shared Record Scan")
+        .description("When more than one SQL statement is configured, specifies whether the records of a FlowFile should be read only once and handed to every "
+            + "statement that reads the FLOWFILE table only once. Those statements then run concurrently, each in its own thread, consuming the records "
+            + "as they are read. Statements that read the FLOWFILE table more than once, such as a self-join, still parse the FlowFile's content on their own. "
+            + "If false, the content is parsed again for each statement, one statement at a time.")
+        .expressionLanguageSupported(ExpressionLanguageScope.NONE)
+        .allowableValues("true", "false")
+        .defaultValue("true")
+        .required(true)
+        .build();
+
     public static final Relationship REL_ORIGINAL = new Relationship.Builder()
         .name("original")
         .description("The original FlowFile is routed to this relationship")
@@ -178,6 +200,8 @@ public class QueryRecord extends AbstractProcessor {
             + "be routed to this relationship")
         .build();
 
+    private static final int SHARED_SCAN_QUEUE_SIZE = 100;
+
     private List<PropertyDescriptor> properties;
     private final Set<Relationship> relationships = Collections.synchronizedSet(new HashSet<>());
 
@@ -186,6 +210,8 @@ public class QueryRecord extends AbstractProcessor {
         .removalListener(this::onCacheEviction)
         .build();
 
+    private volatile ExecutorService sharedScanExecutor;
+
     @Override
     protected void init(final ProcessorInitializationContext context) {
         try {
@@ -199,6 +225,7 @@ public class QueryRecord extends AbstractProcessor {
         properties.add(RECORD_WRITER_FACTORY);
         properties.add(INCLUDE_ZERO_RECORD_FLOWFILES);
         properties.add(CACHE_SCHEMA);
+        properties.add(SHARED_RECORD_SCAN);
         this.properties = Collections.unmodifiableList(properties);
 
         relationships.add(REL_FAILURE);
@@ -246,8 +273,28 @@ public class QueryRecord extends AbstractProcessor {
             .build();
     }
 
+    @OnScheduled
+    public void setupExecutor() {
+        sharedScanExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+            private final ThreadFactory defaultFactory = Executors.defaultThreadFactory();
+
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread t = defaultFactory.newThread(r);
+                t.setName("QueryRecord " + getIdentifier() + " Shared Scan");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
     @OnStopped
     public synchronized void cleanup() {
+        if (sharedScanExecutor != null) {
+            sharedScanExecutor.shutdown();
+            sharedScanExecutor = null;
+        }
+
         for (final BlockingQueue<CachedStatement> statementQueue : statementQueues.asMap().values()) {
             clearQueue(statementQueue);
         }
@@ -281,28 +328,56 @@ public class QueryRecord extends AbstractProcessor {
         final Map<FlowFile, Relationship> transformedFlowFiles = new HashMap<>();
         final Set<FlowFile> createdFlowFiles = new HashSet<>();
 
+        // If there is more than one query, the Record Reader that is used to determine the schema is kept open so that
+        // its records can be handed to the queries that share a single scan of the FlowFile
+        final long queryCount = context.getProperties().keySet().stream().filter(PropertyDescriptor::isDynamic).count();
+        final boolean shareScan = queryCount > 1 && context.getProperty(SHARED_RECORD_SCAN).asBoolean();
+
         // Determine the Record Reader's schema
         final RecordSchema writerSchema;
         final RecordSchema readerSchema;
-        try (final InputStream rawIn = session.read(original)) {
+        InputStream rawIn = null;
+        RecordReader reader = null;
+        try {
+            rawIn = session.read(original);
             final Map<String, String> originalAttributes = original.getAttributes();
-            final RecordReader reader = recordReaderFactory.createRecordReader(originalAttributes, rawIn, original.getSize(), getLogger());
+            reader = recordReaderFactory.createRecordReader(originalAttributes, rawIn, original.getSize(), getLogger());
             readerSchema = reader.getSchema();
 
             writerSchema = recordSetWriterFactory.getSchema(originalAttributes, readerSchema);
         } catch (final Exception e) {
+            closeQuietly(reader, rawIn);
             getLogger().error("Failed to determine Record Schema from {}; routing to failure", new Object[] {original, e});
             session.transfer(original, REL_FAILURE);
             return;
         }
 
+        if (!shareScan) {
+            closeQuietly(reader, rawIn);
+        }
+
         // Determine the schema for writing the data
         final Map<String, String> originalAttributes = original.getAttributes();
+        final boolean includeZeroRecordFlowFiles = context.getProperty(INCLUDE_ZERO_RECORD_FLOWFILES).asBoolean();
         int recordsRead = 0;
 
         try {
+            final Set<String> sharedRelationshipNames = new HashSet<>();
+            if (shareScan) {
+                try {
+                    final List<SharedQuery> sharedQueries = prepareSharedQueries(context, session, original, readerSchema, recordReaderFactory);
+                    if (!sharedQueries.isEmpty()) {
+                        recordsRead = queryWithSharedScan(session, original, reader, writerSchema, sharedQueries, recordSetWriterFactory, includeZeroRecordFlowFiles,
+                            transformedFlowFiles, createdFlowFiles);
+                        sharedQueries.forEach(query -> sharedRelationshipNames.add(query.getRelationship().getName()));
+                    }
+                } finally {
+                    closeQuietly(reader, rawIn);
+                }
+            }
+
             for (final PropertyDescriptor descriptor : context.getProperties().keySet()) {
-                if (!descriptor.isDynamic()) {
+                if (!descriptor.isDynamic() || sharedRelationshipNames.contains(descriptor.getName())) {
                     continue;
                 }
 
@@ -349,25 +424,9 @@ public class QueryRecord extends AbstractProcessor {
                     }
 
                     recordsRead = Math.max(recordsRead, queryResult.getRecordsRead());
-                    final WriteResult result = writeResultRef.get();
-                    if (result.getRecordCount() == 0 && !context.getProperty(INCLUDE_ZERO_RECORD_FLOWFILES).asBoolean()) {
-                        session.remove(transformed);
-                        flowFileRemoved = true;
-                        transformedFlowFiles.remove(transformed);
-                        getLogger().info("Transformed {} but the result contained no data so will not pass on a FlowFile", new Object[] {original});
-                    } else {
-                        final Map<String, String> attributesToAdd = new HashMap<>();
-                        if (result.getAttributes() != null) {
-                            attributesToAdd.putAll(result.getAttributes());
-                        }
-
-                        attributesToAdd.put(CoreAttributes.MIME_TYPE.key(), mimeTypeRef.get());
-                        attributesToAdd.put("record.count", String.valueOf(result.getRecordCount()));
-                        transformed = session.putAllAttributes(transformed, attributesToAdd);
-                        transformedFlowFiles.put(transformed, relationship);
-
-                        session.adjustCounter("Records Written", result.getRecordCount(), false);
-                    }
+                    transformed = handleResult(session, original, transformed, relationship, writeResultRef.get(), mimeTypeRef.get(), includeZeroRecordFlowFiles,
+                        transformedFlowFiles);
+                    flowFileRemoved = transformed == null;
                 } finally {
                     // Ensure that we have the FlowFile in the set in case we throw any Exception
                     if (!flowFileRemoved) {
@@ -404,6 +463,207 @@ public class QueryRecord extends AbstractProcessor {
         session.adjustCounter("Records Read", recordsRead, false);
     }
 
+    /**
+     * Adds the attributes for the result of a query to the FlowFile that the result was written to, or removes the FlowFile
+     * if the result is empty and zero-record FlowFiles are not to be included.
+     *
+     * @return the updated FlowFile, or <code>null</code> if the FlowFile was removed
+     */
+    private FlowFile handleResult(final ProcessSession session, final FlowFile original, final FlowFile transformed, final Relationship relationship, final WriteResult result,
+                                  final String mimeType, final boolean includeZeroRecordFlowFiles, final Map<FlowFile, Relationship> transformedFlowFiles) {
+        if (result.getRecordCount() == 0 && !includeZeroRecordFlowFiles) {
+            session.remove(transformed);
+            transformedFlowFiles.remove(transformed);
+            getLogger().info("Transformed {} but the result contained no data so will not pass on a FlowFile", new Object[] {original});
+            return null;
+        }
+
+        final Map<String, String> attributesToAdd = new HashMap<>();
+        if (result.getAttributes() != null) {
+            attributesToAdd.putAll(result.getAttributes());
+        }
+
+        attributesToAdd.put(CoreAttributes.MIME_TYPE.key(), mimeType);
+        attributesToAdd.put("record.count", String.valueOf(result.getRecordCount()));
+        final FlowFile updated = session.putAllAttributes(transformed, attributesToAdd);
+        transformedFlowFiles.put(updated, relationship);
+
+        session.adjustCounter("Records Written", result.getRecordCount(), false);
+        return updated;
+    }
+
+    /**
+     * Prepares the statements that scan the FLOWFILE table only once, so that they can share a single scan of the FlowFile's records.
+     * Statements that scan the table more than once, such as self-joins, are left to read the FlowFile's content on their own.
+     */
+    private List<SharedQuery> prepareSharedQueries(final ProcessContext context, final ProcessSession session, final FlowFile original, final RecordSchema schema,
+                                                   final RecordReaderFactory recordReaderFactory) throws SQLException {
+        final List<SharedQuery> sharedQueries = new ArrayList<>();
+
+        try {
+            for (final PropertyDescriptor descriptor : context.getProperties().keySet()) {
+                if (!descriptor.isDynamic()) {
+                    continue;
+                }
+
+                final Relationship relationship = new Relationship.Builder().name(descriptor.getName()).build();
+                final String sql = context.getProperty(descriptor).evaluateAttributeExpressions(original).getValue();
+                final CachedStatement cachedStatement = getStatement(sql, schema, () -> buildCachedStatement(sql, session, original, schema, recordReaderFactory));
+
+                if (cachedStatement.getTable().getScanCount() == 1) {
+                    sharedQueries.add(new SharedQuery(relationship, sql, schema, cachedStatement));
+                } else {
+                    releaseStatement(sql, schema, cachedStatement);
+                }
+            }
+        } catch (final Exception e) {
+            for (final SharedQuery query : sharedQueries) {
+                releaseStatementQuietly(query);
+            }
+
+            throw e;
+        }
+
+        return sharedQueries;
+    }
+
+    /**
+     * Runs each of the given queries in its own thread and reads the FlowFile's records once, handing each record to every query
+     * as it is read. The results are written to FlowFiles that are forked from the original FlowFile.
+     *
+     * @return the number of records that were read
+     */
+    private int queryWithSharedScan(final ProcessSession session, final FlowFile original, final RecordReader reader, final RecordSchema writerSchema,
+                                    final List<SharedQuery> queries, final RecordSetWriterFactory recordSetWriterFactory, final boolean includeZeroRecordFlowFiles,
+                                    final Map<FlowFile, Relationship> transformedFlowFiles, final Set<FlowFile> createdFlowFiles) throws Exception {
+
+        final List<FlowFile> flowFiles = new ArrayList<>();
+        final List<OutputStream> outputStreams = new ArrayList<>();
+        final List<SharedRecordScan> scans = new ArrayList<>();
+        final List<Future<QueryOutput>> futures = new ArrayList<>();
+        int recordsRead = 0;
+
+        try {
+            // The session is not thread-safe, so the FlowFiles and their OutputStreams are created, and later closed, by this thread.
+            // The query threads only execute the statements and write the results to the OutputStreams.
+            for (final SharedQuery query : queries) {
+                final FlowFile transformed = session.create(original);
+                createdFlowFiles.add(transformed);
+                flowFiles.add(transformed);
+
+                final OutputStream out = session.write(transformed);
+                outputStreams.add(out);
+
+                final SharedRecordScan scan = new SharedRecordScan(SHARED_SCAN_QUEUE_SIZE);
+                scans.add(scan);
+
+                final CachedStatement cachedStatement = query.getStatement();
+                cachedStatement.getTable().setFlowFile(session, original, scan);
+                futures.add(sharedScanExecutor.submit(() -> writeResults(cachedStatement, out, original, writerSchema, recordSetWriterFactory)));
+            }
+
+            Exception readFailure = null;
+            try {
+                Record record;
+                while ((record = reader.nextRecord()) != null) {
+                    recordsRead++;
+
+                    final Object[] values = record.getValues();
+                    boolean recordConsumed = false;
+                    for (final SharedRecordScan scan : scans) {
+                        recordConsumed |= scan.add(values);
+                    }
+
+                    // If every query has stopped scanning, there is no need to read the rest of the records
+                    if (!recordConsumed) {
+                        break;
+                    }
+                }
+            } catch (final IOException | MalformedRecordException e) {
+                readFailure = e;
+            }
+
+            for (final SharedRecordScan scan : scans) {
+                scan.finish(readFailure);
+            }
+
+            if (readFailure != null) {
+                throw readFailure;
+            }
+
+            final List<QueryOutput> outputs = new ArrayList<>();
+            for (final Future<QueryOutput> future : futures) {
+                outputs.add(getOutput(future));
+            }
+
+            for (final OutputStream out : outputStreams) {
+                out.close();
+            }
+
+            for (int i = 0; i < queries.size(); i++) {
+                final QueryOutput output = outputs.get(i);
+                final FlowFile transformed = handleResult(session, original, flowFiles.get(i), queries.get(i).getRelationship(), output.getWriteResult(),
+                    output.getMimeType(), includeZeroRecordFlowFiles, transformedFlowFiles);
+
+                if (transformed == null) {
+                    createdFlowFiles.remove(flowFiles.get(i));
+                }
+            }
+        } finally {
+            // Ensure that no query is left waiting for records, and wait for the queries to finish before closing the streams that they write to
+            for (final SharedRecordScan scan : scans) {
+                scan.close();
+            }
+
+            for (final Future<QueryOutput> future : futures) {
+                try {
+                    future.get();
+                } catch (final Exception ignored) {
+                    // The failure of the query has already been reported, or another failure is being reported.
+                }
+            }
+
+            closeQuietly(outputStreams.toArray(new OutputStream[0]));
+
+            for (final SharedQuery query : queries) {
+                releaseStatementQuietly(query);
+            }
+        }
+
+        return recordsRead;
+    }
+
+    private QueryOutput writeResults(final CachedStatement cachedStatement, final OutputStream out, final FlowFile original, final RecordSchema writerSchema,
+                                     final RecordSetWriterFactory recordSetWriterFactory) throws Exception {
+        final FlowFileTable table = cachedStatement.getTable();
+
+        try {
+            final ResultSet rs = cachedStatement.getStatement().executeQuery();
+            final ResultSetRecordSet recordSet = new ResultSetRecordSet(rs, writerSchema);
+            final RecordSchema writeSchema = recordSetWriterFactory.getSchema(original.getAttributes(), recordSet.getSchema());
+
+            // The OutputStream belongs to the session, so it must be closed by the thread that owns the session rather than by the Record Writer
+            try (final RecordSetWriter resultSetWriter = recordSetWriterFactory.createWriter(getLogger(), writeSchema, new NonCloseableOutputStream(out), original)) {
+                final WriteResult writeResult = resultSetWriter.write(recordSet);
+                return new QueryOutput(writeResult, resultSetWriter.getMimeType());
+            }
+        } finally {
+            table.close();
+        }
+    }
+
+    private QueryOutput getOutput(final Future<QueryOutput> future) throws Exception {
+        try {
+            return future.get();
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+
+            throw new ProcessException(cause);
+        }
+    }
 
     private synchronized CachedStatement getStatement(final String sql, final RecordSchema schema, final Supplier<CachedStatement> statementBuilder) {
         final Tuple<String, RecordSchema> tuple = new Tuple<>(sql, schema);
@@ -473,13 +733,10 @@ public class QueryRecord extends AbstractProcessor {
             public void close() throws IOException {
                 table.close();
 
-                final BlockingQueue<CachedStatement> statementQueue = statementQueues.getIfPresent(new Tuple<>(sql, schema));
-                if (statementQueue == null || !statementQueue.offer(cachedStatement)) {
-                    try {
-                        cachedStatement.getConnection().close();
-                    } catch (SQLException e) {
-                        throw new IOException("Failed to close statement", e);
-                    }
+                try {
+                    releaseStatement(sql, schema, cachedStatement);
+                } catch (SQLException e) {
+                    throw new IOException("Failed to close statement", e);
                 }
             }
 
@@ -496,6 +753,24 @@ public class QueryRecord extends AbstractProcessor {
         };
     }
 
+    private void releaseStatement(final String sql, final RecordSchema schema, final CachedStatement cachedStatement) throws SQLException {
+        final BlockingQueue<CachedStatement> statementQueue = statementQueues.getIfPresent(new Tuple<>(sql, schema));
+        if (statementQueue == null || !statementQueue.offer(cachedStatement)) {
+            cachedStatement.getConnection().close();
+        }
+    }
+
+    private void releaseStatementQuietly(final SharedQuery query) {
+        final CachedStatement cachedStatement = query.getStatement();
+        cachedStatement.getTable().close();
+
+        try {
+            releaseStatement(query.getSql(), query.getSchema(), cachedStatement);
+        } catch (final SQLException e) {
+            getLogger().warn("Failed to close SQL resource", e);
+        }
+    }
+
     private SchemaPlus createRootSchema(final CalciteConnection calciteConnection) {
         final SchemaPlus rootSchema = calciteConnection.getRootSchema();
         rootSchema.add("RPATH", ScalarFunctionImpl.create(ObjectRecordPath.class, "eval"));
@@ -570,6 +845,54 @@ public class QueryRecord extends AbstractProcessor {
         int getRecordsRead();
     }
 
+    private static class SharedQuery {
+        private final Relationship relationship;
+        private final String sql;
+        private final RecordSchema schema;
+        private final CachedStatement statement;
+
+        public SharedQuery(final Relationship relationship, final String sql, final RecordSchema schema, final CachedStatement statement) {
+            this.relationship = relationship;
+            this.sql = sql;
+            this.schema = schema;
+            this.statement = statement;
+        }
+
+        public Relationship getRelationship() {
+            return relationship;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public RecordSchema getSchema() {
+            return schema;
+        }
+
+        public CachedStatement getStatement() {
+            return statement;
+        }
+    }
+
+    private static class QueryOutput {
+        private final WriteResult writeResult;
+        private final String mimeType;
+
+        public QueryOutput(final WriteResult writeResult, final String mimeType) {
+            this.writeResult = writeResult;
+            this.mimeType = mimeType;
+        }
+
+        public WriteResult getWriteResult() {
+            return writeResult;
+        }
+
+        public String getMimeType() {
+            return mimeType;
+        }
+    }
+
     private static class CachedStatement {
         private final FlowFileTable table;
         private final PreparedStatement statement;
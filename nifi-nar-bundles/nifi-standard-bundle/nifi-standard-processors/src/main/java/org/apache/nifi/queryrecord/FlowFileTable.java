@@ -63,6 +63,8 @@ public class FlowFileTable extends AbstractTable implements QueryableTable, Tran
     private volatile ProcessSession session;
     private volatile FlowFile flowFile;
     private volatile int maxRecordsRead;
+    private volatile SharedRecordScan sharedScan;
+    private volatile int scanCount;
 
     private final Set<FlowFileEnumerator> enumerators = new HashSet<>();
 
@@ -78,11 +80,38 @@ public class FlowFileTable extends AbstractTable implements QueryableTable, Tran
     }
 
     public void setFlowFile(final ProcessSession session, final FlowFile flowFile) {
+        setFlowFile(session, flowFile, null);
+    }
+
+    /**
+     * Sets the FlowFile to query.
+     *
+     * @param session the session that the FlowFile belongs to
+     * @param flowFile the FlowFile to query
+     * @param sharedScan the scan that hands the FlowFile's records to the table, if they are read by another thread,
+     *            or <code>null</code> if the records should be read from the FlowFile's content each time the table is scanned
+     */
+    public void setFlowFile(final ProcessSession session, final FlowFile flowFile, final SharedRecordScan sharedScan) {
         this.session = session;
         this.flowFile = flowFile;
+        this.sharedScan = sharedScan;
         this.maxRecordsRead = 0;
     }
 
+    /**
+     * @return the number of times that the statement this table was prepared for scans the table
+     */
+    public int getScanCount() {
+        return scanCount;
+    }
+
+    /**
+     * Called when a scan of the table is implemented, which happens once for each scan in the plan of the statement that this table was prepared for.
+     */
+    void onScanImplemented() {
+        scanCount++;
+    }
+
 
     @Override
     public String toString() {
@@ -95,6 +124,12 @@ public class FlowFileTable extends AbstractTable implements QueryableTable, Tran
                 enumerator.close();
             }
         }
+
+        final SharedRecordScan scan = sharedScan;
+        sharedScan = null;
+        if (scan != null) {
+            scan.close();
+        }
     }
 
     /**
@@ -108,6 +143,23 @@ public class FlowFileTable extends AbstractTable implements QueryableTable, Tran
             @Override
             @SuppressWarnings({"unchecked", "rawtypes"})
             public Enumerator<Object> enumerator() {
+                final SharedRecordScan scan = sharedScan;
+                if (scan != null) {
+                    if (!scan.startEnumeration()) {
+                        throw new IllegalStateException("Records of " + flowFile + " are shared with other queries and can be scanned only once");
+                    }
+
+                    return new SharedScanEnumerator(scan, fields) {
+                        @Override
+                        protected void onFinish() {
+                            final int recordCount = getRecordsRead();
+                            if (recordCount > maxRecordsRead) {
+                                maxRecordsRead = recordCount;
+                            }
+                        }
+                    };
+                }
+
                 final FlowFileEnumerator flowFileEnumerator = new FlowFileEnumerator(session, flowFile, logger, recordReaderFactory, fields) {
                     @Override
                     protected void onFinish() {
@@ -82,6 +82,7 @@ public class FlowFileTableScan extends TableScan implements EnumerableRel {
 
     @Override
     public Result implement(EnumerableRelImplementor implementor, Prefer pref) {
+        flowFileTable.onScanImplemented();
         PhysType physType = PhysTypeImpl.of(implementor.getTypeFactory(), getRowType(), pref.preferArray());
 
         return implementor.result(physType, Blocks.toBlock(
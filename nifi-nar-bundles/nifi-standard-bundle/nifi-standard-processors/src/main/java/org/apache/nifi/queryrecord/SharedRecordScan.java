@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.queryrecord;
+
+import org.apache.nifi.processor.exception.ProcessException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hands the values of a FlowFile's records from the thread that reads them to a single query that is running in another thread.
+ * This allows the records to be read once and given to several queries, each of which has its own SharedRecordScan. The queue
+ * between the two threads is bounded, so a query that falls behind holds up the reading thread rather than causing the records
+ * to be held in memory.
+ */
+public class SharedRecordScan {
+    private static final Object[] END_OF_RECORDS = new Object[0];
+    private static final long POLL_MILLIS = 100L;
+
+    private final BlockingQueue<Object[]> queue;
+    private final AtomicBoolean enumerated = new AtomicBoolean(false);
+
+    private volatile boolean closed = false;
+    private volatile Exception failure;
+
+    public SharedRecordScan(final int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Hands the values of the next record to the query, waiting for the query to make room for them if necessary.
+     *
+     * @param values the values of the record
+     * @return <code>true</code> if the values were handed to the query, <code>false</code> if the scan has been closed
+     *         and the query does not need any more records
+     * @throws InterruptedException if interrupted while waiting for the query to make room for the values
+     */
+    public boolean add(final Object[] values) throws InterruptedException {
+        while (!closed) {
+            if (queue.offer(values, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Indicates that there are no more records to hand to the query.
+     *
+     * @param failure the Exception that stopped the records from being read, or <code>null</code> if all of the records were read
+     * @throws InterruptedException if interrupted while waiting for the query to make room for the end of the records
+     */
+    public void finish(final Exception failure) throws InterruptedException {
+        this.failure = failure;
+        add(END_OF_RECORDS);
+    }
+
+    /**
+     * Closes the scan. Once closed, no more records are handed to the query, and a query that is still waiting for records fails.
+     */
+    public void close() {
+        closed = true;
+        queue.clear();
+    }
+
+    /**
+     * @return the values of the next record, or <code>null</code> if all of the records have been read
+     * @throws InterruptedException if interrupted while waiting for the next record
+     */
+    Object[] next() throws InterruptedException {
+        while (true) {
+            final Object[] values = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (values == END_OF_RECORDS) {
+                if (failure != null) {
+                    throw new ProcessException("Failed to read next record due to " + failure.getMessage(), failure);
+                }
+
+                return null;
+            }
+
+            if (values != null) {
+                return values;
+            }
+
+            if (closed) {
+                throw new ProcessException("Scan of records was closed before all of the records were read");
+            }
+        }
+    }
+
+    /**
+     * @return <code>true</code> the first time that this method is called, <code>false</code> afterward, as the records can be enumerated only once
+     */
+    boolean startEnumeration() {
+        return enumerated.compareAndSet(false, true);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.nifi.queryrecord;
+
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.nifi.processor.exception.ProcessException;
+
+/**
+ * Enumerates the records that are handed to a query through a {@link SharedRecordScan}, rather than reading them from the
+ * FlowFile's content, as {@link FlowFileEnumerator} does. The records can be enumerated only once.
+ */
+public class SharedScanEnumerator implements Enumerator<Object> {
+    private final SharedRecordScan scan;
+    private final int[] fields;
+
+    private Object currentRow;
+    private int recordsRead = 0;
+    private boolean finished = false;
+
+    public SharedScanEnumerator(final SharedRecordScan scan, final int[] fields) {
+        this.scan = scan;
+        this.fields = fields;
+    }
+
+    @Override
+    public Object current() {
+        return currentRow;
+    }
+
+    @Override
+    public boolean moveNext() {
+        currentRow = null;
+        if (finished) {
+            return false;
+        }
+
+        final Object[] values;
+        try {
+            values = scan.next();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessException("Interrupted while waiting for next record", e);
+        }
+
+        if (values == null) {
+            finished = true;
+            onFinish();
+            return false;
+        }
+
+        currentRow = FlowFileEnumerator.filterColumns(values, fields);
+        recordsRead++;
+        return true;
+    }
+
+    protected int getRecordsRead() {
+        return recordsRead;
+    }
+
+    protected void onFinish() {
+    }
+
+    @Override
+    public void reset() {
+        throw new UnsupportedOperationException("Records of a shared scan can be enumerated only once");
+    }
+
+    @Override
+    public void close() {
+        scan.close();
+    }
+}
@@ -107,6 +107,69 @@ public class TestListenTCP {
         mockFlowFile2.assertContentEquals("This is message 4\nThis is message 5");
     }
 
+    @Test
+    public void testListenTCPBulkEventHandling() throws IOException, InterruptedException {
+        runner.setProperty(ListenTCP.MAX_BATCH_SIZE, "3");
+        runner.setProperty(ListenTCP.BULK_EVENT_HANDLING, "true");
+
+        final List<String> messages = new ArrayList<>();
+        messages.add("This is message 1\n");
+        messages.add("This is message 2\n");
+        messages.add("This is message 3\n");
+        messages.add("This is message 4\n");
+        messages.add("This is message 5\n");
+
+        runTCP(messages, 2, null);
+
+        List<MockFlowFile> mockFlowFiles = runner.getFlowFilesForRelationship(ListenTCP.REL_SUCCESS);
+
+        MockFlowFile mockFlowFile1 = mockFlowFiles.get(0);
+        mockFlowFile1.assertContentEquals("This is message 1\nThis is message 2\nThis is message 3");
+
+        MockFlowFile mockFlowFile2 = mockFlowFiles.get(1);
+        mockFlowFile2.assertContentEquals("This is message 4\nThis is message 5");
+    }
+
+    @Test
+    public void testListenTCPMultipleSelectorThreads() throws IOException, InterruptedException {
+        runner.setProperty(ListenTCP.MAX_CONNECTIONS, "3");
+        runner.setProperty(ListenTCP.SELECTOR_THREADS, "3");
+        runner.setProperty(ListenTCP.MAX_BATCH_SIZE, "10");
+
+        final List<Socket> sockets = new ArrayList<>();
+        try {
+            proc.onScheduled(runner.getProcessContext());
+            final int realPort = proc.getDispatcherPort();
+
+            // each connection is assigned to a different selector thread
+            for (int i = 0; i < 3; i++) {
+                sockets.add(new Socket("localhost", realPort));
+            }
+            for (int i = 0; i < sockets.size(); i++) {
+                sockets.get(i).getOutputStream().write(("This is message " + (i + 1) + "\n").getBytes(StandardCharsets.UTF_8));
+                sockets.get(i).getOutputStream().flush();
+            }
+
+            final long startTime = System.currentTimeMillis();
+            while (proc.getQueueSize() < sockets.size() && (System.currentTimeMillis() - startTime < 10000)) {
+                Thread.sleep(100);
+            }
+            Assert.assertEquals(sockets.size(), proc.getQueueSize());
+
+            // every message arrives from the same sender, so they are batched together
+            proc.onTrigger(runner.getProcessContext(), runner.getProcessSessionFactory());
+            runner.assertTransferCount(ListenTCP.REL_SUCCESS, 1);
+
+            final String content = new String(runner.getFlowFilesForRelationship(ListenTCP.REL_SUCCESS).get(0).toByteArray(), StandardCharsets.UTF_8);
+            for (int i = 0; i < sockets.size(); i++) {
+                Assert.assertTrue(content.contains("This is message " + (i + 1)));
+            }
+        } finally {
+            proc.onUnscheduled();
+            sockets.forEach(IOUtils::closeQuietly);
+        }
+    }
+
     @Test
     public void testTLSClientAuthRequiredAndClientCertProvided() throws InitializationException, IOException, InterruptedException,
             UnrecoverableKeyException, CertificateException, NoSuchAlgorithmException, KeyStoreException, KeyManagementException {
@@ -563,6 +563,72 @@ public class TestMergeContent {
         bundle.assertAttributeEquals(CoreAttributes.MIME_TYPE.key(), "application/plain-text");
     }
 
+    @Test
+    public void testIncrementalBinaryConcatWithTextDelimiters() throws IOException, InterruptedException {
+        final TestRunner runner = TestRunners.newTestRunner(new MergeContent());
+        runner.setProperty(MergeContent.MAX_BIN_AGE, "1 sec");
+        runner.setProperty(MergeContent.MERGE_FORMAT, MergeContent.MERGE_FORMAT_CONCAT);
+        runner.setProperty(MergeContent.INCREMENTAL_MERGE, "true");
+        runner.setProperty(MergeContent.DELIMITER_STRATEGY, MergeContent.DELIMITER_STRATEGY_TEXT);
+        runner.setProperty(MergeContent.HEADER, "@");
+        runner.setProperty(MergeContent.DEMARCATOR, "#");
+        runner.setProperty(MergeContent.FOOTER, "$");
+
+        createFlowFiles(runner);
+        runner.run();
+
+        runner.assertQueueEmpty();
+        runner.assertTransferCount(MergeContent.REL_MERGED, 1);
+        runner.assertTransferCount(MergeContent.REL_FAILURE, 0);
+        runner.assertTransferCount(MergeContent.REL_ORIGINAL, 3);
+
+        final MockFlowFile bundle = runner.getFlowFilesForRelationship(MergeContent.REL_MERGED).get(0);
+        bundle.assertContentEquals("@Hello#, #World!$".getBytes("UTF-8"));
+        bundle.assertAttributeEquals(CoreAttributes.MIME_TYPE.key(), "application/plain-text");
+        bundle.assertAttributeEquals(MergeContent.MERGE_COUNT_ATTRIBUTE, "3");
+    }
+
+    @Test
+    public void testIncrementalBinaryConcatWithCorrelation() throws IOException {
+        final TestRunner runner = TestRunners.newTestRunner(new MergeContent());
+        runner.setProperty(MergeContent.MERGE_FORMAT, MergeContent.MERGE_FORMAT_CONCAT);
+        runner.setProperty(MergeContent.INCREMENTAL_MERGE, "true");
+        runner.setProperty(MergeContent.CORRELATION_ATTRIBUTE_NAME, "group");
+        runner.setProperty(MergeContent.DELIMITER_STRATEGY, MergeContent.DELIMITER_STRATEGY_TEXT);
+        runner.setProperty(MergeContent.DEMARCATOR, "-");
+        runner.setProperty(MergeContent.MIN_ENTRIES, "2");
+        runner.setProperty(MergeContent.MAX_ENTRIES, "2");
+
+        final Map<String, String> first = new HashMap<>();
+        first.put("group", "1");
+        first.put("common", "yes");
+        final Map<String, String> second = new HashMap<>();
+        second.put("group", "2");
+
+        runner.enqueue("a".getBytes("UTF-8"), first);
+        runner.enqueue("x".getBytes("UTF-8"), second);
+        runner.enqueue("b".getBytes("UTF-8"), first);
+        runner.enqueue("y".getBytes("UTF-8"), second);
+        runner.run();
+
+        runner.assertQueueEmpty();
+        runner.assertTransferCount(MergeContent.REL_MERGED, 2);
+        runner.assertTransferCount(MergeContent.REL_FAILURE, 0);
+        runner.assertTransferCount(MergeContent.REL_ORIGINAL, 4);
+
+        for (final MockFlowFile bundle : runner.getFlowFilesForRelationship(MergeContent.REL_MERGED)) {
+            if ("1".equals(bundle.getAttribute("group"))) {
+                bundle.assertContentEquals("a-b".getBytes("UTF-8"));
+                bundle.assertAttributeEquals("common", "yes");
+            } else {
+                bundle.assertAttributeEquals("group", "2");
+                bundle.assertContentEquals("x-y".getBytes("UTF-8"));
+                bundle.assertAttributeNotExists("common");
+            }
+            bundle.assertAttributeEquals(CoreAttributes.MIME_TYPE.key(), "application/octet-stream");
+        }
+    }
+
     @Test
     public void testSimpleBinaryConcatWithFileDelimiters() throws IOException, InterruptedException {
         final TestRunner runner = TestRunners.newTestRunner(new MergeContent());
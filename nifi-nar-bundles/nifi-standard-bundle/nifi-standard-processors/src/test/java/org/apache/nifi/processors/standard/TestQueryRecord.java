@@ -20,6 +20,7 @@ import org.apache.nifi.controller.AbstractControllerService;
 import org.apache.nifi.logging.ComponentLog;
 import org.apache.nifi.reporting.InitializationException;
 import org.apache.nifi.schema.access.SchemaNotFoundException;
+import org.apache.nifi.serialization.RecordReader;
 import org.apache.nifi.serialization.RecordSetWriter;
 import org.apache.nifi.serialization.RecordSetWriterFactory;
 import org.apache.nifi.serialization.SimpleRecordSchema;
@@ -37,9 +38,11 @@ import org.apache.nifi.serialization.record.RecordSet;
 import org.apache.nifi.util.MockFlowFile;
 import org.apache.nifi.util.TestRunner;
 import org.apache.nifi.util.TestRunners;
+import org.junit.Ignore;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -49,6 +52,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertArrayEquals;
@@ -543,6 +547,37 @@ public class TestQueryRecord {
         runner.assertTransferCount(QueryRecord.REL_FAILURE, 1);
     }
 
+    @Test
+    public void testStreamClosedWhenBadDataWithSharedScan() throws InitializationException {
+        final MockRecordParser parser = new MockRecordParser();
+        parser.failAfter(1);
+        parser.addSchemaField("name", RecordFieldType.STRING);
+        parser.addSchemaField("age", RecordFieldType.INT);
+        parser.addRecord("Tom", 49);
+        parser.addRecord("Jerry", 12);
+
+        final MockRecordWriter writer = new MockRecordWriter("\"name\",\"points\"");
+
+        TestRunner runner = getRunner();
+        runner.addControllerService("parser", parser);
+        runner.enableControllerService(parser);
+        runner.addControllerService("writer", writer);
+        runner.enableControllerService(writer);
+
+        runner.setProperty(REL_NAME, "select name, age from FLOWFILE WHERE name <> ''");
+        runner.setProperty("count", "select count(*) from FLOWFILE");
+        runner.setProperty(QueryRecord.RECORD_READER_FACTORY, "parser");
+        runner.setProperty(QueryRecord.RECORD_WRITER_FACTORY, "writer");
+
+        runner.enqueue(new byte[0]);
+
+        runner.run();
+
+        runner.assertTransferCount(QueryRecord.REL_FAILURE, 1);
+        runner.assertTransferCount(REL_NAME, 0);
+        runner.assertTransferCount("count", 0);
+    }
+
     @Test
     public void testSimple() throws InitializationException, IOException, SQLException {
         final MockRecordParser parser = new MockRecordParser();
@@ -774,6 +809,154 @@ public class TestQueryRecord {
         countFlowFile.assertContentEquals("2\n");
     }
 
+    @Test
+    public void testMultipleQueriesWithSharedScan() throws InitializationException {
+        // The content of each FlowFile is parsed only once, while determining the schema
+        verifyMultipleQueries(true, 2);
+    }
+
+    @Test
+    public void testMultipleQueriesWithoutSharedScan() throws InitializationException {
+        // The content of each FlowFile is parsed while determining the schema and once more for each of the three queries
+        verifyMultipleQueries(false, 8);
+    }
+
+    @Test
+    public void testSharedScanWithSelfJoin() throws InitializationException {
+        final AtomicInteger readerCount = new AtomicInteger(0);
+        final MockRecordParser parser = new MockRecordParser() {
+            @Override
+            public RecordReader createRecordReader(final Map<String, String> variables, final InputStream in, final long inputLength, final ComponentLog logger)
+                    throws IOException, SchemaNotFoundException {
+                readerCount.incrementAndGet();
+                return super.createRecordReader(variables, in, inputLength, logger);
+            }
+        };
+        parser.addSchemaField("name", RecordFieldType.STRING);
+        parser.addSchemaField("points", RecordFieldType.INT);
+        parser.addRecord("Tom", 1);
+        parser.addRecord("Jerry", 2);
+        parser.addRecord("Tom", 99);
+
+        final MockRecordWriter writer = new MockRecordWriter(null, false);
+
+        TestRunner runner = getRunner();
+        runner.addControllerService("parser", parser);
+        runner.enableControllerService(parser);
+        runner.addControllerService("writer", writer);
+        runner.enableControllerService(writer);
+
+        runner.setProperty("total", "select sum(points) as total from FLOWFILE");
+        runner.setProperty("pairs", "select a.name, b.points from FLOWFILE a join FLOWFILE b on a.name = b.name where a.points < b.points");
+        runner.setProperty(QueryRecord.RECORD_READER_FACTORY, "parser");
+        runner.setProperty(QueryRecord.RECORD_WRITER_FACTORY, "writer");
+
+        runner.enqueue("");
+        runner.run();
+
+        runner.assertTransferCount(QueryRecord.REL_ORIGINAL, 1);
+        runner.getFlowFilesForRelationship("total").get(0).assertContentEquals("102\n");
+        runner.getFlowFilesForRelationship("pairs").get(0).assertContentEquals("Tom,99\n");
+
+        // The self-join scans the FLOWFILE table twice, so it parses the content on its own rather than sharing the scan
+        assertEquals(3, readerCount.get());
+    }
+
+    private void verifyMultipleQueries(final boolean sharedScan, final int expectedReaderCount) throws InitializationException {
+        final AtomicInteger readerCount = new AtomicInteger(0);
+        final MockRecordParser parser = new MockRecordParser() {
+            @Override
+            public RecordReader createRecordReader(final Map<String, String> variables, final InputStream in, final long inputLength, final ComponentLog logger)
+                    throws IOException, SchemaNotFoundException {
+                readerCount.incrementAndGet();
+                return super.createRecordReader(variables, in, inputLength, logger);
+            }
+        };
+        parser.addSchemaField("name", RecordFieldType.STRING);
+        parser.addSchemaField("points", RecordFieldType.INT);
+        parser.addRecord("Tom", 1);
+        parser.addRecord("Jerry", 2);
+        parser.addRecord("Tom", 99);
+
+        final MockRecordWriter writer = new MockRecordWriter(null, false);
+
+        TestRunner runner = getRunner();
+        runner.addControllerService("parser", parser);
+        runner.enableControllerService(parser);
+        runner.addControllerService("writer", writer);
+        runner.enableControllerService(writer);
+
+        runner.setProperty(REL_NAME, "select name from FLOWFILE where points > 1");
+        runner.setProperty("total", "select sum(points) as total from FLOWFILE");
+        runner.setProperty("tom", "select points, name from FLOWFILE where name = 'Tom'");
+        runner.setProperty(QueryRecord.SHARED_RECORD_SCAN, String.valueOf(sharedScan));
+        runner.setProperty(QueryRecord.RECORD_READER_FACTORY, "parser");
+        runner.setProperty(QueryRecord.RECORD_WRITER_FACTORY, "writer");
+
+        runner.enqueue("");
+        runner.enqueue("");
+        runner.run(2);
+
+        runner.assertTransferCount(QueryRecord.REL_ORIGINAL, 2);
+        runner.assertTransferCount(REL_NAME, 2);
+        runner.assertTransferCount("total", 2);
+        runner.assertTransferCount("tom", 2);
+
+        for (final MockFlowFile flowFile : runner.getFlowFilesForRelationship(REL_NAME)) {
+            flowFile.assertContentEquals("Jerry\nTom\n");
+        }
+        for (final MockFlowFile flowFile : runner.getFlowFilesForRelationship("total")) {
+            flowFile.assertContentEquals("102\n");
+        }
+        for (final MockFlowFile flowFile : runner.getFlowFilesForRelationship("tom")) {
+            flowFile.assertContentEquals("1,Tom\n99,Tom\n");
+        }
+
+        assertEquals(6L, runner.getCounterValue("Records Read").longValue());
+        assertEquals(expectedReaderCount, readerCount.get());
+    }
+
+    @Test
+    @Ignore("Intended only for manual testing. Compares the time taken to run several queries against each FlowFile with and without a shared scan of the records")
+    public void testPerformanceOfSharedScan() throws InitializationException {
+        for (final boolean sharedScan : new boolean[] {false, true, false, true}) {
+            final MockRecordParser parser = new MockRecordParser();
+            parser.addSchemaField("name", RecordFieldType.STRING);
+            parser.addSchemaField("points", RecordFieldType.INT);
+            for (int i = 0; i < 10_000; i++) {
+                parser.addRecord("Name " + (i % 100), i);
+            }
+
+            final MockRecordWriter writer = new MockRecordWriter(null, false);
+
+            final TestRunner runner = getRunner();
+            runner.addControllerService("parser", parser);
+            runner.enableControllerService(parser);
+            runner.addControllerService("writer", writer);
+            runner.enableControllerService(writer);
+
+            runner.setProperty("even", "select name, points from FLOWFILE where MOD(points, 2) = 0");
+            runner.setProperty("large", "select * from FLOWFILE where points > 9000");
+            runner.setProperty("totals", "select name, sum(points) as total from FLOWFILE group by name");
+            runner.setProperty("count", "select count(*) from FLOWFILE");
+            runner.setProperty(QueryRecord.SHARED_RECORD_SCAN, String.valueOf(sharedScan));
+            runner.setProperty(QueryRecord.RECORD_READER_FACTORY, "parser");
+            runner.setProperty(QueryRecord.RECORD_WRITER_FACTORY, "writer");
+
+            final int flowFileCount = 100;
+            for (int i = 0; i < flowFileCount; i++) {
+                runner.enqueue("");
+            }
+
+            final long start = System.nanoTime();
+            runner.run(flowFileCount);
+            final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            runner.assertTransferCount(QueryRecord.REL_ORIGINAL, flowFileCount);
+            System.out.println("Shared Record Scan of " + sharedScan + ": queried " + flowFileCount + " FlowFiles in " + millis + " millis");
+        }
+    }
+
     @Test
     public void testColumnNames() throws InitializationException {
         final MockRecordParser parser = new MockRecordParser();
@@ -23,10 +23,13 @@ import org.apache.nifi.serialization.RecordReader;
 import org.apache.nifi.serialization.record.MapRecord;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.batch.ColumnarRecordBatch;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 
 import com.google.common.base.Throwables;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 public abstract class AvroRecordReader implements RecordReader {
@@ -52,4 +55,23 @@ public abstract class AvroRecordReader implements RecordReader {
             throw new MalformedRecordException("Error while getting next record. Root cause: " + Throwables.getRootCause(e), e);
         }
     }
+
+    @Override
+    public RecordBatch nextBatch(final int maxRecords) throws IOException, MalformedRecordException {
+        try {
+            final ColumnarRecordBatch batch = new ColumnarRecordBatch(getSchema(), Math.min(maxRecords, ColumnarRecordBatch.DEFAULT_INITIAL_CAPACITY));
+            GenericRecord record;
+            while (batch.getRecordCount() < maxRecords && (record = nextAvroRecord()) != null) {
+                AvroTypeUtil.appendAvroRecordToBatch(record, batch, StandardCharsets.UTF_8);
+            }
+
+            return batch.getRecordCount() == 0 ? null : batch;
+        } catch (IOException e) {
+            throw e;
+        } catch (MalformedRecordException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new MalformedRecordException("Error while getting next batch of records. Root cause: " + Throwables.getRootCause(e), e);
+        }
+    }
 }
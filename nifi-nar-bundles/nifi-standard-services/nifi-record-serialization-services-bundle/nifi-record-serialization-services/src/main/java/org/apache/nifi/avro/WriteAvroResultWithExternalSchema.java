@@ -28,10 +28,12 @@ import org.apache.nifi.schema.access.SchemaAccessWriter;
 import org.apache.nifi.serialization.AbstractRecordSetWriter;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 
 import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
 
@@ -89,6 +91,20 @@ public class WriteAvroResultWithExternalSchema extends AbstractRecordSetWriter {
         return schemaAccessWriter.getAttributes(recordSchema);
     }
 
+    @Override
+    protected Map<String, String> writeRecordBatch(final RecordBatch batch) throws IOException {
+        if (!isActiveRecordSet()) {
+            flush();
+            schemaAccessWriter.writeHeader(recordSchema, getOutputStream());
+        }
+
+        for (final GenericRecord rec : AvroTypeUtil.createAvroRecords(batch, avroSchema, StandardCharsets.UTF_8)) {
+            datumWriter.write(rec, encoder);
+        }
+
+        return schemaAccessWriter.getAttributes(recordSchema);
+    }
+
     @Override
     public void flush() throws IOException {
         encoder.flush();
@@ -19,6 +19,7 @@ package org.apache.nifi.avro;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Map;
 
@@ -29,6 +30,7 @@ import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.nifi.serialization.AbstractRecordSetWriter;
 import org.apache.nifi.serialization.record.Record;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 
 public class WriteAvroResultWithSchema extends AbstractRecordSetWriter {
 
@@ -62,6 +64,15 @@ public class WriteAvroResultWithSchema extends AbstractRecordSetWriter {
         return Collections.emptyMap();
     }
 
+    @Override
+    protected Map<String, String> writeRecordBatch(final RecordBatch batch) throws IOException {
+        for (final GenericRecord rec : AvroTypeUtil.createAvroRecords(batch, schema, StandardCharsets.UTF_8)) {
+            dataFileWriter.append(rec);
+        }
+
+        return Collections.emptyMap();
+    }
+
     @Override
     public String getMimeType() {
         return "application/avro-binary";
@@ -22,6 +22,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -41,6 +42,9 @@ import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.batch.ColumnVector;
+import org.apache.nifi.serialization.record.batch.ColumnarRecordBatch;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 
 import com.google.common.base.Throwables;
 
@@ -122,6 +126,41 @@ public class CSVRecordReader extends AbstractCSVRecordReader {
         return null;
     }
 
+    @Override
+    public RecordBatch nextBatch(final int maxRecords) throws IOException, MalformedRecordException {
+        final RecordSchema schema = getSchema();
+        final ColumnarRecordBatch batch = new ColumnarRecordBatch(schema, Math.min(maxRecords, ColumnarRecordBatch.DEFAULT_INITIAL_CAPACITY));
+
+        try {
+            // Determine once, rather than for every CSV record, which column of the batch each CSV field belongs to.
+            final List<RecordField> recordFields = getRecordFields();
+            final ColumnVector[] columns = new ColumnVector[recordFields.size()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = batch.getColumn(recordFields.get(i).getFieldName()).orElse(null);
+            }
+
+            final Iterator<CSVRecord> csvRecords = csvParser.iterator();
+            while (batch.getRecordCount() < maxRecords && csvRecords.hasNext()) {
+                final CSVRecord csvRecord = csvRecords.next();
+                final int fieldCount = Math.min(csvRecord.size(), columns.length);
+                for (int i = 0; i < fieldCount; i++) {
+                    final ColumnVector column = columns[i];
+                    if (column == null) {
+                        continue;
+                    }
+
+                    final RecordField recordField = column.getField();
+                    column.append(convert(csvRecord.get(i), recordField.getDataType(), recordField.getFieldName()));
+                }
+
+                batch.completeRecord();
+            }
+        } catch (Exception e) {
+            throw new MalformedRecordException("Error while getting next record. Root cause: " +  Throwables.getRootCause(e), e);
+        }
+
+        return batch.getRecordCount() == 0 ? null : batch;
+    }
 
     private List<RecordField> getRecordFields() {
         if (this.recordFields != null) {
@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -36,6 +37,9 @@ import org.apache.nifi.serialization.record.RawRecordWriter;
 import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.batch.ColumnVector;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
+import org.apache.nifi.serialization.record.util.DataTypeUtils;
 
 public class WriteCSVResult extends AbstractRecordSetWriter implements RecordSetWriter, RawRecordWriter {
     private final RecordSchema recordSchema;
@@ -149,6 +153,40 @@ public class WriteCSVResult extends AbstractRecordSetWriter implements RecordSet
         return schemaWriter.getAttributes(recordSchema);
     }
 
+    @Override
+    protected Map<String, String> writeRecordBatch(final RecordBatch batch) throws IOException {
+        // If we are not writing an active record set, then we need to ensure that we write the
+        // schema information.
+        if (!isActiveRecordSet()) {
+            schemaWriter.writeHeader(recordSchema, getOutputStream());
+        }
+
+        includeHeaderIfNecessary(null, true);
+
+        final List<RecordField> fields = recordSchema.getFields();
+        final ColumnVector[] columns = new ColumnVector[fields.size()];
+        final String[] formats = new String[fields.size()];
+        final String[] defaultValues = new String[fields.size()];
+        for (int i = 0; i < columns.length; i++) {
+            final RecordField recordField = fields.get(i);
+            columns[i] = batch.getColumn(recordField.getFieldName()).orElse(null);
+            formats[i] = getFormat(recordField);
+            defaultValues[i] = DataTypeUtils.toString(recordField.getDefaultValue(), formats[i]);
+        }
+
+        final int recordCount = batch.getRecordCount();
+        for (int row = 0; row < recordCount; row++) {
+            for (int i = 0; i < columns.length; i++) {
+                final ColumnVector column = columns[i];
+                fieldValues[i] = column == null ? defaultValues[i] : column.getAsString(row, formats[i]);
+            }
+
+            printer.printRecord(fieldValues);
+        }
+
+        return schemaWriter.getAttributes(recordSchema);
+    }
+
     @Override
     public WriteResult writeRawRecord(final Record record) throws IOException {
         // If we are not writing an active record set, then we need to ensure that we write the
@@ -27,6 +27,12 @@ import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
 import org.apache.nifi.serialization.record.SerializedForm;
+import org.apache.nifi.serialization.record.batch.BooleanColumnVector;
+import org.apache.nifi.serialization.record.batch.ColumnVector;
+import org.apache.nifi.serialization.record.batch.ColumnarRecordBatch;
+import org.apache.nifi.serialization.record.batch.DoubleColumnVector;
+import org.apache.nifi.serialization.record.batch.LongColumnVector;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 import org.apache.nifi.serialization.record.type.ArrayDataType;
 import org.apache.nifi.serialization.record.type.MapDataType;
 import org.apache.nifi.serialization.record.type.RecordDataType;
@@ -55,6 +61,47 @@ public class JsonTreeRowRecordReader extends AbstractJsonRowRecordReader {
 
 
 
+    @Override
+    public RecordBatch nextBatch(final int maxRecords) throws IOException, MalformedRecordException {
+        final ColumnarRecordBatch batch = new ColumnarRecordBatch(schema, Math.min(maxRecords, ColumnarRecordBatch.DEFAULT_INITIAL_CAPACITY));
+        final List<RecordField> fields = schema.getFields();
+
+        JsonNode jsonNode;
+        while (batch.getRecordCount() < maxRecords && (jsonNode = getNextJsonNode()) != null) {
+            try {
+                for (int i = 0; i < fields.size(); i++) {
+                    final RecordField field = fields.get(i);
+                    final JsonNode childNode = getChildNode(jsonNode, field);
+                    if (childNode != null) {
+                        appendValue(batch.getColumn(i), childNode, field);
+                    }
+                }
+            } catch (final MalformedRecordException mre) {
+                throw mre;
+            } catch (final Exception e) {
+                throw new MalformedRecordException("Successfully parsed a JSON object from input but failed to convert into a Record object with the given schema", e);
+            }
+
+            batch.completeRecord();
+        }
+
+        return batch.getRecordCount() == 0 ? null : batch;
+    }
+
+    private void appendValue(final ColumnVector column, final JsonNode childNode, final RecordField field) throws IOException, MalformedRecordException {
+        // Values that already have the column's type are appended as primitives, without being boxed and coerced.
+        final RecordFieldType fieldType = field.getDataType().getFieldType();
+        if (column instanceof LongColumnVector && childNode.isIntegralNumber()) {
+            ((LongColumnVector) column).appendLong(childNode.getLongValue());
+        } else if (column instanceof DoubleColumnVector && fieldType == RecordFieldType.DOUBLE && childNode.isNumber()) {
+            ((DoubleColumnVector) column).appendDouble(childNode.getDoubleValue());
+        } else if (column instanceof BooleanColumnVector && childNode.isBoolean()) {
+            ((BooleanColumnVector) column).appendBoolean(childNode.getBooleanValue());
+        } else {
+            column.append(convertField(childNode, field.getFieldName(), field.getDataType(), true));
+        }
+    }
+
     @Override
     protected Record convertJsonNodeToRecord(final JsonNode jsonNode, final RecordSchema schema, final boolean coerceTypes, final boolean dropUnknownFields)
         throws IOException, MalformedRecordException {
@@ -30,6 +30,11 @@ import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
 import org.apache.nifi.serialization.record.SerializedForm;
+import org.apache.nifi.serialization.record.batch.BooleanColumnVector;
+import org.apache.nifi.serialization.record.batch.ColumnVector;
+import org.apache.nifi.serialization.record.batch.DoubleColumnVector;
+import org.apache.nifi.serialization.record.batch.LongColumnVector;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 import org.apache.nifi.serialization.record.type.ArrayDataType;
 import org.apache.nifi.serialization.record.type.ChoiceDataType;
 import org.apache.nifi.serialization.record.type.MapDataType;
@@ -44,6 +49,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.math.BigInteger;
 import java.text.DateFormat;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -149,6 +155,94 @@ public class WriteJsonResult extends AbstractRecordSetWriter implements RecordSe
         return schemaAccess.getAttributes(recordSchema);
     }
 
+    @Override
+    protected Map<String, String> writeRecordBatch(final RecordBatch batch) throws IOException {
+        // If we are not writing an active record set, then we need to ensure that we write the
+        // schema information.
+        if (!isActiveRecordSet()) {
+            generator.flush();
+            schemaAccess.writeHeader(recordSchema, getOutputStream());
+        }
+
+        final List<RecordField> fields = recordSchema.getFields();
+        final ColumnVector[] columns = new ColumnVector[fields.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = batch.getColumn(fields.get(i).getFieldName()).orElse(null);
+        }
+
+        final int recordCount = batch.getRecordCount();
+        for (int row = 0; row < recordCount; row++) {
+            generator.writeStartObject();
+
+            for (int i = 0; i < columns.length; i++) {
+                final RecordField field = fields.get(i);
+                final ColumnVector column = columns[i];
+                final Object defaultValue = field.getDefaultValue();
+
+                // A field that is not in the batch is treated as missing from the record, whereas a column of the batch holds a value, possibly null, for every record.
+                if (column == null && defaultValue == null) {
+                    if (nullSuppression == NullSuppression.NEVER_SUPPRESS) {
+                        generator.writeNullField(field.getFieldName());
+                    }
+                    continue;
+                }
+
+                if (column == null || column.isNull(row)) {
+                    if (defaultValue != null) {
+                        generator.writeFieldName(field.getFieldName());
+                        writeValue(generator, defaultValue, field.getFieldName(), field.getDataType());
+                    } else if (nullSuppression != NullSuppression.ALWAYS_SUPPRESS) {
+                        generator.writeNullField(field.getFieldName());
+                    }
+                    continue;
+                }
+
+                generator.writeFieldName(field.getFieldName());
+                writeColumnValue(column, row, field);
+            }
+
+            generator.writeEndObject();
+        }
+
+        return schemaAccess.getAttributes(recordSchema);
+    }
+
+    private void writeColumnValue(final ColumnVector column, final int row, final RecordField field) throws IOException {
+        switch (field.getDataType().getFieldType()) {
+            case LONG:
+                if (column instanceof LongColumnVector) {
+                    generator.writeNumber(((LongColumnVector) column).getLong(row));
+                    return;
+                }
+                break;
+            case INT:
+            case BYTE:
+            case SHORT:
+                if (column instanceof LongColumnVector) {
+                    generator.writeNumber((int) ((LongColumnVector) column).getLong(row));
+                    return;
+                }
+                break;
+            case DOUBLE:
+                if (column instanceof DoubleColumnVector) {
+                    generator.writeNumber(((DoubleColumnVector) column).getDouble(row));
+                    return;
+                }
+                break;
+            case BOOLEAN:
+                if (column instanceof BooleanColumnVector) {
+                    generator.writeBoolean(((BooleanColumnVector) column).getBoolean(row));
+                    return;
+                }
+                break;
+            default:
+                // Other types are not held in primitive columns, so they are written from the column's object value below.
+                break;
+        }
+
+        writeValue(generator, column.getObject(row), field.getFieldName(), field.getDataType());
+    }
+
     @Override
     public WriteResult writeRawRecord(final Record record) throws IOException {
         // If we are not writing an active record set, then we need to ensure that we write the
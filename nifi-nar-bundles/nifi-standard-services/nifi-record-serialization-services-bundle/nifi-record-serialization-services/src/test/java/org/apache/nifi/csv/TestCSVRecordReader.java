@@ -27,6 +27,9 @@ import org.apache.nifi.serialization.record.Record;
 import org.apache.nifi.serialization.record.RecordField;
 import org.apache.nifi.serialization.record.RecordFieldType;
 import org.apache.nifi.serialization.record.RecordSchema;
+import org.apache.nifi.serialization.record.batch.DoubleColumnVector;
+import org.apache.nifi.serialization.record.batch.LongColumnVector;
+import org.apache.nifi.serialization.record.batch.RecordBatch;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -51,6 +54,7 @@ import java.util.TimeZone;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class TestCSVRecordReader {
     private final DataType doubleDataType = RecordFieldType.DOUBLE.getDataType();
@@ -94,6 +98,36 @@ public class TestCSVRecordReader {
         }
     }
 
+    @Test
+    public void testNextBatch() throws IOException, MalformedRecordException {
+        final String text = "id,name,balance\n1,John Doe,4750.89\n2,Jane Doe,\n3,Jim Doe,-12.5";
+
+        final List<RecordField> fields = new ArrayList<>();
+        fields.add(new RecordField("id", RecordFieldType.INT.getDataType()));
+        fields.add(new RecordField("name", RecordFieldType.STRING.getDataType()));
+        fields.add(new RecordField("balance", doubleDataType));
+        final RecordSchema schema = new SimpleRecordSchema(fields);
+
+        try (final InputStream bais = new ByteArrayInputStream(text.getBytes());
+             final CSVRecordReader reader = createReader(bais, schema, format)) {
+
+            final RecordBatch firstBatch = reader.nextBatch(2);
+            assertEquals(2, firstBatch.getRecordCount());
+            assertTrue(firstBatch.getColumn(0) instanceof LongColumnVector);
+            assertEquals(2L, ((LongColumnVector) firstBatch.getColumn(0)).getLong(1));
+            assertEquals("John Doe", firstBatch.getColumn("name").get().getObject(0));
+            assertEquals(4750.89D, ((DoubleColumnVector) firstBatch.getColumn(2)).getDouble(0), 0.0001D);
+            assertTrue(firstBatch.getColumn(2).isNull(1));
+
+            final RecordBatch secondBatch = reader.nextBatch(2);
+            assertEquals(1, secondBatch.getRecordCount());
+            assertEquals(3, secondBatch.getRecord(0).getValue("id"));
+            assertEquals(-12.5D, secondBatch.getRecord(0).getValue("balance"));
+
+            assertNull(reader.nextBatch(2));
+        }
+    }
+
     @Test
     public void testDate() throws IOException, MalformedRecordException {
         final String text = "date\n11/30/1983";